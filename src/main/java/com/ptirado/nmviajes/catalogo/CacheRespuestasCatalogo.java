@@ -0,0 +1,158 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache de respuestas JSON del catalogo ya serializadas.
+ *
+ * <p>Guarda, por clave de consulta, los bytes UTF-8 que Jackson produjo la
+ * primera vez (y su version gzip si vale la pena comprimir). Las siguientes
+ * peticiones escriben esos bytes directo a la respuesta, sin mapear entidades
+ * ni volver a serializar.</p>
+ *
+ * <p>Las combinaciones de filtros del buscador no son acotadas pero siguen una
+ * distribucion de cola larga: las entradas se guardan en una {@link CacheTinyLfu}
+ * de tamano fijo, que solo admite una consulta nueva si es mas frecuente que la
+ * que desplazaria, y las descarta pasado {@link #TTL} por si algun cambio no
+ * publico evento.</p>
+ *
+ * <p>Se vacia completa con cada {@link CatalogoCambiadoEvent}. Un contador de
+ * generacion evita guardar un resultado calculado antes de la invalidacion.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheRespuestasCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRespuestasCatalogo.class);
+
+    // Por debajo de este tamano gzip no compensa el costo de descomprimir
+    private static final int UMBRAL_GZIP = 1024;
+
+    private static final int MAX_ENTRADAS = 1000;
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private final ObjectMapper objectMapper;
+    private final CoalescedorLecturas coalescedor;
+
+    private final CacheTinyLfu<String, RespuestaSerializada> entradas = new CacheTinyLfu<>(MAX_ENTRADAS, TTL);
+    private final AtomicLong generacion = new AtomicLong();
+
+    /**
+     * Cuerpo JSON serializado y, opcionalmente, comprimido.
+     *
+     * @param json Bytes UTF-8 del JSON
+     * @param gzip Mismo contenido comprimido, o null si es muy pequeno
+     */
+    public record RespuestaSerializada(byte[] json, byte[] gzip) {
+    }
+
+    /**
+     * Responde con los bytes guardados para la clave, serializando el valor del
+     * cargador solo si aun no estan en cache.
+     *
+     * @param clave          Identifica la consulta (endpoint + parametros)
+     * @param acceptEncoding Cabecera Accept-Encoding del cliente (puede ser null)
+     * @param cargador       Obtiene el objeto a serializar
+     */
+    public ResponseEntity<byte[]> responder(String clave, String acceptEncoding, Supplier<?> cargador) {
+        RespuestaSerializada respuesta = obtener(clave, cargador);
+        boolean usarGzip = respuesta.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (usarGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(respuesta.gzip());
+        }
+        return builder.body(respuesta.json());
+    }
+
+    public RespuestaSerializada obtener(String clave, Supplier<?> cargador) {
+        long generacionInicial = generacion.get();
+        RespuestaSerializada existente = entradas.obtener(clave);
+        if (existente != null) return existente;
+
+        // Los fallos simultaneos de la misma clave calculan y serializan una sola vez
+        return coalescedor.ejecutar("respuesta:" + clave, () -> {
+            RespuestaSerializada nueva = serializar(cargador.get());
+
+            // Si el catalogo cambio mientras se calculaba, se responde pero no se guarda
+            if (generacion.get() == generacionInicial) {
+                entradas.guardar(clave, nueva);
+            }
+            return nueva;
+        });
+    }
+
+    public int size() {
+        return entradas.size();
+    }
+
+    /**
+     * Contadores de aciertos, fallos y desalojos para el panel de administracion.
+     */
+    public EstadisticasCache estadisticas() {
+        return entradas.estadisticas();
+    }
+
+    // Se ejecuta despues de que la foto del catalogo se haya reconstruido
+    // y antes de que VersionCatalogo publique la nueva version
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        if (!event.afectaPaquetes()) return;
+        invalidar();
+        log.debug("Cache de respuestas del catalogo invalidada ({} id={})", event.entidad(), event.id());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        invalidar();
+        log.debug("Cache de respuestas del catalogo invalidada (stock de {} paquetes)", event.idsPaquete().size());
+    }
+
+    private void invalidar() {
+        generacion.incrementAndGet();
+        entradas.limpiar();
+    }
+
+    private RespuestaSerializada serializar(Object valor) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(valor);
+            return new RespuestaSerializada(json, json.length >= UMBRAL_GZIP ? comprimir(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta del catalogo", e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+}
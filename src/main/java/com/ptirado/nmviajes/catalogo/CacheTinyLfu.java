@@ -0,0 +1,303 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache acotada con admision W-TinyLFU y expiracion por tiempo.
+ *
+ * <p>Las entradas nuevas entran a una ventana LRU pequena (1% de la capacidad).
+ * Al salir de la ventana compiten por un lugar en la zona principal: solo
+ * entran si su frecuencia estimada supera la de la victima de la zona de
+ * prueba. La zona principal es una SLRU (prueba 20% y protegida 80%), asi una
+ * rafaga de consultas unicas no desplaza a las consultas frecuentes.</p>
+ *
+ * <p>La frecuencia se estima con un count-min sketch de contadores de 4 bits
+ * que se reducen a la mitad cada {@code 10 x capacidad} accesos, para olvidar
+ * la popularidad antigua.</p>
+ *
+ * <p>Thread-safe con un unico lock: todas las operaciones son O(1) y no
+ * ejecutan codigo del llamador mientras lo tienen tomado.</p>
+ *
+ * @param <K> Clave (debe implementar equals/hashCode)
+ * @param <V> Valor
+ */
+final class CacheTinyLfu<K, V> {
+
+    private static final int VENTANA = 0;
+    private static final int PRUEBA = 1;
+    private static final int PROTEGIDO = 2;
+
+    private static final class Nodo<K, V> {
+        final K clave;
+        V valor;
+        long expiraEn;
+        int segmento;
+        Nodo<K, V> anterior;
+        Nodo<K, V> siguiente;
+
+        Nodo(K clave) {
+            this.clave = clave;
+        }
+    }
+
+    // Lista doblemente enlazada circular con centinela: cabeza = menos reciente
+    private static final class Lista<K, V> {
+        final Nodo<K, V> centinela = new Nodo<>(null);
+        int tamano;
+
+        Lista() {
+            centinela.anterior = centinela;
+            centinela.siguiente = centinela;
+        }
+
+        Nodo<K, V> cabeza() {
+            return centinela.siguiente != centinela ? centinela.siguiente : null;
+        }
+
+        void agregarAlFinal(Nodo<K, V> nodo) {
+            nodo.anterior = centinela.anterior;
+            nodo.siguiente = centinela;
+            centinela.anterior.siguiente = nodo;
+            centinela.anterior = nodo;
+            tamano++;
+        }
+
+        void quitar(Nodo<K, V> nodo) {
+            nodo.anterior.siguiente = nodo.siguiente;
+            nodo.siguiente.anterior = nodo.anterior;
+            nodo.anterior = null;
+            nodo.siguiente = null;
+            tamano--;
+        }
+
+        void vaciar() {
+            centinela.anterior = centinela;
+            centinela.siguiente = centinela;
+            tamano = 0;
+        }
+    }
+
+    private final int capacidad;
+    private final int maxVentana;
+    private final int maxPrincipal;
+    private final int maxProtegido;
+    private final long ttlNanos;
+
+    private final Map<K, Nodo<K, V>> nodos = new HashMap<>();
+    // Indexada por segmento: VENTANA, PRUEBA y PROTEGIDO
+    private final List<Lista<K, V>> listas = List.of(new Lista<>(), new Lista<>(), new Lista<>());
+    private final SketchFrecuencia sketch;
+
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long expiradas;
+
+    /**
+     * @param capacidad Cantidad maxima de entradas
+     * @param ttl       Tiempo de vida de cada entrada desde que se guarda
+     */
+    CacheTinyLfu(int capacidad, Duration ttl) {
+        if (capacidad < 2) throw new IllegalArgumentException("La capacidad minima es 2");
+        this.capacidad = capacidad;
+        this.maxVentana = Math.max(1, capacidad / 100);
+        this.maxPrincipal = capacidad - maxVentana;
+        this.maxProtegido = maxPrincipal * 8 / 10;
+        this.ttlNanos = ttl.toNanos();
+        this.sketch = new SketchFrecuencia(capacidad);
+    }
+
+    // ========================================================================
+    // OPERACIONES
+    // ========================================================================
+
+    /**
+     * Valor vigente de la clave, o null si no esta o ya expiro. Cada consulta
+     * (acierto o fallo) suma a la frecuencia estimada de la clave.
+     */
+    synchronized V obtener(K clave) {
+        sketch.incrementar(clave.hashCode());
+        Nodo<K, V> nodo = nodos.get(clave);
+        if (nodo == null) {
+            fallos++;
+            return null;
+        }
+        if (System.nanoTime() - nodo.expiraEn >= 0) {
+            eliminar(nodo);
+            expiradas++;
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        registrarAcceso(nodo);
+        return nodo.valor;
+    }
+
+    /**
+     * Guarda el valor. Puede quedar fuera de inmediato si al salir de la
+     * ventana no gana la admision a la zona principal.
+     */
+    synchronized void guardar(K clave, V valor) {
+        long expiraEn = System.nanoTime() + ttlNanos;
+        Nodo<K, V> existente = nodos.get(clave);
+        if (existente != null) {
+            existente.valor = valor;
+            existente.expiraEn = expiraEn;
+            registrarAcceso(existente);
+            return;
+        }
+
+        Nodo<K, V> nodo = new Nodo<>(clave);
+        nodo.valor = valor;
+        nodo.expiraEn = expiraEn;
+        nodo.segmento = VENTANA;
+        nodos.put(clave, nodo);
+        listas.get(VENTANA).agregarAlFinal(nodo);
+
+        if (listas.get(VENTANA).tamano > maxVentana) {
+            Nodo<K, V> candidato = listas.get(VENTANA).cabeza();
+            listas.get(VENTANA).quitar(candidato);
+            admitir(candidato);
+        }
+    }
+
+    /**
+     * Quita todas las entradas. La frecuencia historica de las claves se conserva.
+     */
+    synchronized void limpiar() {
+        nodos.clear();
+        for (Lista<K, V> lista : listas) {
+            lista.vaciar();
+        }
+    }
+
+    synchronized int size() {
+        return nodos.size();
+    }
+
+    /**
+     * Copia consistente de los contadores acumulados.
+     */
+    synchronized EstadisticasCache estadisticas() {
+        return new EstadisticasCache(aciertos, fallos, desalojos, expiradas, nodos.size(), capacidad);
+    }
+
+    // ========================================================================
+    // POLITICA
+    // ========================================================================
+
+    private void registrarAcceso(Nodo<K, V> nodo) {
+        switch (nodo.segmento) {
+            case VENTANA, PROTEGIDO -> {
+                listas.get(nodo.segmento).quitar(nodo);
+                listas.get(nodo.segmento).agregarAlFinal(nodo);
+            }
+            case PRUEBA -> {
+                // Segundo acceso en la zona principal: pasa a protegido
+                listas.get(PRUEBA).quitar(nodo);
+                nodo.segmento = PROTEGIDO;
+                listas.get(PROTEGIDO).agregarAlFinal(nodo);
+                if (listas.get(PROTEGIDO).tamano > maxProtegido) {
+                    Nodo<K, V> degradado = listas.get(PROTEGIDO).cabeza();
+                    listas.get(PROTEGIDO).quitar(degradado);
+                    degradado.segmento = PRUEBA;
+                    listas.get(PRUEBA).agregarAlFinal(degradado);
+                }
+            }
+            default -> throw new IllegalStateException("Segmento desconocido: " + nodo.segmento);
+        }
+    }
+
+    // El candidato salio de la ventana: entra a prueba si hay lugar o si es mas
+    // frecuente que la victima; si no, se descarta
+    private void admitir(Nodo<K, V> candidato) {
+        if (listas.get(PRUEBA).tamano + listas.get(PROTEGIDO).tamano >= maxPrincipal) {
+            Nodo<K, V> victima = listas.get(PRUEBA).cabeza() != null
+                    ? listas.get(PRUEBA).cabeza()
+                    : listas.get(PROTEGIDO).cabeza();
+            if (sketch.frecuencia(candidato.clave.hashCode()) <= sketch.frecuencia(victima.clave.hashCode())) {
+                nodos.remove(candidato.clave);
+                desalojos++;
+                return;
+            }
+            eliminar(victima);
+            desalojos++;
+        }
+        candidato.segmento = PRUEBA;
+        listas.get(PRUEBA).agregarAlFinal(candidato);
+    }
+
+    private void eliminar(Nodo<K, V> nodo) {
+        listas.get(nodo.segmento).quitar(nodo);
+        nodos.remove(nodo.clave);
+    }
+
+    // ========================================================================
+    // SKETCH DE FRECUENCIA
+    // ========================================================================
+
+    /**
+     * Count-min sketch con 4 filas de contadores de 4 bits (16 por long).
+     */
+    static final class SketchFrecuencia {
+
+        private static final long[] SEMILLAS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        private static final long MASCARA_MITAD = 0x7777777777777777L;
+
+        private final long[] tabla;
+        private final int mascara;
+        private final int tamanoMuestra;
+        private int incrementos;
+
+        SketchFrecuencia(int capacidad) {
+            // Unos 16 contadores por entrada esperada, en potencia de 2
+            int palabras = Integer.highestOneBit(Math.max(1, capacidad - 1)) << 1;
+            this.tabla = new long[palabras];
+            this.mascara = palabras * 16 - 1;
+            this.tamanoMuestra = 10 * capacidad;
+        }
+
+        void incrementar(int hash) {
+            boolean cambio = false;
+            for (int fila = 0; fila < SEMILLAS.length; fila++) {
+                int pos = posicion(hash, fila);
+                int palabra = pos >>> 4;
+                int desplazamiento = (pos & 15) << 2;
+                if (((tabla[palabra] >>> desplazamiento) & 0xfL) < 15) {
+                    tabla[palabra] += 1L << desplazamiento;
+                    cambio = true;
+                }
+            }
+            if (cambio && ++incrementos >= tamanoMuestra) {
+                envejecer();
+            }
+        }
+
+        int frecuencia(int hash) {
+            int minimo = 15;
+            for (int fila = 0; fila < SEMILLAS.length; fila++) {
+                int pos = posicion(hash, fila);
+                minimo = Math.min(minimo, (int) ((tabla[pos >>> 4] >>> ((pos & 15) << 2)) & 0xfL));
+            }
+            return minimo;
+        }
+
+        // Reduce todos los contadores a la mitad
+        private void envejecer() {
+            for (int i = 0; i < tabla.length; i++) {
+                tabla[i] = (tabla[i] >>> 1) & MASCARA_MITAD;
+            }
+            incrementos /= 2;
+        }
+
+        private int posicion(int hash, int fila) {
+            long h = (hash + SEMILLAS[fila]) * SEMILLAS[(fila + 1) & 3];
+            h ^= h >>> 32;
+            return (int) h & mascara;
+        }
+    }
+}
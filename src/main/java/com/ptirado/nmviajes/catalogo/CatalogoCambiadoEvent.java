@@ -0,0 +1,39 @@
+package com.ptirado.nmviajes.catalogo;
+
+/**
+ * Evento publicado cada vez que cambia un dato visible del catalogo
+ * (paquetes, destinos, servicios adicionales o stock disponible).
+ *
+ * <p>Los componentes en memoria del catalogo lo escuchan despues del commit
+ * para reconstruir su estado sin consultar la base de datos en cada lectura.</p>
+ *
+ * @param entidad Tipo de entidad modificada
+ * @param id      ID de la entidad modificada (puede ser null si el cambio es masivo)
+ */
+public record CatalogoCambiadoEvent(Entidad entidad, Integer id) {
+
+    public enum Entidad {
+        PAQUETE,
+        DESTINO,
+        SERVICIO
+    }
+
+    public static CatalogoCambiadoEvent paquete(Integer idPaquete) {
+        return new CatalogoCambiadoEvent(Entidad.PAQUETE, idPaquete);
+    }
+
+    public static CatalogoCambiadoEvent destino(Integer idDestino) {
+        return new CatalogoCambiadoEvent(Entidad.DESTINO, idDestino);
+    }
+
+    public static CatalogoCambiadoEvent servicio(Integer idServicio) {
+        return new CatalogoCambiadoEvent(Entidad.SERVICIO, idServicio);
+    }
+
+    /**
+     * Indica si el cambio afecta a los paquetes publicados (un destino aporta su nombre).
+     */
+    public boolean afectaPaquetes() {
+        return entidad != Entidad.SERVICIO;
+    }
+}
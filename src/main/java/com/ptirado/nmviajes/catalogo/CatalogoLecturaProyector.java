@@ -0,0 +1,174 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.entity.CatalogoLectura;
+import com.ptirado.nmviajes.entity.Destino;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.repository.CatalogoLecturaRepository;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.util.FormatoUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mantiene la tabla {@code catalogo_lectura} (modelo de lectura del catalogo).
+ *
+ * <p>A diferencia de los componentes en memoria, escucha el
+ * {@link CatalogoCambiadoEvent} <b>antes</b> del commit y escribe dentro de la
+ * misma transaccion que modifico el paquete, el destino o el stock: si la
+ * escritura se revierte, la fila proyectada tambien. Cuando el evento se
+ * publica fuera de una transaccion se proyecta en una propia.</p>
+ *
+ * <p>Proyectar de forma sincrona tiene un costo en la escritura, a cambio de
+ * que la tabla nunca quede atras de lo confirmado (la foto del catalogo y el
+ * respaldo del buscador se cargan desde ella despues del commit):</p>
+ * <ul>
+ *   <li><b>Stock</b> (reservas, checkout, expiracion): un UPDATE con JOIN para
+ *       todos los paquetes del evento. Bloquea hasta el commit las filas de
+ *       {@code catalogo_lectura} de esos paquetes, cuyas filas en
+ *       {@code paquete} el escritor ya tiene bloqueadas.</li>
+ *   <li><b>Paquete</b> (administracion): tres sentencias, el paquete con su
+ *       destino, la fila actual y su UPDATE o INSERT.</li>
+ *   <li><b>Destino</b> (administracion): dos lecturas y un UPDATE por cada
+ *       paquete del destino.</li>
+ * </ul>
+ *
+ * <p>Al iniciar reproyecta todo el catalogo antes que los demas componentes
+ * que cargan desde esta tabla.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogoLecturaProyector {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoLecturaProyector.class);
+
+    private final PaqueteRepository paqueteRepository;
+    private final CatalogoLecturaRepository catalogoLecturaRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void cargarInicial() {
+        reconstruir();
+    }
+
+    // Sin transaccion los oyentes corren en orden: este debe ir antes que la foto del catalogo
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    @Transactional
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        if (!event.afectaPaquetes()) return;
+        if (event.id() == null) {
+            reconstruir();
+            return;
+        }
+
+        switch (event.entidad()) {
+            case PAQUETE -> proyectarPaquete(event.id());
+            case DESTINO -> proyectarDestino(event.id());
+            case SERVICIO -> { }
+        }
+    }
+
+    // Solo cambia el stock: una sentencia copia stock y disponibilidad de todos los paquetes
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    @Transactional
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        if (event.idsPaquete().isEmpty()) return;
+        catalogoLecturaRepository.proyectarStock(event.idsPaquete(), AppConstants.STATUS_ACTIVO, LocalDateTime.now());
+    }
+
+    /**
+     * Reproyecta todos los paquetes y elimina las filas de paquetes que ya no existen.
+     */
+    @Transactional
+    public void reconstruir() {
+        Map<Integer, CatalogoLectura> sobrantes = new HashMap<>();
+        catalogoLecturaRepository.findAll().forEach(f -> sobrantes.put(f.getIdPaquete(), f));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<CatalogoLectura> nuevas = new ArrayList<>();
+        List<Paquete> paquetes = paqueteRepository.findAllWithDestino();
+        for (Paquete paquete : paquetes) {
+            // Las filas existentes se actualizan por dirty checking al confirmar
+            CatalogoLectura fila = sobrantes.remove(paquete.getIdPaquete());
+            if (fila == null) {
+                fila = new CatalogoLectura();
+                nuevas.add(fila);
+            }
+            copiar(paquete, fila, ahora);
+        }
+        catalogoLecturaRepository.saveAll(nuevas);
+        catalogoLecturaRepository.deleteAllInBatch(sobrantes.values());
+
+        log.info("Modelo de lectura del catalogo reproyectado: {} paquetes, {} eliminados",
+                paquetes.size(), sobrantes.size());
+    }
+
+    private void proyectarPaquete(Integer idPaquete) {
+        Paquete paquete = paqueteRepository.findByIdWithDestino(idPaquete).orElse(null);
+        if (paquete == null) {
+            catalogoLecturaRepository.deleteById(idPaquete);
+            return;
+        }
+
+        CatalogoLectura fila = catalogoLecturaRepository.findById(idPaquete).orElseGet(CatalogoLectura::new);
+        copiar(paquete, fila, LocalDateTime.now());
+        catalogoLecturaRepository.save(fila);
+    }
+
+    // El nombre y pais del destino estan copiados en cada uno de sus paquetes
+    private void proyectarDestino(Integer idDestino) {
+        Map<Integer, CatalogoLectura> filas = new HashMap<>();
+        catalogoLecturaRepository.findByIdDestino(idDestino).forEach(f -> filas.put(f.getIdPaquete(), f));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Paquete paquete : paqueteRepository.findByDestino_IdDestino(idDestino)) {
+            CatalogoLectura fila = filas.computeIfAbsent(paquete.getIdPaquete(), id -> new CatalogoLectura());
+            copiar(paquete, fila, ahora);
+        }
+        catalogoLecturaRepository.saveAll(filas.values());
+    }
+
+    private static void copiar(Paquete paquete, CatalogoLectura fila, LocalDateTime ahora) {
+        Destino destino = paquete.getDestino();
+
+        fila.setIdPaquete(paquete.getIdPaquete());
+        fila.setNombre(paquete.getNombre());
+        fila.setDescripcion(paquete.getDescripcion());
+        fila.setPrecio(paquete.getPrecio());
+        fila.setPrecioFormateado(FormatoUtils.monto(paquete.getPrecio()));
+        fila.setFechaInicio(paquete.getFechaInicio());
+        fila.setFechaFin(paquete.getFechaFin());
+        fila.setFechaInicioFormateada(FormatoUtils.fecha(paquete.getFechaInicio()));
+        fila.setFechaFinFormateada(FormatoUtils.fecha(paquete.getFechaFin()));
+        fila.setStockDisponible(paquete.getStockDisponible());
+        fila.setEstado(paquete.getEstado());
+        fila.setDisponible(AppConstants.STATUS_ACTIVO.equals(paquete.getEstado())
+                && paquete.getStockDisponible() != null && paquete.getStockDisponible() > 0);
+        fila.setIdDestino(destino != null ? destino.getIdDestino() : null);
+        fila.setNombreDestino(destino != null ? destino.getNombre() : null);
+        fila.setPaisDestino(destino != null ? destino.getPais() : null);
+        fila.setFechaCreacion(paquete.getFechaCreacion());
+        fila.setFechaModificacion(paquete.getFechaModificacion());
+        fila.setFechaProyeccion(ahora);
+    }
+}
@@ -0,0 +1,203 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ptirado.nmviajes.dto.api.response.BuscadorPaquetesResponse;
+import com.ptirado.nmviajes.dto.api.response.FacetasResponse;
+import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+
+/**
+ * Foto inmutable del catalogo publico: paquetes activos con el nombre de su
+ * destino, ordenados por fecha de inicio.
+ *
+ * <p>Una vez construida no se modifica, por lo que puede leerse desde cualquier
+ * hilo sin sincronizacion. Cada cambio del catalogo genera una nueva instancia;
+ * un cambio de stock solo reemplaza las respuestas afectadas y comparte los
+ * indices con la foto anterior ({@link #conRespuestas}).</p>
+ *
+ * <p>Las ventanas de viaje se indexan en un {@link IndiceIntervalos} para
+ * responder rangos de fechas en tiempo logaritmico, y los valores de destino,
+ * precio y mes en un {@link IndiceFacetas} para filtrar y contar facetas.</p>
+ */
+public final class CatalogoSnapshot {
+
+    /**
+     * Entrada del catalogo con los campos usados para filtrar y la respuesta
+     * ya formateada para el buscador.
+     */
+    public record PaqueteCatalogo(
+            Integer idPaquete,
+            Integer idDestino,
+            BigDecimal precio,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            PaqueteBuscadorResponse respuesta) {
+    }
+
+    private final List<PaqueteCatalogo> paquetes;
+    private final Map<Integer, Integer> posicionesPorId;
+    private final IndiceIntervalos intervalos;
+    private final IndiceFacetas facetas;
+    private final LocalDateTime generadoEn;
+
+    /**
+     * @param paquetes Paquetes activos ordenados por fecha de inicio ascendente
+     */
+    public CatalogoSnapshot(List<PaqueteCatalogo> paquetes) {
+        this.paquetes = List.copyOf(paquetes);
+        Map<Integer, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < paquetes.size(); i++) {
+            posiciones.put(paquetes.get(i).idPaquete(), i);
+        }
+        this.posicionesPorId = Map.copyOf(posiciones);
+
+        int[] inicios = new int[paquetes.size()];
+        int[] fines = new int[paquetes.size()];
+        for (int i = 0; i < paquetes.size(); i++) {
+            inicios[i] = aDia(paquetes.get(i).fechaInicio(), Integer.MIN_VALUE);
+            fines[i] = aDia(paquetes.get(i).fechaFin(), Integer.MAX_VALUE);
+        }
+        this.intervalos = new IndiceIntervalos(inicios, fines);
+        this.facetas = new IndiceFacetas(this.paquetes);
+        this.generadoEn = LocalDateTime.now();
+    }
+
+    // Mismos paquetes en las mismas posiciones: los indices siguen valiendo
+    private CatalogoSnapshot(CatalogoSnapshot anterior, List<PaqueteCatalogo> paquetes) {
+        this.paquetes = List.copyOf(paquetes);
+        this.posicionesPorId = anterior.posicionesPorId;
+        this.intervalos = anterior.intervalos;
+        this.facetas = anterior.facetas;
+        this.generadoEn = LocalDateTime.now();
+    }
+
+    /**
+     * Nueva foto con las respuestas indicadas en lugar de las actuales (por
+     * ejemplo, con otro stock). Solo sirve para cambios que no afectan los
+     * filtros: fechas, destino, precio y estado deben ser los mismos. Se
+     * omiten los IDs que no estan en la foto.
+     */
+    public CatalogoSnapshot conRespuestas(Map<Integer, PaqueteBuscadorResponse> respuestas) {
+        List<PaqueteCatalogo> copia = new ArrayList<>(paquetes);
+        respuestas.forEach((id, respuesta) -> {
+            Integer pos = posicionesPorId.get(id);
+            if (pos == null) return;
+            PaqueteCatalogo p = copia.get(pos);
+            copia.set(pos, new PaqueteCatalogo(p.idPaquete(), p.idDestino(), p.precio(),
+                    p.fechaInicio(), p.fechaFin(), respuesta));
+        });
+        return new CatalogoSnapshot(this, copia);
+    }
+
+    public List<PaqueteCatalogo> getPaquetes() {
+        return paquetes;
+    }
+
+    public LocalDateTime getGeneradoEn() {
+        return generadoEn;
+    }
+
+    public int size() {
+        return paquetes.size();
+    }
+
+    /**
+     * Retorna el paquete activo con el ID indicado, o null si no esta en el catalogo.
+     */
+    public PaqueteCatalogo obtener(Integer idPaquete) {
+        Integer pos = idPaquete != null ? posicionesPorId.get(idPaquete) : null;
+        return pos != null ? paquetes.get(pos) : null;
+    }
+
+    /**
+     * Aplica los mismos filtros que {@code PaqueteRepository.buscar} (o
+     * {@code buscarSolapados}), mas los de precio y mes, sobre la foto en
+     * memoria. Los resultados mantienen el orden por fecha de inicio.
+     *
+     * <p>El rango de fechas se resuelve con el indice de intervalos y el resto
+     * de filtros intersectando conjuntos de bits. Cada faceta se cuenta con
+     * todos los filtros menos el suyo.</p>
+     *
+     * @param idsPorPrecio IDs con precio dentro del rango pedido, del mas barato
+     *                     al mas caro (ver {@link IndicePrecios}); null si la
+     *                     busqueda no filtra ni ordena por precio
+     */
+    public BuscadorPaquetesResponse buscar(FiltroBuscador filtro, int[] idsPorPrecio) {
+        int desde = aDia(filtro.fechaInicio(), Integer.MIN_VALUE);
+        int hasta = aDia(filtro.fechaFin(), Integer.MAX_VALUE);
+
+        int[] enRango = filtro.modo() == ModoRangoFechas.SOLAPA
+                ? intervalos.solapados(desde, hasta)
+                : intervalos.contenidos(desde, hasta);
+
+        long[] base = facetas.conjunto(enRango);
+        if (idsPorPrecio != null) {
+            base = IndiceFacetas.interseccion(base, facetas.conjunto(posicionesDe(idsPorPrecio)));
+        }
+        long[] porDestino = filtro.idDestino() != null ? facetas.destino(filtro.idDestino()) : null;
+        long[] porPrecio = filtro.rangoPrecio() != null ? facetas.precio(filtro.rangoPrecio()) : null;
+        long[] porMes = filtro.mes() != null ? facetas.mes(filtro.mes()) : null;
+
+        long[] seleccion = IndiceFacetas.interseccion(base, porDestino, porPrecio, porMes);
+        List<PaqueteBuscadorResponse> resultado = new ArrayList<>();
+        if (filtro.orden().porPrecio() && idsPorPrecio != null) {
+            // Se recorre en el orden del indice de precios y se conservan los seleccionados
+            for (int pos : posicionesDe(idsPorPrecio)) {
+                if (IndiceFacetas.contiene(seleccion, pos)) resultado.add(paquetes.get(pos).respuesta());
+            }
+            if (filtro.orden() == OrdenBuscador.PRECIO_DESC) Collections.reverse(resultado);
+        } else {
+            for (int pos : IndiceFacetas.posiciones(seleccion)) {
+                resultado.add(paquetes.get(pos).respuesta());
+            }
+        }
+
+        return BuscadorPaquetesResponse.builder()
+                .paquetes(resultado)
+                .facetas(FacetasResponse.builder()
+                        .destinos(facetas.contarDestinos(
+                                IndiceFacetas.interseccion(base, porPrecio, porMes), filtro.idDestino()))
+                        .precios(facetas.contarPrecios(
+                                IndiceFacetas.interseccion(base, porDestino, porMes), filtro.rangoPrecio()))
+                        .meses(facetas.contarMeses(
+                                IndiceFacetas.interseccion(base, porDestino, porPrecio), filtro.mes()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Respuestas de los paquetes indicados, en el mismo orden. Se omiten los
+     * que no estan en la foto.
+     */
+    public List<PaqueteBuscadorResponse> respuestas(int[] idsPaquete) {
+        List<PaqueteBuscadorResponse> resultado = new ArrayList<>(idsPaquete.length);
+        for (int pos : posicionesDe(idsPaquete)) {
+            resultado.add(paquetes.get(pos).respuesta());
+        }
+        return resultado;
+    }
+
+    // Traduce IDs a posiciones de la foto conservando el orden; se omiten los ausentes
+    private int[] posicionesDe(int[] idsPaquete) {
+        int[] posiciones = new int[idsPaquete.length];
+        int total = 0;
+        for (int id : idsPaquete) {
+            Integer pos = posicionesPorId.get(id);
+            if (pos != null) posiciones[total++] = pos;
+        }
+        return Arrays.copyOf(posiciones, total);
+    }
+
+    // Un limite ausente equivale a un intervalo abierto en ese extremo
+    private static int aDia(LocalDate fecha, int porDefecto) {
+        return fecha != null ? (int) fecha.toEpochDay() : porDefecto;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot.PaqueteCatalogo;
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+import com.ptirado.nmviajes.entity.CatalogoLectura;
+import com.ptirado.nmviajes.mapper.PaqueteMapper;
+import com.ptirado.nmviajes.repository.CatalogoLecturaRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mantiene la foto vigente del catalogo publico.
+ *
+ * <p>Las lecturas solo leen una referencia volatil: no tocan la base de datos
+ * ni toman locks. Cada {@link CatalogoCambiadoEvent} confirmado reconstruye la
+ * foto completa y la publica de forma atomica. Un {@link StockCambiadoEvent}
+ * (reservas, checkout, expiracion) solo relee las filas de sus paquetes y
+ * publica una copia de la foto con esas respuestas reemplazadas.</p>
+ *
+ * <p>La foto se arma desde el modelo de lectura ({@code catalogo_lectura}),
+ * que ya trae el destino y los campos formateados en una sola tabla.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogoSnapshotHolder {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoSnapshotHolder.class);
+
+    private final CatalogoLecturaRepository catalogoLecturaRepository;
+    private final PaqueteMapper paqueteMapper;
+
+    private volatile CatalogoSnapshot snapshot;
+
+    /**
+     * Retorna la foto vigente o null si aun no se ha cargado.
+     */
+    public CatalogoSnapshot actual() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        recargar();
+    }
+
+    // Despues del modelo de lectura y antes que los demas oyentes, que pueden leer la foto nueva
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        if (!event.afectaPaquetes()) return;
+        log.debug("Catalogo modificado ({} id={}), reconstruyendo foto", event.entidad(), event.id());
+        recargar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        if (event.idsPaquete().isEmpty()) return;
+        actualizarRespuestas(event.idsPaquete());
+    }
+
+    /**
+     * Construye una nueva foto desde la base de datos y la publica.
+     *
+     * <p>Las recargas se serializan entre si para que una carga antigua no
+     * reemplace a una mas reciente; las lecturas nunca esperan este lock.</p>
+     */
+    public synchronized void recargar() {
+        List<CatalogoLectura> activos = catalogoLecturaRepository.findByEstadoOrderByFechaInicioAscIdPaqueteAsc(
+                AppConstants.STATUS_ACTIVO);
+
+        List<PaqueteCatalogo> paquetes = activos.stream()
+                .map(f -> new PaqueteCatalogo(
+                        f.getIdPaquete(),
+                        f.getIdDestino(),
+                        f.getPrecio(),
+                        f.getFechaInicio(),
+                        f.getFechaFin(),
+                        paqueteMapper.toBuscadorResponse(f)))
+                .toList();
+
+        snapshot = new CatalogoSnapshot(paquetes);
+        log.info("Foto del catalogo publicada: {} paquetes activos", paquetes.size());
+    }
+
+    // Bajo el mismo lock que recargar: una lectura de stock vieja no pisa una mas reciente
+    private synchronized void actualizarRespuestas(List<Integer> idsPaquete) {
+        CatalogoSnapshot actual = snapshot;
+        if (actual == null) return; // La carga inicial ya trae el stock vigente
+
+        Map<Integer, PaqueteBuscadorResponse> respuestas = new HashMap<>();
+        for (CatalogoLectura fila : catalogoLecturaRepository.findAllById(idsPaquete)) {
+            respuestas.put(fila.getIdPaquete(), paqueteMapper.toBuscadorResponse(fila));
+        }
+        snapshot = actual.conRespuestas(respuestas);
+        log.debug("Stock actualizado en la foto del catalogo: {} paquetes", respuestas.size());
+    }
+}
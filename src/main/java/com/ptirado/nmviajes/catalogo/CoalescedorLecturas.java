@@ -0,0 +1,136 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Agrupa lecturas identicas concurrentes en una sola ejecucion ("single flight").
+ *
+ * <p>La primera peticion con una clave ejecuta el cargador; las que llegan con
+ * la misma clave mientras tanto esperan su {@link CompletableFuture} y reciben
+ * el mismo resultado (o la misma excepcion, por ejemplo un
+ * {@code NotFoundException}). Asi, cuando cientos de usuarios abren el mismo
+ * paquete a la vez, la base de datos recibe una sola consulta.</p>
+ *
+ * <p>No guarda resultados: la clave se libera apenas termina la ejecucion. Si
+ * la ejecucion en curso tarda mas que el tiempo de espera, la peticion deja de
+ * esperar y ejecuta el cargador por su cuenta.</p>
+ *
+ * <p>Las ejecuciones en curso pertenecen a una generacion del catalogo, que
+ * sube con cada cambio confirmado. Una peticion que llega despues del cambio
+ * no se une a una ejecucion que empezo antes: podria recibir datos anteriores
+ * a los que ya vio otro cliente.</p>
+ */
+@Component
+public class CoalescedorLecturas {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescedorLecturas.class);
+
+    private static final Duration ESPERA_POR_DEFECTO = Duration.ofSeconds(5);
+
+    // Clave: generacion del catalogo + clave de la lectura
+    private final Map<String, CompletableFuture<Object>> enCurso = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+
+    private final LongAdder ejecuciones = new LongAdder();
+    private final LongAdder agrupadas = new LongAdder();
+    private final LongAdder esperasVencidas = new LongAdder();
+
+    /**
+     * Contadores acumulados desde que arranco la aplicacion.
+     *
+     * @param ejecuciones    Veces que se ejecuto un cargador
+     * @param agrupadas      Peticiones que recibieron el resultado de otra
+     * @param esperasVencidas Peticiones que dejaron de esperar y ejecutaron por su cuenta
+     * @param enCurso        Claves con una ejecucion en curso en este momento
+     */
+    public record Estadisticas(long ejecuciones, long agrupadas, long esperasVencidas, int enCurso) {
+    }
+
+    public <T> T ejecutar(String clave, Supplier<T> cargador) {
+        return ejecutar(clave, ESPERA_POR_DEFECTO, cargador);
+    }
+
+    /**
+     * Ejecuta el cargador o se une a la ejecucion en curso con la misma clave.
+     *
+     * @param clave    Identifica la lectura (endpoint + parametros)
+     * @param espera   Tiempo maximo que se espera a una ejecucion ajena
+     * @param cargador Lectura a ejecutar
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String clave, Duration espera, Supplier<T> cargador) {
+        String llave = generacion.get() + ":" + clave;
+        CompletableFuture<Object> propio = new CompletableFuture<>();
+        CompletableFuture<Object> existente = enCurso.putIfAbsent(llave, propio);
+
+        if (existente != null) {
+            agrupadas.increment();
+            return (T) esperar(clave, existente, espera, cargador);
+        }
+
+        ejecuciones.increment();
+        try {
+            T valor = cargador.get();
+            propio.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propio.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(llave, propio);
+        }
+    }
+
+    public Estadisticas estadisticas() {
+        return new Estadisticas(ejecuciones.sum(), agrupadas.sum(), esperasVencidas.sum(), enCurso.size());
+    }
+
+    // Primeros oyentes tras el commit: desde aqui las lecturas empiezan una ejecucion nueva
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        generacion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        generacion.incrementAndGet();
+    }
+
+    private Object esperar(String clave, CompletableFuture<Object> futuro, Duration espera, Supplier<?> cargador) {
+        try {
+            return futuro.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Se relanza la misma excepcion que recibio la ejecucion original
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            agrupadas.decrement();
+            esperasVencidas.increment();
+            ejecuciones.increment();
+            log.warn("Lectura '{}' supero {} ms en curso; se ejecuta sin agrupar", clave, espera.toMillis());
+            return cargador.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando la lectura " + clave, e);
+        }
+    }
+}
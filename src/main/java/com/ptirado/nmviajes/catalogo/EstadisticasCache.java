@@ -0,0 +1,23 @@
+package com.ptirado.nmviajes.catalogo;
+
+/**
+ * Contadores acumulados de una cache desde que arranco la aplicacion.
+ *
+ * @param aciertos   Consultas respondidas desde la cache
+ * @param fallos     Consultas que tuvieron que calcularse (incluye expiradas)
+ * @param desalojos  Entradas descartadas por capacidad o rechazadas por la admision
+ * @param expiradas  Entradas descartadas por tiempo de vida
+ * @param entradas   Entradas vigentes
+ * @param capacidad  Cantidad maxima de entradas
+ */
+public record EstadisticasCache(long aciertos, long fallos, long desalojos, long expiradas,
+                                int entradas, int capacidad) {
+
+    /**
+     * Porcentaje de aciertos sobre el total de consultas (0 si no hubo consultas).
+     */
+    public double tasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : aciertos * 100.0 / total;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ptirado.nmviajes.catalogo;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Responde 304 Not Modified a las lecturas del catalogo cuyo If-None-Match
+ * coincide con la version vigente, antes de llegar al controlador (y por lo
+ * tanto sin tocar servicios ni repositorios).
+ *
+ * <p>En las demas lecturas agrega el ETag a la respuesta.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class EtagCatalogoInterceptor implements HandlerInterceptor {
+
+    private final VersionCatalogo versionCatalogo;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Las escrituras sobre las mismas rutas (POST, PUT, DELETE) pasan sin ETag ni Cache-Control
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+
+        // Obliga al navegador a revalidar siempre en lugar de usar su copia sin preguntar
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        // checkNotModified agrega el ETag y, si coincide, deja la respuesta en 304
+        return !new ServletWebRequest(request, response).checkNotModified(versionCatalogo.etag());
+    }
+}
@@ -0,0 +1,53 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Filtros del buscador de paquetes. Todos son opcionales.
+ *
+ * @param idDestino   Destino del paquete
+ * @param fechaInicio Inicio del rango de fechas buscado
+ * @param fechaFin    Fin del rango de fechas buscado
+ * @param modo        Como se compara la ventana de viaje con el rango
+ * @param rangoPrecio Tramo de precio
+ * @param mes         Mes en que empieza el viaje
+ * @param precioMin   Precio minimo incluido
+ * @param precioMax   Precio maximo incluido
+ * @param orden       Orden de los resultados
+ */
+public record FiltroBuscador(
+        Integer idDestino,
+        LocalDate fechaInicio,
+        LocalDate fechaFin,
+        ModoRangoFechas modo,
+        RangoPrecio rangoPrecio,
+        YearMonth mes,
+        BigDecimal precioMin,
+        BigDecimal precioMax,
+        OrdenBuscador orden) {
+
+    public FiltroBuscador {
+        if (modo == null) modo = ModoRangoFechas.DENTRO;
+        if (orden == null) orden = OrdenBuscador.FECHA;
+    }
+
+    /**
+     * Indica si la busqueda necesita el indice de precios (filtra o ordena por precio).
+     */
+    public boolean usaPrecio() {
+        return precioMin != null || precioMax != null || orden.porPrecio();
+    }
+
+    /**
+     * Aplica los filtros de precio y mes, que no tienen equivalente en las
+     * consultas a la base de datos.
+     */
+    public boolean admitePrecioYMes(BigDecimal precio, LocalDate inicioViaje) {
+        if (rangoPrecio != null && !rangoPrecio.contiene(precio)) return false;
+        if (precioMin != null && (precio == null || precio.compareTo(precioMin) < 0)) return false;
+        if (precioMax != null && (precio == null || precio.compareTo(precioMax) > 0)) return false;
+        return mes == null || (inicioViaje != null && mes.equals(YearMonth.from(inicioViaje)));
+    }
+}
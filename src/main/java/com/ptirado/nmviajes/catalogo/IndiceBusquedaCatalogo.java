@@ -0,0 +1,238 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ptirado.nmviajes.dto.api.response.DestinoResponse;
+import com.ptirado.nmviajes.entity.Destino;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.mapper.DestinoMapper;
+import com.ptirado.nmviajes.repository.DestinoRepository;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.util.TextoUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Motor de busqueda de texto completo sobre paquetes y destinos.
+ *
+ * <h3>Campos indexados (con su peso):</h3>
+ * <ul>
+ *   <li><b>Paquete:</b> nombre (3), nombre del destino (2), descripcion (1)</li>
+ *   <li><b>Destino:</b> nombre (3), pais (2), descripcion (1)</li>
+ * </ul>
+ *
+ * <p>Se indexan todos los estados para que el panel de administracion tambien
+ * pueda usarlo; el filtro por estado se aplica al consultar. El indice se
+ * actualiza de forma incremental con cada {@link CatalogoCambiadoEvent}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class IndiceBusquedaCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceBusquedaCatalogo.class);
+
+    private static final int PESO_NOMBRE = 3;
+    private static final int PESO_SECUNDARIO = 2;
+    private static final int PESO_DESCRIPCION = 1;
+
+    private final PaqueteRepository paqueteRepository;
+    private final DestinoRepository destinoRepository;
+    private final DestinoMapper destinoMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IndiceInvertido indicePaquetes = new IndiceInvertido();
+    private final IndiceInvertido indiceDestinos = new IndiceInvertido();
+    private final Map<Integer, String> estadoPaquetes = new HashMap<>();
+    private final Map<Integer, DestinoResponse> destinos = new HashMap<>();
+
+    // ===========================================================
+    // CONSULTAS
+    // ===========================================================
+
+    /**
+     * Coincidencias de una busqueda, recortadas al limite pedido.
+     *
+     * @param resultados Coincidencias ordenadas por relevancia, a lo sumo el limite
+     * @param total      Coincidencias antes de recortar
+     */
+    public record Coincidencias<T>(List<T> resultados, int total) {
+
+        /**
+         * Indica si habia mas coincidencias que las devueltas.
+         */
+        public boolean truncado() {
+            return total > resultados.size();
+        }
+    }
+
+    /**
+     * IDs de paquetes que coinciden con la consulta, ordenados por relevancia.
+     *
+     * @param consulta Texto libre ingresado por el usuario
+     * @param estado   Estado requerido, o null para cualquier estado
+     * @param limite   Maximo de IDs devueltos; el total indica cuantos coincidian
+     */
+    public Coincidencias<Integer> buscarPaquetes(String consulta, String estado, int limite) {
+        List<String> tokens = TextoUtils.tokenizar(consulta);
+        lock.readLock().lock();
+        try {
+            return recortar(indicePaquetes.buscar(tokens).stream()
+                    .map(IndiceInvertido.Resultado::id)
+                    .filter(id -> estado == null || estado.equals(estadoPaquetes.get(id)))
+                    .toList(), limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Destinos que coinciden con la consulta, ordenados por relevancia.
+     *
+     * @param consulta Texto libre ingresado por el usuario
+     * @param estado   Estado requerido, o null para cualquier estado
+     * @param limite   Maximo de destinos devueltos; el total indica cuantos coincidian
+     */
+    public Coincidencias<DestinoResponse> buscarDestinos(String consulta, String estado, int limite) {
+        List<String> tokens = TextoUtils.tokenizar(consulta);
+        lock.readLock().lock();
+        try {
+            return recortar(indiceDestinos.buscar(tokens).stream()
+                    .map(r -> destinos.get(r.id()))
+                    .filter(d -> d != null && (estado == null || estado.equals(d.getEstado())))
+                    .toList(), limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <T> Coincidencias<T> recortar(List<T> todos, int limite) {
+        return new Coincidencias<>(todos.size() > limite ? todos.subList(0, limite) : todos, todos.size());
+    }
+
+    // ===========================================================
+    // MANTENIMIENTO DEL INDICE
+    // ===========================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        reconstruir();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        if (!event.afectaPaquetes()) return;
+        if (event.id() == null) {
+            reconstruir();
+            return;
+        }
+
+        switch (event.entidad()) {
+            case PAQUETE -> reindexarPaquete(event.id());
+            case DESTINO -> reindexarDestino(event.id());
+            case SERVICIO -> { }
+        }
+    }
+
+    /**
+     * Reconstruye ambos indices desde la base de datos.
+     */
+    public void reconstruir() {
+        List<Paquete> paquetes = paqueteRepository.findAllWithDestino();
+        List<Destino> todosDestinos = destinoRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            indicePaquetes.limpiar();
+            indiceDestinos.limpiar();
+            estadoPaquetes.clear();
+            destinos.clear();
+
+            paquetes.forEach(this::indexar);
+            todosDestinos.forEach(this::indexar);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Indice de busqueda construido: {} paquetes, {} destinos",
+                paquetes.size(), todosDestinos.size());
+    }
+
+    private void reindexarPaquete(Integer idPaquete) {
+        Paquete paquete = paqueteRepository.findByIdWithDestino(idPaquete).orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            if (paquete == null) {
+                indicePaquetes.eliminar(idPaquete);
+                estadoPaquetes.remove(idPaquete);
+            } else {
+                indexar(paquete);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reindexarDestino(Integer idDestino) {
+        Destino destino = destinoRepository.findById(idDestino).orElse(null);
+        // El nombre del destino forma parte del texto de sus paquetes
+        List<Paquete> paquetesDelDestino = destino != null
+                ? paqueteRepository.findByDestino_IdDestino(idDestino)
+                : List.of();
+
+        lock.writeLock().lock();
+        try {
+            if (destino == null) {
+                indiceDestinos.eliminar(idDestino);
+                destinos.remove(idDestino);
+                return;
+            }
+            indexar(destino);
+            paquetesDelDestino.forEach(this::indexar);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void indexar(Paquete paquete) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        sumarTokens(frecuencias, paquete.getNombre(), PESO_NOMBRE);
+        sumarTokens(frecuencias, paquete.getDestino() != null ? paquete.getDestino().getNombre() : null, PESO_SECUNDARIO);
+        sumarTokens(frecuencias, paquete.getDescripcion(), PESO_DESCRIPCION);
+
+        indicePaquetes.agregar(paquete.getIdPaquete(), frecuencias);
+        estadoPaquetes.put(paquete.getIdPaquete(), paquete.getEstado());
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void indexar(Destino destino) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        sumarTokens(frecuencias, destino.getNombre(), PESO_NOMBRE);
+        sumarTokens(frecuencias, destino.getPais(), PESO_SECUNDARIO);
+        sumarTokens(frecuencias, destino.getDescripcion(), PESO_DESCRIPCION);
+
+        indiceDestinos.agregar(destino.getIdDestino(), frecuencias);
+        destinos.put(destino.getIdDestino(), destinoMapper.toResponseFromEntity(destino));
+    }
+
+    private static void sumarTokens(Map<String, Integer> frecuencias, String texto, int peso) {
+        for (String token : TextoUtils.tokenizar(texto)) {
+            frecuencias.merge(token, peso, Integer::sum);
+        }
+    }
+}
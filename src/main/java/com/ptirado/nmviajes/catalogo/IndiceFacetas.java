@@ -0,0 +1,209 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot.PaqueteCatalogo;
+import com.ptirado.nmviajes.config.FormatConfig;
+import com.ptirado.nmviajes.dto.api.response.FacetaResponse;
+
+/**
+ * Conjuntos de bits por valor de faceta (destino, tramo de precio y mes de
+ * inicio) sobre las posiciones de la foto del catalogo.
+ *
+ * <p>Cada conjunto es un {@code long[]} donde el bit i indica si el paquete en
+ * la posicion i tiene ese valor. Combinar filtros es un AND palabra a palabra
+ * y contar una faceta es un {@link Long#bitCount} de la interseccion: no se
+ * recorre ningun paquete ni se consulta la base de datos.</p>
+ *
+ * <p>Es inmutable una vez construido, por lo que puede consultarse desde
+ * cualquier hilo.</p>
+ */
+final class IndiceFacetas {
+
+    private static final DateTimeFormatter FORMATO_MES =
+            DateTimeFormatter.ofPattern("MMMM yyyy", FormatConfig.LOCALE_PE);
+
+    private final int palabras;
+    private final Map<Integer, long[]> porDestino = new HashMap<>();
+    private final Map<Integer, String> nombresDestino = new HashMap<>();
+    private final long[][] porPrecio;
+    private final TreeMap<YearMonth, long[]> porMes = new TreeMap<>();
+
+    /**
+     * @param paquetes Paquetes en el mismo orden que las posiciones de la foto
+     */
+    IndiceFacetas(List<PaqueteCatalogo> paquetes) {
+        this.palabras = (paquetes.size() + 63) >>> 6;
+        this.porPrecio = new long[RangoPrecio.values().length][palabras];
+
+        for (int pos = 0; pos < paquetes.size(); pos++) {
+            PaqueteCatalogo p = paquetes.get(pos);
+
+            if (p.idDestino() != null) {
+                marcar(porDestino.computeIfAbsent(p.idDestino(), id -> new long[palabras]), pos);
+                nombresDestino.putIfAbsent(p.idDestino(), p.respuesta().getNombreDestino());
+            }
+            RangoPrecio rango = RangoPrecio.de(p.precio());
+            if (rango != null) {
+                marcar(porPrecio[rango.ordinal()], pos);
+            }
+            if (p.fechaInicio() != null) {
+                marcar(porMes.computeIfAbsent(YearMonth.from(p.fechaInicio()), m -> new long[palabras]), pos);
+            }
+        }
+    }
+
+    // ========================================================================
+    // CONJUNTOS
+    // ========================================================================
+
+    /**
+     * Conjunto con las posiciones indicadas encendidas.
+     */
+    long[] conjunto(int[] posiciones) {
+        long[] bits = new long[palabras];
+        for (int pos : posiciones) {
+            marcar(bits, pos);
+        }
+        return bits;
+    }
+
+    long[] destino(int idDestino) {
+        return porDestino.getOrDefault(idDestino, new long[palabras]);
+    }
+
+    long[] precio(RangoPrecio rango) {
+        return porPrecio[rango.ordinal()];
+    }
+
+    long[] mes(YearMonth mes) {
+        return porMes.getOrDefault(mes, new long[palabras]);
+    }
+
+    /**
+     * Interseccion de la base con los filtros no nulos. No modifica los argumentos.
+     */
+    static long[] interseccion(long[] base, long[]... filtros) {
+        long[] resultado = base.clone();
+        for (long[] filtro : filtros) {
+            if (filtro == null) continue;
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] &= filtro[i];
+            }
+        }
+        return resultado;
+    }
+
+    static boolean contiene(long[] bits, int pos) {
+        return (bits[pos >>> 6] & (1L << pos)) != 0;
+    }
+
+    /**
+     * Posiciones encendidas en orden ascendente.
+     */
+    static int[] posiciones(long[] bits) {
+        int[] resultado = new int[cardinalidad(bits)];
+        int k = 0;
+        for (int i = 0; i < bits.length; i++) {
+            long palabra = bits[i];
+            while (palabra != 0) {
+                resultado[k++] = (i << 6) + Long.numberOfTrailingZeros(palabra);
+                palabra &= palabra - 1;
+            }
+        }
+        return resultado;
+    }
+
+    // ========================================================================
+    // CONTEOS
+    // ========================================================================
+
+    /**
+     * Cantidad de paquetes del filtro por destino, ordenados por nombre.
+     * Se omiten los valores sin paquetes salvo el seleccionado.
+     */
+    List<FacetaResponse> contarDestinos(long[] filtro, Integer seleccionado) {
+        List<FacetaResponse> resultado = new ArrayList<>();
+        porDestino.forEach((id, bits) -> {
+            int cantidad = contarInterseccion(filtro, bits);
+            if (cantidad > 0 || id.equals(seleccionado)) {
+                resultado.add(faceta(String.valueOf(id), nombresDestino.get(id), cantidad));
+            }
+        });
+        resultado.sort(Comparator.comparing(FacetaResponse::getEtiqueta,
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return resultado;
+    }
+
+    /**
+     * Cantidad de paquetes del filtro por tramo de precio, de menor a mayor.
+     */
+    List<FacetaResponse> contarPrecios(long[] filtro, RangoPrecio seleccionado) {
+        List<FacetaResponse> resultado = new ArrayList<>();
+        for (RangoPrecio rango : RangoPrecio.values()) {
+            int cantidad = contarInterseccion(filtro, porPrecio[rango.ordinal()]);
+            if (cantidad > 0 || rango == seleccionado) {
+                resultado.add(faceta(rango.name(), rango.getEtiqueta(), cantidad));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Cantidad de paquetes del filtro por mes de inicio, en orden cronologico.
+     */
+    List<FacetaResponse> contarMeses(long[] filtro, YearMonth seleccionado) {
+        List<FacetaResponse> resultado = new ArrayList<>();
+        porMes.forEach((mes, bits) -> {
+            int cantidad = contarInterseccion(filtro, bits);
+            if (cantidad > 0 || mes.equals(seleccionado)) {
+                resultado.add(faceta(mes.toString(), etiquetaMes(mes), cantidad));
+            }
+        });
+        return resultado;
+    }
+
+    // ========================================================================
+    // UTILIDADES
+    // ========================================================================
+
+    private static void marcar(long[] bits, int pos) {
+        bits[pos >>> 6] |= 1L << pos;
+    }
+
+    private static int cardinalidad(long[] bits) {
+        int total = 0;
+        for (long palabra : bits) {
+            total += Long.bitCount(palabra);
+        }
+        return total;
+    }
+
+    private static int contarInterseccion(long[] a, long[] b) {
+        int total = 0;
+        for (int i = 0; i < a.length; i++) {
+            total += Long.bitCount(a[i] & b[i]);
+        }
+        return total;
+    }
+
+    private static String etiquetaMes(YearMonth mes) {
+        String texto = FORMATO_MES.format(mes);
+        return Character.toUpperCase(texto.charAt(0)) + texto.substring(1);
+    }
+
+    private static FacetaResponse faceta(String valor, String etiqueta, int cantidad) {
+        return FacetaResponse.builder()
+                .valor(valor)
+                .etiqueta(etiqueta)
+                .cantidad(cantidad)
+                .build();
+    }
+}
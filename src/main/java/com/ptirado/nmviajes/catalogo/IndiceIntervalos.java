@@ -0,0 +1,174 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.Arrays;
+
+/**
+ * Indice estatico de intervalos [inicio, fin] para consultas por rango de fechas.
+ *
+ * <p>Los intervalos llegan ordenados por inicio, asi que la condicion sobre el
+ * inicio se resuelve con busqueda binaria y define un tramo contiguo de
+ * posiciones. Sobre ese orden se arma un arbol de segmentos donde cada nodo
+ * guarda los fines de su tramo ya ordenados (merge sort tree): la condicion
+ * sobre el fin se resuelve con otra busqueda binaria en cada uno de los
+ * O(log n) nodos que cubren el tramo.</p>
+ *
+ * <p>Costo por consulta: O(log² n + k), donde k es la cantidad de resultados.
+ * Memoria: O(n log n). Las fechas se manejan como dias desde la epoca; un
+ * limite ausente se representa con {@link Integer#MIN_VALUE} o
+ * {@link Integer#MAX_VALUE}.</p>
+ *
+ * <p>Es inmutable una vez construido, por lo que puede consultarse desde
+ * cualquier hilo.</p>
+ */
+final class IndiceIntervalos {
+
+    private final int[] inicios;
+    private final int hojas;
+    // Cada entrada empaqueta (fin << 32 | posicion): ordenar el long ordena por fin
+    private final long[][] arbol;
+
+    /**
+     * @param inicios Inicio de cada intervalo, ordenados de forma ascendente
+     * @param fines   Fin de cada intervalo, en la misma posicion que su inicio
+     */
+    IndiceIntervalos(int[] inicios, int[] fines) {
+        this.inicios = inicios.clone();
+        int n = inicios.length;
+
+        int m = 1;
+        while (m < n) m <<= 1;
+        this.hojas = m;
+        this.arbol = new long[2 * m][];
+
+        for (int i = 0; i < m; i++) {
+            arbol[m + i] = i < n ? new long[] { empaquetar(fines[i], i) } : new long[0];
+        }
+        for (int nodo = m - 1; nodo >= 1; nodo--) {
+            arbol[nodo] = mezclar(arbol[2 * nodo], arbol[2 * nodo + 1]);
+        }
+    }
+
+    int size() {
+        return inicios.length;
+    }
+
+    /**
+     * Posiciones de los intervalos contenidos por completo en [desde, hasta]:
+     * {@code inicio >= desde} y {@code fin <= hasta}.
+     *
+     * @return Posiciones en orden ascendente (es decir, por fecha de inicio)
+     */
+    int[] contenidos(int desde, int hasta) {
+        // Como inicio <= fin <= hasta, el inicio tambien queda acotado por hasta
+        int desdePos = primeraPosicionConInicioMayorIgual(desde);
+        int hastaPos = hasta == Integer.MAX_VALUE ? inicios.length : primeraPosicionConInicioMayorIgual(hasta + 1);
+        return consultar(desdePos, hastaPos, Long.MIN_VALUE, techo(hasta));
+    }
+
+    /**
+     * Posiciones de los intervalos que se cruzan con [desde, hasta]:
+     * {@code inicio <= hasta} y {@code fin >= desde}.
+     *
+     * @return Posiciones en orden ascendente (es decir, por fecha de inicio)
+     */
+    int[] solapados(int desde, int hasta) {
+        int hastaPos = hasta == Integer.MAX_VALUE ? inicios.length : primeraPosicionConInicioMayorIgual(hasta + 1);
+        return consultar(0, hastaPos, piso(desde), Long.MAX_VALUE);
+    }
+
+    /**
+     * Recorre los nodos que cubren [desdePos, hastaPos) y junta las entradas
+     * cuyo valor empaquetado esta en [minimo, maximo].
+     */
+    private int[] consultar(int desdePos, int hastaPos, long minimo, long maximo) {
+        if (desdePos >= hastaPos) return new int[0];
+
+        Posiciones resultado = new Posiciones();
+        for (int l = desdePos + hojas, r = hastaPos + hojas; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) resultado.agregar(arbol[l++], minimo, maximo);
+            if ((r & 1) == 1) resultado.agregar(arbol[--r], minimo, maximo);
+        }
+        return resultado.ordenadas();
+    }
+
+    private int primeraPosicionConInicioMayorIgual(int valor) {
+        int bajo = 0;
+        int alto = inicios.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (inicios[medio] < valor) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static int primerIndiceMayorIgual(long[] valores, long valor) {
+        int bajo = 0;
+        int alto = valores.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (valores[medio] < valor) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static long[] mezclar(long[] a, long[] b) {
+        long[] resultado = new long[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            resultado[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+        }
+        while (i < a.length) resultado[k++] = a[i++];
+        while (j < b.length) resultado[k++] = b[j++];
+        return resultado;
+    }
+
+    private static long empaquetar(int fin, int posicion) {
+        return ((long) fin << 32) | (posicion & 0xFFFFFFFFL);
+    }
+
+    // Menor valor empaquetado con fin >= dia
+    private static long piso(int dia) {
+        return dia == Integer.MIN_VALUE ? Long.MIN_VALUE : empaquetar(dia, 0);
+    }
+
+    // Mayor valor empaquetado con fin <= dia
+    private static long techo(int dia) {
+        return dia == Integer.MAX_VALUE ? Long.MAX_VALUE : empaquetar(dia, -1);
+    }
+
+    /**
+     * Acumula las posiciones encontradas en un arreglo primitivo que crece a demanda.
+     */
+    private static final class Posiciones {
+
+        private int[] datos = new int[16];
+        private int total;
+
+        void agregar(long[] nodo, long minimo, long maximo) {
+            int desde = minimo == Long.MIN_VALUE ? 0 : primerIndiceMayorIgual(nodo, minimo);
+            int hasta = maximo == Long.MAX_VALUE ? nodo.length : primerIndiceMayorIgual(nodo, maximo + 1);
+            if (hasta <= desde) return;
+
+            if (total + hasta - desde > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length * 2, total + hasta - desde));
+            }
+            for (int i = desde; i < hasta; i++) {
+                datos[total++] = (int) nodo[i];
+            }
+        }
+
+        int[] ordenadas() {
+            int[] posiciones = Arrays.copyOf(datos, total);
+            Arrays.sort(posiciones);
+            return posiciones;
+        }
+    }
+}
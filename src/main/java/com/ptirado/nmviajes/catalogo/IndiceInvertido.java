@@ -0,0 +1,202 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Indice invertido en memoria con ranking BM25.
+ *
+ * <p>Cada termino apunta a una lista de postings almacenada en arreglos
+ * primitivos ordenados por ID de documento. Los documentos se agregan y
+ * eliminan de forma incremental.</p>
+ *
+ * <p>No es thread-safe: el componente que lo contiene debe sincronizar el acceso.</p>
+ */
+final class IndiceInvertido {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Un termino que solo coincide por prefijo o por subcadena pesa menos que una coincidencia exacta
+    private static final double FACTOR_PREFIJO = 0.7;
+    private static final double FACTOR_SUBCADENA = 0.5;
+
+    /**
+     * Resultado de una consulta: documento y su puntaje de relevancia.
+     */
+    record Resultado(int id, double puntaje) {
+    }
+
+    private final Map<String, Postings> terminos = new TreeMap<>();
+    private final Map<Integer, String[]> terminosPorDocumento = new HashMap<>();
+    private final Map<Integer, Integer> longitudPorDocumento = new HashMap<>();
+    private long longitudTotal;
+
+    int totalDocumentos() {
+        return longitudPorDocumento.size();
+    }
+
+    int totalTerminos() {
+        return terminos.size();
+    }
+
+    /**
+     * Agrega (o reemplaza) un documento.
+     *
+     * @param id          ID del documento
+     * @param frecuencias Frecuencia ponderada de cada termino en el documento
+     */
+    void agregar(int id, Map<String, Integer> frecuencias) {
+        eliminar(id);
+        if (frecuencias.isEmpty()) return;
+
+        int longitud = 0;
+        for (Map.Entry<String, Integer> e : frecuencias.entrySet()) {
+            terminos.computeIfAbsent(e.getKey(), t -> new Postings()).poner(id, e.getValue());
+            longitud += e.getValue();
+        }
+
+        terminosPorDocumento.put(id, frecuencias.keySet().toArray(String[]::new));
+        longitudPorDocumento.put(id, longitud);
+        longitudTotal += longitud;
+    }
+
+    void eliminar(int id) {
+        String[] anteriores = terminosPorDocumento.remove(id);
+        if (anteriores == null) return;
+
+        for (String termino : anteriores) {
+            Postings postings = terminos.get(termino);
+            if (postings != null && postings.quitar(id) && postings.size == 0) {
+                terminos.remove(termino);
+            }
+        }
+        longitudTotal -= longitudPorDocumento.remove(id);
+    }
+
+    void limpiar() {
+        terminos.clear();
+        terminosPorDocumento.clear();
+        longitudPorDocumento.clear();
+        longitudTotal = 0;
+    }
+
+    /**
+     * Busca los documentos que contienen todos los tokens de la consulta.
+     *
+     * <p>Cada token coincide con todos los terminos que lo contienen, igual que
+     * el {@code LIKE '%texto%'} al que reemplaza: las palabras incompletas y los
+     * fragmentos del medio de una palabra tambien encuentran resultados. Ningun
+     * termino se descarta, por corto que sea el token.</p>
+     *
+     * @param tokens Tokens normalizados de la consulta
+     * @return Resultados ordenados por relevancia descendente
+     */
+    List<Resultado> buscar(List<String> tokens) {
+        if (tokens.isEmpty() || longitudPorDocumento.isEmpty()) return List.of();
+
+        double longitudPromedio = (double) longitudTotal / longitudPorDocumento.size();
+        Map<Integer, Double> acumulado = null;
+
+        for (String token : tokens) {
+            Map<Integer, Double> delToken = puntuarToken(token, longitudPromedio);
+
+            if (acumulado == null) {
+                acumulado = delToken;
+            } else {
+                // Interseccion: el documento debe coincidir con todos los tokens
+                Iterator<Map.Entry<Integer, Double>> it = acumulado.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Integer, Double> e = it.next();
+                    Double puntaje = delToken.get(e.getKey());
+                    if (puntaje == null) {
+                        it.remove();
+                    } else {
+                        e.setValue(e.getValue() + puntaje);
+                    }
+                }
+            }
+
+            if (acumulado.isEmpty()) return List.of();
+        }
+
+        List<Resultado> resultados = new ArrayList<>(acumulado.size());
+        acumulado.forEach((id, puntaje) -> resultados.add(new Resultado(id, puntaje)));
+        resultados.sort((a, b) -> a.puntaje() != b.puntaje()
+                ? Double.compare(b.puntaje(), a.puntaje())
+                : Integer.compare(a.id(), b.id()));
+        return resultados;
+    }
+
+    private Map<Integer, Double> puntuarToken(String token, double longitudPromedio) {
+        Map<Integer, Double> puntajes = new HashMap<>();
+
+        // Recorre el diccionario completo: un token puede aparecer en cualquier
+        // posicion del termino, no solo al inicio
+        for (Map.Entry<String, Postings> e : terminos.entrySet()) {
+            String termino = e.getKey();
+            int posicion = termino.indexOf(token);
+            if (posicion < 0) continue;
+
+            double factor = posicion > 0 ? FACTOR_SUBCADENA
+                    : termino.length() == token.length() ? 1.0 : FACTOR_PREFIJO;
+            Postings postings = e.getValue();
+            double idf = Math.log(1 + (totalDocumentos() - postings.size + 0.5) / (postings.size + 0.5));
+
+            for (int i = 0; i < postings.size; i++) {
+                int id = postings.ids[i];
+                int tf = postings.frecuencias[i];
+                double normalizacion = K1 * (1 - B + B * longitudPorDocumento.get(id) / longitudPromedio);
+                double puntaje = factor * idf * (tf * (K1 + 1)) / (tf + normalizacion);
+                // Un documento suma solo su mejor coincidencia por token
+                puntajes.merge(id, puntaje, Math::max);
+            }
+        }
+
+        return puntajes;
+    }
+
+    /**
+     * Lista de postings de un termino: IDs ordenados y frecuencias en paralelo.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int[] frecuencias = new int[4];
+        private int size;
+
+        void poner(int id, int frecuencia) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                frecuencias[pos] = frecuencia;
+                return;
+            }
+
+            int insercion = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frecuencias = Arrays.copyOf(frecuencias, size * 2);
+            }
+            System.arraycopy(ids, insercion, ids, insercion + 1, size - insercion);
+            System.arraycopy(frecuencias, insercion, frecuencias, insercion + 1, size - insercion);
+            ids[insercion] = id;
+            frecuencias[insercion] = frecuencia;
+            size++;
+        }
+
+        boolean quitar(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(frecuencias, pos + 1, frecuencias, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
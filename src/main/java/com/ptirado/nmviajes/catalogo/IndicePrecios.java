@@ -0,0 +1,225 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.repository.projection.PaqueteFila;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Indice de precios de los paquetes activos.
+ *
+ * <p>Guarda los precios como centimos ({@code long}) en un arreglo ordenado,
+ * con el ID de cada paquete en un arreglo paralelo. Los rangos de precio y los
+ * N paquetes mas baratos se resuelven con busqueda binaria, sin comparar
+ * BigDecimal ni consultar la base de datos.</p>
+ *
+ * <p>A diferencia de la foto del catalogo, no se reconstruye en cada cambio:
+ * cada escritura de un paquete inserta, mueve o quita solo su entrada. Las
+ * lecturas toman una referencia volatil a arreglos que nunca se modifican
+ * (copia en escritura), por lo que no esperan a los escritores.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class IndicePrecios {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicePrecios.class);
+
+    private static final int[] VACIO = new int[0];
+
+    private final PaqueteRepository paqueteRepository;
+
+    private volatile Entradas entradas = new Entradas(new long[0], new int[0]);
+
+    // Solo lo usan los escritores (bajo el lock del objeto) para ubicar la entrada anterior
+    private final Map<Integer, Long> centimosPorId = new HashMap<>();
+
+    /**
+     * Precios ordenados de forma ascendente y sus IDs en la misma posicion.
+     * A igual precio se ordena por ID para que el orden sea estable.
+     */
+    private record Entradas(long[] centimos, int[] ids) {
+    }
+
+    // ========================================================================
+    // CONSULTAS
+    // ========================================================================
+
+    /**
+     * IDs de los paquetes con precio en [minimo, maximo], del mas barato al mas caro.
+     *
+     * @param minimo Precio minimo incluido (null = sin minimo)
+     * @param maximo Precio maximo incluido (null = sin maximo)
+     */
+    public int[] idsEnRango(BigDecimal minimo, BigDecimal maximo) {
+        Entradas actual = entradas;
+        int desde = minimo != null ? primeraPosicion(actual, aCentimos(minimo), Integer.MIN_VALUE) : 0;
+        int hasta = maximo != null
+                ? primeraPosicion(actual, aCentimos(maximo) + 1, Integer.MIN_VALUE)
+                : actual.ids().length;
+        return desde < hasta ? Arrays.copyOfRange(actual.ids(), desde, hasta) : VACIO;
+    }
+
+    /**
+     * IDs de los {@code limite} paquetes mas baratos, del mas barato al mas caro.
+     */
+    public int[] masBaratos(int limite) {
+        Entradas actual = entradas;
+        return Arrays.copyOf(actual.ids(), Math.max(0, Math.min(limite, actual.ids().length)));
+    }
+
+    public int size() {
+        return entradas.ids().length;
+    }
+
+    // ========================================================================
+    // ACTUALIZACION
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        recargar();
+    }
+
+    // Despues de la foto del catalogo y antes de vaciar la cache de respuestas
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        if (event.entidad() == CatalogoCambiadoEvent.Entidad.PAQUETE && event.id() != null) {
+            paqueteRepository.findById(event.id()).ifPresentOrElse(
+                    this::actualizar,
+                    () -> eliminar(event.id()));
+        } else if (event.entidad() == CatalogoCambiadoEvent.Entidad.PAQUETE) {
+            recargar();
+        }
+        // Destinos y servicios no cambian precios
+    }
+
+    /**
+     * Reconstruye el indice completo desde la base de datos.
+     */
+    public synchronized void recargar() {
+        List<PaqueteFila> activos = paqueteRepository.findFilasByEstado(AppConstants.STATUS_ACTIVO);
+
+        centimosPorId.clear();
+        long[][] pares = activos.stream()
+                .filter(f -> f.precio() != null)
+                .map(f -> new long[] { aCentimos(f.precio()), f.idPaquete() })
+                .sorted((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]))
+                .toArray(long[][]::new);
+
+        long[] centimos = new long[pares.length];
+        int[] ids = new int[pares.length];
+        for (int i = 0; i < pares.length; i++) {
+            centimos[i] = pares[i][0];
+            ids[i] = (int) pares[i][1];
+            centimosPorId.put(ids[i], centimos[i]);
+        }
+        entradas = new Entradas(centimos, ids);
+        log.info("Indice de precios cargado: {} paquetes", ids.length);
+    }
+
+    /**
+     * Inserta o mueve la entrada del paquete; la quita si dejo de estar activo.
+     */
+    public synchronized void actualizar(Paquete paquete) {
+        Integer id = paquete.getIdPaquete();
+        if (!AppConstants.STATUS_ACTIVO.equals(paquete.getEstado()) || paquete.getPrecio() == null) {
+            eliminar(id);
+            return;
+        }
+
+        long nuevo = aCentimos(paquete.getPrecio());
+        Long anterior = centimosPorId.get(id);
+        if (anterior != null && anterior == nuevo) return;
+
+        Entradas base = anterior != null ? sinEntrada(entradas, anterior, id) : entradas;
+        entradas = conEntrada(base, nuevo, id);
+        centimosPorId.put(id, nuevo);
+    }
+
+    /**
+     * Quita la entrada del paquete si existe.
+     */
+    public synchronized void eliminar(Integer idPaquete) {
+        Long anterior = centimosPorId.remove(idPaquete);
+        if (anterior != null) {
+            entradas = sinEntrada(entradas, anterior, idPaquete);
+        }
+    }
+
+    // ========================================================================
+    // UTILIDADES
+    // ========================================================================
+
+    private static Entradas conEntrada(Entradas actual, long centimos, int id) {
+        int pos = primeraPosicion(actual, centimos, id);
+        int n = actual.ids().length;
+
+        long[] nuevosCentimos = new long[n + 1];
+        int[] nuevosIds = new int[n + 1];
+        System.arraycopy(actual.centimos(), 0, nuevosCentimos, 0, pos);
+        System.arraycopy(actual.ids(), 0, nuevosIds, 0, pos);
+        nuevosCentimos[pos] = centimos;
+        nuevosIds[pos] = id;
+        System.arraycopy(actual.centimos(), pos, nuevosCentimos, pos + 1, n - pos);
+        System.arraycopy(actual.ids(), pos, nuevosIds, pos + 1, n - pos);
+        return new Entradas(nuevosCentimos, nuevosIds);
+    }
+
+    private static Entradas sinEntrada(Entradas actual, long centimos, int id) {
+        int pos = primeraPosicion(actual, centimos, id);
+        int n = actual.ids().length;
+        if (pos >= n || actual.ids()[pos] != id) return actual;
+
+        long[] nuevosCentimos = new long[n - 1];
+        int[] nuevosIds = new int[n - 1];
+        System.arraycopy(actual.centimos(), 0, nuevosCentimos, 0, pos);
+        System.arraycopy(actual.ids(), 0, nuevosIds, 0, pos);
+        System.arraycopy(actual.centimos(), pos + 1, nuevosCentimos, pos, n - pos - 1);
+        System.arraycopy(actual.ids(), pos + 1, nuevosIds, pos, n - pos - 1);
+        return new Entradas(nuevosCentimos, nuevosIds);
+    }
+
+    // Primera posicion cuya clave (centimos, id) es mayor o igual a la indicada
+    private static int primeraPosicion(Entradas actual, long centimos, int id) {
+        long[] precios = actual.centimos();
+        int[] ids = actual.ids();
+        int bajo = 0;
+        int alto = ids.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            boolean menor = precios[medio] < centimos || (precios[medio] == centimos && ids[medio] < id);
+            if (menor) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    static long aCentimos(BigDecimal precio) {
+        return precio.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
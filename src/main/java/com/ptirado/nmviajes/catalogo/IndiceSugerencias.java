@@ -0,0 +1,324 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.entity.Destino;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+import com.ptirado.nmviajes.repository.DestinoRepository;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.repository.ReservaItemRepository;
+import com.ptirado.nmviajes.util.TextoUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Autocompletado sobre nombres de destinos, paises y paquetes activos.
+ *
+ * <p>Cada texto se guarda en un {@link TriePrefijos} normalizado (sin tildes ni
+ * mayusculas) una vez por cada palabra con la que empieza, para que "picc"
+ * sugiera "Machu Picchu". El peso es la popularidad: las reservas no canceladas
+ * del paquete, la suma de sus paquetes para un destino y la de sus destinos
+ * para un pais.</p>
+ *
+ * <p>Se carga completo al iniciar y luego se actualiza de forma incremental
+ * con cada {@link CatalogoCambiadoEvent}: solo se reinsertan el elemento
+ * modificado y los pesos de su destino y pais.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class IndiceSugerencias {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceSugerencias.class);
+
+    private final PaqueteRepository paqueteRepository;
+    private final DestinoRepository destinoRepository;
+    private final ReservaItemRepository reservaItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TriePrefijos<Sugerencia> trie = new TriePrefijos<>();
+    private final Map<Sugerencia, List<String>> clavesPorSugerencia = new HashMap<>();
+
+    // Estado minimo para recalcular pesos sin volver a la base de datos
+    private final Map<Integer, PaqueteIndexado> paquetes = new HashMap<>();
+    private final Map<Integer, DestinoIndexado> destinos = new HashMap<>();
+    private final Map<String, String> nombresPais = new HashMap<>();
+
+    public enum Tipo {
+        DESTINO,
+        PAIS,
+        PAQUETE
+    }
+
+    /**
+     * Sugerencia devuelta al usuario. Los paises no tienen ID.
+     */
+    public record Sugerencia(Tipo tipo, Integer id, String texto) {
+    }
+
+    private record PaqueteIndexado(Sugerencia sugerencia, Integer idDestino, long reservas) {
+    }
+
+    private record DestinoIndexado(Sugerencia sugerencia, String pais) {
+    }
+
+    // ===========================================================
+    // CONSULTAS
+    // ===========================================================
+
+    /**
+     * Sugerencias cuyo texto tiene alguna palabra que empieza con la consulta,
+     * de la mas a la menos popular.
+     *
+     * @param consulta Texto parcial ingresado por el usuario
+     * @param limite   Cantidad maxima de sugerencias
+     */
+    public List<Sugerencia> sugerir(String consulta, int limite) {
+        String prefijo = String.join(" ", palabras(consulta));
+        if (prefijo.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            return trie.mejores(prefijo, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===========================================================
+    // MANTENIMIENTO DEL INDICE
+    // ===========================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        reconstruir();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        if (!event.afectaPaquetes()) return;
+        if (event.id() == null) {
+            reconstruir();
+            return;
+        }
+
+        switch (event.entidad()) {
+            case PAQUETE -> reindexarPaquete(event.id());
+            case DESTINO -> reindexarDestino(event.id());
+            case SERVICIO -> { }
+        }
+    }
+
+    // Un checkout solo cambia la popularidad de sus paquetes: nombres y destinos siguen iguales
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        if (event.idsPaquete().isEmpty()) return;
+        actualizarReservas(reservaItemRepository.contarPorPaquete(event.idsPaquete(), EstadoReserva.CANCELADA),
+                event.idsPaquete());
+    }
+
+    /**
+     * Reconstruye el trie completo desde la base de datos.
+     */
+    public void reconstruir() {
+        List<Paquete> activos = paqueteRepository.findByEstado(AppConstants.STATUS_ACTIVO);
+        List<Destino> destinosActivos = destinoRepository.findByEstado(AppConstants.STATUS_ACTIVO);
+        Map<Integer, Long> reservas = reservaItemRepository.contarPorPaquete(EstadoReserva.CANCELADA);
+
+        lock.writeLock().lock();
+        try {
+            trie.limpiar();
+            clavesPorSugerencia.clear();
+            paquetes.clear();
+            destinos.clear();
+            nombresPais.clear();
+
+            activos.forEach(p -> paquetes.put(p.getIdPaquete(), indexado(p, reservas.getOrDefault(p.getIdPaquete(), 0L))));
+            destinosActivos.forEach(d -> destinos.put(d.getIdDestino(), indexado(d)));
+
+            paquetes.values().forEach(p -> insertar(p.sugerencia(), p.reservas()));
+            destinos.keySet().forEach(this::actualizarPesoDestino);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Indice de sugerencias construido: {} claves", trie.totalClaves());
+    }
+
+    private void reindexarPaquete(Integer idPaquete) {
+        Paquete paquete = paqueteRepository.findById(idPaquete)
+                .filter(p -> AppConstants.STATUS_ACTIVO.equals(p.getEstado()))
+                .orElse(null);
+        long reservas = paquete != null
+                ? reservaItemRepository.countByPaquete_IdPaqueteAndReserva_EstadoReservaNot(idPaquete, EstadoReserva.CANCELADA)
+                : 0;
+
+        lock.writeLock().lock();
+        try {
+            PaqueteIndexado anterior = paquetes.remove(idPaquete);
+            if (anterior != null) quitar(anterior.sugerencia());
+
+            if (paquete != null) {
+                PaqueteIndexado nuevo = indexado(paquete, reservas);
+                paquetes.put(idPaquete, nuevo);
+                insertar(nuevo.sugerencia(), nuevo.reservas());
+                actualizarPesoDestino(nuevo.idDestino());
+            }
+            if (anterior != null && (paquete == null || !Objects.equals(anterior.idDestino(), paquete.getDestinoId()))) {
+                actualizarPesoDestino(anterior.idDestino());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void actualizarReservas(Map<Integer, Long> reservas, List<Integer> idsPaquete) {
+        lock.writeLock().lock();
+        try {
+            Set<Integer> destinosAfectados = new HashSet<>();
+            for (Integer idPaquete : idsPaquete) {
+                PaqueteIndexado anterior = paquetes.get(idPaquete);
+                long nuevas = reservas.getOrDefault(idPaquete, 0L);
+                if (anterior == null || anterior.reservas() == nuevas) continue;
+
+                PaqueteIndexado nuevo = new PaqueteIndexado(anterior.sugerencia(), anterior.idDestino(), nuevas);
+                paquetes.put(idPaquete, nuevo);
+                quitar(nuevo.sugerencia());
+                insertar(nuevo.sugerencia(), nuevas);
+                destinosAfectados.add(nuevo.idDestino());
+            }
+            destinosAfectados.forEach(this::actualizarPesoDestino);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reindexarDestino(Integer idDestino) {
+        Destino destino = destinoRepository.findById(idDestino)
+                .filter(d -> AppConstants.STATUS_ACTIVO.equals(d.getEstado()))
+                .orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            DestinoIndexado anterior = destinos.remove(idDestino);
+            if (anterior != null) {
+                quitar(anterior.sugerencia());
+                actualizarPesoPais(anterior.pais());
+            }
+            if (destino != null) {
+                destinos.put(idDestino, indexado(destino));
+                actualizarPesoDestino(idDestino);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void actualizarPesoDestino(Integer idDestino) {
+        DestinoIndexado destino = idDestino != null ? destinos.get(idDestino) : null;
+        if (destino == null) return;
+
+        long peso = 0;
+        for (PaqueteIndexado p : paquetes.values()) {
+            if (idDestino.equals(p.idDestino())) peso += p.reservas();
+        }
+        quitar(destino.sugerencia());
+        insertar(destino.sugerencia(), peso);
+        actualizarPesoPais(destino.pais());
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void actualizarPesoPais(String pais) {
+        if (pais == null) return;
+
+        boolean existe = destinos.values().stream().anyMatch(d -> pais.equals(d.pais()));
+        long peso = 0;
+        for (PaqueteIndexado p : paquetes.values()) {
+            DestinoIndexado destino = p.idDestino() != null ? destinos.get(p.idDestino()) : null;
+            if (destino != null && pais.equals(destino.pais())) peso += p.reservas();
+        }
+
+        Sugerencia anterior = new Sugerencia(Tipo.PAIS, null, nombresPais.get(pais));
+        quitar(anterior);
+        if (existe) {
+            insertar(anterior, peso);
+        } else {
+            nombresPais.remove(pais);
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void insertar(Sugerencia sugerencia, long peso) {
+        List<String> claves = claves(sugerencia.texto());
+        claves.forEach(clave -> trie.agregar(clave, sugerencia, peso));
+        clavesPorSugerencia.put(sugerencia, claves);
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void quitar(Sugerencia sugerencia) {
+        List<String> claves = clavesPorSugerencia.remove(sugerencia);
+        if (claves != null) claves.forEach(clave -> trie.eliminar(clave, sugerencia));
+    }
+
+    private static PaqueteIndexado indexado(Paquete paquete, long reservas) {
+        return new PaqueteIndexado(
+                new Sugerencia(Tipo.PAQUETE, paquete.getIdPaquete(), paquete.getNombre()),
+                paquete.getDestinoId(),
+                reservas);
+    }
+
+    // Debe llamarse con el write lock tomado (registra el nombre visible del pais)
+    private DestinoIndexado indexado(Destino destino) {
+        String pais = TextoUtils.normalizar(destino.getPais()).trim();
+        if (!pais.isEmpty()) {
+            nombresPais.putIfAbsent(pais, destino.getPais().trim());
+        }
+        return new DestinoIndexado(
+                new Sugerencia(Tipo.DESTINO, destino.getIdDestino(), destino.getNombre()),
+                pais.isEmpty() ? null : pais);
+    }
+
+    /**
+     * Una clave por cada palabra del texto que no sea vacia: "Cañón del Colca"
+     * genera "canon del colca" y "colca".
+     */
+    private static List<String> claves(String texto) {
+        List<String> palabras = palabras(texto);
+        List<String> claves = new ArrayList<>(palabras.size());
+        for (int i = 0; i < palabras.size(); i++) {
+            if (TextoUtils.STOPWORDS.contains(palabras.get(i))) continue;
+            claves.add(String.join(" ", palabras.subList(i, palabras.size())));
+        }
+        return claves;
+    }
+
+    // Palabras normalizadas, conservando las vacias para respetar las frases
+    private static List<String> palabras(String texto) {
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : TextoUtils.normalizar(texto).split("[^a-z0-9]+")) {
+            if (!palabra.isEmpty()) palabras.add(palabra);
+        }
+        return palabras;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ptirado.nmviajes.catalogo;
+
+/**
+ * Como se compara la ventana de viaje de un paquete con el rango de fechas buscado.
+ */
+public enum ModoRangoFechas {
+
+    /** El viaje empieza y termina dentro del rango (comportamiento original del buscador). */
+    DENTRO,
+
+    /** El viaje se cruza con el rango en al menos un dia. */
+    SOLAPA
+}
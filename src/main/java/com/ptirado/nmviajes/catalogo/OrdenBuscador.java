@@ -0,0 +1,20 @@
+package com.ptirado.nmviajes.catalogo;
+
+/**
+ * Orden de los resultados del buscador de paquetes.
+ */
+public enum OrdenBuscador {
+
+    /** Por fecha de inicio del viaje (comportamiento original del buscador). */
+    FECHA,
+
+    /** Del mas barato al mas caro. */
+    PRECIO_ASC,
+
+    /** Del mas caro al mas barato. */
+    PRECIO_DESC;
+
+    public boolean porPrecio() {
+        return this != FECHA;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.math.BigDecimal;
+
+/**
+ * Tramos de precio usados como faceta del buscador de paquetes.
+ *
+ * <p>Cada tramo incluye su minimo y excluye su maximo; el ultimo no tiene tope.</p>
+ */
+public enum RangoPrecio {
+
+    HASTA_1000(null, 1000, "Menos de S/ 1,000"),
+    DE_1000_A_2000(1000, 2000, "S/ 1,000 - S/ 2,000"),
+    DE_2000_A_3000(2000, 3000, "S/ 2,000 - S/ 3,000"),
+    DE_3000_A_5000(3000, 5000, "S/ 3,000 - S/ 5,000"),
+    DESDE_5000(5000, null, "S/ 5,000 a mas");
+
+    private final BigDecimal minimo;
+    private final BigDecimal maximo;
+    private final String etiqueta;
+
+    RangoPrecio(Integer minimo, Integer maximo, String etiqueta) {
+        this.minimo = minimo != null ? BigDecimal.valueOf(minimo) : null;
+        this.maximo = maximo != null ? BigDecimal.valueOf(maximo) : null;
+        this.etiqueta = etiqueta;
+    }
+
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    public boolean contiene(BigDecimal precio) {
+        if (precio == null) return false;
+        return (minimo == null || precio.compareTo(minimo) >= 0)
+                && (maximo == null || precio.compareTo(maximo) < 0);
+    }
+
+    /**
+     * Tramo al que pertenece el precio, o null si no tiene precio.
+     */
+    public static RangoPrecio de(BigDecimal precio) {
+        for (RangoPrecio rango : values()) {
+            if (rango.contiene(precio)) return rango;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.List;
+
+/**
+ * Evento publicado cuando una sola operacion descuenta stock de varios paquetes
+ * (checkout del carrito).
+ *
+ * <p>Reemplaza a un {@link CatalogoCambiadoEvent} por paquete: los oyentes
+ * actualizan solo el stock y la popularidad de todos los IDs a la vez, sin
+ * releer cada paquete.</p>
+ *
+ * @param idsPaquete IDs de los paquetes cuyo stock cambio
+ */
+public record StockCambiadoEvent(List<Integer> idsPaquete) {
+}
@@ -0,0 +1,197 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Trie comprimido (radix tree) de claves de texto con peso, para autocompletar.
+ *
+ * <p>Cada arista guarda un tramo de texto en lugar de un solo caracter, asi la
+ * profundidad depende de las bifurcaciones y no del largo de las claves. Cada
+ * nodo recuerda el peso maximo de su subarbol; la busqueda de los k mejores
+ * recorre primero los nodos con mayor cota y se detiene al juntar k valores,
+ * sin visitar el resto del subarbol del prefijo.</p>
+ *
+ * <p>Una misma clave puede apuntar a varios valores y un valor puede estar bajo
+ * varias claves. No es thread-safe: el componente que lo contiene debe
+ * sincronizar el acceso.</p>
+ *
+ * @param <V> Valor asociado a las claves (debe implementar equals/hashCode)
+ */
+final class TriePrefijos<V> {
+
+    private static final class Nodo<V> {
+        String tramo;
+        final Map<Character, Nodo<V>> hijos = new HashMap<>(4);
+        final Map<V, Long> valores = new HashMap<>(2);
+        long pesoMaximo = Long.MIN_VALUE;
+
+        Nodo(String tramo) {
+            this.tramo = tramo;
+        }
+
+        void recalcularPeso() {
+            long maximo = Long.MIN_VALUE;
+            for (long peso : valores.values()) maximo = Math.max(maximo, peso);
+            for (Nodo<V> hijo : hijos.values()) maximo = Math.max(maximo, hijo.pesoMaximo);
+            pesoMaximo = maximo;
+        }
+
+        boolean vacio() {
+            return valores.isEmpty() && hijos.isEmpty();
+        }
+    }
+
+    // Elemento de la cola de busqueda: un nodo (con su cota) o un valor ya encontrado
+    private record Candidato<V>(long peso, Nodo<V> nodo, V valor) {
+    }
+
+    private final Nodo<V> raiz = new Nodo<>("");
+    private int totalClaves;
+
+    int totalClaves() {
+        return totalClaves;
+    }
+
+    void limpiar() {
+        raiz.hijos.clear();
+        raiz.valores.clear();
+        raiz.pesoMaximo = Long.MIN_VALUE;
+        totalClaves = 0;
+    }
+
+    /**
+     * Asocia el valor a la clave con el peso indicado (reemplaza el peso si ya estaba).
+     */
+    void agregar(String clave, V valor, long peso) {
+        if (clave.isEmpty()) return;
+        List<Nodo<V>> camino = new ArrayList<>();
+        Nodo<V> nodo = raiz;
+        int i = 0;
+        camino.add(nodo);
+
+        while (i < clave.length()) {
+            Nodo<V> hijo = nodo.hijos.get(clave.charAt(i));
+            if (hijo == null) {
+                hijo = new Nodo<>(clave.substring(i));
+                nodo.hijos.put(clave.charAt(i), hijo);
+                nodo = hijo;
+                camino.add(nodo);
+                i = clave.length();
+                break;
+            }
+
+            int comun = prefijoComun(hijo.tramo, clave, i);
+            if (comun < hijo.tramo.length()) {
+                // Se parte la arista: el tramo comun queda en un nodo intermedio
+                Nodo<V> intermedio = new Nodo<>(hijo.tramo.substring(0, comun));
+                hijo.tramo = hijo.tramo.substring(comun);
+                intermedio.hijos.put(hijo.tramo.charAt(0), hijo);
+                intermedio.pesoMaximo = hijo.pesoMaximo;
+                nodo.hijos.put(intermedio.tramo.charAt(0), intermedio);
+                hijo = intermedio;
+            }
+            nodo = hijo;
+            camino.add(nodo);
+            i += comun;
+        }
+
+        if (nodo.valores.isEmpty()) totalClaves++;
+        nodo.valores.put(valor, peso);
+        for (int j = camino.size() - 1; j >= 0; j--) {
+            camino.get(j).recalcularPeso();
+        }
+    }
+
+    /**
+     * Quita el valor de la clave. Los nodos que quedan vacios se eliminan y los
+     * que quedan con un solo hijo se fusionan con el para mantener el trie comprimido.
+     */
+    void eliminar(String clave, V valor) {
+        List<Nodo<V>> camino = new ArrayList<>();
+        Nodo<V> nodo = raiz;
+        camino.add(nodo);
+        int i = 0;
+
+        while (i < clave.length()) {
+            Nodo<V> hijo = nodo.hijos.get(clave.charAt(i));
+            if (hijo == null || !clave.startsWith(hijo.tramo, i)) return;
+            i += hijo.tramo.length();
+            nodo = hijo;
+            camino.add(nodo);
+        }
+
+        if (nodo.valores.remove(valor) == null) return;
+        if (nodo.valores.isEmpty()) totalClaves--;
+
+        for (int j = camino.size() - 1; j >= 1; j--) {
+            Nodo<V> actual = camino.get(j);
+            Nodo<V> padre = camino.get(j - 1);
+            if (actual.vacio()) {
+                padre.hijos.remove(actual.tramo.charAt(0));
+            } else if (actual.valores.isEmpty() && actual.hijos.size() == 1) {
+                Nodo<V> unico = actual.hijos.values().iterator().next();
+                unico.tramo = actual.tramo + unico.tramo;
+                padre.hijos.put(unico.tramo.charAt(0), unico);
+            } else {
+                actual.recalcularPeso();
+            }
+        }
+        raiz.recalcularPeso();
+    }
+
+    /**
+     * Hasta {@code limite} valores distintos bajo claves que empiezan con el
+     * prefijo, de mayor a menor peso.
+     */
+    List<V> mejores(String prefijo, int limite) {
+        Nodo<V> inicio = buscarNodo(prefijo);
+        if (inicio == null || limite <= 0) return List.of();
+
+        PriorityQueue<Candidato<V>> cola = new PriorityQueue<>((a, b) -> Long.compare(b.peso(), a.peso()));
+        cola.add(new Candidato<>(inicio.pesoMaximo, inicio, null));
+        Set<V> resultado = new LinkedHashSet<>();
+
+        while (!cola.isEmpty() && resultado.size() < limite) {
+            Candidato<V> candidato = cola.poll();
+            if (candidato.nodo() == null) {
+                // Ningun candidato pendiente supera este peso: es el siguiente mejor
+                resultado.add(candidato.valor());
+                continue;
+            }
+            candidato.nodo().valores.forEach((valor, peso) -> cola.add(new Candidato<>(peso, null, valor)));
+            for (Nodo<V> hijo : candidato.nodo().hijos.values()) {
+                cola.add(new Candidato<>(hijo.pesoMaximo, hijo, null));
+            }
+        }
+        return new ArrayList<>(resultado);
+    }
+
+    // Nodo cuyo subarbol contiene exactamente las claves que empiezan con el prefijo
+    private Nodo<V> buscarNodo(String prefijo) {
+        Nodo<V> nodo = raiz;
+        int i = 0;
+        while (i < prefijo.length()) {
+            Nodo<V> hijo = nodo.hijos.get(prefijo.charAt(i));
+            if (hijo == null) return null;
+            int comun = prefijoComun(hijo.tramo, prefijo, i);
+            if (i + comun == prefijo.length()) return hijo;
+            if (comun < hijo.tramo.length()) return null;
+            i += comun;
+            nodo = hijo;
+        }
+        return nodo;
+    }
+
+    private static int prefijoComun(String tramo, String clave, int desde) {
+        int n = Math.min(tramo.length(), clave.length() - desde);
+        int i = 0;
+        while (i < n && tramo.charAt(i) == clave.charAt(desde + i)) i++;
+        return i;
+    }
+}
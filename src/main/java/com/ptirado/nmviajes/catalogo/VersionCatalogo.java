@@ -0,0 +1,46 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Version monotona del catalogo publico (paquetes, destinos y servicios).
+ *
+ * <p>Sube con cada {@link CatalogoCambiadoEvent} confirmado y se expone como
+ * ETag fuerte. Incluye el instante de arranque para que un reinicio nunca
+ * repita una version anterior con otros datos.</p>
+ */
+@Component
+public class VersionCatalogo {
+
+    private final long arranque = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong(1);
+
+    public long actual() {
+        return version.get();
+    }
+
+    /**
+     * ETag fuerte (entre comillas) de la version vigente.
+     */
+    public String etag() {
+        return "\"" + Long.toString(arranque, 36) + "-" + version.get() + "\"";
+    }
+
+    // Ultimo oyente: cuando sube la version, la foto y la cache ya reflejan el cambio
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCatalogoCambiado(CatalogoCambiadoEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,12 @@
+package com.ptirado.nmviajes.concurrencia;
+
+/**
+ * Contadores de reintentos por conflicto de una operacion (o del total).
+ *
+ * @param operacion   Clase y metodo reintentado
+ * @param reintentos  Intentos repetidos por conflicto
+ * @param recuperadas Llamadas que terminaron bien despues de reintentar
+ * @param agotadas    Llamadas que fallaron en todos sus intentos
+ */
+public record EstadisticasReintentos(String operacion, long reintentos, long recuperadas, long agotadas) {
+}
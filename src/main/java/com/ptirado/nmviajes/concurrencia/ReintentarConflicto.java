@@ -0,0 +1,27 @@
+package com.ptirado.nmviajes.concurrencia;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reintenta el metodo cuando su transaccion falla por bloqueo optimista
+ * (otra transaccion modifico la misma entidad versionada).
+ *
+ * <p>Cada intento corre en una transaccion nueva, con espera exponencial
+ * aleatoria entre intentos. Si el metodo se llama dentro de una transaccion
+ * ya abierta no se reintenta: lo hace quien abrio la transaccion. Ver
+ * {@link ReintentoConflictosAspect}.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReintentarConflicto {
+
+    /**
+     * Intentos totales, incluyendo el primero.
+     */
+    int intentos() default 3;
+}
@@ -0,0 +1,122 @@
+package com.ptirado.nmviajes.concurrencia;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplica {@link ReintentarConflicto}.
+ *
+ * <p>Tiene la maxima precedencia para envolver al interceptor de
+ * {@code @Transactional}: cada intento abre y confirma su propia transaccion,
+ * asi el conflicto (que suele aparecer al hacer commit) llega hasta aqui y el
+ * reintento lee las entidades de nuevo.</p>
+ *
+ * <p>La espera antes del intento n es aleatoria entre 0 y
+ * {@code BASE_ESPERA_MS * 2^(n-1)} (jitter completo): los hilos que chocaron
+ * no vuelven a chocar en el mismo instante.</p>
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReintentoConflictosAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(ReintentoConflictosAspect.class);
+
+    private static final long BASE_ESPERA_MS = 20;
+    private static final long MAX_ESPERA_MS = 500;
+
+    private final Map<String, Contadores> porOperacion = new ConcurrentHashMap<>();
+
+    private static final class Contadores {
+        final LongAdder reintentos = new LongAdder();
+        final LongAdder recuperadas = new LongAdder();
+        final LongAdder agotadas = new LongAdder();
+    }
+
+    @Around("@annotation(com.ptirado.nmviajes.concurrencia.ReintentarConflicto)")
+    public Object reintentar(ProceedingJoinPoint punto) throws Throwable {
+        // Dentro de otra transaccion el contexto de persistencia ya quedo invalido
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return punto.proceed();
+        }
+
+        String operacion = punto.getSignature().getDeclaringType().getSimpleName()
+                + "." + punto.getSignature().getName();
+        ReintentarConflicto reintentar = AnnotationUtils.findAnnotation(
+                ((MethodSignature) punto.getSignature()).getMethod(), ReintentarConflicto.class);
+        int intentos = reintentar != null ? Math.max(1, reintentar.intentos()) : 1;
+
+        for (int intento = 1; ; intento++) {
+            try {
+                Object resultado = punto.proceed();
+                if (intento > 1) contadores(operacion).recuperadas.increment();
+                return resultado;
+            } catch (OptimisticLockingFailureException e) {
+                if (intento >= intentos) {
+                    contadores(operacion).agotadas.increment();
+                    log.warn("Conflicto de concurrencia en {} tras {} intentos: {}", operacion, intento, e.getMessage());
+                    throw e;
+                }
+                contadores(operacion).reintentos.increment();
+                log.debug("Conflicto de concurrencia en {} (intento {}), reintentando", operacion, intento);
+                esperar(intento);
+            }
+        }
+    }
+
+    /**
+     * Contadores por operacion, ordenados por nombre.
+     */
+    public List<EstadisticasReintentos> estadisticas() {
+        List<EstadisticasReintentos> resultado = new ArrayList<>();
+        porOperacion.forEach((operacion, c) -> resultado.add(new EstadisticasReintentos(
+                operacion, c.reintentos.sum(), c.recuperadas.sum(), c.agotadas.sum())));
+        resultado.sort(Comparator.comparing(EstadisticasReintentos::operacion));
+        return resultado;
+    }
+
+    /**
+     * Suma de todas las operaciones.
+     */
+    public EstadisticasReintentos totales() {
+        long reintentos = 0, recuperadas = 0, agotadas = 0;
+        for (EstadisticasReintentos e : estadisticas()) {
+            reintentos += e.reintentos();
+            recuperadas += e.recuperadas();
+            agotadas += e.agotadas();
+        }
+        return new EstadisticasReintentos("total", reintentos, recuperadas, agotadas);
+    }
+
+    private Contadores contadores(String operacion) {
+        return porOperacion.computeIfAbsent(operacion, o -> new Contadores());
+    }
+
+    private static void esperar(int intento) {
+        long tope = Math.min(MAX_ESPERA_MS, BASE_ESPERA_MS << Math.min(intento - 1, 10));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(tope + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+}
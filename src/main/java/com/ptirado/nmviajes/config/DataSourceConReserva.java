@@ -0,0 +1,81 @@
+package com.ptirado.nmviajes.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pool principal mas una reserva chica para los hilos que ya tienen una conexion.
+ *
+ * <p>Los IDs por bloques de MySQL (tablas {@code <tabla>_seq}) se piden en una
+ * conexion aparte mientras la transaccion conserva la suya. Si todas las
+ * conexiones del pool principal estan tomadas por transacciones que esperan un
+ * bloque de IDs, la conexion del generador nunca llega y todas esperan hasta el
+ * timeout del pool. Aqui la segunda conexion de un hilo sale de la reserva, que
+ * ninguna transaccion de primer nivel puede ocupar.</p>
+ */
+public class DataSourceConReserva extends DelegatingDataSource implements AutoCloseable {
+
+    // Conexiones abiertas por el hilo actual (se descuentan al cerrarlas, aunque sea desde otro hilo)
+    private static final ThreadLocal<AtomicInteger> ABIERTAS = ThreadLocal.withInitial(AtomicInteger::new);
+
+    private final HikariDataSource reserva;
+
+    /**
+     * @param principal Pool principal ya configurado
+     * @param tamano    Conexiones de la reserva (una por generador de IDs alcanza)
+     */
+    public DataSourceConReserva(HikariDataSource principal, int tamano) {
+        super(principal);
+        // Sin constructor con configuracion: como el principal, arranca con la primera conexion
+        this.reserva = new HikariDataSource();
+        principal.copyStateTo(reserva);
+        reserva.setPoolName(principal.getPoolName() != null ? principal.getPoolName() + "-reserva" : null);
+        reserva.setMaximumPoolSize(tamano);
+        reserva.setMinimumIdle(0);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        AtomicInteger abiertas = ABIERTAS.get();
+        DataSource origen = abiertas.get() > 0 ? reserva : obtainTargetDataSource();
+        Connection conexion = origen.getConnection();
+        abiertas.incrementAndGet();
+        return contarAlCerrar(conexion, abiertas);
+    }
+
+    @Override
+    public void close() {
+        reserva.close();
+        ((HikariDataSource) obtainTargetDataSource()).close();
+    }
+
+    private static Connection contarAlCerrar(Connection conexion, AtomicInteger abiertas) {
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "close" -> {
+                            if (cerrada.compareAndSet(false, true)) abiertas.decrementAndGet();
+                        }
+                        case "equals" -> { return proxy == args[0]; }
+                        case "hashCode" -> { return System.identityHashCode(proxy); }
+                        default -> { }
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,32 @@
+package com.ptirado.nmviajes.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Configuracion del DataSource.
+ *
+ * <p>Envuelve el pool Hikari que arma Spring Boot (con su URL, credenciales y
+ * parametros {@code spring.datasource.hikari.*}) en un
+ * {@link DataSourceConReserva}.</p>
+ */
+@Configuration
+public class DataSourceConfig {
+
+    // Estatico: los BeanPostProcessor se crean antes que el resto de la configuracion
+    @Bean
+    static BeanPostProcessor dataSourceConReserva(@Value("${conexiones.reserva.tamano-pool:5}") int tamano) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nombre) {
+                return bean instanceof HikariDataSource principal
+                        ? new DataSourceConReserva(principal, tamano)
+                        : bean;
+            }
+        };
+    }
+}
@@ -1,19 +1,20 @@
 package com.ptirado.nmviajes.config;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 
 import org.springframework.stereotype.Component;
 
+import com.ptirado.nmviajes.util.FormatoUtils;
+
 /**
  * Configuracion centralizada para formateo de datos en la aplicacion.
  *
  * <p>Esta clase centraliza todos los formatos de fecha, hora y moneda
- * utilizados en la aplicacion, facilitando su mantenimiento y consistencia.</p>
+ * utilizados en la aplicacion, facilitando su mantenimiento y consistencia.
+ * El formateo en si lo hace {@link FormatoUtils}, que es thread-safe.</p>
  *
  * <h3>Uso en otros componentes:</h3>
  * <pre>
@@ -67,24 +68,6 @@ public class FormatConfig {
      */
     public static final String PATRON_FECHA_HORA = "dd/MM/yyyy HH:mm";
 
-    // ╔═══════════════════════════════════════════════════════════════════════════╗
-    // ║                            FORMATEADORES                                    ║
-    // ╚═══════════════════════════════════════════════════════════════════════════╝
-
-    private static final DateTimeFormatter DATE_FORMATTER =
-            DateTimeFormatter.ofPattern(PATRON_FECHA);
-
-    private static final DateTimeFormatter DATETIME_FORMATTER =
-            DateTimeFormatter.ofPattern(PATRON_FECHA_HORA);
-
-    private static final NumberFormat PRICE_FORMATTER;
-
-    static {
-        PRICE_FORMATTER = NumberFormat.getNumberInstance(LOCALE_PE);
-        PRICE_FORMATTER.setMinimumFractionDigits(2);
-        PRICE_FORMATTER.setMaximumFractionDigits(2);
-    }
-
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                         METODOS DE FORMATEO                                ║
     // ╚═══════════════════════════════════════════════════════════════════════════╝
@@ -100,7 +83,7 @@ public class FormatConfig {
      * formatearFecha(null) // ""
      */
     public String formatearFecha(LocalDate fecha) {
-        return fecha != null ? fecha.format(DATE_FORMATTER) : "";
+        return FormatoUtils.fecha(fecha);
     }
 
     /**
@@ -114,7 +97,7 @@ public class FormatConfig {
      * formatearFechaHora(null) // "-"
      */
     public String formatearFechaHora(LocalDateTime fechaHora) {
-        return fechaHora != null ? fechaHora.format(DATETIME_FORMATTER) : "-";
+        return FormatoUtils.fechaHora(fechaHora);
     }
 
     /**
@@ -128,10 +111,7 @@ public class FormatConfig {
      * formatearPrecio(null) // "S/ 0.00"
      */
     public String formatearPrecio(BigDecimal precio) {
-        if (precio == null) {
-            return SIMBOLO_MONEDA + " 0.00";
-        }
-        return SIMBOLO_MONEDA + " " + PRICE_FORMATTER.format(precio);
+        return FormatoUtils.soles(precio);
     }
 
     /**
@@ -144,9 +124,6 @@ public class FormatConfig {
      * formatearPrecioSinSimbolo(new BigDecimal("1500.50")) // "1,500.50"
      */
     public String formatearPrecioSinSimbolo(BigDecimal precio) {
-        if (precio == null) {
-            return "0.00";
-        }
-        return PRICE_FORMATTER.format(precio);
+        return FormatoUtils.monto(precio);
     }
 }
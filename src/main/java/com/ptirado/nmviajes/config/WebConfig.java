@@ -0,0 +1,39 @@
+package com.ptirado.nmviajes.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.ptirado.nmviajes.catalogo.EtagCatalogoInterceptor;
+import com.ptirado.nmviajes.constants.ApiPaths;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuracion de Spring MVC.
+ *
+ * <p>Registra el ETag del catalogo solo en las lecturas publicas que dependen
+ * de el: paquetes, destinos, servicios adicionales, busqueda de texto y
+ * sugerencias. Los streams quedan fuera: escriben la respuesta de a pocos y
+ * el cliente no los revalida. Las escrituras sobre las mismas rutas pasan sin
+ * ETag porque el interceptor solo actua en GET y HEAD.</p>
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final EtagCatalogoInterceptor etagCatalogoInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(etagCatalogoInterceptor)
+                .addPathPatterns(
+                        // Listado, pagina, detalle, activos, mas baratos, buscar y por destino
+                        ApiPaths.PAQUETES, ApiPaths.PAQUETES + "/*", ApiPaths.PAQUETES + "/destino/*",
+                        ApiPaths.DESTINOS, ApiPaths.DESTINOS + "/*",
+                        ApiPaths.SERVICIOS, ApiPaths.SERVICIOS + "/*",
+                        ApiPaths.BUSQUEDA,
+                        ApiPaths.SUGERENCIAS)
+                .excludePathPatterns(ApiPaths.API_BASE + "/*/stream");
+    }
+}
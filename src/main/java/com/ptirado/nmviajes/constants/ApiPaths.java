@@ -9,10 +9,14 @@ public final class ApiPaths {
     // DESTINO
     public static final String DESTINOS = API_BASE + "/destinos";
     public static final String DESTINOS_ID = "/{id}";
+    public static final String DESTINOS_STREAM = "/stream";
 
     // PAQUETE
     public static final String PAQUETES = API_BASE + "/paquetes";
     public static final String PAQUETES_ID =  "/{id}";
+    public static final String PAQUETES_PAGINA = "/pagina";
+    public static final String PAQUETES_STREAM = "/stream";
+    public static final String PAQUETES_MAS_BARATOS = "/mas-baratos";
 
     // USUARIO
     public static final String USUARIOS = API_BASE + "/usuarios";
@@ -21,6 +25,11 @@ public final class ApiPaths {
     // RESERVAS
     public static final String RESERVAS = API_BASE + "/reservas";
     public static final String RESERVAS_ID = "/{id}";
+    public static final String RESERVAS_PAGINA = "/pagina";
+    public static final String RESERVAS_STREAM = "/stream";
+    public static final String RESERVAS_MIS_RESERVAS_PAGINA = "/mis-reservas/pagina";
+    public static final String RESERVAS_ASINCRONA = "/asincrona";
+    public static final String RESERVAS_TICKET = "/tickets/{ticket}";
 
     // CONTACTO
     public static final String CONTACTO = API_BASE + "/contacto";
@@ -37,6 +46,12 @@ public final class ApiPaths {
     public static final String CARRITO_CHECKOUT = "/checkout";
     public static final String CARRITO_CONTAR = "/contar";
 
+    // BUSQUEDA DE TEXTO
+    public static final String BUSQUEDA = API_BASE + "/busqueda";
+
+    // AUTOCOMPLETADO
+    public static final String SUGERENCIAS = API_BASE + "/sugerencias";
+
     // AUTH
     public static final String AUTH = API_BASE + "/auth";
     public static final String AUTH_REGISTRO = "/registro";
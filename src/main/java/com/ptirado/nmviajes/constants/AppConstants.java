@@ -12,6 +12,17 @@ public final class AppConstants {
     public static final int DEFAULT_PAGE_SIZE = 20;
     public static final int MAX_PAGE_SIZE = 100;
 
+    // Fetch size que activa el streaming fila a fila de Connector/J (Integer.MIN_VALUE) solo
+    // en las consultas que lo usan como hint; el resto del pool sigue leyendo el resultado completo.
+    // Mientras el stream esta abierto la conexion no admite otra consulta: todo debe venir en la misma
+    public static final String STREAM_FETCH_SIZE = "-2147483648";
+
+    // Autocompletado
+    public static final int MAX_SUGERENCIAS = 20;
+
+    // Coincidencias de texto que se paginan en los listados del panel (por relevancia)
+    public static final int MAX_RESULTADOS_BUSQUEDA = 500;
+
     // Flags
     public static final String SI = "S";
     public static final String NO = "N";
@@ -80,6 +80,11 @@ public final class MessageKeys {
     public static final String RESERVA_YA_PAGADA = "reserva.ya.pagada";
     public static final String RESERVA_CANCELADA = "reserva.cancelada";
     public static final String STOCK_INSUFICIENTE = "stock.insuficiente";
+    public static final String STOCK_EN_MEMORIA = "stock.en.memoria";
+    public static final String RESERVA_ASINCRONA_DESHABILITADA = "reserva.asincrona.deshabilitada";
+    public static final String RESERVA_COLA_LLENA = "reserva.cola.llena";
+    public static final String RESERVA_TICKET_NOT_FOUND = "reserva.ticket.notfound";
+    public static final String RESERVA_ERROR_INESPERADO = "reserva.error.inesperado";
 
     // ============================================================
     // SERVICIO ADICIONAL
@@ -97,4 +102,21 @@ public final class MessageKeys {
     public static final String CARRITO_ITEM_ELIMINADO = "carrito.item.eliminado";
     public static final String CARRITO_VACIADO = "carrito.vaciado";
     public static final String CARRITO_COMPRA_PROCESADA = "carrito.compra.procesada";
+
+    // ============================================================
+    // PAGINACION
+    // ============================================================
+    public static final String CURSOR_INVALIDO = "paginacion.cursor.invalido";
+
+    // ============================================================
+    // CONCURRENCIA
+    // ============================================================
+    public static final String CONFLICTO_CONCURRENTE = "concurrencia.conflicto";
+
+    // ============================================================
+    // IDEMPOTENCIA
+    // ============================================================
+    public static final String IDEMPOTENCIA_CLAVE_INVALIDA = "idempotencia.clave.invalida";
+    public static final String IDEMPOTENCIA_CLAVE_REUTILIZADA = "idempotencia.clave.reutilizada";
+    public static final String IDEMPOTENCIA_EN_CURSO = "idempotencia.en.curso";
 }
@@ -50,6 +50,8 @@ public final class SecurityPaths {
         "/api/v1/destinos/**",
         "/api/v1/paquetes/**",
         "/api/v1/servicios/**",
+        "/api/v1/busqueda",
+        "/api/v1/sugerencias",
         "/api/v1/contacto",
         "/api/v1/auth/**"
     };
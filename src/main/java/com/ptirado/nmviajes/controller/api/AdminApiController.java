@@ -1,9 +1,14 @@
 package com.ptirado.nmviajes.controller.api;
 
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
 import com.ptirado.nmviajes.entity.*;
 import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+import com.ptirado.nmviajes.inventario.InventarioEnMemoria;
+import com.ptirado.nmviajes.inventario.LibroInventario;
 import com.ptirado.nmviajes.repository.*;
+import com.ptirado.nmviajes.service.ReservaService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -20,7 +25,10 @@ public class AdminApiController {
     private final DestinoRepository destinoRepository;
     private final PaqueteRepository paqueteRepository;
     private final ServicioAdicionalRepository servicioRepository;
-    private final ReservaRepository reservaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservaService reservaService;
+    private final InventarioEnMemoria inventarioEnMemoria;
+    private final LibroInventario libroInventario;
 
     // ==================== USUARIOS ====================
 
@@ -46,6 +54,7 @@ public class AdminApiController {
         String nuevoEstado = body.get("estado");
         destino.setEstado(nuevoEstado);
         destinoRepository.save(destino);
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.destino(id));
 
         return ResponseEntity.ok(Map.of("message", "Estado actualizado correctamente"));
     }
@@ -60,10 +69,34 @@ public class AdminApiController {
         String nuevoEstado = body.get("estado");
         paquete.setEstado(nuevoEstado);
         paqueteRepository.save(paquete);
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.paquete(id));
 
         return ResponseEntity.ok(Map.of("message", "Estado actualizado correctamente"));
     }
 
+    // Ventas relampago: los cupos se entregan desde memoria y se vuelcan por lotes
+    @PatchMapping("/paquetes/{id}/inventario-memoria")
+    public ResponseEntity<?> cambiarInventarioMemoria(@PathVariable Integer id, @RequestBody Map<String, String> body) {
+        boolean activo = Boolean.parseBoolean(body.get("activo"));
+        if (activo) {
+            inventarioEnMemoria.activar(id);
+        } else {
+            inventarioEnMemoria.desactivar(id);
+        }
+
+        Integer disponible = inventarioEnMemoria.disponible(id);
+        return ResponseEntity.ok(Map.of(
+                "message", "Inventario en memoria " + (activo ? "activado" : "desactivado"),
+                "disponible", disponible != null ? disponible : 0));
+    }
+
+    // Stock segun el libro de inventario (snapshot + movimientos posteriores)
+    @GetMapping("/paquetes/{id}/inventario")
+    public ResponseEntity<LibroInventario.Stock> inventarioSegunLibro(@PathVariable Integer id,
+                                                                     @RequestParam(defaultValue = "20") int ultimos) {
+        return ResponseEntity.ok(libroInventario.stock(id, Math.max(1, Math.min(ultimos, 200))));
+    }
+
     // ==================== SERVICIOS ====================
 
     @PatchMapping("/servicios/{id}/estado")
@@ -74,6 +107,7 @@ public class AdminApiController {
         String nuevoEstado = body.get("estado");
         servicio.setEstado(nuevoEstado);
         servicioRepository.save(servicio);
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.servicio(id));
 
         return ResponseEntity.ok(Map.of("message", "Estado actualizado correctamente"));
     }
@@ -82,26 +116,15 @@ public class AdminApiController {
 
     @PatchMapping("/reservas/{id}/estado")
     public ResponseEntity<?> cambiarEstadoReserva(@PathVariable Integer id, @RequestBody Map<String, String> body) {
-        Reserva reserva = reservaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
+        EstadoReserva estadoReserva = EstadoReserva.valueOf(body.get("estado"));
 
-        String nuevoEstado = body.get("estado");
-        EstadoReserva estadoReserva = EstadoReserva.valueOf(nuevoEstado);
-
-        if (estadoReserva == EstadoReserva.PAGADA) {
-            reserva.confirmarPago();
-        } else if (estadoReserva == EstadoReserva.CANCELADA) {
-            reserva.setEstadoReserva(EstadoReserva.CANCELADA);
-            // Restaurar stock de los paquetes
-            reserva.getItems().forEach(item -> {
-                Paquete paquete = item.getPaquete();
-                paquete.setStockDisponible(paquete.getStockDisponible() + 1);
-                paqueteRepository.save(paquete);
-            });
+        // Las mismas validaciones que el usuario: solo se paga o cancela una reserva PENDIENTE
+        switch (estadoReserva) {
+            case PAGADA -> reservaService.confirmarPago(id);
+            case CANCELADA -> reservaService.cancelarDevolviendoCupos(id);
+            default -> { } // Una reserva no vuelve a PENDIENTE
         }
 
-        reservaRepository.save(reserva);
-
         return ResponseEntity.ok(Map.of("message", "Estado de reserva actualizado correctamente"));
     }
 }
@@ -0,0 +1,29 @@
+package com.ptirado.nmviajes.controller.api;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ptirado.nmviajes.constants.ApiPaths;
+import com.ptirado.nmviajes.dto.api.response.BusquedaResponse;
+import com.ptirado.nmviajes.service.BusquedaService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping(ApiPaths.BUSQUEDA)
+@RequiredArgsConstructor
+public class BusquedaController {
+
+    private final BusquedaService busquedaService;
+
+    // BUSQUEDA DE TEXTO COMPLETO (paquetes y destinos ordenados por relevancia)
+    @GetMapping
+    public ResponseEntity<BusquedaResponse> buscar(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(busquedaService.buscarParaApi(q, limite));
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.ptirado.nmviajes.constants.ApiPaths;
 import com.ptirado.nmviajes.dto.api.request.CarritoItemRequest;
 import com.ptirado.nmviajes.dto.api.response.CarritoResponse;
+import com.ptirado.nmviajes.idempotencia.EjecutorIdempotente;
 import com.ptirado.nmviajes.security.CustomUserDetails;
 import com.ptirado.nmviajes.service.CarritoService;
 
@@ -27,6 +29,7 @@ import lombok.RequiredArgsConstructor;
 public class CarritoController {
 
     private final CarritoService carritoService;
+    private final EjecutorIdempotente ejecutorIdempotente;
 
     @GetMapping
     public ResponseEntity<CarritoResponse> obtenerCarrito(
@@ -56,11 +59,16 @@ public class CarritoController {
         return ResponseEntity.noContent().build();
     }
 
+    // Con Idempotency-Key, un reintento no vuelve a procesar la compra
     @PostMapping(ApiPaths.CARRITO_CHECKOUT)
     public ResponseEntity<Void> procesarCompra(
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
-        carritoService.procesarCompraParaApi(userDetails.getIdUsuario());
-        return ResponseEntity.ok().build();
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = EjecutorIdempotente.CABECERA_CLAVE, required = false) String claveIdempotencia) {
+        return ejecutorIdempotente.ejecutar(claveIdempotencia, "checkout", userDetails.getIdUsuario(), null, Void.class,
+                () -> {
+                    carritoService.procesarCompraParaApi(userDetails.getIdUsuario());
+                    return ResponseEntity.ok().build();
+                });
     }
 
     @GetMapping(ApiPaths.CARRITO_CONTAR)
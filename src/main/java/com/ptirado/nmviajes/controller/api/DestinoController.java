@@ -3,6 +3,7 @@ package com.ptirado.nmviajes.controller.api;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,7 +13,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ptirado.nmviajes.catalogo.CoalescedorLecturas;
 import com.ptirado.nmviajes.constants.ApiPaths;
 import com.ptirado.nmviajes.dto.api.request.DestinoRequest;
 import com.ptirado.nmviajes.dto.api.response.DestinoResponse;
@@ -27,17 +30,26 @@ import lombok.RequiredArgsConstructor;
 public class DestinoController {
 
     private final DestinoService destinoService;
+    private final CoalescedorLecturas coalescedor;
 
     // LISTAR
     @GetMapping
     public ResponseEntity<List<DestinoResponse>> listar() {
-        return ResponseEntity.ok(destinoService.listarParaApi());
+        return ResponseEntity.ok(coalescedor.ejecutar("destinos:todos", destinoService::listarParaApi));
+    }
+
+    // LISTAR TODOS EN STREAMING (sin cargar la lista completa en memoria)
+    @GetMapping(ApiPaths.DESTINOS_STREAM)
+    public ResponseEntity<StreamingResponseBody> listarStream() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(destinoService::exportarParaApi);
     }
 
     // OBTENER POR ID
     @GetMapping(ApiPaths.DESTINOS_ID)
     public ResponseEntity<DestinoResponse> obtener(@PathVariable Integer id) {
-        return ResponseEntity.ok(destinoService.obtenerParaApi(id));
+        return ResponseEntity.ok(coalescedor.ejecutar("destino:" + id, () -> destinoService.obtenerParaApi(id)));
     }
 
     // CREAR
@@ -1,10 +1,14 @@
 package com.ptirado.nmviajes.controller.api;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,13 +16,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ptirado.nmviajes.catalogo.CacheRespuestasCatalogo;
+import com.ptirado.nmviajes.catalogo.CoalescedorLecturas;
+import com.ptirado.nmviajes.catalogo.FiltroBuscador;
+import com.ptirado.nmviajes.catalogo.ModoRangoFechas;
+import com.ptirado.nmviajes.catalogo.OrdenBuscador;
+import com.ptirado.nmviajes.catalogo.RangoPrecio;
 import com.ptirado.nmviajes.constants.ApiPaths;
 import com.ptirado.nmviajes.dto.api.request.PaqueteRequest;
-import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.dto.api.response.PaqueteResponse;
 import com.ptirado.nmviajes.service.PaqueteService;
 
@@ -31,17 +43,38 @@ import lombok.RequiredArgsConstructor;
 public class PaqueteController {
 
     private final PaqueteService paqueteService;
+    private final CacheRespuestasCatalogo cacheRespuestas;
+    private final CoalescedorLecturas coalescedor;
 
-    // LISTAR TODOS
+    // LISTAR TODOS (JSON pre-serializado)
     @GetMapping
-    public ResponseEntity<List<PaqueteResponse>> listar() {
-        return ResponseEntity.ok(paqueteService.listarParaApi());
+    public ResponseEntity<byte[]> listar(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cacheRespuestas.responder("paquetes:todos", acceptEncoding, paqueteService::listarParaApi);
     }
 
-    // OBTENER POR ID
+    // LISTAR TODOS EN STREAMING (sin cargar la lista completa en memoria)
+    @GetMapping(ApiPaths.PAQUETES_STREAM)
+    public ResponseEntity<StreamingResponseBody> listarStream() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(paqueteService::exportarParaApi);
+    }
+
+    // LISTAR PAGINADO POR CURSOR
+    @GetMapping(ApiPaths.PAQUETES_PAGINA)
+    public ResponseEntity<PaginaCursorResponse<PaqueteResponse>> listarPagina(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String despues,
+            @RequestParam(required = false) String antes,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(paqueteService.listarParaApiPorCursor(estado, despues, antes, limite));
+    }
+
+    // OBTENER POR ID (peticiones simultaneas del mismo paquete comparten una lectura)
     @GetMapping(ApiPaths.PAQUETES_ID)
     public ResponseEntity<PaqueteResponse> obtener(@PathVariable Integer id) {
-        return ResponseEntity.ok(paqueteService.obtenerParaApi(id));
+        return ResponseEntity.ok(coalescedor.ejecutar("paquete:" + id, () -> paqueteService.obtenerParaApi(id)));
     }
 
     // CREAR
@@ -74,18 +107,44 @@ public class PaqueteController {
         return ResponseEntity.ok(paqueteService.listarPorDestino(idDestino));
     }
 
-    // LISTAR ACTIVOS
+    // LISTAR ACTIVOS (JSON pre-serializado)
     @GetMapping("/activos")
-    public ResponseEntity<List<PaqueteResponse>> listarActivos() {
-        return ResponseEntity.ok(paqueteService.listarActivos());
+    public ResponseEntity<byte[]> listarActivos(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cacheRespuestas.responder("paquetes:activos", acceptEncoding, paqueteService::listarActivos);
+    }
+
+    // LOS N MAS BARATOS (JSON pre-serializado)
+    @GetMapping(ApiPaths.PAQUETES_MAS_BARATOS)
+    public ResponseEntity<byte[]> listarMasBaratos(
+            @RequestParam(defaultValue = "10") int limite,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cacheRespuestas.responder("paquetes:mas-baratos:" + limite, acceptEncoding,
+                () -> paqueteService.listarMasBaratos(limite));
     }
 
-    // BUSCAR CON FILTROS (retorna datos formateados para el buscador JS)
+    // BUSCAR CON FILTROS (datos formateados para el buscador JS, JSON pre-serializado).
+    // Responde el arreglo de paquetes; con facetas=true, {paquetes, facetas}
     @GetMapping("/buscar")
-    public ResponseEntity<List<PaqueteBuscadorResponse>> buscar(
+    public ResponseEntity<byte[]> buscar(
             @RequestParam(required = false) Integer idDestino,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
-        return ResponseEntity.ok(paqueteService.buscar(idDestino, fechaInicio, fechaFin));
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "DENTRO") ModoRangoFechas modo,
+            @RequestParam(required = false) RangoPrecio rangoPrecio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes,
+            @RequestParam(required = false) BigDecimal precioMin,
+            @RequestParam(required = false) BigDecimal precioMax,
+            @RequestParam(defaultValue = "FECHA") OrdenBuscador orden,
+            @RequestParam(defaultValue = "false") boolean facetas,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        FiltroBuscador filtro = new FiltroBuscador(idDestino, fechaInicio, fechaFin, modo, rangoPrecio, mes,
+                precioMin, precioMax, orden);
+        if (facetas) {
+            return cacheRespuestas.responder("paquetes:buscar-facetas:" + filtro, acceptEncoding,
+                    () -> paqueteService.buscar(filtro));
+        }
+        return cacheRespuestas.responder("paquetes:buscar:" + filtro, acceptEncoding,
+                () -> paqueteService.buscar(filtro).getPaquetes());
     }
 }
@@ -2,7 +2,9 @@ package com.ptirado.nmviajes.controller.api;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -10,12 +12,20 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.ptirado.nmviajes.constants.ApiPaths;
 import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.dto.api.response.ReservaResponse;
+import com.ptirado.nmviajes.dto.api.response.ReservaTicketResponse;
+import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+import com.ptirado.nmviajes.idempotencia.EjecutorIdempotente;
+import com.ptirado.nmviajes.reserva.ColaReservas;
 import com.ptirado.nmviajes.security.CustomUserDetails;
 import com.ptirado.nmviajes.service.ReservaService;
 
@@ -28,6 +38,8 @@ import lombok.RequiredArgsConstructor;
 public class ReservaController {
 
     private final ReservaService reservaService;
+    private final EjecutorIdempotente ejecutorIdempotente;
+    private final ColaReservas colaReservas;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -35,17 +47,63 @@ public class ReservaController {
         return ResponseEntity.ok(reservaService.listarParaApi());
     }
 
+    @GetMapping(ApiPaths.RESERVAS_STREAM)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> listarStream() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(reservaService::exportarParaApi);
+    }
+
+    @GetMapping(ApiPaths.RESERVAS_PAGINA)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaginaCursorResponse<ReservaResponse>> listarPagina(
+            @RequestParam(required = false) EstadoReserva estado,
+            @RequestParam(required = false) String despues,
+            @RequestParam(required = false) String antes,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(reservaService.listarParaApiPorCursor(null, estado, despues, antes, limite));
+    }
+
     @GetMapping(ApiPaths.RESERVAS_ID)
     public ResponseEntity<ReservaResponse> obtener(@PathVariable Integer id) {
         return ResponseEntity.ok(reservaService.obtenerParaApi(id));
     }
 
+    // Con Idempotency-Key, un reintento recibe la reserva original en vez de crear otra
     @PostMapping
     public ResponseEntity<ReservaResponse> crear(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = EjecutorIdempotente.CABECERA_CLAVE, required = false) String claveIdempotencia,
+            @Valid @RequestBody ReservaRequest request) {
+        Integer idUsuario = userDetails != null ? userDetails.getIdUsuario() : null;
+        return ejecutorIdempotente.ejecutar(claveIdempotencia, "reserva", idUsuario, request, ReservaResponse.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(reservaService.crearDesdeApi(request)));
+    }
+
+    // Modo asincrono: responde 202 con un ticket y la reserva se confirma en un lote
+    @PostMapping(ApiPaths.RESERVAS_ASINCRONA)
+    public ResponseEntity<ReservaTicketResponse> crearAsincrona(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = EjecutorIdempotente.CABECERA_CLAVE, required = false) String claveIdempotencia,
             @Valid @RequestBody ReservaRequest request) {
-        ReservaResponse response = reservaService.crearDesdeApi(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        Integer idUsuario = userDetails != null ? userDetails.getIdUsuario() : null;
+        return ejecutorIdempotente.ejecutar(claveIdempotencia, "reserva-asincrona", idUsuario, request,
+                ReservaTicketResponse.class, () -> {
+                    ReservaTicketResponse ticket = colaReservas.encolar(request, idUsuario);
+                    return ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .header(HttpHeaders.LOCATION, ApiPaths.RESERVAS
+                                    + ApiPaths.RESERVAS_TICKET.replace("{ticket}", ticket.getTicket()))
+                            .body(ticket);
+                });
+    }
+
+    @GetMapping(ApiPaths.RESERVAS_TICKET)
+    public ResponseEntity<ReservaTicketResponse> consultarTicket(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @PathVariable String ticket) {
+        Integer idUsuario = userDetails != null ? userDetails.getIdUsuario() : null;
+        return ResponseEntity.ok(colaReservas.consultar(ticket, idUsuario, esAdmin(userDetails)));
     }
 
     @GetMapping("/usuario/{idUsuario}")
@@ -53,8 +111,7 @@ public class ReservaController {
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @PathVariable Integer idUsuario) {
         // Un usuario solo puede ver sus propias reservas, a menos que sea ADMIN
-        if (!userDetails.getIdUsuario().equals(idUsuario) &&
-            !userDetails.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+        if (!userDetails.getIdUsuario().equals(idUsuario) && !esAdmin(userDetails)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         return ResponseEntity.ok(reservaService.listarPorUsuarioParaApi(idUsuario));
@@ -66,6 +123,16 @@ public class ReservaController {
         return ResponseEntity.ok(reservaService.listarPorUsuarioParaApi(userDetails.getIdUsuario()));
     }
 
+    @GetMapping(ApiPaths.RESERVAS_MIS_RESERVAS_PAGINA)
+    public ResponseEntity<PaginaCursorResponse<ReservaResponse>> listarMisReservasPagina(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(required = false) String despues,
+            @RequestParam(required = false) String antes,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(reservaService.listarParaApiPorCursor(
+                userDetails.getIdUsuario(), null, despues, antes, limite));
+    }
+
     @PostMapping("/{id}/pagar")
     public ResponseEntity<ReservaResponse> confirmarPago(@PathVariable Integer id) {
         return ResponseEntity.ok(reservaService.confirmarPago(id));
@@ -75,4 +142,9 @@ public class ReservaController {
     public ResponseEntity<ReservaResponse> cancelar(@PathVariable Integer id) {
         return ResponseEntity.ok(reservaService.cancelarReserva(id));
     }
+
+    private static boolean esAdmin(CustomUserDetails userDetails) {
+        return userDetails != null && userDetails.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
 }
@@ -0,0 +1,31 @@
+package com.ptirado.nmviajes.controller.api;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ptirado.nmviajes.constants.ApiPaths;
+import com.ptirado.nmviajes.dto.api.response.SugerenciaResponse;
+import com.ptirado.nmviajes.service.SugerenciaService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping(ApiPaths.SUGERENCIAS)
+@RequiredArgsConstructor
+public class SugerenciaController {
+
+    private final SugerenciaService sugerenciaService;
+
+    // AUTOCOMPLETADO (destinos, paises y paquetes ordenados por popularidad)
+    @GetMapping
+    public ResponseEntity<List<SugerenciaResponse>> sugerir(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limite) {
+        return ResponseEntity.ok(sugerenciaService.sugerirParaApi(q, limite));
+    }
+}
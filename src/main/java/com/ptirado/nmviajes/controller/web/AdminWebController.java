@@ -1,26 +1,48 @@
 package com.ptirado.nmviajes.controller.web;
 
+import com.ptirado.nmviajes.catalogo.CacheRespuestasCatalogo;
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CoalescedorLecturas;
+import com.ptirado.nmviajes.catalogo.IndiceBusquedaCatalogo;
+import com.ptirado.nmviajes.catalogo.IndiceBusquedaCatalogo.Coincidencias;
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.concurrencia.ReintentoConflictosAspect;
+import com.ptirado.nmviajes.dto.api.response.DestinoResponse;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.entity.*;
 import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+import com.ptirado.nmviajes.inventario.ExpiracionReservas;
+import com.ptirado.nmviajes.inventario.LibroInventario;
 import com.ptirado.nmviajes.repository.*;
+import com.ptirado.nmviajes.reserva.ColaReservas;
 import com.ptirado.nmviajes.service.AuthService;
 import com.ptirado.nmviajes.service.LogService;
 import com.ptirado.nmviajes.service.LogStatsService;
+import com.ptirado.nmviajes.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 @Controller
 @RequestMapping("/admin")
@@ -36,6 +58,15 @@ public class AdminWebController {
     private final PasswordEncoder passwordEncoder;
     private final LogService logService;
     private final LogStatsService logStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IndiceBusquedaCatalogo indiceBusqueda;
+    private final CacheRespuestasCatalogo cacheRespuestas;
+    private final CoalescedorLecturas coalescedor;
+    private final ReintentoConflictosAspect reintentosConflicto;
+    private final ExpiracionReservas expiracionReservas;
+    private final ColaReservas colaReservas;
+    private final LibroInventario libroInventario;
+    private final TransactionTemplate transactionTemplate;
 
     private static final int PAGE_SIZE = 10;
 
@@ -64,6 +95,13 @@ public class AdminWebController {
         model.addAttribute("activeMenu", "dashboard");
         model.addAttribute("stats", stats);
         model.addAttribute("ultimasReservas", ultimasReservas);
+        model.addAttribute("cacheCatalogo", cacheRespuestas.estadisticas());
+        model.addAttribute("lecturasAgrupadas", coalescedor.estadisticas());
+        model.addAttribute("reintentosTotales", reintentosConflicto.totales());
+        model.addAttribute("reintentosPorOperacion", reintentosConflicto.estadisticas());
+        model.addAttribute("reservasVencidas", expiracionReservas.totales());
+        model.addAttribute("colaReservas", colaReservas.estadisticas());
+        model.addAttribute("libroInventario", libroInventario.estadisticas());
         model.addAttribute("content", "admin/dashboard");
         return "admin/layout";
     }
@@ -198,12 +236,20 @@ public class AdminWebController {
         boolean tieneEstado = estado != null && !estado.isEmpty();
         boolean tieneBusqueda = busqueda != null && !busqueda.trim().isEmpty();
 
-        if (tieneEstado && tieneBusqueda) {
-            destinos = destinoRepository.findByEstadoAndBusquedaWithPaquetes(estado, busqueda.trim(), pageRequest);
+        if (tieneBusqueda) {
+            // Pagina en memoria sobre las coincidencias ya ordenadas por relevancia
+            Coincidencias<DestinoResponse> coincidencias = indiceBusqueda.buscarDestinos(busqueda.trim(),
+                    tieneEstado ? estado : null, AppConstants.MAX_RESULTADOS_BUSQUEDA);
+            List<Integer> ids = coincidencias.resultados().stream()
+                    .map(DestinoResponse::getIdDestino)
+                    .skip(pageRequest.getOffset())
+                    .limit(PAGE_SIZE)
+                    .toList();
+            destinos = new PageImpl<>(cargarEnOrden(ids, destinoRepository.findByIdInWithPaquetes(ids),
+                    Destino::getIdDestino), pageRequest, coincidencias.resultados().size());
+            agregarTruncado(model, coincidencias);
         } else if (tieneEstado) {
             destinos = destinoRepository.findByEstadoWithPaquetes(estado, pageRequest);
-        } else if (tieneBusqueda) {
-            destinos = destinoRepository.findByBusquedaWithPaquetes(busqueda.trim(), pageRequest);
         } else {
             destinos = destinoRepository.findAllWithPaquetes(pageRequest);
         }
@@ -253,6 +299,7 @@ public class AdminWebController {
         destino.setEstado(estado);
 
         destinoRepository.save(destino);
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.destino(destino.getIdDestino()));
         redirectAttributes.addFlashAttribute("success", "Destino creado exitosamente");
         return "redirect:/admin/destinos";
     }
@@ -273,6 +320,7 @@ public class AdminWebController {
         destino.setEstado(estado);
 
         destinoRepository.save(destino);
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.destino(id));
         redirectAttributes.addFlashAttribute("success", "Destino actualizado exitosamente");
         return "redirect:/admin/destinos";
     }
@@ -280,37 +328,80 @@ public class AdminWebController {
     // ==================== PAQUETES ====================
 
     @GetMapping("/paquetes")
-    public String listarPaquetes(@RequestParam(defaultValue = "0") int page,
+    public String listarPaquetes(@RequestParam(required = false) String despues,
+                                 @RequestParam(required = false) String antes,
                                  @RequestParam(required = false) String estado,
                                  @RequestParam(required = false) String busqueda,
                                  Model model) {
-        Page<Paquete> paquetes;
-        PageRequest pageRequest = PageRequest.of(page, PAGE_SIZE, Sort.by("idPaquete").descending());
-
         boolean tieneEstado = estado != null && !estado.isEmpty();
         boolean tieneBusqueda = busqueda != null && !busqueda.trim().isEmpty();
-
-        if (tieneEstado && tieneBusqueda) {
-            paquetes = paqueteRepository.findByEstadoAndBusquedaWithDestino(estado, busqueda.trim(), pageRequest);
-        } else if (tieneEstado) {
-            paquetes = paqueteRepository.findByEstadoWithDestino(estado, pageRequest);
-        } else if (tieneBusqueda) {
-            paquetes = paqueteRepository.findByBusquedaWithDestino(busqueda.trim(), pageRequest);
+        boolean haciaAtras = antes != null && !antes.isBlank();
+        Integer cursor = CursorUtils.decodificarId(haciaAtras ? antes : despues);
+
+        // Paginacion por cursor sobre idPaquete descendente (una fila extra indica si hay mas)
+        List<Paquete> filas;
+        if (tieneBusqueda) {
+            Coincidencias<Integer> coincidencias = indiceBusqueda.buscarPaquetes(busqueda.trim(),
+                    tieneEstado ? estado : null, AppConstants.MAX_RESULTADOS_BUSQUEDA);
+            filas = leerPaginaDeIds(coincidencias.resultados(), cursor, haciaAtras);
+            agregarTruncado(model, coincidencias);
+        } else if (haciaAtras) {
+            filas = paqueteRepository.findPaginaAnteriorWithDestino(
+                    tieneEstado ? estado : null, cursor, Limit.of(PAGE_SIZE + 1));
         } else {
-            paquetes = paqueteRepository.findAllWithDestino(pageRequest);
+            filas = paqueteRepository.findPaginaSiguienteWithDestino(
+                    tieneEstado ? estado : null, cursor, Limit.of(PAGE_SIZE + 1));
         }
+        PaginaCursorResponse<Paquete> paquetes = PaginaCursorResponse.desde(filas, PAGE_SIZE, haciaAtras,
+                cursor != null, p -> CursorUtils.codificar(p.getIdPaquete()), Function.identity());
 
         model.addAttribute("title", "Paquetes");
         model.addAttribute("activeMenu", "paquetes");
-        model.addAttribute("paquetes", paquetes.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", paquetes.getTotalPages());
+        model.addAttribute("paquetes", paquetes.getItems());
+        model.addAttribute("cursorAnterior", paquetes.getCursorAnterior());
+        model.addAttribute("cursorSiguiente", paquetes.getCursorSiguiente());
         model.addAttribute("filtroEstado", estado);
         model.addAttribute("filtroBusqueda", busqueda);
         model.addAttribute("content", "admin/paquete/list");
         return "admin/layout";
     }
 
+    /**
+     * Aplica la paginacion por cursor sobre los IDs que devolvio el indice de
+     * busqueda, conservando su orden de relevancia, y carga solo los paquetes
+     * de la pagina. El cursor es el ID del ultimo (o primer) paquete mostrado.
+     */
+    private List<Paquete> leerPaginaDeIds(List<Integer> ids, Integer cursor, boolean haciaAtras) {
+        int posicion = cursor != null ? ids.indexOf(cursor) : -1;
+        List<Integer> pagina;
+        if (haciaAtras) {
+            // Orden inverso, como findPaginaAnteriorWithDestino: el llamador lo invierte
+            int fin = posicion >= 0 ? posicion : 0;
+            pagina = new ArrayList<>(ids.subList(Math.max(0, fin - PAGE_SIZE - 1), fin));
+            Collections.reverse(pagina);
+        } else {
+            int inicio = posicion >= 0 ? posicion + 1 : 0;
+            pagina = ids.subList(inicio, Math.min(ids.size(), inicio + PAGE_SIZE + 1));
+        }
+        if (pagina.isEmpty()) return List.of();
+
+        return cargarEnOrden(pagina, paqueteRepository.findByIdInWithDestino(pagina), Paquete::getIdPaquete);
+    }
+
+    // Ordena las entidades cargadas con IN segun la lista de IDs (el IN no conserva el orden)
+    private static <T> List<T> cargarEnOrden(List<Integer> ids, List<T> entidades, Function<T, Integer> id) {
+        Map<Integer, T> porId = new HashMap<>();
+        entidades.forEach(e -> porId.put(id.apply(e), e));
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static void agregarTruncado(Model model, Coincidencias<?> coincidencias) {
+        if (coincidencias.truncado()) {
+            model.addAttribute("busquedaMostrados", coincidencias.resultados().size());
+            model.addAttribute("busquedaTotal", coincidencias.total());
+        }
+    }
+
     @GetMapping("/paquetes/nuevo")
     public String nuevoPaqueteForm(Model model) {
         model.addAttribute("title", "Nuevo Paquete");
@@ -357,7 +448,11 @@ public class AdminWebController {
         paquete.setStockDisponible(stockDisponible);
         paquete.setEstado(estado);
 
-        paqueteRepository.save(paquete);
+        transactionTemplate.executeWithoutResult(tx -> {
+            paqueteRepository.save(paquete);
+            libroInventario.registrarAjuste(paquete.getIdPaquete(), 0, stockDisponible);
+        });
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.paquete(paquete.getIdPaquete()));
         redirectAttributes.addFlashAttribute("success", "Paquete creado exitosamente");
         return "redirect:/admin/paquetes";
     }
@@ -372,13 +467,26 @@ public class AdminWebController {
                                     @RequestParam BigDecimal precio,
                                     @RequestParam Integer stockDisponible,
                                     @RequestParam(defaultValue = "ACT") String estado,
+                                    @RequestParam(required = false) Long version,
                                     RedirectAttributes redirectAttributes) {
         Paquete paquete = paqueteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Paquete no encontrado"));
 
+        // El formulario trae la version con la que se abrio: si una reserva u otro
+        // administrador cambio el paquete despues, se vuelve a mostrar con los datos nuevos
+        if (version != null && !version.equals(paquete.getVersion())) {
+            return conflictoPaquete(id, redirectAttributes);
+        }
+        if (paquete.isInventarioEnMemoria() && !Objects.equals(paquete.getStockDisponible(), stockDisponible)) {
+            redirectAttributes.addFlashAttribute("error",
+                    "El stock de este paquete se gestiona en memoria: desactive ese modo antes de modificarlo");
+            return "redirect:/admin/paquetes/" + id + "/editar";
+        }
+
         Destino destino = destinoRepository.findById(idDestino)
                 .orElseThrow(() -> new RuntimeException("Destino no encontrado"));
 
+        Integer stockAnterior = paquete.getStockDisponible();
         paquete.setNombre(nombre);
         paquete.setDestino(destino);
         paquete.setDescripcion(descripcion);
@@ -388,11 +496,26 @@ public class AdminWebController {
         paquete.setStockDisponible(stockDisponible);
         paquete.setEstado(estado);
 
-        paqueteRepository.save(paquete);
+        try {
+            // El ajuste queda en el libro solo si el paquete se guarda
+            transactionTemplate.executeWithoutResult(tx -> {
+                paqueteRepository.save(paquete);
+                libroInventario.registrarAjuste(id, stockAnterior, stockDisponible);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            return conflictoPaquete(id, redirectAttributes);
+        }
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.paquete(id));
         redirectAttributes.addFlashAttribute("success", "Paquete actualizado exitosamente");
         return "redirect:/admin/paquetes";
     }
 
+    private String conflictoPaquete(Integer id, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addFlashAttribute("error",
+                "El paquete fue modificado mientras lo editaba. Revise los datos actuales y vuelva a guardar");
+        return "redirect:/admin/paquetes/" + id + "/editar";
+    }
+
     // ==================== SERVICIOS ====================
 
     @GetMapping("/servicios")
@@ -459,6 +582,7 @@ public class AdminWebController {
         servicio.setEstado(estado);
 
         servicioRepository.save(servicio);
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.servicio(servicio.getIdServicio()));
         redirectAttributes.addFlashAttribute("success", "Servicio creado exitosamente");
         return "redirect:/admin/servicios";
     }
@@ -477,6 +601,7 @@ public class AdminWebController {
         servicio.setEstado(estado);
 
         servicioRepository.save(servicio);
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.servicio(id));
         redirectAttributes.addFlashAttribute("success", "Servicio actualizado exitosamente");
         return "redirect:/admin/servicios";
     }
@@ -484,24 +609,25 @@ public class AdminWebController {
     // ==================== RESERVAS ====================
 
     @GetMapping("/reservas")
-    public String listarReservas(@RequestParam(defaultValue = "0") int page,
+    public String listarReservas(@RequestParam(required = false) String despues,
+                                 @RequestParam(required = false) String antes,
                                  @RequestParam(required = false) String estado,
                                  Model model) {
-        Page<Reserva> reservas;
-        if (estado != null && !estado.isEmpty()) {
-            EstadoReserva estadoReserva = EstadoReserva.valueOf(estado);
-            reservas = reservaRepository.findByEstadoReservaWithUsuarioAndItems(estadoReserva,
-                    PageRequest.of(page, PAGE_SIZE, Sort.by("fechaCreacion").descending()));
-        } else {
-            reservas = reservaRepository.findAllWithUsuarioAndItems(
-                    PageRequest.of(page, PAGE_SIZE, Sort.by("fechaCreacion").descending()));
-        }
+        EstadoReserva estadoReserva = estado != null && !estado.isEmpty() ? EstadoReserva.valueOf(estado) : null;
+        boolean haciaAtras = antes != null && !antes.isBlank();
+        CursorUtils.ClaveFecha cursor = CursorUtils.decodificarFechaId(haciaAtras ? antes : despues);
+
+        List<Reserva> filas = reservaRepository.findPaginaWithUsuarioAndItems(
+                null, estadoReserva, cursor, haciaAtras, PAGE_SIZE + 1);
+        PaginaCursorResponse<Reserva> reservas = PaginaCursorResponse.desde(filas, PAGE_SIZE, haciaAtras,
+                cursor != null, r -> CursorUtils.codificar(r.getFechaCreacion(), r.getIdReserva()),
+                Function.identity());
 
         model.addAttribute("title", "Reservas");
         model.addAttribute("activeMenu", "reservas");
-        model.addAttribute("reservas", reservas.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", reservas.getTotalPages());
+        model.addAttribute("reservas", reservas.getItems());
+        model.addAttribute("cursorAnterior", reservas.getCursorAnterior());
+        model.addAttribute("cursorSiguiente", reservas.getCursorSiguiente());
         model.addAttribute("filtroEstado", estado);
         model.addAttribute("content", "admin/reserva/list");
         return "admin/layout";
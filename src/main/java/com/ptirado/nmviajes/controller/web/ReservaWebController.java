@@ -4,9 +4,6 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -19,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.dto.form.ReservaForm;
 import com.ptirado.nmviajes.security.CustomUserDetails;
 import com.ptirado.nmviajes.exception.api.BadRequestException;
@@ -69,22 +67,23 @@ public class ReservaWebController {
     private static final int PAGE_SIZE = 10;
 
     /**
-     * Muestra la lista de todas las reservas con paginacion.
+     * Muestra la lista de reservas del usuario paginando por cursor.
      *
-     * @param page Numero de pagina (0-indexed)
+     * @param despues Cursor de la pagina siguiente (opcional)
+     * @param antes Cursor de la pagina anterior (opcional)
      * @param model Modelo para la vista
      * @return Vista de lista de reservas
      */
     @GetMapping
     public String listar(@AuthenticationPrincipal CustomUserDetails userDetails,
-                         @RequestParam(defaultValue = "0") int page, Model model) {
-        Page<ReservaView> reservasPage = reservaService.listarPorUsuarioParaWebPaginado(
-                userDetails.getIdUsuario(),
-                PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "idReserva")));
-        model.addAttribute("reservas", reservasPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", reservasPage.getTotalPages());
-        model.addAttribute("totalItems", reservasPage.getTotalElements());
+                         @RequestParam(required = false) String despues,
+                         @RequestParam(required = false) String antes,
+                         Model model) {
+        PaginaCursorResponse<ReservaView> pagina = reservaService.listarPorUsuarioParaWebPorCursor(
+                userDetails.getIdUsuario(), despues, antes, PAGE_SIZE);
+        model.addAttribute("reservas", pagina.getItems());
+        model.addAttribute("cursorAnterior", pagina.getCursorAnterior());
+        model.addAttribute("cursorSiguiente", pagina.getCursorSiguiente());
         model.addAttribute("title", "Mis Reservas");
         model.addAttribute("content", "reserva/list");
         return "layout/main";
@@ -0,0 +1,25 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado del buscador de paquetes: paquetes encontrados y conteos por faceta.
+ * Las facetas son nulas mientras la foto del catalogo no esta cargada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BuscadorPaquetesResponse {
+
+    private List<PaqueteBuscadorResponse> paquetes;
+    private FacetasResponse facetas;
+}
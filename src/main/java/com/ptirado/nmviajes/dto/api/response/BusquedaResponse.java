@@ -0,0 +1,29 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de la busqueda de texto completo.
+ * Paquetes y destinos vienen ordenados por relevancia, hasta el limite pedido;
+ * los totales cuentan todas las coincidencias.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BusquedaResponse {
+
+    private String consulta;
+    private List<PaqueteBuscadorResponse> paquetes;
+    private Integer totalPaquetes;
+    private List<DestinoResponse> destinos;
+    private Integer totalDestinos;
+}
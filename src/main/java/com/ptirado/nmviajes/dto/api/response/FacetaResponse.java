@@ -0,0 +1,21 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Valor de una faceta del buscador con la cantidad de paquetes que lo cumplen.
+ * El valor es el que se envia como filtro; la etiqueta es la que se muestra.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetaResponse {
+
+    private String valor;
+    private String etiqueta;
+    private int cantidad;
+}
@@ -0,0 +1,25 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Conteos por faceta para la combinacion de filtros buscada.
+ *
+ * <p>Cada faceta se cuenta con todos los filtros excepto el suyo, asi el
+ * usuario ve cuantos paquetes obtendria al cambiar ese filtro.</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetasResponse {
+
+    private List<FacetaResponse> destinos;
+    private List<FacetaResponse> precios;
+    private List<FacetaResponse> meses;
+}
@@ -0,0 +1,73 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pagina de resultados con paginacion por cursor (keyset).
+ *
+ * <p>No incluye totales: cada pagina se resuelve con una consulta acotada por
+ * la clave del ultimo elemento, sin OFFSET ni COUNT. Los cursores son nulos
+ * cuando no hay pagina en esa direccion.</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaginaCursorResponse<T> {
+
+    private List<T> items;
+    private String cursorAnterior;
+    private String cursorSiguiente;
+    private int limite;
+
+    /**
+     * Arma la pagina a partir de las filas leidas en el sentido del recorrido.
+     *
+     * <p>Las filas deben venir pedidas con {@code limite + 1}: la fila extra solo
+     * indica si existe otra pagina en ese sentido. Al retroceder, las filas llegan
+     * en orden inverso y se invierten antes de mapearlas.</p>
+     *
+     * @param filas      Filas leidas (hasta limite + 1)
+     * @param limite     Tamano de pagina
+     * @param haciaAtras true si se pidio la pagina anterior a un cursor
+     * @param conCursor  true si la consulta partio de un cursor (no es la primera pagina)
+     * @param cursorDe   Genera el cursor de una fila
+     * @param mapper     Convierte la fila al tipo de respuesta
+     */
+    public static <E, T> PaginaCursorResponse<T> desde(List<E> filas, int limite, boolean haciaAtras,
+                                                       boolean conCursor, Function<E, String> cursorDe,
+                                                       Function<E, T> mapper) {
+        boolean hayMas = filas.size() > limite;
+        List<E> pagina = new ArrayList<>(filas.subList(0, Math.min(filas.size(), limite)));
+        if (haciaAtras) {
+            Collections.reverse(pagina);
+        }
+
+        String anterior = null;
+        String siguiente = null;
+        if (!pagina.isEmpty()) {
+            E primero = pagina.get(0);
+            E ultimo = pagina.get(pagina.size() - 1);
+            if (haciaAtras ? hayMas : conCursor) anterior = cursorDe.apply(primero);
+            if (haciaAtras || hayMas) siguiente = cursorDe.apply(ultimo);
+        }
+
+        return PaginaCursorResponse.<T>builder()
+                .items(pagina.stream().map(mapper).toList())
+                .cursorAnterior(anterior)
+                .cursorSiguiente(siguiente)
+                .limite(limite)
+                .build();
+    }
+}
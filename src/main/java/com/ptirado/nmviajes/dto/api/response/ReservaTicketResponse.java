@@ -0,0 +1,29 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReservaTicketResponse {
+
+    private String ticket;
+    // EN_COLA, CONFIRMADA o RECHAZADA
+    private String estado;
+    private LocalDateTime fechaRecepcion;
+
+    // Solo cuando la reserva se confirmo
+    private ReservaResponse reserva;
+
+    // Solo cuando la reserva se rechazo
+    private String mensaje;
+}
@@ -0,0 +1,24 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sugerencia del autocompletado: destino, pais o paquete.
+ * Los paises no tienen ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SugerenciaResponse {
+
+    private String tipo;
+    private Integer id;
+    private String texto;
+}
@@ -13,7 +13,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -30,7 +32,8 @@ import lombok.ToString;
 public class Carrito {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carrito_seq")
+    @SequenceGenerator(name = "carrito_seq", sequenceName = "carrito_seq", allocationSize = 50)
     @ToString.Include
     @EqualsAndHashCode.Include
     private Integer idCarrito;
@@ -38,6 +41,10 @@ public class Carrito {
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaModificacion;
 
+    // Bloqueo optimista: un UPDATE con version vieja falla en vez de pisar otra escritura
+    @Version
+    private Long version;
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario")
     private Usuario usuario;
@@ -14,6 +14,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -31,7 +32,8 @@ import lombok.ToString;
 public class CarritoItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carrito_item_seq")
+    @SequenceGenerator(name = "carrito_item_seq", sequenceName = "carrito_item_seq", allocationSize = 50)
     @ToString.Include
     @EqualsAndHashCode.Include
     private Integer idItem;
@@ -0,0 +1,64 @@
+package com.ptirado.nmviajes.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Modelo de lectura del catalogo: una fila desnormalizada por paquete con los
+ * datos de su destino y los campos ya formateados para mostrar.
+ *
+ * <p>No se edita directamente: la mantiene {@code CatalogoLecturaProyector}
+ * cada vez que cambia un paquete, un destino o el stock.</p>
+ */
+@Entity
+@Table(name = "catalogo_lectura")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CatalogoLectura {
+
+    @Id
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private Integer idPaquete;
+
+    @ToString.Include
+    private String nombre;
+
+    private String descripcion;
+
+    private BigDecimal precio;
+    private String precioFormateado;
+
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private String fechaInicioFormateada;
+    private String fechaFinFormateada;
+
+    private Integer stockDisponible;
+    private String estado;
+
+    // Activo y con stock
+    @ToString.Include
+    private boolean disponible;
+
+    private Integer idDestino;
+    private String nombreDestino;
+    private String paisDestino;
+
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaModificacion;
+    private LocalDateTime fechaProyeccion;
+}
@@ -0,0 +1,51 @@
+package com.ptirado.nmviajes.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Respuesta guardada para una clave de idempotencia (almacen compartido entre nodos).
+ *
+ * <p>Las filas se insertan y actualizan con sentencias directas del repositorio;
+ * la entidad solo se usa para leer.</p>
+ */
+@Entity
+@Table(name = "idempotencia_respuesta")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class IdempotenciaRespuesta {
+
+    // Operacion, usuario y clave enviada por el cliente
+    @Id
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private String clave;
+
+    private String huella;
+
+    @ToString.Include
+    private boolean completada;
+
+    private Integer codigoHttp;
+
+    private String cuerpo;
+
+    private LocalDateTime fechaCreacion;
+
+    // Solo mientras esta en curso: despues otra solicitud puede tomar la clave
+    private LocalDateTime reservadoHasta;
+
+    // Solo una vez completada
+    private LocalDateTime fechaExpiracion;
+}
@@ -0,0 +1,66 @@
+package com.ptirado.nmviajes.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Movimiento del libro de inventario: un cambio de stock de un paquete.
+ *
+ * <p>El libro es de solo insercion (ver
+ * {@link com.ptirado.nmviajes.inventario.LibroInventario}): las filas se
+ * escriben con consultas nativas en la misma transaccion que el cambio de
+ * stock y nunca se modifican.</p>
+ */
+@Entity
+@Immutable
+@Table(name = "inventario_movimiento")
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class InventarioMovimiento {
+
+    // Solo se inserta con SQL nativo (uno o varios movimientos por sentencia)
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private Long idMovimiento;
+
+    // Sin relacion: el historial se conserva aunque el paquete se elimine
+    @ToString.Include
+    private Integer idPaquete;
+
+    // Negativo: cupos que salen; positivo: cupos que vuelven o se agregan
+    @ToString.Include
+    private Integer cantidad;
+
+    @Enumerated(EnumType.STRING)
+    @ToString.Include
+    private Motivo motivo;
+
+    private Integer idReserva;
+
+    private LocalDateTime fechaCreacion;
+
+    public enum Motivo {
+        RESERVA,
+        CANCELACION,
+        EXPIRACION,
+        AJUSTE
+    }
+}
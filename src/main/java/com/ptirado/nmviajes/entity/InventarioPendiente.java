@@ -0,0 +1,60 @@
+package com.ptirado.nmviajes.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Cupos entregados desde el inventario en memoria que todavia no se descontaron
+ * de {@code paquete.stock_disponible}.
+ *
+ * <p>Se inserta en la misma transaccion que la reserva, por lo que sobrevive a
+ * una caida del servidor; el volcado periodico la aplica y la borra en una
+ * sola transaccion.</p>
+ */
+@Entity
+@Table(name = "inventario_pendiente")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class InventarioPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventario_pendiente_seq")
+    @SequenceGenerator(name = "inventario_pendiente_seq", sequenceName = "inventario_pendiente_seq", allocationSize = 50)
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private Long idInventarioPendiente;
+
+    // Sin relacion: el volcado solo necesita el ID y no debe cargar el paquete
+    @ToString.Include
+    private Integer idPaquete;
+
+    @ToString.Include
+    private Integer cantidad;
+
+    private LocalDateTime fechaCreacion;
+
+    public InventarioPendiente(Integer idPaquete, Integer cantidad) {
+        this.idPaquete = idPaquete;
+        this.cantidad = cantidad;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.fechaCreacion = LocalDateTime.now();
+    }
+}
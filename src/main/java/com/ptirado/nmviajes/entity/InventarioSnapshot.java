@@ -0,0 +1,45 @@
+package com.ptirado.nmviajes.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Stock de un paquete segun el libro de inventario, sumado hasta {@code fechaHasta}.
+ * Solo lo escribe la compactacion de
+ * {@link com.ptirado.nmviajes.inventario.LibroInventario}.
+ */
+@Entity
+@Immutable
+@Table(name = "inventario_snapshot")
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class InventarioSnapshot {
+
+    @Id
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private Integer idPaquete;
+
+    @ToString.Include
+    private Integer stock;
+
+    // Incluye los movimientos con fecha anterior a este instante
+    @ToString.Include
+    private LocalDateTime fechaHasta;
+
+    private Long movimientos;
+
+    private LocalDateTime fechaActualizacion;
+}
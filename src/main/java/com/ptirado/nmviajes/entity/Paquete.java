@@ -6,6 +6,8 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -17,6 +19,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -24,7 +27,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+// Solo se escriben las columnas modificadas: editar un paquete no pisa el stock
+// que InventarioService o el volcado en memoria cambiaron con UPDATE directos
 @Entity
+@DynamicUpdate
 @Table(name = "paquete")
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
@@ -51,9 +57,16 @@ public class Paquete {
 
     private Integer stockDisponible;
     private String estado;
+
+    // Los cupos se entregan desde memoria y se vuelcan a stock_disponible por lotes
+    private boolean inventarioEnMemoria;
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaModificacion;
 
+    // Bloqueo optimista: un UPDATE con version vieja falla en vez de pisar otra escritura
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_destino")
     private Destino destino;
@@ -18,7 +18,9 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -34,8 +36,10 @@ import lombok.ToString;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Reserva {
 
+    // IDs por bloques desde reserva_seq: con IDENTITY Hibernate no agrupa los INSERT en lotes
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_seq")
+    @SequenceGenerator(name = "reserva_seq", sequenceName = "reserva_seq", allocationSize = 50)
     @ToString.Include
     @EqualsAndHashCode.Include
     private Integer idReserva;
@@ -51,6 +55,10 @@ public class Reserva {
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaModificacion;
 
+    // Bloqueo optimista: un UPDATE con version vieja falla en vez de pisar otra escritura
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         fechaCreacion = LocalDateTime.now();
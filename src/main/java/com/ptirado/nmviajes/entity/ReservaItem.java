@@ -15,6 +15,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -32,7 +33,8 @@ import lombok.ToString;
 public class ReservaItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_item_seq")
+    @SequenceGenerator(name = "reserva_item_seq", sequenceName = "reserva_item_seq", allocationSize = 50)
     @ToString.Include
     @EqualsAndHashCode.Include
     private Integer idItem;
@@ -1,9 +1,12 @@
 package com.ptirado.nmviajes.exception.api;
 
+import com.ptirado.nmviajes.constants.MessageKeys;
 import com.ptirado.nmviajes.util.DateUtils;
 import com.ptirado.nmviajes.util.MessageUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -64,6 +67,24 @@ public class ApiExceptionHandler {
         );
     }
 
+    // =====================================
+    //  Conflicto de bloqueo optimista (409)
+    // =====================================
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConflicto(OptimisticLockingFailureException ex,
+                                                         HttpServletRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ErrorResponse.builder()
+                        .timestamp(DateUtils.format(LocalDateTime.now()))
+                        .status(HttpStatus.CONFLICT.value())
+                        .error("ConflictException")
+                        .message(messageUtils.getMessage(MessageKeys.CONFLICTO_CONCURRENTE))
+                        .path(request.getRequestURI())
+                        .build()
+        );
+    }
+
     // =====================================
     //   Fallback global (500)
     // =====================================
@@ -0,0 +1,9 @@
+package com.ptirado.nmviajes.exception.api;
+
+import org.springframework.http.HttpStatus;
+
+public class TooManyRequestsException extends ApiException {
+    public TooManyRequestsException(String messageKey, Object... args) {
+        super(messageKey, HttpStatus.TOO_MANY_REQUESTS, args);
+    }
+}
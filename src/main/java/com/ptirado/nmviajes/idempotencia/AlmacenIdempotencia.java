@@ -0,0 +1,42 @@
+package com.ptirado.nmviajes.idempotencia;
+
+import java.time.LocalDateTime;
+
+/**
+ * Guarda las respuestas de las operaciones con clave de idempotencia.
+ *
+ * <p>Hay una implementacion en memoria (un solo nodo, por defecto) y otra en
+ * la tabla {@code idempotencia_respuesta} para varios nodos; se elige con
+ * {@code idempotencia.almacen=memoria|tabla}.</p>
+ */
+public interface AlmacenIdempotencia {
+
+    /**
+     * Registra la clave como en curso si no existe, si ya vencio o si la
+     * reserva de otra solicitud en curso termino sin completarse.
+     *
+     * @param reservadoHasta Hasta cuando la clave queda en curso para este llamador
+     * @return null si la clave quedo registrada para este llamador, o el
+     *         registro vigente de otra solicitud con la misma clave
+     */
+    RegistroIdempotencia reservar(String clave, String huella, LocalDateTime reservadoHasta);
+
+    /**
+     * Guarda la respuesta de una clave reservada.
+     *
+     * @param expira Momento desde el que la clave completada se puede volver a usar
+     */
+    void completar(String clave, int codigoHttp, String cuerpo, LocalDateTime expira);
+
+    /**
+     * Quita una clave en curso cuya operacion fallo, para que se pueda reintentar.
+     */
+    void liberar(String clave);
+
+    /**
+     * Elimina las claves vencidas.
+     *
+     * @return Cantidad de claves eliminadas
+     */
+    int purgarVencidas(LocalDateTime ahora);
+}
@@ -0,0 +1,49 @@
+package com.ptirado.nmviajes.idempotencia;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Almacen de idempotencia en memoria para un solo nodo.
+ *
+ * <p>Cada clave guarda solo la huella, el codigo y el JSON de la respuesta.
+ * Las claves vencidas (y las en curso cuya reserva termino) se ignoran al
+ * leer y la purga periodica las elimina.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "idempotencia.almacen", havingValue = "memoria", matchIfMissing = true)
+public class AlmacenIdempotenciaMemoria implements AlmacenIdempotencia {
+
+    private final Map<String, RegistroIdempotencia> registros = new ConcurrentHashMap<>();
+
+    @Override
+    public RegistroIdempotencia reservar(String clave, String huella, LocalDateTime reservadoHasta) {
+        LocalDateTime ahora = LocalDateTime.now();
+        RegistroIdempotencia nuevo = RegistroIdempotencia.enCurso(huella, reservadoHasta);
+        // compute es atomico por clave: solo una solicitud puede dejar su registro
+        RegistroIdempotencia vigente = registros.compute(clave,
+                (k, actual) -> actual != null && !actual.vencido(ahora) ? actual : nuevo);
+        return vigente == nuevo ? null : vigente;
+    }
+
+    @Override
+    public void completar(String clave, int codigoHttp, String cuerpo, LocalDateTime expira) {
+        registros.computeIfPresent(clave, (k, actual) -> actual.completar(codigoHttp, cuerpo, expira));
+    }
+
+    @Override
+    public void liberar(String clave) {
+        registros.computeIfPresent(clave, (k, actual) -> actual.completada() ? actual : null);
+    }
+
+    @Override
+    public int purgarVencidas(LocalDateTime ahora) {
+        int antes = registros.size();
+        registros.values().removeIf(r -> r.vencido(ahora));
+        return Math.max(0, antes - registros.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.ptirado.nmviajes.idempotencia;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ptirado.nmviajes.entity.IdempotenciaRespuesta;
+import com.ptirado.nmviajes.repository.IdempotenciaRespuestaRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Almacen de idempotencia en la tabla {@code idempotencia_respuesta}, compartido
+ * entre nodos.
+ *
+ * <p>Cada operacion confirma en su propia transaccion: la clave en curso debe
+ * ser visible para los demas nodos antes de ejecutar la operacion, y la
+ * respuesta se guarda despues de que esta confirmo.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "idempotencia.almacen", havingValue = "tabla")
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public class AlmacenIdempotenciaTabla implements AlmacenIdempotencia {
+
+    private final IdempotenciaRespuestaRepository repository;
+
+    @Override
+    public RegistroIdempotencia reservar(String clave, String huella, LocalDateTime reservadoHasta) {
+        LocalDateTime ahora = LocalDateTime.now();
+        // La PK decide entre nodos: solo un INSERT gana
+        if (repository.insertarSiNoExiste(clave, huella, ahora, reservadoHasta) == 1) return null;
+        // Clave vencida, o en curso de una solicitud que no termino, que la purga aun no elimino
+        if (repository.reemplazarVencida(clave, huella, ahora, reservadoHasta) == 1) return null;
+
+        Optional<IdempotenciaRespuesta> vigente = repository.findById(clave);
+        if (vigente.isEmpty()) {
+            // Se purgo entre medio: se intenta una vez mas
+            return repository.insertarSiNoExiste(clave, huella, ahora, reservadoHasta) == 1
+                    ? null
+                    : repository.findById(clave).map(AlmacenIdempotenciaTabla::registro).orElse(null);
+        }
+        return registro(vigente.get());
+    }
+
+    @Override
+    public void completar(String clave, int codigoHttp, String cuerpo, LocalDateTime expira) {
+        repository.completar(clave, codigoHttp, cuerpo, expira);
+    }
+
+    @Override
+    public void liberar(String clave) {
+        repository.liberar(clave);
+    }
+
+    @Override
+    public int purgarVencidas(LocalDateTime ahora) {
+        return repository.purgarVencidas(ahora);
+    }
+
+    private static RegistroIdempotencia registro(IdempotenciaRespuesta fila) {
+        return new RegistroIdempotencia(fila.getHuella(), fila.isCompletada(),
+                fila.getCodigoHttp() != null ? fila.getCodigoHttp() : 0,
+                fila.getCuerpo(), fila.isCompletada() ? fila.getFechaExpiracion() : fila.getReservadoHasta());
+    }
+}
@@ -0,0 +1,152 @@
+package com.ptirado.nmviajes.idempotencia;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+import com.ptirado.nmviajes.exception.api.ConflictException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ejecuta una operacion a lo sumo una vez por cabecera {@code Idempotency-Key}.
+ *
+ * <p>La primera solicitud con una clave reserva la clave, ejecuta la operacion
+ * y guarda su respuesta. Un reintento con la misma clave y el mismo cuerpo
+ * recibe esa respuesta sin volver a ejecutar la transaccion; con otro cuerpo
+ * se rechaza. Si llega mientras la primera sigue en curso, recibe 409 y puede
+ * reintentar despues. Si la operacion falla, la clave se libera.</p>
+ *
+ * <p>Las claves se separan por operacion y usuario. Una clave en curso solo
+ * se reserva por {@code idempotencia.reserva-segundos}: si el nodo cae antes
+ * de completarla o liberarla, un reintento posterior la toma. Una vez
+ * completada vence despues de {@code idempotencia.ttl-minutos}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class EjecutorIdempotente {
+
+    private static final Logger log = LoggerFactory.getLogger(EjecutorIdempotente.class);
+
+    public static final String CABECERA_CLAVE = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final int LARGO_MAXIMO_CLAVE = 100;
+
+    private final AlmacenIdempotencia almacen;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotencia.ttl-minutos:1440}")
+    private long ttlMinutos;
+
+    @Value("${idempotencia.reserva-segundos:120}")
+    private long reservaSegundos;
+
+    /**
+     * Ejecuta la accion, o devuelve la respuesta guardada si la clave ya se uso.
+     *
+     * @param clave      Valor de la cabecera (null o vacio ejecuta sin idempotencia)
+     * @param operacion  Nombre de la operacion, separa las claves entre endpoints
+     * @param idUsuario  Usuario autenticado, separa las claves entre usuarios
+     * @param solicitud  Cuerpo de la solicitud (puede ser null)
+     * @param tipoCuerpo Clase del cuerpo de la respuesta, para leer la guardada
+     * @param accion     Operacion a ejecutar una sola vez
+     */
+    public <T> ResponseEntity<T> ejecutar(String clave, String operacion, Integer idUsuario, Object solicitud,
+                                          Class<T> tipoCuerpo, Supplier<ResponseEntity<T>> accion) {
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+        if (clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new BadRequestException(MessageKeys.IDEMPOTENCIA_CLAVE_INVALIDA, LARGO_MAXIMO_CLAVE);
+        }
+
+        String completa = operacion + ":" + idUsuario + ":" + clave;
+        String huella = huella(solicitud);
+        RegistroIdempotencia vigente = almacen.reservar(completa, huella,
+                LocalDateTime.now().plusSeconds(reservaSegundos));
+        if (vigente != null) {
+            return repetir(vigente, huella, tipoCuerpo);
+        }
+
+        ResponseEntity<T> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException | Error e) {
+            almacen.liberar(completa);
+            throw e;
+        }
+
+        try {
+            almacen.completar(completa, respuesta.getStatusCode().value(), serializar(respuesta.getBody()),
+                    LocalDateTime.now().plusMinutes(ttlMinutos));
+        } catch (RuntimeException e) {
+            // La operacion ya se confirmo: se responde igual aunque no se pueda guardar
+            log.error("No se pudo guardar la respuesta idempotente de {}", completa, e);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Elimina las claves vencidas.
+     */
+    @Scheduled(fixedDelayString = "${idempotencia.intervalo-purga-ms:60000}")
+    public void purgar() {
+        int purgadas = almacen.purgarVencidas(LocalDateTime.now());
+        if (purgadas > 0) {
+            log.debug("Claves de idempotencia vencidas eliminadas: {}", purgadas);
+        }
+    }
+
+    private <T> ResponseEntity<T> repetir(RegistroIdempotencia vigente, String huella, Class<T> tipoCuerpo) {
+        if (!vigente.huella().equals(huella)) {
+            throw new BadRequestException(MessageKeys.IDEMPOTENCIA_CLAVE_REUTILIZADA);
+        }
+        if (!vigente.completada()) {
+            throw new ConflictException(MessageKeys.IDEMPOTENCIA_EN_CURSO);
+        }
+        return ResponseEntity.status(vigente.codigoHttp())
+                .header(CABECERA_REPETIDA, "true")
+                .body(deserializar(vigente.cuerpo(), tipoCuerpo));
+    }
+
+    private String huella(Object solicitud) {
+        try {
+            byte[] datos = solicitud != null ? objectMapper.writeValueAsBytes(solicitud) : new byte[0];
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+
+    private String serializar(Object cuerpo) {
+        if (cuerpo == null) return null;
+        try {
+            return objectMapper.writeValueAsString(cuerpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    private <T> T deserializar(String cuerpo, Class<T> tipo) {
+        if (cuerpo == null || tipo == Void.class) return null;
+        try {
+            return objectMapper.readValue(cuerpo, tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ptirado.nmviajes.idempotencia;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado guardado para una clave de idempotencia.
+ *
+ * @param huella     SHA-256 del cuerpo de la primera solicitud con la clave
+ * @param completada false mientras la primera solicitud sigue en curso
+ * @param codigoHttp Codigo de la respuesta original (solo si completada)
+ * @param cuerpo     JSON de la respuesta original, o null si no tenia cuerpo
+ * @param expira     Momento desde el que la clave se puede volver a usar: el fin
+ *                   de la reserva mientras esta en curso, o el del TTL una vez completada
+ */
+public record RegistroIdempotencia(String huella, boolean completada, int codigoHttp, String cuerpo,
+                                   LocalDateTime expira) {
+
+    static RegistroIdempotencia enCurso(String huella, LocalDateTime reservadoHasta) {
+        return new RegistroIdempotencia(huella, false, 0, null, reservadoHasta);
+    }
+
+    RegistroIdempotencia completar(int codigoHttp, String cuerpo, LocalDateTime expira) {
+        return new RegistroIdempotencia(huella, true, codigoHttp, cuerpo, expira);
+    }
+
+    boolean vencido(LocalDateTime ahora) {
+        return !expira.isAfter(ahora);
+    }
+}
@@ -0,0 +1,175 @@
+package com.ptirado.nmviajes.inventario;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Cupos de un paquete repartidos en franjas independientes, una por nucleo.
+ *
+ * <p>Cada hilo descuenta con un CAS sobre su propia franja y solo pasa a las
+ * demas cuando la suya se agota, asi las reservas concurrentes casi nunca
+ * compiten por la misma variable. Las franjas estan separadas por una linea de
+ * cache (16 enteros) para que no haya falso compartido. La suma nunca baja de
+ * cero: no se pueden entregar mas cupos que los cargados.</p>
+ *
+ * <p>Al cerrarse deja de entregar cupos; {@link #esperarVuelos} espera a que
+ * terminen las transacciones que ya tomaron uno y {@link #retirar} despierta a
+ * los hilos que encontraron el contador cerrado.</p>
+ */
+final class ContadorEstriado {
+
+    private static final int SEPARACION = 16;
+
+    enum Resultado {
+        TOMADO,
+        AGOTADO,
+        CERRADO
+    }
+
+    private final AtomicIntegerArray celdas;
+    private final int mascara;
+
+    // Cupos tomados cuya transaccion aun no termina
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private volatile boolean cerrado;
+    private final CountDownLatch retirado = new CountDownLatch(1);
+
+    /**
+     * @param stock   Cupos disponibles al cargar
+     * @param franjas Cantidad de franjas (se redondea a potencia de 2)
+     */
+    ContadorEstriado(int stock, int franjas) {
+        int n = franjas <= 1 ? 1 : Integer.highestOneBit(franjas - 1) << 1;
+        this.mascara = n - 1;
+        this.celdas = new AtomicIntegerArray(n * SEPARACION);
+        int base = Math.max(0, stock) / n;
+        int resto = Math.max(0, stock) % n;
+        for (int i = 0; i < n; i++) {
+            celdas.set(i * SEPARACION, base + (i < resto ? 1 : 0));
+        }
+    }
+
+    // ========================================================================
+    // CUPOS
+    // ========================================================================
+
+    /**
+     * Toma cupos sin bloquear. Si el resultado es {@link Resultado#TOMADO} el
+     * llamador debe invocar {@link #terminarVuelo} al cerrar su transaccion.
+     */
+    Resultado tomar(int cantidad) {
+        // Se registra antes de mirar la marca: quien cierra ve este vuelo o el
+        // hilo ve el cierre, nunca ninguno de los dos
+        enVuelo.incrementAndGet();
+        if (cerrado) {
+            enVuelo.decrementAndGet();
+            return Resultado.CERRADO;
+        }
+        if (tomarDeFranjas(cantidad)) {
+            return Resultado.TOMADO;
+        }
+        enVuelo.decrementAndGet();
+        return Resultado.AGOTADO;
+    }
+
+    void devolver(int cantidad) {
+        celdas.addAndGet(franjaPropia() * SEPARACION, cantidad);
+    }
+
+    void terminarVuelo() {
+        enVuelo.decrementAndGet();
+    }
+
+    /**
+     * Suma de las franjas. Es exacta solo si no hay operaciones concurrentes.
+     */
+    int disponible() {
+        int total = 0;
+        for (int i = 0; i <= mascara; i++) {
+            total += celdas.get(i * SEPARACION);
+        }
+        return total;
+    }
+
+    int franjas() {
+        return mascara + 1;
+    }
+
+    // ========================================================================
+    // CIERRE
+    // ========================================================================
+
+    void cerrar() {
+        cerrado = true;
+    }
+
+    /**
+     * Espera a que terminen las transacciones con cupos tomados de este contador.
+     *
+     * @return false si se vencio el plazo
+     */
+    boolean esperarVuelos(long milisegundos) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milisegundos);
+        while (enVuelo.get() > 0) {
+            if (System.nanoTime() > limite) return false;
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    void retirar() {
+        retirado.countDown();
+    }
+
+    boolean esperarRetiro(long milisegundos) throws InterruptedException {
+        return retirado.await(milisegundos, TimeUnit.MILLISECONDS);
+    }
+
+    // ========================================================================
+    // UTILIDADES
+    // ========================================================================
+
+    private boolean tomarDeFranjas(int cantidad) {
+        int inicio = franjaPropia();
+
+        // Caso comun: la franja propia (o la primera con saldo) cubre todo
+        for (int k = 0; k <= mascara; k++) {
+            int pos = ((inicio + k) & mascara) * SEPARACION;
+            int actual;
+            while ((actual = celdas.get(pos)) >= cantidad) {
+                if (celdas.compareAndSet(pos, actual, actual - cantidad)) return true;
+            }
+        }
+        if (cantidad == 1) return false;
+
+        // Saldo repartido entre franjas: se junta de a poco y se devuelve si no alcanza
+        int[] tomados = new int[mascara + 1];
+        int faltan = cantidad;
+        for (int k = 0; k <= mascara && faltan > 0; k++) {
+            int i = (inicio + k) & mascara;
+            int pos = i * SEPARACION;
+            int actual;
+            while ((actual = celdas.get(pos)) > 0) {
+                int parte = Math.min(actual, faltan);
+                if (celdas.compareAndSet(pos, actual, actual - parte)) {
+                    tomados[i] += parte;
+                    faltan -= parte;
+                    break;
+                }
+            }
+        }
+        if (faltan == 0) return true;
+
+        for (int i = 0; i <= mascara; i++) {
+            if (tomados[i] > 0) celdas.addAndGet(i * SEPARACION, tomados[i]);
+        }
+        return false;
+    }
+
+    private int franjaPropia() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & mascara;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ptirado.nmviajes.inventario;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.catalogo.StockCambiadoEvent;
+import com.ptirado.nmviajes.entity.InventarioMovimiento.Motivo;
+import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.repository.ReservaItemRepository;
+import com.ptirado.nmviajes.repository.ReservaRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cancela las reservas que siguen PENDIENTE despues del TTL y devuelve sus cupos.
+ *
+ * <p>Cada reserva descuenta stock al crearse; si nunca se paga, esos cupos
+ * quedarian tomados para siempre. La tarea recorre las vencidas por lotes,
+ * cada uno en su propia transaccion y con un numero fijo de sentencias sin
+ * importar su tamano: bloquea el lote, cuenta los cupos por paquete, los
+ * devuelve con un solo UPDATE y cancela las reservas con otro.</p>
+ *
+ * <p>Un pago concurrente no se pierde: si el pago llega primero, su fila esta
+ * bloqueada y el lote la salta; si llega despues, la version de la reserva ya
+ * cambio y el pago se reintenta viendola cancelada.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpiracionReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiracionReservas.class);
+
+    private final ReservaRepository reservaRepository;
+    private final ReservaItemRepository reservaItemRepository;
+    private final PaqueteRepository paqueteRepository;
+    private final InventarioEnMemoria inventarioEnMemoria;
+    private final LibroInventario libroInventario;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reserva.pendiente.ttl-minutos:30}")
+    private long ttlMinutos;
+
+    @Value("${reserva.pendiente.lote-expiracion:200}")
+    private int lote;
+
+    // Acumulados desde el arranque
+    private final AtomicLong reservasVencidas = new AtomicLong();
+    private final AtomicLong cuposLiberados = new AtomicLong();
+
+    /**
+     * Resultado de una expiracion.
+     *
+     * @param reservas Reservas canceladas
+     * @param cupos    Cupos devueltos al stock
+     */
+    public record Expiracion(long reservas, long cupos) {
+    }
+
+    /**
+     * Totales acumulados desde el arranque.
+     */
+    public Expiracion totales() {
+        return new Expiracion(reservasVencidas.get(), cuposLiberados.get());
+    }
+
+    /**
+     * Cancela todas las reservas vencidas, un lote por transaccion.
+     */
+    @Scheduled(fixedDelayString = "${reserva.pendiente.intervalo-expiracion-ms:60000}")
+    public Expiracion expirar() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(ttlMinutos);
+        long reservas = 0;
+        long cupos = 0;
+
+        while (true) {
+            Expiracion resultado = transactionTemplate.execute(estado -> expirarLote(limite));
+            if (resultado == null || resultado.reservas() == 0) break;
+            reservas += resultado.reservas();
+            cupos += resultado.cupos();
+            // Un lote incompleto significa que ya no quedan vencidas (o las demas estan bloqueadas)
+            if (resultado.reservas() < lote) break;
+        }
+
+        if (reservas > 0) {
+            reservasVencidas.addAndGet(reservas);
+            cuposLiberados.addAndGet(cupos);
+            log.info("Reservas pendientes vencidas: {} canceladas, {} cupos liberados (TTL {} min)",
+                    reservas, cupos, ttlMinutos);
+        }
+        return new Expiracion(reservas, cupos);
+    }
+
+    // Dentro de una transaccion: las filas del lote quedan bloqueadas hasta el commit
+    private Expiracion expirarLote(LocalDateTime limite) {
+        List<Integer> ids = reservaRepository.bloquearPendientesVencidas(limite, lote);
+        if (ids.isEmpty()) return new Expiracion(0, 0);
+
+        Map<Integer, Long> cuposPorPaquete = reservaItemRepository.contarCuposPorPaquete(ids);
+        if (!cuposPorPaquete.isEmpty()) {
+            paqueteRepository.devolverStockDeReservas(ids);
+            libroInventario.registrarReservas(ids, Motivo.EXPIRACION);
+            // Los paquetes con inventario en memoria tambien reponen su contador al confirmar
+            cuposPorPaquete.forEach((idPaquete, cupos) ->
+                    inventarioEnMemoria.devolverAlConfirmar(idPaquete, Math.toIntExact(cupos)));
+            eventPublisher.publishEvent(new StockCambiadoEvent(new ArrayList<>(cuposPorPaquete.keySet())));
+        }
+
+        int canceladas = reservaRepository.cancelarPendientes(ids, LocalDateTime.now(),
+                EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA);
+        long cupos = cuposPorPaquete.values().stream().mapToLong(Long::longValue).sum();
+        return new Expiracion(canceladas, cupos);
+    }
+}
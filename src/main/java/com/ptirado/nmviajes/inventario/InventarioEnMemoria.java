@@ -0,0 +1,324 @@
+package com.ptirado.nmviajes.inventario;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.catalogo.StockCambiadoEvent;
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.entity.InventarioPendiente;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.repository.InventarioPendienteRepository;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Inventario en memoria para paquetes en venta relampago.
+ *
+ * <p>Con el inventario normal cada reserva hace un UPDATE sobre la fila del
+ * paquete y, si todos compran el mismo, se forman en fila por ese bloqueo. Los
+ * paquetes marcados por un administrador entregan los cupos desde un
+ * {@link ContadorEstriado} sin bloqueos y solo insertan una fila en
+ * {@code inventario_pendiente} (sin competir por ninguna fila existente).</p>
+ *
+ * <p>El volcado periodico suma las filas pendientes por paquete, las descuenta
+ * de {@code stock_disponible} y las borra en una sola transaccion. En todo
+ * momento el stock real es {@code stock_disponible - SUM(pendientes)}: si el
+ * servidor cae, al iniciar se vuelcan los pendientes y los contadores se
+ * cargan desde la base de datos.</p>
+ *
+ * <p>Supone una sola instancia de la aplicacion: los contadores no se
+ * comparten entre procesos.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class InventarioEnMemoria {
+
+    private static final Logger log = LoggerFactory.getLogger(InventarioEnMemoria.class);
+
+    private static final int LOTE_VOLCADO = 500;
+
+    // Espera maxima por transacciones en curso al desactivar (y de quien las espera)
+    private static final long ESPERA_CIERRE_MS = 10_000;
+    private static final long ESPERA_CONTADOR_MS = 1_000;
+
+    private final PaqueteRepository paqueteRepository;
+    private final InventarioPendienteRepository pendienteRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, ContadorEstriado> contadores = new ConcurrentHashMap<>();
+    private final int franjas = Runtime.getRuntime().availableProcessors();
+
+    // Un solo volcado (o activacion) a la vez, tomado hasta despues del commit:
+    // dos volcados no pueden aplicar las mismas filas pendientes
+    private final ReentrantLock volcado = new ReentrantLock();
+
+    public enum Entrega {
+        // El paquete usa el inventario normal de la base de datos
+        NO_APLICA,
+        TOMADO,
+        AGOTADO
+    }
+
+    // ========================================================================
+    // CUPOS
+    // ========================================================================
+
+    /**
+     * Toma cupos del contador del paquete, si lo tiene. Si se toman, registra
+     * el pendiente en la transaccion actual; si esta hace rollback, los cupos
+     * vuelven al contador.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Entrega tomar(Integer idPaquete, int cantidad) {
+        while (true) {
+            ContadorEstriado contador = contadores.get(idPaquete);
+            if (contador == null) return Entrega.NO_APLICA;
+
+            switch (contador.tomar(cantidad)) {
+                case AGOTADO:
+                    return Entrega.AGOTADO;
+                case CERRADO:
+                    // Se esta desactivando: al terminar se sigue con el inventario normal
+                    esperarRetiro(contador);
+                    continue;
+                case TOMADO:
+                default:
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) contador.devolver(cantidad);
+                            contador.terminarVuelo();
+                        }
+                    });
+                    pendienteRepository.save(new InventarioPendiente(idPaquete, cantidad));
+                    return Entrega.TOMADO;
+            }
+        }
+    }
+
+    /**
+     * Repone cupos en el contador cuando la transaccion actual confirma la
+     * devolucion en la base de datos. No hace nada si el paquete no esta en memoria.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void devolverAlConfirmar(Integer idPaquete, int cantidad) {
+        ContadorEstriado contador = contadores.get(idPaquete);
+        if (contador == null) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                contador.devolver(cantidad);
+            }
+        });
+    }
+
+    /**
+     * Espera a que aparezca el contador de un paquete cuya activacion ya se
+     * confirmo en la base de datos.
+     */
+    public void esperarContador(Integer idPaquete) {
+        long limite = System.currentTimeMillis() + ESPERA_CONTADOR_MS;
+        try {
+            while (!contadores.containsKey(idPaquete) && System.currentTimeMillis() < limite) {
+                Thread.sleep(5);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cupos disponibles en memoria, o null si el paquete usa el inventario normal.
+     */
+    public Integer disponible(Integer idPaquete) {
+        ContadorEstriado contador = contadores.get(idPaquete);
+        return contador != null ? contador.disponible() : null;
+    }
+
+    // ========================================================================
+    // ACTIVACION
+    // ========================================================================
+
+    /**
+     * Pasa el paquete a inventario en memoria con el stock actual de la base de datos.
+     */
+    public void activar(Integer idPaquete) {
+        volcado.lock();
+        try {
+            if (contadores.containsKey(idPaquete)) return;
+
+            // Con la fila bloqueada ningun UPDATE de stock corre a la vez; los que
+            // esperan la ven marcada al confirmar y reintentan con el contador
+            int stock = transactionTemplate.execute(estado -> {
+                Paquete paquete = paqueteRepository.findByIdParaActualizar(idPaquete)
+                        .orElseThrow(() -> new NotFoundException(MessageKeys.PAQUETE_NOT_FOUND, idPaquete));
+                int volcados = volcarPaquete(idPaquete);
+                paqueteRepository.marcarInventarioEnMemoria(idPaquete, true);
+                return paquete.getStockDisponible() - volcados;
+            });
+
+            ContadorEstriado contador = new ContadorEstriado(stock, franjas);
+            contadores.put(idPaquete, contador);
+            log.info("Inventario en memoria activado para paquete {}: stock={}, franjas={}",
+                    idPaquete, stock, contador.franjas());
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    /**
+     * Vuelve al inventario normal: deja de entregar cupos, espera las
+     * transacciones en curso y vuelca todos los pendientes del paquete.
+     */
+    public void desactivar(Integer idPaquete) {
+        volcado.lock();
+        ContadorEstriado contador = contadores.get(idPaquete);
+        try {
+            if (contador != null) {
+                contador.cerrar();
+                if (!contador.esperarVuelos(ESPERA_CIERRE_MS)) {
+                    throw new IllegalStateException("Reservas en curso para el paquete " + idPaquete);
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(estado -> {
+                paqueteRepository.findByIdParaActualizar(idPaquete)
+                        .orElseThrow(() -> new NotFoundException(MessageKeys.PAQUETE_NOT_FOUND, idPaquete));
+                volcarPaquete(idPaquete);
+                paqueteRepository.marcarInventarioEnMemoria(idPaquete, false);
+            });
+
+            contadores.remove(idPaquete);
+            log.info("Inventario en memoria desactivado para paquete {}", idPaquete);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reabrir(idPaquete, contador);
+            throw new IllegalStateException("Desactivacion interrumpida para el paquete " + idPaquete, e);
+        } catch (RuntimeException e) {
+            reabrir(idPaquete, contador);
+            throw e;
+        } finally {
+            if (contador != null) contador.retirar();
+            volcado.unlock();
+        }
+    }
+
+    // ========================================================================
+    // VOLCADO Y RECONCILIACION
+    // ========================================================================
+
+    /**
+     * Al iniciar: aplica los pendientes que quedaron de una caida y carga los
+     * contadores de los paquetes marcados desde el stock ya conciliado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        volcado.lock();
+        try {
+            List<Paquete> marcados = transactionTemplate.execute(estado -> {
+                int volcados;
+                do {
+                    volcados = volcarLote();
+                } while (volcados == LOTE_VOLCADO);
+                return paqueteRepository.findByInventarioEnMemoriaTrue();
+            });
+
+            contadores.clear();
+            marcados.forEach(p -> contadores.put(p.getIdPaquete(),
+                    new ContadorEstriado(p.getStockDisponible(), franjas)));
+            if (!marcados.isEmpty()) {
+                log.info("Inventario en memoria cargado: {} paquetes", marcados.size());
+            }
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    /**
+     * Aplica un lote de pendientes a {@code stock_disponible}.
+     */
+    @Scheduled(fixedDelayString = "${inventario.memoria.intervalo-volcado-ms:1000}")
+    public void volcar() {
+        volcado.lock();
+        try {
+            Integer volcados = transactionTemplate.execute(estado -> volcarLote());
+            if (volcados != null && volcados > 0) {
+                log.debug("Volcado de inventario en memoria: {} pendientes", volcados);
+            }
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    // Dentro de una transaccion y con el lock de volcado tomado
+    private int volcarLote() {
+        List<InventarioPendiente> pendientes =
+                pendienteRepository.findAllByOrderByIdInventarioPendienteAsc(Limit.of(LOTE_VOLCADO));
+        if (pendientes.isEmpty()) return 0;
+
+        // Orden por ID de paquete: dos volcados nunca bloquean filas en orden cruzado
+        Map<Integer, Integer> porPaquete = new TreeMap<>();
+        pendientes.forEach(p -> porPaquete.merge(p.getIdPaquete(), p.getCantidad(), Integer::sum));
+        porPaquete.forEach(this::aplicar);
+
+        // Se borran por ID: las filas de reservas aun sin confirmar no se leyeron y quedan para el siguiente lote
+        pendienteRepository.deleteAllInBatch(pendientes);
+        return pendientes.size();
+    }
+
+    // Dentro de una transaccion y con el lock de volcado tomado
+    private int volcarPaquete(Integer idPaquete) {
+        List<InventarioPendiente> pendientes = pendienteRepository.findByIdPaquete(idPaquete);
+        if (pendientes.isEmpty()) return 0;
+
+        int total = pendientes.stream().mapToInt(InventarioPendiente::getCantidad).sum();
+        aplicar(idPaquete, total);
+        pendienteRepository.deleteAllInBatch(pendientes);
+        return total;
+    }
+
+    // Solo cambia el stock: los oyentes actualizan ese paquete sin reconstruir la foto del catalogo
+    private void aplicar(Integer idPaquete, int cantidad) {
+        paqueteRepository.volcarStock(idPaquete, cantidad);
+        eventPublisher.publishEvent(new StockCambiadoEvent(List.of(idPaquete)));
+    }
+
+    // ========================================================================
+    // UTILIDADES
+    // ========================================================================
+
+    // Si la desactivacion falla el paquete sigue en memoria con los cupos que le quedaban
+    private void reabrir(Integer idPaquete, ContadorEstriado cerrado) {
+        if (cerrado == null) return;
+        contadores.put(idPaquete, new ContadorEstriado(cerrado.disponible(), franjas));
+    }
+
+    private static void esperarRetiro(ContadorEstriado contador) {
+        try {
+            contador.esperarRetiro(ESPERA_CIERRE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera de inventario interrumpida", e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.ptirado.nmviajes.inventario;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.entity.InventarioMovimiento;
+import com.ptirado.nmviajes.entity.InventarioMovimiento.Motivo;
+import com.ptirado.nmviajes.entity.InventarioSnapshot;
+import com.ptirado.nmviajes.repository.InventarioMovimientoRepository;
+import com.ptirado.nmviajes.repository.InventarioSnapshotRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Libro de movimientos de inventario, de solo insercion, con snapshots periodicos.
+ *
+ * <p>Cada cambio de stock (reserva, cancelacion, expiracion o ajuste del
+ * administrador) inserta una fila en {@code inventario_movimiento} en la misma
+ * transaccion que el cambio. Insertar no bloquea ninguna fila existente: el
+ * libro no compite con las reservas por la fila del paquete. Las filas nunca
+ * se modifican, asi que queda el historial completo de cada paquete.</p>
+ *
+ * <p>La compactacion suma periodicamente los movimientos de cada paquete en
+ * {@code inventario_snapshot}. El stock segun el libro es el snapshot mas los
+ * movimientos posteriores, y leerlo solo recorre esos pocos movimientos.</p>
+ *
+ * <p>La compactacion corta por fecha, no por ID: los IDs se asignan al
+ * insertar pero las transacciones confirman en otro orden. Solo compacta hasta
+ * el inicio de la escritura mas antigua que sigue en curso, de modo que un
+ * movimiento aun sin confirmar nunca queda detras del corte. Como
+ * {@link InventarioEnMemoria}, supone una sola instancia de la aplicacion.</p>
+ *
+ * <p>{@code paquete.stock_disponible} sigue siendo el valor con el que se
+ * aceptan o rechazan las reservas: un UPDATE condicional es lo que impide
+ * vender un cupo dos veces, y el libro no puede hacerlo sin bloquear. La
+ * conciliacion periodica compara ambos y avisa de los paquetes cuyo stock
+ * cambio sin pasar por el libro (o al reves).</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class LibroInventario {
+
+    private static final Logger log = LoggerFactory.getLogger(LibroInventario.class);
+
+    private final InventarioMovimientoRepository movimientoRepository;
+    private final InventarioSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Escrituras sin terminar y la hora en que empezaron: la compactacion no pasa de la mas antigua
+    private final Map<Object, LocalDateTime> escriturasEnCurso = new ConcurrentHashMap<>();
+
+    // Acumulados desde el arranque
+    private final AtomicLong compactaciones = new AtomicLong();
+    private volatile LocalDateTime ultimoHorizonte;
+    private volatile int descuadres;
+
+    /**
+     * Stock de un paquete segun el libro.
+     *
+     * @param idPaquete          Paquete consultado
+     * @param stock              Snapshot mas los movimientos posteriores
+     * @param snapshot           Stock del ultimo snapshot (null si aun no tiene)
+     * @param fechaSnapshot      Instante hasta el que suma el snapshot
+     * @param sinCompactar       Movimientos posteriores al snapshot
+     * @param ultimosMovimientos Movimientos mas recientes, del mas nuevo al mas viejo
+     */
+    public record Stock(Integer idPaquete, int stock, Integer snapshot, LocalDateTime fechaSnapshot,
+                        long sinCompactar, List<InventarioMovimiento> ultimosMovimientos) {
+    }
+
+    /**
+     * Estado de la compactacion desde el arranque y de la ultima conciliacion.
+     *
+     * @param compactaciones    Compactaciones que sumaron al menos un movimiento
+     * @param ultimoHorizonte   Corte de la ultima compactacion (null si aun no hubo)
+     * @param escriturasEnCurso Transacciones que escribieron en el libro y aun no terminan
+     * @param descuadres        Paquetes cuyo stock no coincidia con el libro en la ultima conciliacion
+     */
+    public record Estadisticas(long compactaciones, LocalDateTime ultimoHorizonte, int escriturasEnCurso,
+                               int descuadres) {
+    }
+
+    // ========================================================================
+    // REGISTRO
+    // ========================================================================
+
+    /**
+     * Registra un movimiento por reserva y paquete con los cupos de sus items.
+     * Las reservas ya deben estar guardadas (aun sin confirmar) en la transaccion actual.
+     *
+     * @param idsReserva Reservas afectadas
+     * @param motivo     RESERVA descuenta cupos; CANCELACION y EXPIRACION los devuelven
+     */
+    @Transactional
+    public void registrarReservas(Collection<Integer> idsReserva, Motivo motivo) {
+        if (idsReserva.isEmpty()) return;
+        int signo = motivo == Motivo.RESERVA ? -1 : 1;
+        movimientoRepository.registrarPorReservas(idsReserva, signo, motivo.name(), iniciarEscritura());
+    }
+
+    /**
+     * Registra un ajuste del administrador (alta o edicion del stock). No hace nada si no cambio.
+     *
+     * @param anterior Stock antes del cambio (null o 0 en un alta)
+     * @param nuevo    Stock despues del cambio
+     */
+    @Transactional
+    public void registrarAjuste(Integer idPaquete, Integer anterior, Integer nuevo) {
+        int delta = Objects.requireNonNullElse(nuevo, 0) - Objects.requireNonNullElse(anterior, 0);
+        if (delta == 0) return;
+        movimientoRepository.registrar(idPaquete, delta, Motivo.AJUSTE.name(), iniciarEscritura());
+    }
+
+    // ========================================================================
+    // CONSULTA
+    // ========================================================================
+
+    @Transactional(readOnly = true)
+    public Stock stock(Integer idPaquete, int ultimos) {
+        InventarioSnapshot snapshot = snapshotRepository.findById(idPaquete).orElse(null);
+        return new Stock(idPaquete,
+                movimientoRepository.stockSegunLibro(idPaquete),
+                snapshot != null ? snapshot.getStock() : null,
+                snapshot != null ? snapshot.getFechaHasta() : null,
+                movimientoRepository.contarSinCompactar(idPaquete),
+                movimientoRepository.findByIdPaqueteOrderByFechaCreacionDescIdMovimientoDesc(
+                        idPaquete, Limit.of(ultimos)));
+    }
+
+    public Estadisticas estadisticas() {
+        return new Estadisticas(compactaciones.get(), ultimoHorizonte, escriturasEnCurso.size(), descuadres);
+    }
+
+    // ========================================================================
+    // COMPACTACION
+    // ========================================================================
+
+    /**
+     * Suma en los snapshots los movimientos anteriores al horizonte seguro.
+     */
+    @Scheduled(fixedDelayString = "${inventario.libro.intervalo-compactacion-ms:60000}")
+    public void compactar() {
+        // El instante se toma antes de mirar las escrituras: una que empiece despues
+        // registra sus movimientos con fecha posterior y queda fuera del corte
+        LocalDateTime ahora = ahora();
+        LocalDateTime horizonte = escriturasEnCurso.values().stream()
+                .min(LocalDateTime::compareTo)
+                .filter(inicio -> inicio.isBefore(ahora))
+                .orElse(ahora);
+
+        Integer filas = transactionTemplate.execute(estado -> movimientoRepository.compactar(horizonte, ahora));
+        ultimoHorizonte = horizonte;
+        if (filas != null && filas > 0) {
+            compactaciones.incrementAndGet();
+            log.debug("Libro de inventario compactado hasta {}", horizonte);
+        }
+    }
+
+    // ========================================================================
+    // CONCILIACION
+    // ========================================================================
+
+    /**
+     * Compara el stock segun el libro con {@code stock_disponible} menos los
+     * cupos entregados en memoria sin volcar, y registra cada diferencia.
+     *
+     * @return Cantidad de paquetes descuadrados
+     */
+    @Scheduled(fixedDelayString = "${inventario.libro.intervalo-conciliacion-ms:300000}",
+               initialDelayString = "${inventario.libro.intervalo-conciliacion-ms:300000}")
+    public int conciliar() {
+        List<Object[]> filas = transactionTemplate.execute(estado -> movimientoRepository.buscarDescuadres());
+        for (Object[] fila : filas) {
+            log.warn("Stock descuadrado con el libro de inventario: paquete={}, stock={}, libro={}",
+                    fila[0], fila[1], fila[2]);
+        }
+        descuadres = filas.size();
+        return descuadres;
+    }
+
+    // ========================================================================
+    // UTILIDADES
+    // ========================================================================
+
+    // Anota la escritura hasta que la transaccion termine y retorna la fecha de sus movimientos
+    private LocalDateTime iniciarEscritura() {
+        Object escritura = new Object();
+        escriturasEnCurso.put(escritura, ahora());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                escriturasEnCurso.remove(escritura);
+            }
+        });
+        // Se toma despues de anotar: nunca es anterior al inicio registrado
+        return ahora();
+    }
+
+    // Microsegundos, la precision de DATETIME(6): la fecha guardada es la misma que se compara
+    private static LocalDateTime ahora() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -1,12 +1,9 @@
 package com.ptirado.nmviajes.mapper;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Locale;
 
 import org.springframework.stereotype.Component;
 
@@ -16,6 +13,7 @@ import com.ptirado.nmviajes.dto.api.response.CarritoResponse;
 import com.ptirado.nmviajes.entity.Carrito;
 import com.ptirado.nmviajes.entity.CarritoItem;
 import com.ptirado.nmviajes.entity.CarritoItemServicio;
+import com.ptirado.nmviajes.util.FormatoUtils;
 import com.ptirado.nmviajes.viewmodel.CarritoItemServicioView;
 import com.ptirado.nmviajes.viewmodel.CarritoItemView;
 import com.ptirado.nmviajes.viewmodel.CarritoView;
@@ -23,26 +21,16 @@ import com.ptirado.nmviajes.viewmodel.CarritoView;
 @Component
 public class CarritoMapper {
 
-    private static final Locale LOCALE_PE = new Locale("es", "PE");
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-    private static final NumberFormat PRICE_FORMATTER = NumberFormat.getNumberInstance(LOCALE_PE);
-
-    static {
-        PRICE_FORMATTER.setMinimumFractionDigits(2);
-        PRICE_FORMATTER.setMaximumFractionDigits(2);
-    }
-
     private String formatearFecha(LocalDate fecha) {
-        return fecha != null ? fecha.format(DATE_FORMATTER) : "";
+        return FormatoUtils.fecha(fecha);
     }
 
     private String formatearFechaHora(LocalDateTime fechaHora) {
-        return fechaHora != null ? fechaHora.format(DATETIME_FORMATTER) : "-";
+        return FormatoUtils.fechaHora(fechaHora);
     }
 
     private String formatearPrecio(BigDecimal precio) {
-        return precio != null ? "S/ " + PRICE_FORMATTER.format(precio) : "S/ 0.00";
+        return FormatoUtils.soles(precio);
     }
 
     private BigDecimal calcularSubtotalItem(CarritoItem item) {
@@ -1,11 +1,8 @@
 package com.ptirado.nmviajes.mapper;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Locale;
 
 import org.springframework.stereotype.Component;
 
@@ -13,32 +10,26 @@ import com.ptirado.nmviajes.dto.api.request.PaqueteRequest;
 import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
 import com.ptirado.nmviajes.dto.api.response.PaqueteResponse;
 import com.ptirado.nmviajes.dto.form.PaqueteForm;
+import com.ptirado.nmviajes.entity.CatalogoLectura;
 import com.ptirado.nmviajes.entity.Destino;
 import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.repository.projection.PaqueteFila;
+import com.ptirado.nmviajes.util.FormatoUtils;
 import com.ptirado.nmviajes.viewmodel.PaqueteView;
 
 @Component
 public class PaqueteMapper {
 
-    private static final Locale LOCALE_PE = new Locale("es", "PE");
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final NumberFormat PRICE_FORMATTER = NumberFormat.getNumberInstance(LOCALE_PE);
-
-    static {
-        PRICE_FORMATTER.setMinimumFractionDigits(2);
-        PRICE_FORMATTER.setMaximumFractionDigits(2);
-    }
-
     // ===========================================================
     //               METODOS DE FORMATEO
     // ===========================================================
 
     private String formatearFecha(LocalDate fecha) {
-        return fecha != null ? fecha.format(DATE_FORMATTER) : "";
+        return FormatoUtils.fecha(fecha);
     }
 
     private String formatearPrecio(BigDecimal precio) {
-        return precio != null ? PRICE_FORMATTER.format(precio) : "0.00";
+        return FormatoUtils.monto(precio);
     }
 
     // ===========================================================
@@ -143,6 +134,127 @@ public class PaqueteMapper {
                 .toList();
     }
 
+    // ===========================================================
+    //               MAPEOS DESDE PROYECCIONES (solo lectura)
+    // ===========================================================
+
+    /**
+     * Convierte PaqueteFila → PaqueteResponse
+     */
+    public PaqueteResponse toResponse(PaqueteFila fila) {
+        if (fila == null) return null;
+
+        return PaqueteResponse.builder()
+                .idPaquete(fila.idPaquete())
+                .nombre(fila.nombre())
+                .descripcion(fila.descripcion())
+                .precio(fila.precio())
+                .fechaInicio(fila.fechaInicio())
+                .fechaFin(fila.fechaFin())
+                .stockDisponible(fila.stockDisponible())
+                .estado(fila.estado())
+                .idDestino(fila.idDestino())
+                .nombreDestino(fila.nombreDestino())
+                .fechaCreacion(fila.fechaCreacion())
+                .fechaModificacion(fila.fechaModificacion())
+                .build();
+    }
+
+    public List<PaqueteResponse> toResponseListFromFilas(List<PaqueteFila> filas) {
+        if (filas == null) return List.of();
+
+        return filas.stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Convierte PaqueteFila → PaqueteBuscadorResponse (datos formateados para JS)
+     */
+    public PaqueteBuscadorResponse toBuscadorResponse(PaqueteFila fila) {
+        if (fila == null) return null;
+
+        return PaqueteBuscadorResponse.builder()
+                .idPaquete(fila.idPaquete())
+                .nombre(fila.nombre())
+                .descripcion(fila.descripcion())
+                .precio(formatearPrecio(fila.precio()))
+                .fechaInicio(formatearFecha(fila.fechaInicio()))
+                .fechaFin(formatearFecha(fila.fechaFin()))
+                .stockDisponible(fila.stockDisponible())
+                .nombreDestino(fila.nombreDestino())
+                .build();
+    }
+
+    public List<PaqueteBuscadorResponse> toBuscadorResponseListFromFilas(List<PaqueteFila> filas) {
+        if (filas == null) return List.of();
+
+        return filas.stream()
+                .map(this::toBuscadorResponse)
+                .toList();
+    }
+
+    // ===========================================================
+    //               MAPEOS DESDE EL MODELO DE LECTURA
+    // ===========================================================
+
+    /**
+     * Convierte CatalogoLectura → PaqueteBuscadorResponse (precio y fechas ya formateados)
+     */
+    public PaqueteBuscadorResponse toBuscadorResponse(CatalogoLectura lectura) {
+        if (lectura == null) return null;
+
+        return PaqueteBuscadorResponse.builder()
+                .idPaquete(lectura.getIdPaquete())
+                .nombre(lectura.getNombre())
+                .descripcion(lectura.getDescripcion())
+                .precio(lectura.getPrecioFormateado())
+                .fechaInicio(lectura.getFechaInicioFormateada())
+                .fechaFin(lectura.getFechaFinFormateada())
+                .stockDisponible(lectura.getStockDisponible())
+                .nombreDestino(lectura.getNombreDestino())
+                .build();
+    }
+
+    public List<PaqueteBuscadorResponse> toBuscadorResponseListFromLectura(List<CatalogoLectura> lecturas) {
+        if (lecturas == null) return List.of();
+
+        return lecturas.stream()
+                .map(this::toBuscadorResponse)
+                .toList();
+    }
+
+    /**
+     * Convierte CatalogoLectura → PaqueteView (mismo formato que desde la entidad)
+     */
+    public PaqueteView toViewModel(CatalogoLectura lectura) {
+        if (lectura == null) return null;
+
+        PaqueteView vm = new PaqueteView();
+        vm.setIdPaquete(lectura.getIdPaquete());
+        vm.setNombre(lectura.getNombre());
+        vm.setDescripcion(lectura.getDescripcion());
+        vm.setPrecio(lectura.getPrecio() != null ? lectura.getPrecio().doubleValue() : null);
+        vm.setStockDisponible(lectura.getStockDisponible() != null ? lectura.getStockDisponible().toString() : null);
+        vm.setEstado(lectura.getEstado());
+        vm.setIdDestino(lectura.getIdDestino());
+        vm.setNombreDestino(lectura.getNombreDestino());
+        vm.setFechaInicioFormateada(lectura.getFechaInicio() != null ? lectura.getFechaInicio().toString() : "-");
+        vm.setFechaFinFormateada(lectura.getFechaFin() != null ? lectura.getFechaFin().toString() : "-");
+        vm.setFechaCreacionFormateada(lectura.getFechaCreacion() != null ? lectura.getFechaCreacion().toString() : "-");
+        vm.setFechaModificacionFormateada(
+                lectura.getFechaModificacion() != null ? lectura.getFechaModificacion().toString() : "-");
+        return vm;
+    }
+
+    public List<PaqueteView> toViewListFromLectura(List<CatalogoLectura> lecturas) {
+        if (lecturas == null) return List.of();
+
+        return lecturas.stream()
+                .map(this::toViewModel)
+                .toList();
+    }
+
     // ===========================================================
     //               MAPEOS PARA WEB MVC (THYMELEAF)
     // ===========================================================
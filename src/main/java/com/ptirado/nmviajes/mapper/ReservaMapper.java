@@ -1,7 +1,10 @@
 package com.ptirado.nmviajes.mapper;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.stereotype.Component;
 
@@ -16,6 +19,7 @@ import com.ptirado.nmviajes.entity.ReservaItem;
 import com.ptirado.nmviajes.entity.ReservaItemServicio;
 import com.ptirado.nmviajes.entity.ServicioAdicional;
 import com.ptirado.nmviajes.entity.Usuario;
+import com.ptirado.nmviajes.repository.projection.ReservaFila;
 import com.ptirado.nmviajes.viewmodel.ReservaItemServicioView;
 import com.ptirado.nmviajes.viewmodel.ReservaItemView;
 import com.ptirado.nmviajes.viewmodel.ReservaView;
@@ -357,4 +361,167 @@ public class ReservaMapper {
                 .map(this::toItemServicioView)
                 .toList();
     }
+
+    // ╔═══════════════════════════════════════════════════════════════════════════╗
+    // ║                  MAPEOS PARA WEB DESDE PROYECCIONES                        ║
+    // ║  Arman los ViewModels desde filas planas (ver ReservaFila)               ║
+    // ╚═══════════════════════════════════════════════════════════════════════════╝
+
+    /**
+     * Agrupa filas planas por reserva, conservando el orden en que llegan.
+     */
+    public Map<Integer, List<ReservaFila>> agruparPorReserva(List<ReservaFila> filas) {
+        Map<Integer, List<ReservaFila>> grupos = new LinkedHashMap<>();
+        for (ReservaFila fila : filas) {
+            grupos.computeIfAbsent(fila.idReserva(), id -> new ArrayList<>()).add(fila);
+        }
+        return grupos;
+    }
+
+    /**
+     * Convierte filas planas a vistas, una por reserva y en el orden de las filas.
+     */
+    public List<ReservaView> toViewListFromFilas(List<ReservaFila> filas) {
+        if (filas == null) {
+            return List.of();
+        }
+        return agruparPorReserva(filas).values().stream()
+                .map(this::toViewFromFilas)
+                .toList();
+    }
+
+    /**
+     * Arma la vista de una reserva a partir de todas sus filas.
+     *
+     * @param filas Filas de una misma reserva (al menos una)
+     * @return ViewModel con datos formateados
+     */
+    public ReservaView toViewFromFilas(List<ReservaFila> filas) {
+        ReservaFila cabecera = filas.get(0);
+        EstadoReserva estado = cabecera.estadoReserva();
+
+        ReservaView view = new ReservaView();
+        view.setIdReserva(cabecera.idReserva());
+        view.setTotalPagarFormateado(formatConfig.formatearPrecio(cabecera.totalPagar()));
+        view.setEstadoReserva(formatearEstado(estado));
+        view.setEstadoReservaCode(estado != null ? estado.name() : null);
+        view.setFinalizada(estado == EstadoReserva.PAGADA);
+        view.setCancelada(estado == EstadoReserva.CANCELADA);
+        view.setFechaCreacionFormateada(formatConfig.formatearFechaHora(cabecera.fechaCreacion()));
+
+        // Datos del usuario
+        view.setIdUsuario(cabecera.idUsuario());
+        view.setNombreCompletoUsuario(cabecera.nombreUsuario() + " " + cabecera.apellidoUsuario());
+        view.setEmailUsuario(cabecera.emailUsuario());
+
+        // Items: una fila por servicio, o una sola si el item no tiene servicios
+        Map<Integer, ReservaItemView> items = new LinkedHashMap<>();
+        for (ReservaFila fila : filas) {
+            if (fila.idItem() == null) continue;
+
+            ReservaItemView item = items.computeIfAbsent(fila.idItem(), id -> toItemViewFromFila(fila));
+            if (fila.idServicio() != null) {
+                item.getServiciosAdicionales().add(toItemServicioViewFromFila(fila));
+            }
+        }
+        view.setItems(new ArrayList<>(items.values()));
+
+        return view;
+    }
+
+    private ReservaItemView toItemViewFromFila(ReservaFila fila) {
+        ReservaItemView view = new ReservaItemView();
+        view.setIdItem(fila.idItem());
+        view.setFechaViajeInicioFormateada(formatConfig.formatearFecha(fila.fechaViajeInicio()));
+        view.setSubtotalFormateado(formatConfig.formatearPrecio(fila.subtotal()));
+
+        // Datos del paquete
+        if (fila.idPaquete() != null) {
+            view.setIdPaquete(fila.idPaquete());
+            view.setNombrePaquete(fila.nombrePaquete());
+            view.setPrecioPaqueteFormateado(formatConfig.formatearPrecio(fila.precioPaquete()));
+            view.setNombreDestino(fila.nombreDestino());
+        }
+
+        view.setServiciosAdicionales(new ArrayList<>());
+        return view;
+    }
+
+    private ReservaItemServicioView toItemServicioViewFromFila(ReservaFila fila) {
+        Integer cantidad = fila.cantidadServicio() != null ? fila.cantidadServicio() : 0;
+
+        ReservaItemServicioView view = new ReservaItemServicioView();
+        view.setIdServicio(fila.idServicio());
+        view.setNombreServicio(fila.nombreServicio());
+        view.setCostoUnitarioFormateado(formatConfig.formatearPrecio(fila.costoServicio()));
+        view.setCantidad(cantidad);
+        view.setSubtotalFormateado(formatConfig.formatearPrecio(calcularSubtotalServicio(fila.costoServicio(), cantidad)));
+
+        return view;
+    }
+
+    // ╔═══════════════════════════════════════════════════════════════════════════╗
+    // ║                  MAPEOS PARA API DESDE PROYECCIONES                        ║
+    // ║  Mismo Response que toResponseFromEntity, armado desde filas planas       ║
+    // ╚═══════════════════════════════════════════════════════════════════════════╝
+
+    /**
+     * Arma el response de una reserva a partir de todas sus filas.
+     *
+     * @param filas Filas de una misma reserva (al menos una)
+     * @return DTO con datos de la reserva
+     */
+    public ReservaResponse toResponseFromFilas(List<ReservaFila> filas) {
+        ReservaFila cabecera = filas.get(0);
+        EstadoReserva estado = cabecera.estadoReserva();
+
+        // Items: una fila por servicio, o una sola si el item no tiene servicios
+        Map<Integer, ReservaItemResponse> items = new LinkedHashMap<>();
+        for (ReservaFila fila : filas) {
+            if (fila.idItem() == null) continue;
+
+            ReservaItemResponse item = items.computeIfAbsent(fila.idItem(), id -> toItemResponseFromFila(fila));
+            if (fila.idServicio() != null) {
+                item.getServiciosAdicionales().add(toItemServicioResponseFromFila(fila));
+            }
+        }
+
+        return ReservaResponse.builder()
+                .idReserva(cabecera.idReserva())
+                .totalPagar(cabecera.totalPagar())
+                .estadoReserva(estado != null ? estado.name() : null)
+                .finalizada(estado == EstadoReserva.PAGADA)
+                .fechaCreacion(cabecera.fechaCreacion())
+                .idUsuario(cabecera.idUsuario())
+                .nombreUsuario(cabecera.nombreUsuario() + " " + cabecera.apellidoUsuario())
+                .emailUsuario(cabecera.emailUsuario())
+                .items(new ArrayList<>(items.values()))
+                .build();
+    }
+
+    private ReservaItemResponse toItemResponseFromFila(ReservaFila fila) {
+        return ReservaItemResponse.builder()
+                .idItem(fila.idItem())
+                .fechaViajeInicio(fila.fechaViajeInicio())
+                .subtotal(fila.subtotal())
+                .idPaquete(fila.idPaquete())
+                .nombrePaquete(fila.nombrePaquete())
+                .precioPaquete(fila.precioPaquete())
+                .nombreDestino(fila.nombreDestino())
+                .serviciosAdicionales(new ArrayList<>())
+                .build();
+    }
+
+    private ReservaItemServicioResponse toItemServicioResponseFromFila(ReservaFila fila) {
+        BigDecimal costoUnitario = fila.costoServicio() != null ? fila.costoServicio() : BigDecimal.ZERO;
+        Integer cantidad = fila.cantidadServicio() != null ? fila.cantidadServicio() : 0;
+
+        return ReservaItemServicioResponse.builder()
+                .idServicio(fila.idServicio())
+                .nombreServicio(fila.nombreServicio())
+                .costoUnitario(costoUnitario)
+                .cantidad(cantidad)
+                .subtotal(calcularSubtotalServicio(costoUnitario, cantidad))
+                .build();
+    }
 }
@@ -1,29 +1,20 @@
 package com.ptirado.nmviajes.mapper;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
 
 import org.springframework.stereotype.Component;
 
 import com.ptirado.nmviajes.dto.api.response.ServicioAdicionalResponse;
 import com.ptirado.nmviajes.entity.ServicioAdicional;
+import com.ptirado.nmviajes.util.FormatoUtils;
 import com.ptirado.nmviajes.viewmodel.ServicioAdicionalView;
 
 @Component
 public class ServicioAdicionalMapper {
 
-    private static final Locale LOCALE_PE = new Locale("es", "PE");
-    private static final NumberFormat PRICE_FORMATTER = NumberFormat.getNumberInstance(LOCALE_PE);
-
-    static {
-        PRICE_FORMATTER.setMinimumFractionDigits(2);
-        PRICE_FORMATTER.setMaximumFractionDigits(2);
-    }
-
     private String formatearPrecio(BigDecimal precio) {
-        return precio != null ? "S/ " + PRICE_FORMATTER.format(precio) : "S/ 0.00";
+        return FormatoUtils.soles(precio);
     }
 
     // ===========================================================
@@ -4,6 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ptirado.nmviajes.entity.CarritoItem;
@@ -16,4 +19,22 @@ public interface CarritoItemRepository extends JpaRepository<CarritoItem, Intege
     Optional<CarritoItem> findByCarrito_IdCarritoAndPaquete_IdPaquete(Integer idCarrito, Integer idPaquete);
 
     void deleteByCarrito_IdCarrito(Integer idCarrito);
+
+    // Grafo completo del checkout en una consulta: carrito, usuario, paquetes y servicios
+    @Query("""
+        SELECT ci FROM CarritoItem ci
+        JOIN FETCH ci.carrito c
+        JOIN FETCH c.usuario
+        JOIN FETCH ci.paquete
+        LEFT JOIN FETCH ci.servicios s
+        LEFT JOIN FETCH s.servicioAdicional
+        WHERE c.usuario.idUsuario = :idUsuario
+        ORDER BY ci.idItem
+        """)
+    List<CarritoItem> findParaCompraByUsuario(@Param("idUsuario") Integer idUsuario);
+
+    // Una sola sentencia; carrito_item_servicio se borra por ON DELETE CASCADE
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CarritoItem ci WHERE ci.carrito.idCarrito = :idCarrito")
+    int eliminarPorCarrito(@Param("idCarrito") Integer idCarrito);
 }
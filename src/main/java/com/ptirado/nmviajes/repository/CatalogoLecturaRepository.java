@@ -0,0 +1,81 @@
+package com.ptirado.nmviajes.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ptirado.nmviajes.entity.CatalogoLectura;
+
+/**
+ * Consultas sobre el modelo de lectura del catalogo. Todas leen una sola
+ * tabla, sin JOINs, apoyadas en los indices de la migracion (la proyeccion
+ * de stock es la unica escritura con JOIN).
+ */
+@Repository
+public interface CatalogoLecturaRepository extends JpaRepository<CatalogoLectura, Integer> {
+
+    // Pagina publica de paquetes
+    List<CatalogoLectura> findAllByOrderByIdPaqueteAsc();
+
+    // Catalogo publico en memoria
+    List<CatalogoLectura> findByEstadoOrderByFechaInicioAscIdPaqueteAsc(String estado);
+
+    List<CatalogoLectura> findByIdDestino(Integer idDestino);
+
+    @Query("SELECT c.idPaquete FROM CatalogoLectura c")
+    List<Integer> findAllIds();
+
+    // Proyeccion de solo stock (checkout del carrito): lee el valor ya
+    // actualizado en paquete, no el de las entidades cargadas en la transaccion
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE catalogo_lectura c JOIN paquete p ON p.id_paquete = c.id_paquete
+        SET c.stock_disponible = p.stock_disponible,
+            c.disponible = (p.estado = :activo AND p.stock_disponible > 0),
+            c.fecha_proyeccion = :ahora
+        WHERE c.id_paquete IN (:ids)
+        """, nativeQuery = true)
+    int proyectarStock(
+        @Param("ids") Collection<Integer> ids,
+        @Param("activo") String estadoActivo,
+        @Param("ahora") LocalDateTime ahora
+    );
+
+    @Query("""
+        SELECT c FROM CatalogoLectura c
+        WHERE c.estado = :estado
+          AND (:idDestino IS NULL OR c.idDestino = :idDestino)
+          AND (:fechaInicio IS NULL OR c.fechaInicio >= :fechaInicio)
+          AND (:fechaFin IS NULL OR c.fechaFin <= :fechaFin)
+        ORDER BY c.fechaInicio ASC, c.idPaquete ASC
+        """)
+    List<CatalogoLectura> buscar(
+        @Param("idDestino") Integer idDestino,
+        @Param("fechaInicio") LocalDate fechaInicio,
+        @Param("fechaFin") LocalDate fechaFin,
+        @Param("estado") String estado
+    );
+
+    // Modo "solapa": el viaje se cruza con el rango buscado
+    @Query("""
+        SELECT c FROM CatalogoLectura c
+        WHERE c.estado = :estado
+          AND (:idDestino IS NULL OR c.idDestino = :idDestino)
+          AND (:fechaFin IS NULL OR c.fechaInicio <= :fechaFin)
+          AND (:fechaInicio IS NULL OR c.fechaFin >= :fechaInicio)
+        ORDER BY c.fechaInicio ASC, c.idPaquete ASC
+        """)
+    List<CatalogoLectura> buscarSolapados(
+        @Param("idDestino") Integer idDestino,
+        @Param("fechaInicio") LocalDate fechaInicio,
+        @Param("fechaFin") LocalDate fechaFin,
+        @Param("estado") String estado
+    );
+}
@@ -1,15 +1,23 @@
 package com.ptirado.nmviajes.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import com.ptirado.nmviajes.constants.AppConstants;
 import com.ptirado.nmviajes.entity.Destino;
 
 @Repository
@@ -18,6 +26,14 @@ public interface DestinoRepository extends JpaRepository<Destino, Integer> {
 
     List<Destino> findByEstado(String estado);
 
+    // Exportacion completa por streaming (ver JsonStreamUtils)
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Destino d ORDER BY d.idDestino")
+    Stream<Destino> streamAll();
+
     // Admin panel query with eager loading of paquetes count
     @Query(value = "SELECT d FROM Destino d LEFT JOIN FETCH d.paquetes",
            countQuery = "SELECT COUNT(d) FROM Destino d")
@@ -28,19 +44,7 @@ public interface DestinoRepository extends JpaRepository<Destino, Integer> {
            countQuery = "SELECT COUNT(d) FROM Destino d WHERE d.estado = :estado")
     Page<Destino> findByEstadoWithPaquetes(@Param("estado") String estado, Pageable pageable);
 
-    @Query(value = "SELECT d FROM Destino d LEFT JOIN FETCH d.paquetes WHERE " +
-           "LOWER(d.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(d.pais) LIKE LOWER(CONCAT('%', :busqueda, '%'))",
-           countQuery = "SELECT COUNT(d) FROM Destino d WHERE " +
-           "LOWER(d.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(d.pais) LIKE LOWER(CONCAT('%', :busqueda, '%'))")
-    Page<Destino> findByBusquedaWithPaquetes(@Param("busqueda") String busqueda, Pageable pageable);
-
-    @Query(value = "SELECT d FROM Destino d LEFT JOIN FETCH d.paquetes WHERE d.estado = :estado AND " +
-           "(LOWER(d.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(d.pais) LIKE LOWER(CONCAT('%', :busqueda, '%')))",
-           countQuery = "SELECT COUNT(d) FROM Destino d WHERE d.estado = :estado AND " +
-           "(LOWER(d.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(d.pais) LIKE LOWER(CONCAT('%', :busqueda, '%')))")
-    Page<Destino> findByEstadoAndBusquedaWithPaquetes(@Param("estado") String estado, @Param("busqueda") String busqueda, Pageable pageable);
+    // Busqueda de texto: los IDs de una pagina, ya filtrados y ordenados por el indice en memoria
+    @Query("SELECT DISTINCT d FROM Destino d LEFT JOIN FETCH d.paquetes WHERE d.idDestino IN :ids")
+    List<Destino> findByIdInWithPaquetes(@Param("ids") List<Integer> ids);
 }
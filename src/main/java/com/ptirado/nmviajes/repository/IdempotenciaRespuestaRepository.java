@@ -0,0 +1,66 @@
+package com.ptirado.nmviajes.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ptirado.nmviajes.entity.IdempotenciaRespuesta;
+
+@Repository
+public interface IdempotenciaRespuestaRepository extends JpaRepository<IdempotenciaRespuesta, String> {
+
+    // Retorna 0 si la clave ya existe (la PK resuelve la carrera entre nodos)
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO idempotencia_respuesta (clave, huella, completada, fecha_creacion, reservado_hasta)
+        VALUES (:clave, :huella, FALSE, :ahora, :reservadoHasta)
+        """, nativeQuery = true)
+    int insertarSiNoExiste(
+        @Param("clave") String clave,
+        @Param("huella") String huella,
+        @Param("ahora") LocalDateTime ahora,
+        @Param("reservadoHasta") LocalDateTime reservadoHasta
+    );
+
+    // Completada y vencida, o en curso con la reserva terminada (su solicitud no completo ni libero)
+    @Modifying
+    @Query("""
+        UPDATE IdempotenciaRespuesta r
+        SET r.huella = :huella, r.completada = false, r.codigoHttp = null, r.cuerpo = null,
+            r.fechaCreacion = :ahora, r.reservadoHasta = :reservadoHasta, r.fechaExpiracion = null
+        WHERE r.clave = :clave AND (r.fechaExpiracion <= :ahora OR r.reservadoHasta <= :ahora)
+        """)
+    int reemplazarVencida(
+        @Param("clave") String clave,
+        @Param("huella") String huella,
+        @Param("ahora") LocalDateTime ahora,
+        @Param("reservadoHasta") LocalDateTime reservadoHasta
+    );
+
+    // El TTL completo corre desde que la respuesta se guarda
+    @Modifying
+    @Query("""
+        UPDATE IdempotenciaRespuesta r
+        SET r.completada = true, r.codigoHttp = :codigoHttp, r.cuerpo = :cuerpo,
+            r.reservadoHasta = null, r.fechaExpiracion = :expira
+        WHERE r.clave = :clave
+        """)
+    int completar(
+        @Param("clave") String clave,
+        @Param("codigoHttp") int codigoHttp,
+        @Param("cuerpo") String cuerpo,
+        @Param("expira") LocalDateTime expira
+    );
+
+    @Modifying
+    @Query("DELETE FROM IdempotenciaRespuesta r WHERE r.clave = :clave AND r.completada = false")
+    int liberar(@Param("clave") String clave);
+
+    @Modifying
+    @Query("DELETE FROM IdempotenciaRespuesta r WHERE r.fechaExpiracion <= :ahora OR r.reservadoHasta <= :ahora")
+    int purgarVencidas(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,106 @@
+package com.ptirado.nmviajes.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ptirado.nmviajes.entity.InventarioMovimiento;
+
+@Repository
+public interface InventarioMovimientoRepository extends JpaRepository<InventarioMovimiento, Long> {
+
+    // Un movimiento por reserva y paquete, de cantidad signo * cupos (un cupo por item).
+    // Vacia antes el contexto: las reservas recien guardadas deben estar en reserva_item
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO inventario_movimiento (id_paquete, cantidad, motivo, id_reserva, fecha_creacion)
+        SELECT ri.id_paquete, :signo * COUNT(*), :motivo, ri.id_reserva, :fecha
+        FROM reserva_item ri
+        WHERE ri.id_reserva IN (:idsReserva)
+        GROUP BY ri.id_reserva, ri.id_paquete
+        """, nativeQuery = true)
+    int registrarPorReservas(@Param("idsReserva") Collection<Integer> idsReserva, @Param("signo") int signo,
+                             @Param("motivo") String motivo, @Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO inventario_movimiento (id_paquete, cantidad, motivo, fecha_creacion)
+        VALUES (:idPaquete, :cantidad, :motivo, :fecha)
+        """, nativeQuery = true)
+    int registrar(@Param("idPaquete") Integer idPaquete, @Param("cantidad") int cantidad,
+                  @Param("motivo") String motivo, @Param("fecha") LocalDateTime fecha);
+
+    // Suma en el snapshot de cada paquete sus movimientos en [fecha_hasta, horizonte)
+    // y mueve fecha_hasta al horizonte; los paquetes sin snapshot parten de cero
+    @Modifying
+    @Query(value = """
+        INSERT INTO inventario_snapshot (id_paquete, stock, fecha_hasta, movimientos, fecha_actualizacion)
+        SELECT d.id_paquete, d.stock, :horizonte, d.movimientos, :ahora
+        FROM (
+            SELECT m.id_paquete,
+                   COALESCE(MAX(s.stock), 0) + SUM(m.cantidad) AS stock,
+                   COALESCE(MAX(s.movimientos), 0) + COUNT(*) AS movimientos
+            FROM inventario_movimiento m
+            LEFT JOIN inventario_snapshot s ON s.id_paquete = m.id_paquete
+            WHERE m.fecha_creacion < :horizonte
+              AND (s.id_paquete IS NULL OR m.fecha_creacion >= s.fecha_hasta)
+            GROUP BY m.id_paquete
+        ) d
+        ON DUPLICATE KEY UPDATE stock = d.stock, fecha_hasta = :horizonte,
+                                movimientos = d.movimientos, fecha_actualizacion = :ahora
+        """, nativeQuery = true)
+    int compactar(@Param("horizonte") LocalDateTime horizonte, @Param("ahora") LocalDateTime ahora);
+
+    // Snapshot + movimientos posteriores, en una sola lectura consistente
+    @Query(value = """
+        SELECT COALESCE(s.stock, 0) + COALESCE(SUM(m.cantidad), 0)
+        FROM (SELECT :idPaquete AS id_paquete) p
+        LEFT JOIN inventario_snapshot s ON s.id_paquete = p.id_paquete
+        LEFT JOIN inventario_movimiento m ON m.id_paquete = p.id_paquete
+             AND (s.id_paquete IS NULL OR m.fecha_creacion >= s.fecha_hasta)
+        GROUP BY s.stock
+        """, nativeQuery = true)
+    Integer stockSegunLibro(@Param("idPaquete") Integer idPaquete);
+
+    // Paquetes cuyo stock segun el libro no coincide con el real (stock_disponible menos
+    // lo entregado en memoria sin volcar): [id_paquete, stock real, stock segun el libro].
+    // Una sola lectura consistente: el cambio de stock y su movimiento confirman juntos
+    @Query(value = """
+        SELECT c.id_paquete, c.stock_real, c.stock_libro
+        FROM (
+            SELECT p.id_paquete,
+                   p.stock_disponible - COALESCE(pe.cantidad, 0) AS stock_real,
+                   COALESCE(s.stock, 0) + COALESCE(m.cantidad, 0) AS stock_libro
+            FROM paquete p
+            LEFT JOIN (SELECT id_paquete, SUM(cantidad) AS cantidad
+                       FROM inventario_pendiente GROUP BY id_paquete) pe ON pe.id_paquete = p.id_paquete
+            LEFT JOIN inventario_snapshot s ON s.id_paquete = p.id_paquete
+            LEFT JOIN (SELECT mv.id_paquete, SUM(mv.cantidad) AS cantidad
+                       FROM inventario_movimiento mv
+                       LEFT JOIN inventario_snapshot sn ON sn.id_paquete = mv.id_paquete
+                       WHERE sn.id_paquete IS NULL OR mv.fecha_creacion >= sn.fecha_hasta
+                       GROUP BY mv.id_paquete) m ON m.id_paquete = p.id_paquete
+        ) c
+        WHERE c.stock_real <> c.stock_libro
+        ORDER BY c.id_paquete
+        """, nativeQuery = true)
+    List<Object[]> buscarDescuadres();
+
+    @Query(value = """
+        SELECT COUNT(*) FROM inventario_movimiento m
+        LEFT JOIN inventario_snapshot s ON s.id_paquete = m.id_paquete
+        WHERE m.id_paquete = :idPaquete
+          AND (s.id_paquete IS NULL OR m.fecha_creacion >= s.fecha_hasta)
+        """, nativeQuery = true)
+    long contarSinCompactar(@Param("idPaquete") Integer idPaquete);
+
+    List<InventarioMovimiento> findByIdPaqueteOrderByFechaCreacionDescIdMovimientoDesc(Integer idPaquete,
+                                                                                       Limit limite);
+}
@@ -0,0 +1,18 @@
+package com.ptirado.nmviajes.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ptirado.nmviajes.entity.InventarioPendiente;
+
+@Repository
+public interface InventarioPendienteRepository extends JpaRepository<InventarioPendiente, Long> {
+
+    // Lote del volcado periodico, en orden de llegada
+    List<InventarioPendiente> findAllByOrderByIdInventarioPendienteAsc(Limit limit);
+
+    List<InventarioPendiente> findByIdPaquete(Integer idPaquete);
+}
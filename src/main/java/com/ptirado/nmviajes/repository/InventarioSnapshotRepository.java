@@ -0,0 +1,10 @@
+package com.ptirado.nmviajes.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ptirado.nmviajes.entity.InventarioSnapshot;
+
+@Repository
+public interface InventarioSnapshotRepository extends JpaRepository<InventarioSnapshot, Integer> {
+}
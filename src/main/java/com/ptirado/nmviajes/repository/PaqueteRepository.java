@@ -1,19 +1,31 @@
 package com.ptirado.nmviajes.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import com.ptirado.nmviajes.constants.AppConstants;
 import com.ptirado.nmviajes.entity.Destino;
 import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.repository.projection.PaqueteFila;
 
 @Repository
 public interface PaqueteRepository extends JpaRepository<Paquete, Integer> {
@@ -35,8 +47,9 @@ public interface PaqueteRepository extends JpaRepository<Paquete, Integer> {
     List<Paquete> findByStockDisponibleGreaterThan(Integer stock);
 
     @Query("""
-        SELECT p FROM Paquete p
-        WHERE (:idDestino IS NULL OR p.destino.idDestino = :idDestino)
+        SELECT p FROM Paquete p JOIN FETCH p.destino
+        WHERE p.estado = :estado
+          AND (:idDestino IS NULL OR p.destino.idDestino = :idDestino)
           AND (:fechaInicio IS NULL OR p.fechaInicio >= :fechaInicio)
           AND (:fechaFin IS NULL OR p.fechaFin <= :fechaFin)
         ORDER BY p.fechaInicio ASC
@@ -44,35 +57,158 @@ public interface PaqueteRepository extends JpaRepository<Paquete, Integer> {
     List<Paquete> buscar(
         @Param("idDestino") Integer idDestino,
         @Param("fechaInicio") LocalDate fechaInicio,
-        @Param("fechaFin") LocalDate fechaFin
+        @Param("fechaFin") LocalDate fechaFin,
+        @Param("estado") String estado
+    );
+
+    // Modo "solapa": el viaje se cruza con el rango buscado
+    @Query("""
+        SELECT p FROM Paquete p JOIN FETCH p.destino
+        WHERE p.estado = :estado
+          AND (:idDestino IS NULL OR p.destino.idDestino = :idDestino)
+          AND (:fechaFin IS NULL OR p.fechaInicio <= :fechaFin)
+          AND (:fechaInicio IS NULL OR p.fechaFin >= :fechaInicio)
+        ORDER BY p.fechaInicio ASC
+        """)
+    List<Paquete> buscarSolapados(
+        @Param("idDestino") Integer idDestino,
+        @Param("fechaInicio") LocalDate fechaInicio,
+        @Param("fechaFin") LocalDate fechaFin,
+        @Param("estado") String estado
     );
 
-    // Admin panel queries with eager loading
-    @Query(value = "SELECT p FROM Paquete p LEFT JOIN FETCH p.destino",
-           countQuery = "SELECT COUNT(p) FROM Paquete p")
-    Page<Paquete> findAllWithDestino(Pageable pageable);
+    // Exportacion completa por streaming (ver JsonStreamUtils)
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Paquete p LEFT JOIN FETCH p.destino ORDER BY p.idPaquete")
+    Stream<Paquete> streamAllWithDestino();
+
+    // Indice de busqueda en memoria
+    @Query("SELECT p FROM Paquete p JOIN FETCH p.destino")
+    List<Paquete> findAllWithDestino();
 
     @Query("SELECT p FROM Paquete p LEFT JOIN FETCH p.destino WHERE p.idPaquete = :id")
     Optional<Paquete> findByIdWithDestino(@Param("id") Integer id);
 
-    // Filtros para admin
-    @Query(value = "SELECT p FROM Paquete p LEFT JOIN FETCH p.destino WHERE p.estado = :estado",
-           countQuery = "SELECT COUNT(p) FROM Paquete p WHERE p.estado = :estado")
-    Page<Paquete> findByEstadoWithDestino(@Param("estado") String estado, Pageable pageable);
-
-    @Query(value = "SELECT p FROM Paquete p LEFT JOIN FETCH p.destino WHERE " +
-           "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(p.destino.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%'))",
-           countQuery = "SELECT COUNT(p) FROM Paquete p WHERE " +
-           "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(p.destino.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%'))")
-    Page<Paquete> findByBusquedaWithDestino(@Param("busqueda") String busqueda, Pageable pageable);
-
-    @Query(value = "SELECT p FROM Paquete p LEFT JOIN FETCH p.destino WHERE p.estado = :estado AND " +
-           "(LOWER(p.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(p.destino.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')))",
-           countQuery = "SELECT COUNT(p) FROM Paquete p WHERE p.estado = :estado AND " +
-           "(LOWER(p.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
-           "LOWER(p.destino.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')))")
-    Page<Paquete> findByEstadoAndBusquedaWithDestino(@Param("estado") String estado, @Param("busqueda") String busqueda, Pageable pageable);
+    // Paginacion por cursor (keyset) sobre idPaquete descendente: cada pagina lee
+    // solo "limite" filas del indice primario, sin OFFSET ni COUNT
+    @Query("""
+        SELECT p FROM Paquete p LEFT JOIN FETCH p.destino
+        WHERE (:estado IS NULL OR p.estado = :estado)
+          AND (:despuesDe IS NULL OR p.idPaquete < :despuesDe)
+        ORDER BY p.idPaquete DESC
+        """)
+    List<Paquete> findPaginaSiguienteWithDestino(
+        @Param("estado") String estado,
+        @Param("despuesDe") Integer despuesDe,
+        Limit limite
+    );
+
+    // Pagina anterior: recorre en sentido inverso, el llamador invierte el resultado
+    @Query("""
+        SELECT p FROM Paquete p LEFT JOIN FETCH p.destino
+        WHERE (:estado IS NULL OR p.estado = :estado)
+          AND p.idPaquete > :antesDe
+        ORDER BY p.idPaquete ASC
+        """)
+    List<Paquete> findPaginaAnteriorWithDestino(
+        @Param("estado") String estado,
+        @Param("antesDe") Integer antesDe,
+        Limit limite
+    );
+
+    // Busqueda de texto: los IDs de una pagina, ya filtrados y ordenados por el indice en memoria
+    @Query("SELECT p FROM Paquete p LEFT JOIN FETCH p.destino WHERE p.idPaquete IN :ids")
+    List<Paquete> findByIdInWithDestino(@Param("ids") List<Integer> ids);
+
+    // ===========================================================
+    // LECTURAS POR PROYECCION (sin entidades administradas)
+    // ===========================================================
+
+    // Catalogo publico en memoria y listado de activos
+    @Query(PaqueteFila.SELECT + "WHERE p.estado = :estado ORDER BY p.fechaInicio ASC, p.idPaquete ASC")
+    List<PaqueteFila> findFilasByEstado(@Param("estado") String estado);
+
+    // Respaldo de IndicePrecios.masBaratos mientras el indice no se ha cargado
+    @Query(PaqueteFila.SELECT + "WHERE p.estado = :estado ORDER BY p.precio ASC, p.idPaquete ASC")
+    List<PaqueteFila> findFilasMasBaratas(@Param("estado") String estado, Limit limite);
+
+    // ===========================================================
+    // STOCK (ver InventarioService)
+    // ===========================================================
+    // Todos incrementan la version: un formulario abierto antes del cambio de
+    // stock ya no puede guardar su valor viejo encima
+
+    // Descuento condicional en una sola sentencia: retorna 0 si no alcanza el stock
+    // o si el paquete usa inventario en memoria (sus cupos los entrega InventarioEnMemoria)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Paquete p SET p.stockDisponible = p.stockDisponible - :cantidad, p.version = p.version + 1
+        WHERE p.idPaquete = :id AND p.stockDisponible >= :cantidad
+          AND p.inventarioEnMemoria = false
+        """)
+    int descontarStock(@Param("id") Integer id, @Param("cantidad") int cantidad);
+
+    // Stock con la fila bloqueada hasta el commit, o null si el paquete usa inventario en memoria
+    @Query(value = """
+        SELECT stock_disponible FROM paquete
+        WHERE id_paquete = :id AND inventario_en_memoria = FALSE FOR UPDATE
+        """, nativeQuery = true)
+    Integer stockParaDescontar(@Param("id") Integer id);
+
+    // Un cupo de cada paquete en una sola sentencia (checkout del carrito): si
+    // retorna menos filas que IDs, alguno se quedo sin stock o paso a memoria
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Paquete p SET p.stockDisponible = p.stockDisponible - 1, p.version = p.version + 1
+        WHERE p.idPaquete IN :ids AND p.stockDisponible >= 1
+          AND p.inventarioEnMemoria = false
+        """)
+    int descontarUnCupo(@Param("ids") Collection<Integer> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Paquete p SET p.stockDisponible = p.stockDisponible + :cantidad, p.version = p.version + 1
+        WHERE p.idPaquete = :id
+        """)
+    int devolverStock(@Param("id") Integer id, @Param("cantidad") int cantidad);
+
+    // Devuelve en una sentencia los cupos de un lote de reservas (un cupo por item)
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE paquete p
+        JOIN (SELECT id_paquete, COUNT(*) AS cupos FROM reserva_item
+              WHERE id_reserva IN (:idsReserva) GROUP BY id_paquete) d ON d.id_paquete = p.id_paquete
+        SET p.stock_disponible = p.stock_disponible + d.cupos, p.version = p.version + 1
+        """, nativeQuery = true)
+    int devolverStockDeReservas(@Param("idsReserva") Collection<Integer> idsReserva);
+
+    // Volcado de inventario_pendiente: los cupos ya se validaron en memoria
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Paquete p SET p.stockDisponible = p.stockDisponible - :cantidad, p.version = p.version + 1
+        WHERE p.idPaquete = :id
+        """)
+    int volcarStock(@Param("id") Integer id, @Param("cantidad") int cantidad);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Paquete p SET p.inventarioEnMemoria = :activo, p.version = p.version + 1
+        WHERE p.idPaquete = :id
+        """)
+    int marcarInventarioEnMemoria(@Param("id") Integer id, @Param("activo") boolean activo);
+
+    // Lectura con bloqueo: ve la marca recien confirmada por otra transaccion
+    @Query(value = "SELECT inventario_en_memoria FROM paquete WHERE id_paquete = :id LOCK IN SHARE MODE",
+            nativeQuery = true)
+    Boolean usaInventarioEnMemoria(@Param("id") Integer id);
+
+    // Bloquea la fila mientras se activa o desactiva el inventario en memoria
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Paquete p WHERE p.idPaquete = :id")
+    Optional<Paquete> findByIdParaActualizar(@Param("id") Integer id);
+
+    List<Paquete> findByInventarioEnMemoriaTrue();
 }
@@ -1,14 +1,75 @@
 package com.ptirado.nmviajes.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
 import com.ptirado.nmviajes.entity.ReservaItem;
 
 @Repository
 public interface ReservaItemRepository extends JpaRepository<ReservaItem, Integer> {
 
     List<ReservaItem> findByReserva_IdReserva(Integer idReserva);
+
+    // Popularidad de un paquete: cantidad de veces reservado sin contar el estado indicado
+    long countByPaquete_IdPaqueteAndReserva_EstadoReservaNot(Integer idPaquete, EstadoReserva estadoReserva);
+
+    @Query("""
+        SELECT i.paquete.idPaquete, COUNT(i) FROM ReservaItem i
+        WHERE i.reserva.estadoReserva <> :estadoReserva
+        GROUP BY i.paquete.idPaquete
+        """)
+    List<Object[]> contarPorPaqueteExcluyendoEstado(@Param("estadoReserva") EstadoReserva estadoReserva);
+
+    @Query("""
+        SELECT i.paquete.idPaquete, COUNT(i) FROM ReservaItem i
+        WHERE i.paquete.idPaquete IN :ids AND i.reserva.estadoReserva <> :estadoReserva
+        GROUP BY i.paquete.idPaquete
+        """)
+    List<Object[]> contarPorPaqueteExcluyendoEstado(
+        @Param("ids") Collection<Integer> ids,
+        @Param("estadoReserva") EstadoReserva estadoReserva
+    );
+
+    /**
+     * Cantidad de items reservados por paquete, sin contar el estado indicado.
+     */
+    default Map<Integer, Long> contarPorPaquete(EstadoReserva excluido) {
+        return aMapa(contarPorPaqueteExcluyendoEstado(excluido));
+    }
+
+    /**
+     * Igual que {@link #contarPorPaquete(EstadoReserva)} pero solo para los paquetes
+     * indicados. Los paquetes sin reservas no aparecen en el mapa.
+     */
+    default Map<Integer, Long> contarPorPaquete(Collection<Integer> idsPaquete, EstadoReserva excluido) {
+        return aMapa(contarPorPaqueteExcluyendoEstado(idsPaquete, excluido));
+    }
+
+    // Cupos que ocupa un grupo de reservas: cada item descuenta un cupo de su paquete
+    @Query("""
+        SELECT i.paquete.idPaquete, COUNT(i) FROM ReservaItem i
+        WHERE i.reserva.idReserva IN :idsReserva
+        GROUP BY i.paquete.idPaquete
+        """)
+    List<Object[]> contarCuposPorPaqueteDeReservas(@Param("idsReserva") Collection<Integer> idsReserva);
+
+    /**
+     * Cupos por paquete ocupados por las reservas indicadas.
+     */
+    default Map<Integer, Long> contarCuposPorPaquete(Collection<Integer> idsReserva) {
+        return aMapa(contarCuposPorPaqueteDeReservas(idsReserva));
+    }
+
+    private static Map<Integer, Long> aMapa(List<Object[]> filas) {
+        return filas.stream()
+                .collect(Collectors.toMap(fila -> (Integer) fila[0], fila -> (Long) fila[1]));
+    }
 }
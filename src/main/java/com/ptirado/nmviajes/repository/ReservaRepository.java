@@ -1,25 +1,39 @@
 package com.ptirado.nmviajes.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import com.ptirado.nmviajes.constants.AppConstants;
 import com.ptirado.nmviajes.entity.Reserva;
 import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+import com.ptirado.nmviajes.repository.projection.ReservaFila;
+import com.ptirado.nmviajes.util.CursorUtils;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Integer> {
 
     List<Reserva> findByUsuario_IdUsuario(Integer idUsuario);
 
-    Page<Reserva> findByUsuario_IdUsuario(Integer idUsuario, Pageable pageable);
-
     List<Reserva> findByEstadoReserva(EstadoReserva estadoReserva);
 
     Page<Reserva> findByEstadoReserva(EstadoReserva estadoReserva, Pageable pageable);
@@ -37,15 +51,125 @@ public interface ReservaRepository extends JpaRepository<Reserva, Integer> {
     @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario ORDER BY r.fechaCreacion DESC LIMIT 5")
     List<Reserva> findTop5ByOrderByFechaCreacionDesc();
 
-    // Admin panel queries with eager loading
-    @Query(value = "SELECT r FROM Reserva r JOIN FETCH r.usuario LEFT JOIN FETCH r.items",
-           countQuery = "SELECT COUNT(r) FROM Reserva r")
-    Page<Reserva> findAllWithUsuarioAndItems(Pageable pageable);
-
-    @Query(value = "SELECT r FROM Reserva r JOIN FETCH r.usuario LEFT JOIN FETCH r.items WHERE r.estadoReserva = :estadoReserva",
-           countQuery = "SELECT COUNT(r) FROM Reserva r WHERE r.estadoReserva = :estadoReserva")
-    Page<Reserva> findByEstadoReservaWithUsuarioAndItems(@Param("estadoReserva") EstadoReserva estadoReserva, Pageable pageable);
-
     @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario LEFT JOIN FETCH r.items WHERE r.idReserva = :id")
     Optional<Reserva> findByIdWithUsuarioAndItems(@Param("id") Integer id);
+
+    @Query("SELECT DISTINCT r FROM Reserva r JOIN FETCH r.usuario LEFT JOIN FETCH r.items WHERE r.idReserva IN :ids")
+    List<Reserva> findByIdInWithUsuarioAndItems(@Param("ids") List<Integer> ids);
+
+    // ===========================================================
+    // EXPIRACION DE PENDIENTES (ver ExpiracionReservas)
+    // ===========================================================
+
+    // Bloquea el lote hasta el commit; SKIP LOCKED salta las reservas que un pago
+    // (u otra instancia) ya tiene tomadas en vez de esperarlas
+    @Query(value = """
+        SELECT id_reserva FROM reserva
+        WHERE estado_reserva = 'PENDIENTE' AND fecha_creacion < :limite
+        ORDER BY fecha_creacion, id_reserva
+        LIMIT :lote
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Integer> bloquearPendientesVencidas(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Reserva r SET r.estadoReserva = :cancelada, r.fechaModificacion = :ahora,
+          r.version = r.version + 1
+        WHERE r.idReserva IN :ids AND r.estadoReserva = :pendiente
+        """)
+    int cancelarPendientes(
+        @Param("ids") List<Integer> ids,
+        @Param("ahora") LocalDateTime ahora,
+        @Param("pendiente") EstadoReserva pendiente,
+        @Param("cancelada") EstadoReserva cancelada
+    );
+
+    // ===========================================================
+    // PAGINACION POR CURSOR (keyset sobre fechaCreacion, idReserva)
+    // ===========================================================
+
+    // Primero se leen solo los IDs de la pagina: limitar un JOIN FETCH de coleccion
+    // obligaria a Hibernate a paginar en memoria
+    @Query("""
+        SELECT r.idReserva FROM Reserva r
+        WHERE (:idUsuario IS NULL OR r.usuario.idUsuario = :idUsuario)
+          AND (:estadoReserva IS NULL OR r.estadoReserva = :estadoReserva)
+          AND (:fecha IS NULL OR r.fechaCreacion < :fecha
+               OR (r.fechaCreacion = :fecha AND r.idReserva < :id))
+        ORDER BY r.fechaCreacion DESC, r.idReserva DESC
+        """)
+    List<Integer> findIdsPaginaSiguiente(
+        @Param("idUsuario") Integer idUsuario,
+        @Param("estadoReserva") EstadoReserva estadoReserva,
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Integer id,
+        Limit limite
+    );
+
+    @Query("""
+        SELECT r.idReserva FROM Reserva r
+        WHERE (:idUsuario IS NULL OR r.usuario.idUsuario = :idUsuario)
+          AND (:estadoReserva IS NULL OR r.estadoReserva = :estadoReserva)
+          AND (r.fechaCreacion > :fecha
+               OR (r.fechaCreacion = :fecha AND r.idReserva > :id))
+        ORDER BY r.fechaCreacion ASC, r.idReserva ASC
+        """)
+    List<Integer> findIdsPaginaAnterior(
+        @Param("idUsuario") Integer idUsuario,
+        @Param("estadoReserva") EstadoReserva estadoReserva,
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Integer id,
+        Limit limite
+    );
+
+    /**
+     * Lee una pagina de reservas (con usuario e items) a partir de un cursor.
+     *
+     * @param idUsuario  Filtra por usuario, o null para todos
+     * @param estado     Filtra por estado, o null para todos
+     * @param cursor     Clave desde la que se lee, o null para la primera pagina
+     * @param haciaAtras true para leer las reservas anteriores al cursor
+     * @param filas      Cantidad maxima de filas a leer
+     * @return Reservas en el orden del recorrido
+     */
+    default List<Reserva> findPaginaWithUsuarioAndItems(Integer idUsuario, EstadoReserva estado,
+                                                        CursorUtils.ClaveFecha cursor, boolean haciaAtras,
+                                                        int filas) {
+        List<Integer> ids = findIdsPagina(idUsuario, estado, cursor, haciaAtras, filas);
+        if (ids.isEmpty()) return List.of();
+
+        Map<Integer, Reserva> porId = findByIdInWithUsuarioAndItems(ids).stream()
+                .collect(Collectors.toMap(Reserva::getIdReserva, Function.identity()));
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * IDs de una pagina de reservas a partir de un cursor, en el orden del recorrido.
+     */
+    default List<Integer> findIdsPagina(Integer idUsuario, EstadoReserva estado,
+                                        CursorUtils.ClaveFecha cursor, boolean haciaAtras, int filas) {
+        return haciaAtras && cursor != null
+                ? findIdsPaginaAnterior(idUsuario, estado, cursor.fecha(), cursor.id(), Limit.of(filas))
+                : findIdsPaginaSiguiente(idUsuario, estado,
+                        cursor != null ? cursor.fecha() : null,
+                        cursor != null ? cursor.id() : null,
+                        Limit.of(filas));
+    }
+
+    // ===========================================================
+    // LECTURAS POR PROYECCION (vistas web, sin entidades administradas)
+    // ===========================================================
+
+    @Query(ReservaFila.SELECT + "WHERE r.idReserva IN :ids ORDER BY r.idReserva, i.idItem, s.idServicio")
+    List<ReservaFila> findFilasVistaByIdIn(@Param("ids") List<Integer> ids);
+
+    @Query(ReservaFila.SELECT + "WHERE u.idUsuario = :idUsuario ORDER BY r.idReserva, i.idItem, s.idServicio")
+    List<ReservaFila> findFilasVistaByUsuario(@Param("idUsuario") Integer idUsuario);
+
+    // Exportacion completa por streaming (ver JsonStreamUtils): usuario, items, paquete,
+    // destino y servicios llegan en la misma consulta; el stream no admite otras mientras este abierto
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE))
+    @Query(ReservaFila.SELECT + "ORDER BY r.idReserva, i.idItem, s.idServicio")
+    Stream<ReservaFila> streamFilasExportacion();
 }
@@ -0,0 +1,38 @@
+package com.ptirado.nmviajes.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fila de solo lectura de un paquete con el nombre de su destino.
+ *
+ * <p>Se construye directamente en la consulta JPQL ({@code SELECT new ...}), por
+ * lo que Hibernate no crea entidades administradas, snapshots para dirty
+ * checking ni proxies del destino. La usan los listados publicos que solo
+ * copian estos campos a la respuesta.</p>
+ */
+public record PaqueteFila(
+        Integer idPaquete,
+        String nombre,
+        String descripcion,
+        BigDecimal precio,
+        LocalDate fechaInicio,
+        LocalDate fechaFin,
+        Integer stockDisponible,
+        String estado,
+        Integer idDestino,
+        String nombreDestino,
+        LocalDateTime fechaCreacion,
+        LocalDateTime fechaModificacion) {
+
+    /**
+     * Expresion de constructor para las consultas sobre {@code Paquete p LEFT JOIN p.destino d}.
+     */
+    public static final String SELECT = """
+            SELECT new com.ptirado.nmviajes.repository.projection.PaqueteFila(
+                p.idPaquete, p.nombre, p.descripcion, p.precio, p.fechaInicio, p.fechaFin,
+                p.stockDisponible, p.estado, d.idDestino, d.nombre, p.fechaCreacion, p.fechaModificacion)
+            FROM Paquete p LEFT JOIN p.destino d
+            """;
+}
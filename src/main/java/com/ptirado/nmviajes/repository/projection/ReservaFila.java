@@ -0,0 +1,57 @@
+package com.ptirado.nmviajes.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+
+/**
+ * Fila plana de una reserva para las vistas web: una por cada combinacion de
+ * reserva, item y servicio adicional (los campos del item o del servicio
+ * llegan en null si la reserva o el item no tienen).
+ *
+ * <p>Reemplaza la carga de Reserva → items → paquete → destino → servicios,
+ * que hidrataba entidades administradas e inicializaba proxies por cada item,
+ * por una sola consulta con JOINs. {@code ReservaMapper} agrupa las filas.</p>
+ */
+public record ReservaFila(
+        Integer idReserva,
+        BigDecimal totalPagar,
+        EstadoReserva estadoReserva,
+        LocalDateTime fechaCreacion,
+        Integer idUsuario,
+        String nombreUsuario,
+        String apellidoUsuario,
+        String emailUsuario,
+        Integer idItem,
+        LocalDate fechaViajeInicio,
+        BigDecimal subtotal,
+        Integer idPaquete,
+        String nombrePaquete,
+        BigDecimal precioPaquete,
+        String nombreDestino,
+        Integer idServicio,
+        String nombreServicio,
+        BigDecimal costoServicio,
+        Integer cantidadServicio) {
+
+    /**
+     * Expresion de constructor con los JOINs de la reserva hasta sus servicios.
+     */
+    public static final String SELECT = """
+            SELECT new com.ptirado.nmviajes.repository.projection.ReservaFila(
+                r.idReserva, r.totalPagar, r.estadoReserva, r.fechaCreacion,
+                u.idUsuario, u.nombre, u.apellido, u.email,
+                i.idItem, i.fechaViajeInicio, i.subtotal,
+                p.idPaquete, p.nombre, p.precio, d.nombre,
+                s.idServicio, s.nombre, s.costo, ris.cantidad)
+            FROM Reserva r
+            JOIN r.usuario u
+            LEFT JOIN r.items i
+            LEFT JOIN i.paquete p
+            LEFT JOIN p.destino d
+            LEFT JOIN i.servicios ris
+            LEFT JOIN ris.servicioAdicional s
+            """;
+}
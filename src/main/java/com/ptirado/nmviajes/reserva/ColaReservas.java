@@ -0,0 +1,331 @@
+package com.ptirado.nmviajes.reserva;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
+import com.ptirado.nmviajes.dto.api.response.ReservaResponse;
+import com.ptirado.nmviajes.dto.api.response.ReservaTicketResponse;
+import com.ptirado.nmviajes.exception.api.ApiException;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.exception.api.TooManyRequestsException;
+import com.ptirado.nmviajes.service.ReservaService;
+import com.ptirado.nmviajes.util.MessageUtils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reservas asincronas confirmadas por lotes (group commit).
+ *
+ * <p>En el modo sincrono cada reserva ocupa una conexion del pool durante toda
+ * su transaccion, y el tamano del pool limita cuantas se confirman a la vez.
+ * Aqui la peticion se valida, se deja en una cola acotada y se responde 202
+ * con un ticket. Unos pocos trabajadores toman de la cola todas las reservas
+ * que haya (hasta {@code reserva.asincrona.lote-maximo}) y las confirman en
+ * una sola transaccion: una conexion y un commit por lote en lugar de uno por
+ * reserva. Con poca carga el lote es de una reserva y no se espera a nadie.</p>
+ *
+ * <p>El lote se valida antes de escribir y los cupos se descuentan con un
+ * UPDATE por paquete: las reservas sin cupo (o sin usuario o paquete) se
+ * rechazan sin revertir a las demas. Solo si algo inesperado falla (un
+ * conflicto, un servicio que dejo de existir) se revierte el lote completo y
+ * cada reserva se reintenta en su propia transaccion, como en el modo
+ * sincrono.</p>
+ *
+ * <p>La cola y los tickets viven en memoria: si la aplicacion se detiene, las
+ * reservas aun en cola se pierden y su ticket deja de existir (404). El
+ * cliente puede volver a enviarlas con la misma {@code Idempotency-Key}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ColaReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ColaReservas.class);
+
+    // Los trabajadores revisan cada tanto si deben detenerse
+    private static final long ESPERA_MS = 500;
+
+    private final ReservaService reservaService;
+    private final MessageUtils messageUtils;
+
+    @Value("${reserva.asincrona.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${reserva.asincrona.capacidad-cola:1000}")
+    private int capacidad;
+
+    @Value("${reserva.asincrona.trabajadores:2}")
+    private int numeroTrabajadores;
+
+    @Value("${reserva.asincrona.lote-maximo:50}")
+    private int loteMaximo;
+
+    @Value("${reserva.asincrona.ttl-ticket-minutos:60}")
+    private long ttlTicketMinutos;
+
+    private BlockingQueue<Solicitud> cola;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final List<Thread> trabajadores = new ArrayList<>();
+    private volatile boolean activa;
+
+    // Acumulados desde el arranque
+    private final AtomicLong encoladas = new AtomicLong();
+    private final AtomicLong rechazadasPorCola = new AtomicLong();
+    private final AtomicLong confirmadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong reservasEnLotes = new AtomicLong();
+    private final AtomicLong loteMayor = new AtomicLong();
+    private final AtomicLong lotesDivididos = new AtomicLong();
+
+    public enum EstadoTicket {
+        EN_COLA, CONFIRMADA, RECHAZADA
+    }
+
+    private record Solicitud(String ticket, ReservaRequest request) {
+    }
+
+    // Inmutable: cada cambio de estado reemplaza la entrada del mapa
+    private record Ticket(String id, Integer idPropietario, EstadoTicket estado, LocalDateTime recepcion,
+                          ReservaResponse reserva, String mensaje, LocalDateTime resuelto) {
+
+        Ticket resolver(EstadoTicket nuevoEstado, ReservaResponse reserva, String mensaje) {
+            return new Ticket(id, idPropietario, nuevoEstado, recepcion, reserva, mensaje, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Estado de la cola y tamano de los lotes confirmados.
+     *
+     * @param habilitada        Si el modo asincrono esta activo
+     * @param enCola            Reservas esperando un trabajador
+     * @param capacidad         Reservas que caben en la cola
+     * @param encoladas         Reservas aceptadas desde el arranque
+     * @param rechazadasPorCola Reservas rechazadas con 429 por cola llena
+     * @param confirmadas       Reservas creadas
+     * @param rechazadas        Reservas que fallaron al confirmarse
+     * @param lotes             Transacciones confirmadas (un lote o una reserva reintentada sola)
+     * @param loteMayor         Mayor numero de reservas en una transaccion
+     * @param lotePromedio      Reservas por transaccion, en promedio
+     * @param lotesDivididos    Lotes revertidos y reintentados reserva por reserva
+     */
+    public record Estadisticas(boolean habilitada, int enCola, int capacidad, long encoladas,
+                               long rechazadasPorCola, long confirmadas, long rechazadas, long lotes,
+                               long loteMayor, double lotePromedio, long lotesDivididos) {
+    }
+
+    // ========================================================================
+    // API
+    // ========================================================================
+
+    /**
+     * Valida la reserva y la deja en cola. No abre ninguna transaccion de escritura.
+     *
+     * @param request       Datos de la reserva
+     * @param idPropietario Usuario autenticado, el unico (ademas de ADMIN) que puede consultar el ticket
+     * @return Ticket en estado EN_COLA
+     * @throws BadRequestException      si el modo asincrono no esta habilitado o la reserva no es valida
+     * @throws TooManyRequestsException si la cola esta llena
+     */
+    public ReservaTicketResponse encolar(ReservaRequest request, Integer idPropietario) {
+        if (!activa) {
+            throw new BadRequestException(MessageKeys.RESERVA_ASINCRONA_DESHABILITADA);
+        }
+        reservaService.validarParaApi(request);
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), idPropietario, EstadoTicket.EN_COLA,
+                LocalDateTime.now(), null, null, null);
+        tickets.put(ticket.id(), ticket);
+        if (!cola.offer(new Solicitud(ticket.id(), request))) {
+            tickets.remove(ticket.id());
+            rechazadasPorCola.incrementAndGet();
+            throw new TooManyRequestsException(MessageKeys.RESERVA_COLA_LLENA);
+        }
+        encoladas.incrementAndGet();
+        return aResponse(ticket);
+    }
+
+    /**
+     * Estado de un ticket.
+     *
+     * @param id        ID del ticket
+     * @param idUsuario Usuario que consulta
+     * @param admin     Si el usuario es ADMIN (puede ver cualquier ticket)
+     * @throws NotFoundException si no existe, ya vencio o pertenece a otro usuario
+     */
+    public ReservaTicketResponse consultar(String id, Integer idUsuario, boolean admin) {
+        Ticket ticket = tickets.get(id);
+        if (ticket == null || (!admin && !Objects.equals(ticket.idPropietario(), idUsuario))) {
+            throw new NotFoundException(MessageKeys.RESERVA_TICKET_NOT_FOUND, id);
+        }
+        return aResponse(ticket);
+    }
+
+    public Estadisticas estadisticas() {
+        long totalLotes = lotes.get();
+        double promedio = totalLotes > 0 ? (double) reservasEnLotes.get() / totalLotes : 0;
+        return new Estadisticas(activa, cola != null ? cola.size() : 0, capacidad, encoladas.get(),
+                rechazadasPorCola.get(), confirmadas.get(), rechazadas.get(), totalLotes,
+                loteMayor.get(), promedio, lotesDivididos.get());
+    }
+
+    // ========================================================================
+    // CICLO DE VIDA
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        if (!habilitada || activa) return;
+        cola = new ArrayBlockingQueue<>(capacidad);
+        activa = true;
+        for (int i = 1; i <= numeroTrabajadores; i++) {
+            Thread hilo = new Thread(this::trabajar, "reserva-lote-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+            trabajadores.add(hilo);
+        }
+        log.info("Reservas asincronas habilitadas: {} trabajadores, cola de {}, lotes de hasta {}",
+                numeroTrabajadores, capacidad, loteMaximo);
+    }
+
+    @PreDestroy
+    public synchronized void detener() {
+        if (!activa) return;
+        activa = false;
+        trabajadores.forEach(Thread::interrupt);
+        for (Thread hilo : trabajadores) {
+            try {
+                hilo.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        trabajadores.clear();
+        if (!cola.isEmpty()) {
+            log.warn("Reservas asincronas descartadas al detener la aplicacion: {}", cola.size());
+        }
+    }
+
+    /**
+     * Elimina los tickets resueltos hace mas de {@code reserva.asincrona.ttl-ticket-minutos}.
+     */
+    @Scheduled(fixedDelayString = "${reserva.asincrona.intervalo-purga-ms:60000}")
+    public void purgarTickets() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(ttlTicketMinutos);
+        tickets.values().removeIf(t -> t.resuelto() != null && t.resuelto().isBefore(limite));
+    }
+
+    // ========================================================================
+    // TRABAJADORES
+    // ========================================================================
+
+    private void trabajar() {
+        List<Solicitud> lote = new ArrayList<>(loteMaximo);
+        while (activa) {
+            try {
+                Solicitud primera = cola.poll(ESPERA_MS, TimeUnit.MILLISECONDS);
+                if (primera == null) continue;
+                // Lo que se acumulo mientras se confirmaba el lote anterior va en este
+                lote.add(primera);
+                cola.drainTo(lote, loteMaximo - 1);
+                confirmar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el trabajador de reservas asincronas", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Confirma el lote en una transaccion; si algo inesperado falla, reserva por reserva.
+     */
+    private void confirmar(List<Solicitud> lote) {
+        List<ReservaService.ResultadoLote> resultados;
+        try {
+            resultados = reservaService.crearLoteDesdeApi(lote.stream().map(Solicitud::request).toList());
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                confirmarSola(lote.get(0));
+                return;
+            }
+            lotesDivididos.incrementAndGet();
+            log.debug("Lote de {} reservas revertido, se confirma reserva por reserva: {}",
+                    lote.size(), e.getMessage());
+            lote.forEach(this::confirmarSola);
+            return;
+        }
+
+        registrarLote(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            ReservaService.ResultadoLote resultado = resultados.get(i);
+            if (resultado.rechazo() != null) {
+                ApiException rechazo = resultado.rechazo();
+                resolver(lote.get(i), EstadoTicket.RECHAZADA, null,
+                        messageUtils.getMessage(rechazo.getMessageKey(), rechazo.getArgs()));
+            } else {
+                resolver(lote.get(i), EstadoTicket.CONFIRMADA, resultado.reserva(), null);
+            }
+        }
+    }
+
+    // Transaccion propia con los reintentos por conflicto de crearDesdeApi
+    private void confirmarSola(Solicitud solicitud) {
+        try {
+            ReservaResponse creada = reservaService.crearDesdeApi(solicitud.request());
+            registrarLote(1);
+            resolver(solicitud, EstadoTicket.CONFIRMADA, creada, null);
+        } catch (ApiException e) {
+            resolver(solicitud, EstadoTicket.RECHAZADA, null, messageUtils.getMessage(e.getMessageKey(), e.getArgs()));
+        } catch (RuntimeException e) {
+            log.error("No se pudo confirmar la reserva del ticket {}", solicitud.ticket(), e);
+            resolver(solicitud, EstadoTicket.RECHAZADA, null,
+                    messageUtils.getMessage(MessageKeys.RESERVA_ERROR_INESPERADO));
+        }
+    }
+
+    private void registrarLote(int tamano) {
+        lotes.incrementAndGet();
+        reservasEnLotes.addAndGet(tamano);
+        loteMayor.accumulateAndGet(tamano, Math::max);
+    }
+
+    private void resolver(Solicitud solicitud, EstadoTicket estado, ReservaResponse reserva, String mensaje) {
+        (estado == EstadoTicket.CONFIRMADA ? confirmadas : rechazadas).incrementAndGet();
+        tickets.computeIfPresent(solicitud.ticket(), (id, t) -> t.resolver(estado, reserva, mensaje));
+    }
+
+    private static ReservaTicketResponse aResponse(Ticket ticket) {
+        return ReservaTicketResponse.builder()
+                .ticket(ticket.id())
+                .estado(ticket.estado().name())
+                .fechaRecepcion(ticket.recepcion())
+                .reserva(ticket.reserva())
+                .mensaje(ticket.mensaje())
+                .build();
+    }
+}
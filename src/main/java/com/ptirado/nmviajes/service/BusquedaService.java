@@ -0,0 +1,9 @@
+package com.ptirado.nmviajes.service;
+
+import com.ptirado.nmviajes.dto.api.response.BusquedaResponse;
+
+public interface BusquedaService {
+
+    // API REST
+    BusquedaResponse buscarParaApi(String consulta, int limite);
+}
@@ -0,0 +1,44 @@
+package com.ptirado.nmviajes.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.ptirado.nmviajes.dto.api.request.ServicioAdicionalItemRequest;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.entity.ServicioAdicional;
+
+/**
+ * Precio de un item reservable: paquete mas servicios adicionales.
+ *
+ * <p>Resuelve todos los servicios solicitados con una sola consulta y calcula
+ * el subtotal en la misma pasada. Lo comparten la API, el formulario web y el
+ * carrito para que ninguno busque los servicios uno por uno.</p>
+ */
+public interface CotizacionService {
+
+    /**
+     * Servicio resuelto con la cantidad pedida. Un servicio repetido en la
+     * solicitud aparece una sola vez con las cantidades sumadas.
+     */
+    record Linea(ServicioAdicional servicio, int cantidad) {
+    }
+
+    /**
+     * @param subtotal Precio del paquete mas el costo de todas las lineas
+     * @param lineas   Servicios en el orden en que se pidieron por primera vez
+     */
+    record Cotizacion(BigDecimal subtotal, List<Linea> lineas) {
+    }
+
+    /**
+     * Cotiza el paquete con los servicios indicados.
+     *
+     * <p>Se ignoran las entradas sin servicio o con cantidad menor a 1.</p>
+     *
+     * @param paquete   Paquete base
+     * @param servicios Servicios solicitados (puede ser null)
+     * @throws com.ptirado.nmviajes.exception.api.NotFoundException con el primer
+     *         servicio solicitado que no existe
+     */
+    Cotizacion cotizar(Paquete paquete, List<ServicioAdicionalItemRequest> servicios);
+}
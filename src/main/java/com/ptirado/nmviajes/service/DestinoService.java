@@ -1,5 +1,7 @@
 package com.ptirado.nmviajes.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import com.ptirado.nmviajes.dto.api.request.DestinoRequest;
@@ -11,6 +13,7 @@ public interface DestinoService {
 
     // API REST
     List<DestinoResponse> listarParaApi();
+    void exportarParaApi(OutputStream salida) throws IOException;
     DestinoResponse obtenerParaApi(Integer id);
     DestinoResponse crearDesdeApi(DestinoRequest request);
     DestinoResponse actualizarDesdeApi(Integer id, DestinoRequest request);
@@ -0,0 +1,63 @@
+package com.ptirado.nmviajes.service;
+
+import java.util.List;
+
+import com.ptirado.nmviajes.entity.Paquete;
+
+/**
+ * Reserva y devolucion de cupos (stock disponible) de los paquetes.
+ *
+ * <p>Todas las operaciones se hacen con un UPDATE atomico en la base de datos,
+ * nunca leyendo el stock, restando en Java y guardando: dos reservas
+ * concurrentes no pueden vender el mismo cupo.</p>
+ *
+ * <p>Los paquetes con inventario en memoria entregan los cupos desde
+ * {@link com.ptirado.nmviajes.inventario.InventarioEnMemoria} y la base de
+ * datos se actualiza por lotes.</p>
+ */
+public interface InventarioService {
+
+    /**
+     * Descuenta cupos del paquete solo si hay suficientes.
+     *
+     * @param paquete  Paquete a descontar (su stock en memoria se refresca)
+     * @param cantidad Cupos a descontar
+     * @throws com.ptirado.nmviajes.exception.api.BadRequestException si no hay stock suficiente
+     */
+    void descontar(Paquete paquete, int cantidad);
+
+    /**
+     * Descuenta los cupos que haya, hasta {@code cantidad}, sin fallar si no
+     * alcanzan (confirmacion de un lote de reservas del mismo paquete).
+     *
+     * @param paquete  Paquete a descontar (su stock en memoria se refresca)
+     * @param cantidad Cupos pedidos
+     * @return Cupos descontados, entre 0 y {@code cantidad}
+     */
+    int descontarHasta(Paquete paquete, int cantidad);
+
+    /**
+     * Descuenta un cupo de cada paquete con un solo UPDATE (checkout del carrito).
+     *
+     * <p>No refresca las entidades: su stock queda con el valor leido antes del
+     * descuento. Si otro pedido se lleva el ultimo cupo entre la lectura y el
+     * UPDATE, lanza un conflicto de concurrencia para que
+     * {@link com.ptirado.nmviajes.concurrencia.ReintentarConflicto} repita la
+     * compra completa con datos frescos.</p>
+     *
+     * @param paquetes Paquetes distintos, uno por item del carrito
+     * @throws com.ptirado.nmviajes.exception.api.BadRequestException si un paquete
+     *         en memoria no tiene cupos
+     * @throws org.springframework.dao.OptimisticLockingFailureException si algun
+     *         paquete cambio entre la lectura y el descuento
+     */
+    void descontarCupos(List<Paquete> paquetes);
+
+    /**
+     * Devuelve cupos al paquete (cancelaciones).
+     *
+     * @param paquete  Paquete a reponer (su stock en memoria se refresca)
+     * @param cantidad Cupos a devolver
+     */
+    void devolver(Paquete paquete, int cantidad);
+}
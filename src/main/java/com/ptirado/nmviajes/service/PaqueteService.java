@@ -1,9 +1,13 @@
 package com.ptirado.nmviajes.service;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
+import com.ptirado.nmviajes.catalogo.FiltroBuscador;
 import com.ptirado.nmviajes.dto.api.request.PaqueteRequest;
+import com.ptirado.nmviajes.dto.api.response.BuscadorPaquetesResponse;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
 import com.ptirado.nmviajes.dto.api.response.PaqueteResponse;
 import com.ptirado.nmviajes.dto.form.PaqueteForm;
@@ -13,6 +17,8 @@ public interface PaqueteService {
 
     // API REST
     List<PaqueteResponse> listarParaApi();
+    void exportarParaApi(OutputStream salida) throws IOException;
+    PaginaCursorResponse<PaqueteResponse> listarParaApiPorCursor(String estado, String despues, String antes, int limite);
     PaqueteResponse obtenerParaApi(Integer id);
     PaqueteResponse crearDesdeApi(PaqueteRequest request);
     PaqueteResponse actualizarDesdeApi(Integer id, PaqueteRequest request);
@@ -27,5 +33,6 @@ public interface PaqueteService {
     // Búsquedas adicionales
     List<PaqueteResponse> listarPorDestino(Integer idDestino);
     List<PaqueteResponse> listarActivos();
-    List<PaqueteBuscadorResponse> buscar(Integer idDestino, LocalDate fechaInicio, LocalDate fechaFin);
+    BuscadorPaquetesResponse buscar(FiltroBuscador filtro);
+    List<PaqueteBuscadorResponse> listarMasBaratos(int limite);
 }
\ No newline at end of file
@@ -1,13 +1,18 @@
 package com.ptirado.nmviajes.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.dto.api.response.ReservaResponse;
 import com.ptirado.nmviajes.dto.form.ReservaForm;
+import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
+import com.ptirado.nmviajes.exception.api.ApiException;
 import com.ptirado.nmviajes.viewmodel.ReservaView;
 
 /**
@@ -35,6 +40,13 @@ import com.ptirado.nmviajes.viewmodel.ReservaView;
  */
 public interface ReservaService {
 
+    /**
+     * Resultado de una solicitud dentro de un lote: la reserva creada o el
+     * motivo por el que se rechazo.
+     */
+    record ResultadoLote(ReservaResponse reserva, ApiException rechazo) {
+    }
+
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                              API REST                                      ║
     // ║  Metodos para consumo via API REST - Retornan DTOs (Response)             ║
@@ -47,6 +59,15 @@ public interface ReservaService {
      */
     List<ReservaResponse> listarParaApi();
 
+    /**
+     * Escribe todas las reservas como arreglo JSON a medida que se leen de la
+     * base de datos, sin materializar la lista completa en memoria.
+     *
+     * @param salida Flujo de salida de la respuesta
+     * @throws IOException si falla la escritura
+     */
+    void exportarParaApi(OutputStream salida) throws IOException;
+
     /**
      * Obtiene una reserva por su ID.
      *
@@ -65,6 +86,28 @@ public interface ReservaService {
      */
     ReservaResponse crearDesdeApi(ReservaRequest request);
 
+    /**
+     * Crea en una sola transaccion las reservas de un lote (reservas asincronas).
+     *
+     * <p>Valida el lote completo antes de escribir y descuenta los cupos con un
+     * UPDATE por paquete, en el orden de llegada. Las solicitudes sin usuario,
+     * sin paquete o sin cupo se devuelven rechazadas y no revierten a las demas.</p>
+     *
+     * @param requests Solicitudes del lote
+     * @return Un resultado por solicitud, en el mismo orden
+     */
+    List<ResultadoLote> crearLoteDesdeApi(List<ReservaRequest> requests);
+
+    /**
+     * Valida una peticion de reserva sin crearla (usuario, paquete, stock y servicios).
+     * Se usa antes de encolar una reserva asincrona; el stock se vuelve a validar al confirmarla.
+     *
+     * @param request Datos de la reserva a validar
+     * @throws com.ptirado.nmviajes.exception.api.NotFoundException si algo no existe
+     * @throws com.ptirado.nmviajes.exception.api.BadRequestException si no hay stock
+     */
+    void validarParaApi(ReservaRequest request);
+
     /**
      * Lista las reservas de un usuario especifico.
      *
@@ -73,6 +116,20 @@ public interface ReservaService {
      */
     List<ReservaResponse> listarPorUsuarioParaApi(Integer idUsuario);
 
+    /**
+     * Lista las reservas paginando por cursor, de la mas reciente a la mas antigua.
+     *
+     * @param idUsuario ID del usuario, o null para todas las reservas
+     * @param estado Estado de la reserva, o null para cualquier estado
+     * @param despues Cursor de la pagina siguiente (opcional)
+     * @param antes Cursor de la pagina anterior (opcional, tiene prioridad sobre despues)
+     * @param limite Tamano de pagina
+     * @return Pagina de reservas con los cursores de navegacion
+     * @throws com.ptirado.nmviajes.exception.api.BadRequestException si el cursor no es valido
+     */
+    PaginaCursorResponse<ReservaResponse> listarParaApiPorCursor(Integer idUsuario, EstadoReserva estado,
+                                                                 String despues, String antes, int limite);
+
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                              WEB MVC                                        ║
     // ║  Metodos para controladores web - Retornan ViewModels para Thymeleaf      ║
@@ -117,13 +174,16 @@ public interface ReservaService {
     List<ReservaView> listarPorUsuarioParaWeb(Integer idUsuario);
 
     /**
-     * Lista las reservas de un usuario de forma paginada para la vista web.
+     * Lista las reservas de un usuario paginando por cursor para la vista web.
      *
      * @param idUsuario ID del usuario
-     * @param pageable Configuracion de paginacion
+     * @param despues Cursor de la pagina siguiente (opcional)
+     * @param antes Cursor de la pagina anterior (opcional)
+     * @param limite Tamano de pagina
      * @return Pagina de reservas del usuario en formato ViewModel
      */
-    Page<ReservaView> listarPorUsuarioParaWebPaginado(Integer idUsuario, Pageable pageable);
+    PaginaCursorResponse<ReservaView> listarPorUsuarioParaWebPorCursor(Integer idUsuario, String despues,
+                                                                       String antes, int limite);
 
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                        PAGO Y CANCELACION                                  ║
@@ -154,4 +214,19 @@ public interface ReservaService {
      * @throws com.ptirado.nmviajes.exception.api.BadRequestException si ya esta pagada
      */
     ReservaResponse cancelarReserva(Integer idReserva);
+
+    /**
+     * Cancela una reserva pendiente desde el panel de administracion y devuelve
+     * sus cupos al stock, con su movimiento en el libro de inventario.
+     *
+     * <p>Aplica la misma validacion que {@link #confirmarPago(Integer)}: una
+     * reserva pagada o ya cancelada (por ejemplo, por expiracion) no se toca,
+     * asi sus cupos nunca se devuelven dos veces.</p>
+     *
+     * @param idReserva ID de la reserva a cancelar
+     * @return La reserva actualizada
+     * @throws com.ptirado.nmviajes.exception.api.NotFoundException si no existe
+     * @throws com.ptirado.nmviajes.exception.api.BadRequestException si ya esta pagada/cancelada
+     */
+    ReservaResponse cancelarDevolviendoCupos(Integer idReserva);
 }
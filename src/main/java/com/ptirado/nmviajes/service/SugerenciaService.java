@@ -0,0 +1,11 @@
+package com.ptirado.nmviajes.service;
+
+import java.util.List;
+
+import com.ptirado.nmviajes.dto.api.response.SugerenciaResponse;
+
+public interface SugerenciaService {
+
+    // API REST
+    List<SugerenciaResponse> sugerirParaApi(String consulta, int limite);
+}
@@ -0,0 +1,83 @@
+package com.ptirado.nmviajes.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.stereotype.Service;
+
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot;
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot.PaqueteCatalogo;
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshotHolder;
+import com.ptirado.nmviajes.catalogo.IndiceBusquedaCatalogo;
+import com.ptirado.nmviajes.catalogo.IndiceBusquedaCatalogo.Coincidencias;
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.dto.api.response.BusquedaResponse;
+import com.ptirado.nmviajes.dto.api.response.DestinoResponse;
+import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.mapper.PaqueteMapper;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.service.BusquedaService;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class BusquedaServiceImpl implements BusquedaService {
+
+    private final IndiceBusquedaCatalogo indiceBusqueda;
+    private final CatalogoSnapshotHolder catalogoSnapshotHolder;
+    private final PaqueteRepository paqueteRepository;
+    private final PaqueteMapper paqueteMapper;
+
+    // ===========================================================
+    // API REST
+    // ===========================================================
+
+    @Override
+    public BusquedaResponse buscarParaApi(String consulta, int limite) {
+        int max = Math.max(1, Math.min(limite, AppConstants.MAX_PAGE_SIZE));
+
+        // Los datos de cada paquete se toman de la foto del catalogo (solo activos)
+        CatalogoSnapshot snapshot = catalogoSnapshotHolder.actual();
+        Coincidencias<Integer> idsPaquetes =
+                indiceBusqueda.buscarPaquetes(consulta, AppConstants.STATUS_ACTIVO, max);
+        List<PaqueteBuscadorResponse> paquetes = snapshot != null
+                ? idsPaquetes.resultados().stream()
+                        .map(snapshot::obtener)
+                        .filter(Objects::nonNull)
+                        .map(PaqueteCatalogo::respuesta)
+                        .toList()
+                : cargarPaquetes(idsPaquetes.resultados());
+
+        Coincidencias<DestinoResponse> destinos =
+                indiceBusqueda.buscarDestinos(consulta, AppConstants.STATUS_ACTIVO, max);
+
+        return BusquedaResponse.builder()
+                .consulta(consulta)
+                .paquetes(paquetes)
+                .totalPaquetes(idsPaquetes.total())
+                .destinos(destinos.resultados())
+                .totalDestinos(destinos.total())
+                .build();
+    }
+
+    // ===========================================================
+    // UTILIDADES
+    // ===========================================================
+
+    // Sin foto (aun no se carga): una sola consulta con los IDs del indice, en su orden de relevancia
+    private List<PaqueteBuscadorResponse> cargarPaquetes(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Integer, Paquete> porId = new HashMap<>();
+        paqueteRepository.findByIdInWithDestino(ids).forEach(p -> porId.put(p.getIdPaquete(), p));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .map(paqueteMapper::toBuscadorResponse)
+                .toList();
+    }
+}
@@ -8,32 +8,35 @@ import java.util.List;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ptirado.nmviajes.concurrencia.ReintentarConflicto;
 import com.ptirado.nmviajes.constants.MessageKeys;
 import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
 import com.ptirado.nmviajes.dto.api.request.CarritoItemRequest;
-import com.ptirado.nmviajes.dto.api.request.ServicioAdicionalItemRequest;
 import com.ptirado.nmviajes.dto.api.response.CarritoResponse;
 import com.ptirado.nmviajes.entity.Carrito;
 import com.ptirado.nmviajes.entity.CarritoItem;
 import com.ptirado.nmviajes.entity.CarritoItemServicio;
 import com.ptirado.nmviajes.entity.CarritoItemServicioId;
+import com.ptirado.nmviajes.entity.InventarioMovimiento.Motivo;
 import com.ptirado.nmviajes.entity.Paquete;
 import com.ptirado.nmviajes.entity.Reserva;
 import com.ptirado.nmviajes.entity.ReservaItem;
 import com.ptirado.nmviajes.entity.ReservaItemServicio;
 import com.ptirado.nmviajes.entity.ReservaItemServicioId;
-import com.ptirado.nmviajes.entity.ServicioAdicional;
 import com.ptirado.nmviajes.entity.Usuario;
 import com.ptirado.nmviajes.exception.api.BadRequestException;
 import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.inventario.LibroInventario;
 import com.ptirado.nmviajes.mapper.CarritoMapper;
 import com.ptirado.nmviajes.repository.CarritoItemRepository;
 import com.ptirado.nmviajes.repository.CarritoRepository;
 import com.ptirado.nmviajes.repository.PaqueteRepository;
 import com.ptirado.nmviajes.repository.ReservaRepository;
-import com.ptirado.nmviajes.repository.ServicioAdicionalRepository;
 import com.ptirado.nmviajes.repository.UsuarioRepository;
 import com.ptirado.nmviajes.service.CarritoService;
+import com.ptirado.nmviajes.service.CotizacionService;
+import com.ptirado.nmviajes.service.CotizacionService.Linea;
+import com.ptirado.nmviajes.service.InventarioService;
 import com.ptirado.nmviajes.viewmodel.CarritoView;
 
 import lombok.RequiredArgsConstructor;
@@ -47,9 +50,11 @@ public class CarritoServiceImpl implements CarritoService {
     private final CarritoItemRepository carritoItemRepository;
     private final PaqueteRepository paqueteRepository;
     private final UsuarioRepository usuarioRepository;
-    private final ServicioAdicionalRepository servicioAdicionalRepository;
     private final ReservaRepository reservaRepository;
     private final CarritoMapper carritoMapper;
+    private final InventarioService inventarioService;
+    private final LibroInventario libroInventario;
+    private final CotizacionService cotizacionService;
 
     // ===========================================================
     // UTILIDAD INTERNA
@@ -65,11 +70,6 @@ public class CarritoServiceImpl implements CarritoService {
                 .orElseThrow(() -> new NotFoundException(MessageKeys.PAQUETE_NOT_FOUND, idPaquete));
     }
 
-    private ServicioAdicional getServicioOrThrow(Integer idServicio) {
-        return servicioAdicionalRepository.findById(idServicio)
-                .orElseThrow(() -> new NotFoundException(MessageKeys.SERVICIO_NOT_FOUND, idServicio));
-    }
-
     private Carrito getOrCreateCarrito(Usuario usuario) {
         return carritoRepository.findByUsuario_IdUsuario(usuario.getIdUsuario())
                 .orElseGet(() -> {
@@ -104,27 +104,22 @@ public class CarritoServiceImpl implements CarritoService {
         item.setFechaViajeInicio(request.getFechaViajeInicio());
         item.setFechaAgregado(LocalDateTime.now());
 
+        // Servicios resueltos en una sola consulta, antes de insertar el item
+        List<Linea> lineas = cotizacionService.cotizar(paquete, request.getServiciosAdicionales()).lineas();
+
         CarritoItem itemGuardado = carritoItemRepository.save(item);
 
         // Agregar servicios adicionales
-        if (request.getServiciosAdicionales() != null) {
-            List<CarritoItemServicio> servicios = new ArrayList<>();
-            for (ServicioAdicionalItemRequest servicioReq : request.getServiciosAdicionales()) {
-                if (servicioReq.getIdServicio() != null && servicioReq.getCantidad() != null
-                        && servicioReq.getCantidad() > 0) {
-                    ServicioAdicional servicio = getServicioOrThrow(servicioReq.getIdServicio());
-
-                    CarritoItemServicio cis = new CarritoItemServicio();
-                    cis.setId(new CarritoItemServicioId(itemGuardado.getIdItem(), servicio.getIdServicio()));
-                    cis.setCarritoItem(itemGuardado);
-                    cis.setServicioAdicional(servicio);
-                    cis.setCantidad(servicioReq.getCantidad());
-
-                    servicios.add(cis);
-                }
-            }
-            itemGuardado.setServicios(servicios);
+        List<CarritoItemServicio> servicios = new ArrayList<>(lineas.size());
+        for (Linea linea : lineas) {
+            CarritoItemServicio cis = new CarritoItemServicio();
+            cis.setId(new CarritoItemServicioId(itemGuardado.getIdItem(), linea.servicio().getIdServicio()));
+            cis.setCarritoItem(itemGuardado);
+            cis.setServicioAdicional(linea.servicio());
+            cis.setCantidad(linea.cantidad());
+            servicios.add(cis);
         }
+        itemGuardado.setServicios(servicios);
 
         // Actualizar fecha de modificación del carrito
         carrito.setFechaModificacion(LocalDateTime.now());
@@ -159,6 +154,7 @@ public class CarritoServiceImpl implements CarritoService {
     }
 
     @Override
+    @ReintentarConflicto
     public CarritoResponse agregarItemParaApi(Integer idUsuario, CarritoItemRequest request) {
         Usuario usuario = getUsuarioOrThrow(idUsuario);
         Carrito carrito = getOrCreateCarrito(usuario);
@@ -170,6 +166,7 @@ public class CarritoServiceImpl implements CarritoService {
     }
 
     @Override
+    @ReintentarConflicto
     public CarritoResponse eliminarItemParaApi(Integer idUsuario, Integer idItem) {
         Usuario usuario = getUsuarioOrThrow(idUsuario);
         Carrito carrito = getOrCreateCarrito(usuario);
@@ -192,6 +189,7 @@ public class CarritoServiceImpl implements CarritoService {
     }
 
     @Override
+    @ReintentarConflicto
     public void vaciarCarritoParaApi(Integer idUsuario) {
         Usuario usuario = getUsuarioOrThrow(idUsuario);
         Carrito carrito = getOrCreateCarrito(usuario);
@@ -202,76 +200,79 @@ public class CarritoServiceImpl implements CarritoService {
         carritoRepository.save(carrito);
     }
 
+    /**
+     * Convierte el carrito en una reserva con un numero fijo de sentencias,
+     * sin importar cuantos items tenga: una lectura del grafo completo, un
+     * UPDATE de stock para todos los paquetes, los INSERT de la reserva en
+     * lote y un DELETE de los items.
+     */
     @Override
+    @ReintentarConflicto
     public void procesarCompraParaApi(Integer idUsuario) {
-        Usuario usuario = getUsuarioOrThrow(idUsuario);
-        Carrito carrito = getOrCreateCarrito(usuario);
-
-        if (carrito.getItems() == null || carrito.getItems().isEmpty()) {
+        List<CarritoItem> itemsAProcesar = carritoItemRepository.findParaCompraByUsuario(idUsuario);
+        if (itemsAProcesar.isEmpty()) {
+            getUsuarioOrThrow(idUsuario);
             throw new BadRequestException(MessageKeys.CARRITO_VACIO);
         }
 
-        // Copiar items para evitar problemas con la colección al eliminar
-        List<CarritoItem> itemsAProcesar = new ArrayList<>(carrito.getItems());
+        Carrito carrito = itemsAProcesar.get(0).getCarrito();
+        List<Paquete> paquetes = new ArrayList<>(itemsAProcesar.size());
 
         // Validar stock de todos los paquetes antes de procesar
         for (CarritoItem item : itemsAProcesar) {
             validarStockDisponible(item.getPaquete());
-        }
-
-        // Calcular total de la reserva
-        BigDecimal totalReserva = BigDecimal.ZERO;
-        for (CarritoItem item : itemsAProcesar) {
-            totalReserva = totalReserva.add(calcularTotalItem(item));
+            paquetes.add(item.getPaquete());
         }
 
         // Crear una única reserva
         Reserva reserva = new Reserva();
-        reserva.setUsuario(usuario);
-        reserva.setTotalPagar(totalReserva);
+        reserva.setUsuario(carrito.getUsuario());
         reserva.setEstadoReserva(EstadoReserva.PENDIENTE);
 
+        BigDecimal totalReserva = BigDecimal.ZERO;
         List<ReservaItem> reservaItems = new ArrayList<>();
+        LocalDateTime ahora = LocalDateTime.now();
 
         // Crear un ReservaItem por cada item del carrito
         for (CarritoItem carritoItem : itemsAProcesar) {
-            Paquete paquete = carritoItem.getPaquete();
             BigDecimal subtotal = calcularTotalItem(carritoItem);
+            totalReserva = totalReserva.add(subtotal);
 
             ReservaItem reservaItem = new ReservaItem();
             reservaItem.setReserva(reserva);
-            reservaItem.setPaquete(paquete);
+            reservaItem.setPaquete(carritoItem.getPaquete());
             reservaItem.setFechaViajeInicio(carritoItem.getFechaViajeInicio());
             reservaItem.setSubtotal(subtotal);
-            reservaItem.setFechaCreacion(LocalDateTime.now());
+            reservaItem.setFechaCreacion(ahora);
 
             // Crear servicios del item
-            if (carritoItem.getServicios() != null) {
-                List<ReservaItemServicio> serviciosReserva = new ArrayList<>();
-                for (CarritoItemServicio cis : carritoItem.getServicios()) {
-                    ReservaItemServicio ris = new ReservaItemServicio();
-                    ris.setId(new ReservaItemServicioId(null, cis.getServicioAdicional().getIdServicio()));
-                    ris.setReservaItem(reservaItem);
-                    ris.setServicioAdicional(cis.getServicioAdicional());
-                    ris.setCantidad(cis.getCantidad());
-                    serviciosReserva.add(ris);
-                }
-                reservaItem.setServicios(serviciosReserva);
+            List<ReservaItemServicio> serviciosReserva = new ArrayList<>();
+            for (CarritoItemServicio cis : carritoItem.getServicios()) {
+                ReservaItemServicio ris = new ReservaItemServicio();
+                ris.setId(new ReservaItemServicioId(null, cis.getServicioAdicional().getIdServicio()));
+                ris.setReservaItem(reservaItem);
+                ris.setServicioAdicional(cis.getServicioAdicional());
+                ris.setCantidad(cis.getCantidad());
+                serviciosReserva.add(ris);
             }
+            reservaItem.setServicios(serviciosReserva);
 
             reservaItems.add(reservaItem);
-
-            // Decrementar stock
-            paquete.setStockDisponible(paquete.getStockDisponible() - 1);
-            paqueteRepository.save(paquete);
         }
 
+        // Un solo UPDATE condicional para todos los cupos: si otro pedido tomo
+        // alguno entre la validacion y este punto, se revierte toda la compra
+        inventarioService.descontarCupos(paquetes);
+
+        reserva.setTotalPagar(totalReserva);
         reserva.setItems(reservaItems);
         reservaRepository.save(reserva);
+        libroInventario.registrarReservas(List.of(reserva.getIdReserva()), Motivo.RESERVA);
 
-        // Vaciar el carrito después de procesar
-        carrito.getItems().clear();
-        carrito.setFechaModificacion(LocalDateTime.now());
+        // Vaciar el carrito después de procesar; la version del carrito impide
+        // que dos compras simultaneas del mismo carrito se confirmen
+        carritoItemRepository.eliminarPorCarrito(carrito.getIdCarrito());
+        carrito.setFechaModificacion(ahora);
         carritoRepository.save(carrito);
     }
 
@@ -294,6 +295,7 @@ public class CarritoServiceImpl implements CarritoService {
     }
 
     @Override
+    @ReintentarConflicto
     public void agregarItemParaWeb(Integer idUsuario, CarritoItemRequest request) {
         Usuario usuario = getUsuarioOrThrow(idUsuario);
         Carrito carrito = getOrCreateCarrito(usuario);
@@ -301,16 +303,19 @@ public class CarritoServiceImpl implements CarritoService {
     }
 
     @Override
+    @ReintentarConflicto
     public void eliminarItemParaWeb(Integer idUsuario, Integer idItem) {
         eliminarItemParaApi(idUsuario, idItem);
     }
 
     @Override
+    @ReintentarConflicto
     public void vaciarCarritoParaWeb(Integer idUsuario) {
         vaciarCarritoParaApi(idUsuario);
     }
 
     @Override
+    @ReintentarConflicto
     public void procesarCompraParaWeb(Integer idUsuario) {
         procesarCompraParaApi(idUsuario);
     }
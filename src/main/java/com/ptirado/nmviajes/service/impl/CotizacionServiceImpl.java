@@ -0,0 +1,69 @@
+package com.ptirado.nmviajes.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.dto.api.request.ServicioAdicionalItemRequest;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.entity.ServicioAdicional;
+import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.repository.ServicioAdicionalRepository;
+import com.ptirado.nmviajes.service.CotizacionService;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CotizacionServiceImpl implements CotizacionService {
+
+    private final ServicioAdicionalRepository servicioAdicionalRepository;
+
+    @Override
+    public Cotizacion cotizar(Paquete paquete, List<ServicioAdicionalItemRequest> servicios) {
+        Map<Integer, Integer> cantidades = cantidadesPorServicio(servicios);
+        if (cantidades.isEmpty()) {
+            return new Cotizacion(paquete.getPrecio(), List.of());
+        }
+
+        // Una sola consulta para todos los servicios (findAllById usa IN)
+        Map<Integer, ServicioAdicional> encontrados = servicioAdicionalRepository.findAllById(cantidades.keySet())
+                .stream()
+                .collect(Collectors.toMap(ServicioAdicional::getIdServicio, Function.identity()));
+
+        BigDecimal subtotal = paquete.getPrecio();
+        List<Linea> lineas = new ArrayList<>(cantidades.size());
+        for (Map.Entry<Integer, Integer> pedido : cantidades.entrySet()) {
+            ServicioAdicional servicio = encontrados.get(pedido.getKey());
+            if (servicio == null) {
+                throw new NotFoundException(MessageKeys.SERVICIO_NOT_FOUND, pedido.getKey());
+            }
+            subtotal = subtotal.add(servicio.getCosto().multiply(BigDecimal.valueOf(pedido.getValue())));
+            lineas.add(new Linea(servicio, pedido.getValue()));
+        }
+        return new Cotizacion(subtotal, lineas);
+    }
+
+    // Conserva el orden de la solicitud y suma las cantidades de servicios repetidos
+    private static Map<Integer, Integer> cantidadesPorServicio(List<ServicioAdicionalItemRequest> servicios) {
+        Map<Integer, Integer> cantidades = new LinkedHashMap<>();
+        if (servicios == null) {
+            return cantidades;
+        }
+        for (ServicioAdicionalItemRequest item : servicios) {
+            if (item.getIdServicio() != null && item.getCantidad() != null && item.getCantidad() > 0) {
+                cantidades.merge(item.getIdServicio(), item.getCantidad(), Integer::sum);
+            }
+        }
+        return cantidades;
+    }
+}
@@ -1,11 +1,16 @@
 package com.ptirado.nmviajes.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
 import com.ptirado.nmviajes.constants.MessageKeys;
 import com.ptirado.nmviajes.dto.api.request.DestinoRequest;
 import com.ptirado.nmviajes.dto.api.response.DestinoResponse;
@@ -16,9 +21,13 @@ import com.ptirado.nmviajes.exception.api.NotFoundException;
 import com.ptirado.nmviajes.mapper.DestinoMapper;
 import com.ptirado.nmviajes.repository.DestinoRepository;
 import com.ptirado.nmviajes.service.DestinoService;
+import com.ptirado.nmviajes.util.JsonStreamUtils;
 import com.ptirado.nmviajes.util.MessageUtils;
 import com.ptirado.nmviajes.viewmodel.DestinoView;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -29,6 +38,9 @@ public class DestinoServiceImpl implements DestinoService {
     private final DestinoRepository destinoRepository;
     private final DestinoMapper destinoMapper;
     private final MessageUtils message;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     // ===========================================================
     // UTILIDAD INTERNA (solo este servicio la usa)
@@ -38,6 +50,10 @@ public class DestinoServiceImpl implements DestinoService {
                 .orElseThrow(() -> new NotFoundException(MessageKeys.DESTINO_NOT_FOUND, id));
     }
 
+    private void publicarCambio(Integer idDestino) {
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.destino(idDestino));
+    }
+
     private void validarNombreUnico(String nombre, Integer idActual) {
 
         Optional<Destino> optional = destinoRepository.findByNombre(nombre);
@@ -60,6 +76,15 @@ public class DestinoServiceImpl implements DestinoService {
         return destinoMapper.toResponseList(destinoRepository.findAll());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarParaApi(OutputStream salida) throws IOException {
+        try (Stream<Destino> destinos = destinoRepository.streamAll()) {
+            JsonStreamUtils.escribirArreglo(objectMapper, entityManager, salida, destinos,
+                    destinoMapper::toResponseFromEntity);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public DestinoResponse obtenerParaApi(Integer id) {
@@ -72,6 +97,7 @@ public class DestinoServiceImpl implements DestinoService {
         validarNombreUnico(request.getNombre(), null);
         Destino entity = destinoMapper.toEntityFromRequest(request);
         Destino saved = destinoRepository.save(entity);
+        publicarCambio(saved.getIdDestino());
         return destinoMapper.toResponseFromEntity(saved);
     }
 
@@ -91,13 +117,16 @@ public class DestinoServiceImpl implements DestinoService {
                     });
         }
         destinoMapper.updateEntityFromRequest(request, destinoDb);
-        return destinoMapper.toResponseFromEntity(destinoRepository.save(destinoDb));
+        Destino saved = destinoRepository.save(destinoDb);
+        publicarCambio(id);
+        return destinoMapper.toResponseFromEntity(saved);
     }
 
     @Override
     public void eliminar(Integer id) {
         Destino destino = getDestinoOrThrow(id);
         destinoRepository.delete(destino);
+        publicarCambio(id);
     }
 
     // ===========================================================
@@ -121,7 +150,8 @@ public class DestinoServiceImpl implements DestinoService {
 
         validarNombreUnico(form.getNombre(), null);
         Destino entity = destinoMapper.toEntityFromForm(form);
-        destinoRepository.save(entity);
+        Destino saved = destinoRepository.save(entity);
+        publicarCambio(saved.getIdDestino());
     }
 
     @Override
@@ -140,6 +170,7 @@ public class DestinoServiceImpl implements DestinoService {
         }
         destinoMapper.updateEntityFromForm(form, destinoDb);
         destinoRepository.save(destinoDb);
+        publicarCambio(id);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.ptirado.nmviajes.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ptirado.nmviajes.catalogo.StockCambiadoEvent;
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+import com.ptirado.nmviajes.inventario.InventarioEnMemoria;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.service.InventarioService;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class InventarioServiceImpl implements InventarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventarioServiceImpl.class);
+
+    // Reintentos si el paquete pasa a inventario en memoria durante el descuento
+    private static final int MAX_INTENTOS = 3;
+
+    private final PaqueteRepository paqueteRepository;
+    private final InventarioEnMemoria inventarioEnMemoria;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void descontar(Paquete paquete, int cantidad) {
+        Integer id = paquete.getIdPaquete();
+        for (int intento = 0; intento < MAX_INTENTOS; intento++) {
+            InventarioEnMemoria.Entrega entrega = inventarioEnMemoria.tomar(id, cantidad);
+            if (entrega == InventarioEnMemoria.Entrega.TOMADO) {
+                // El volcado periodico lo descuenta de stock_disponible
+                return;
+            }
+            if (entrega == InventarioEnMemoria.Entrega.AGOTADO) {
+                throw stockInsuficiente(paquete, cantidad);
+            }
+
+            // La condicion stock >= cantidad la evalua MySQL sobre la fila bloqueada:
+            // 0 filas actualizadas significa que otro pedido se llevo los cupos
+            if (paqueteRepository.descontarStock(id, cantidad) == 1) {
+                actualizado(paquete);
+                return;
+            }
+            if (!Boolean.TRUE.equals(paqueteRepository.usaInventarioEnMemoria(id))) {
+                throw stockInsuficiente(paquete, cantidad);
+            }
+            // Se activo el inventario en memoria entre medio: se reintenta con su contador
+            inventarioEnMemoria.esperarContador(id);
+        }
+        throw stockInsuficiente(paquete, cantidad);
+    }
+
+    @Override
+    public int descontarHasta(Paquete paquete, int cantidad) {
+        Integer id = paquete.getIdPaquete();
+        for (int intento = 0; intento < MAX_INTENTOS; intento++) {
+            int pedidos = cantidad;
+            while (pedidos > 0) {
+                InventarioEnMemoria.Entrega entrega = inventarioEnMemoria.tomar(id, pedidos);
+                if (entrega == InventarioEnMemoria.Entrega.TOMADO) return pedidos;
+                if (entrega == InventarioEnMemoria.Entrega.NO_APLICA) break;
+                // Agotado para lo pedido: se intenta con lo que queda en el contador
+                Integer quedan = inventarioEnMemoria.disponible(id);
+                pedidos = quedan != null ? Math.min(pedidos - 1, quedan) : pedidos;
+            }
+            if (pedidos == 0) return 0;
+
+            // Con la fila bloqueada el stock leido no cambia hasta el commit
+            Integer stock = paqueteRepository.stockParaDescontar(id);
+            if (stock == null) {
+                // Se activo el inventario en memoria entre medio (o el paquete no existe)
+                if (!Boolean.TRUE.equals(paqueteRepository.usaInventarioEnMemoria(id))) return 0;
+                inventarioEnMemoria.esperarContador(id);
+                continue;
+            }
+            int descontados = Math.min(stock, cantidad);
+            if (descontados > 0) {
+                paqueteRepository.descontarStock(id, descontados);
+                actualizado(paquete);
+            }
+            return descontados;
+        }
+        return 0;
+    }
+
+    @Override
+    public void descontarCupos(List<Paquete> paquetes) {
+        List<Integer> enBaseDeDatos = new ArrayList<>(paquetes.size());
+        for (Paquete paquete : paquetes) {
+            switch (inventarioEnMemoria.tomar(paquete.getIdPaquete(), 1)) {
+                case TOMADO -> { }
+                case AGOTADO -> throw stockInsuficiente(paquete, 1);
+                case NO_APLICA -> enBaseDeDatos.add(paquete.getIdPaquete());
+            }
+        }
+        if (enBaseDeDatos.isEmpty()) return;
+
+        int descontados = paqueteRepository.descontarUnCupo(enBaseDeDatos);
+        if (descontados < enBaseDeDatos.size()) {
+            // No se sabe cual fallo (sin stock o paso a memoria): se revierte todo y se
+            // reintenta; la nueva lectura muestra el stock real y el mensaje correcto
+            log.info("Checkout con stock cambiado: {} de {} paquetes descontados",
+                    descontados, enBaseDeDatos.size());
+            throw new ObjectOptimisticLockingFailureException(Paquete.class, enBaseDeDatos);
+        }
+        eventPublisher.publishEvent(new StockCambiadoEvent(enBaseDeDatos));
+    }
+
+    @Override
+    public void devolver(Paquete paquete, int cantidad) {
+        paqueteRepository.devolverStock(paquete.getIdPaquete(), cantidad);
+        inventarioEnMemoria.devolverAlConfirmar(paquete.getIdPaquete(), cantidad);
+        actualizado(paquete);
+    }
+
+    // El UPDATE no pasa por el contexto de persistencia: se relee el stock para
+    // que ni la respuesta ni una escritura posterior de la entidad usen el valor viejo.
+    // Solo cambio el stock: los oyentes no reproyectan ni reconstruyen el paquete
+    private void actualizado(Paquete paquete) {
+        if (entityManager.contains(paquete)) {
+            entityManager.refresh(paquete);
+        }
+        eventPublisher.publishEvent(new StockCambiadoEvent(List.of(paquete.getIdPaquete())));
+        log.debug("Stock actualizado para paquete {}: nuevo stock={}",
+                paquete.getIdPaquete(), paquete.getStockDisponible());
+    }
+
+    private static BadRequestException stockInsuficiente(Paquete paquete, int cantidad) {
+        log.warn("Stock insuficiente para paquete: {} (id={}, solicitados={})",
+                paquete.getNombre(), paquete.getIdPaquete(), cantidad);
+        return new BadRequestException(MessageKeys.STOCK_INSUFICIENTE, paquete.getNombre());
+    }
+}
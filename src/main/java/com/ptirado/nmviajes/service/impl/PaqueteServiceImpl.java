@@ -1,26 +1,50 @@
 package com.ptirado.nmviajes.service.impl;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot;
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshotHolder;
+import com.ptirado.nmviajes.catalogo.FiltroBuscador;
+import com.ptirado.nmviajes.catalogo.IndicePrecios;
+import com.ptirado.nmviajes.catalogo.ModoRangoFechas;
+import com.ptirado.nmviajes.catalogo.OrdenBuscador;
 import com.ptirado.nmviajes.constants.AppConstants;
 import com.ptirado.nmviajes.constants.MessageKeys;
 import com.ptirado.nmviajes.dto.api.request.PaqueteRequest;
+import com.ptirado.nmviajes.dto.api.response.BuscadorPaquetesResponse;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
 import com.ptirado.nmviajes.dto.api.response.PaqueteResponse;
 import com.ptirado.nmviajes.dto.form.PaqueteForm;
+import com.ptirado.nmviajes.entity.CatalogoLectura;
 import com.ptirado.nmviajes.entity.Destino;
 import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
 import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.inventario.LibroInventario;
 import com.ptirado.nmviajes.mapper.PaqueteMapper;
+import com.ptirado.nmviajes.repository.CatalogoLecturaRepository;
 import com.ptirado.nmviajes.repository.DestinoRepository;
 import com.ptirado.nmviajes.repository.PaqueteRepository;
 import com.ptirado.nmviajes.service.PaqueteService;
+import com.ptirado.nmviajes.util.CursorUtils;
+import com.ptirado.nmviajes.util.JsonStreamUtils;
 import com.ptirado.nmviajes.viewmodel.PaqueteView;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -29,8 +53,15 @@ import lombok.RequiredArgsConstructor;
 public class PaqueteServiceImpl implements PaqueteService {
 
     private final PaqueteRepository paqueteRepository;
+    private final CatalogoLecturaRepository catalogoLecturaRepository;
     private final DestinoRepository destinoRepository;
     private final PaqueteMapper paqueteMapper;
+    private final CatalogoSnapshotHolder catalogoSnapshotHolder;
+    private final IndicePrecios indicePrecios;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final LibroInventario libroInventario;
 
     // ===========================================================
     // UTILIDAD INTERNA
@@ -46,6 +77,17 @@ public class PaqueteServiceImpl implements PaqueteService {
                 .orElseThrow(() -> new NotFoundException(MessageKeys.DESTINO_NOT_FOUND, idDestino));
     }
 
+    // Con inventario en memoria stock_disponible no incluye los pendientes de volcar
+    private void validarCambioStock(Paquete paquete, Integer nuevoStock) {
+        if (paquete.isInventarioEnMemoria() && !Objects.equals(paquete.getStockDisponible(), nuevoStock)) {
+            throw new BadRequestException(MessageKeys.STOCK_EN_MEMORIA, paquete.getNombre());
+        }
+    }
+
+    private void publicarCambio(Integer idPaquete) {
+        eventPublisher.publishEvent(CatalogoCambiadoEvent.paquete(idPaquete));
+    }
+
     // ===========================================================
     // API REST
     // ===========================================================
@@ -56,6 +98,31 @@ public class PaqueteServiceImpl implements PaqueteService {
         return paqueteMapper.toResponseList(paqueteRepository.findAll());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarParaApi(OutputStream salida) throws IOException {
+        try (Stream<Paquete> paquetes = paqueteRepository.streamAllWithDestino()) {
+            JsonStreamUtils.escribirArreglo(objectMapper, entityManager, salida, paquetes,
+                    paqueteMapper::toResponseFromEntity);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorResponse<PaqueteResponse> listarParaApiPorCursor(String estado, String despues,
+                                                                        String antes, int limite) {
+        int tamano = Math.max(1, Math.min(limite, AppConstants.MAX_PAGE_SIZE));
+        boolean haciaAtras = antes != null && !antes.isBlank();
+        Integer cursor = CursorUtils.decodificarId(haciaAtras ? antes : despues);
+
+        // Se pide una fila extra para saber si hay otra pagina en ese sentido
+        List<Paquete> filas = haciaAtras
+                ? paqueteRepository.findPaginaAnteriorWithDestino(estado, cursor, Limit.of(tamano + 1))
+                : paqueteRepository.findPaginaSiguienteWithDestino(estado, cursor, Limit.of(tamano + 1));
+        return PaginaCursorResponse.desde(filas, tamano, haciaAtras, cursor != null,
+                p -> CursorUtils.codificar(p.getIdPaquete()), paqueteMapper::toResponseFromEntity);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PaqueteResponse obtenerParaApi(Integer id) {
@@ -67,6 +134,8 @@ public class PaqueteServiceImpl implements PaqueteService {
         Destino destino = getDestinoOrThrow(request.getIdDestino());
         Paquete entity = paqueteMapper.toEntityFromRequest(request, destino);
         Paquete saved = paqueteRepository.save(entity);
+        libroInventario.registrarAjuste(saved.getIdPaquete(), 0, saved.getStockDisponible());
+        publicarCambio(saved.getIdPaquete());
         return paqueteMapper.toResponseFromEntity(saved);
     }
 
@@ -74,14 +143,20 @@ public class PaqueteServiceImpl implements PaqueteService {
     public PaqueteResponse actualizarDesdeApi(Integer id, PaqueteRequest request) {
         Paquete paqueteDb = getPaqueteOrThrow(id);
         Destino destino = getDestinoOrThrow(request.getIdDestino());
+        validarCambioStock(paqueteDb, request.getStockDisponible());
+        Integer stockAnterior = paqueteDb.getStockDisponible();
         paqueteMapper.updateEntityFromRequest(request, paqueteDb, destino);
-        return paqueteMapper.toResponseFromEntity(paqueteRepository.save(paqueteDb));
+        Paquete saved = paqueteRepository.save(paqueteDb);
+        libroInventario.registrarAjuste(id, stockAnterior, saved.getStockDisponible());
+        publicarCambio(id);
+        return paqueteMapper.toResponseFromEntity(saved);
     }
 
     @Override
     public void eliminar(Integer id) {
         Paquete paquete = getPaqueteOrThrow(id);
         paqueteRepository.delete(paquete);
+        publicarCambio(id);
     }
 
     // ===========================================================
@@ -91,28 +166,36 @@ public class PaqueteServiceImpl implements PaqueteService {
     @Override
     @Transactional(readOnly = true)
     public List<PaqueteView> listarParaWeb() {
-        return paqueteMapper.toViewList(paqueteRepository.findAll());
+        return paqueteMapper.toViewListFromLectura(catalogoLecturaRepository.findAllByOrderByIdPaqueteAsc());
     }
 
     @Override
     @Transactional(readOnly = true)
     public PaqueteView obtenerParaWeb(Integer id) {
-        return paqueteMapper.toViewModelFromEntity(getPaqueteOrThrow(id));
+        return catalogoLecturaRepository.findById(id)
+                .map(paqueteMapper::toViewModel)
+                .orElseThrow(() -> new NotFoundException(MessageKeys.PAQUETE_NOT_FOUND, id));
     }
 
     @Override
     public void crearDesdeForm(PaqueteForm form) {
         Destino destino = getDestinoOrThrow(form.getIdDestino());
         Paquete entity = paqueteMapper.toEntityFromForm(form, destino);
-        paqueteRepository.save(entity);
+        Paquete saved = paqueteRepository.save(entity);
+        libroInventario.registrarAjuste(saved.getIdPaquete(), 0, saved.getStockDisponible());
+        publicarCambio(saved.getIdPaquete());
     }
 
     @Override
     public void actualizarDesdeForm(Integer id, PaqueteForm form) {
         Paquete paqueteDb = getPaqueteOrThrow(id);
         Destino destino = getDestinoOrThrow(form.getIdDestino());
+        validarCambioStock(paqueteDb, form.getStockDisponible());
+        Integer stockAnterior = paqueteDb.getStockDisponible();
         paqueteMapper.updateEntityFromForm(form, paqueteDb, destino);
         paqueteRepository.save(paqueteDb);
+        libroInventario.registrarAjuste(id, stockAnterior, paqueteDb.getStockDisponible());
+        publicarCambio(id);
     }
 
     // ===========================================================
@@ -129,14 +212,49 @@ public class PaqueteServiceImpl implements PaqueteService {
     @Override
     @Transactional(readOnly = true)
     public List<PaqueteResponse> listarActivos() {
-        List<Paquete> paquetes = paqueteRepository.findByEstado(AppConstants.STATUS_ACTIVO);
-        return paqueteMapper.toResponseList(paquetes);
+        return paqueteMapper.toResponseListFromFilas(paqueteRepository.findFilasByEstado(AppConstants.STATUS_ACTIVO));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BuscadorPaquetesResponse buscar(FiltroBuscador filtro) {
+        // Se responde desde la foto en memoria; solo se consulta la BD si aun no se ha cargado
+        CatalogoSnapshot snapshot = catalogoSnapshotHolder.actual();
+        if (snapshot != null) {
+            int[] idsPorPrecio = filtro.usaPrecio()
+                    ? indicePrecios.idsEnRango(filtro.precioMin(), filtro.precioMax())
+                    : null;
+            return snapshot.buscar(filtro, idsPorPrecio);
+        }
+
+        List<CatalogoLectura> filas = filtro.modo() == ModoRangoFechas.SOLAPA
+                ? catalogoLecturaRepository.buscarSolapados(filtro.idDestino(), filtro.fechaInicio(), filtro.fechaFin(),
+                        AppConstants.STATUS_ACTIVO)
+                : catalogoLecturaRepository.buscar(filtro.idDestino(), filtro.fechaInicio(), filtro.fechaFin(),
+                        AppConstants.STATUS_ACTIVO);
+        Stream<CatalogoLectura> filtrados = filas.stream()
+                .filter(f -> filtro.admitePrecioYMes(f.getPrecio(), f.getFechaInicio()));
+        if (filtro.orden().porPrecio()) {
+            Comparator<CatalogoLectura> porPrecio = Comparator.comparing(CatalogoLectura::getPrecio,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            filtrados = filtrados.sorted(filtro.orden() == OrdenBuscador.PRECIO_DESC ? porPrecio.reversed() : porPrecio);
+        }
+
+        // Sin foto no hay indice de facetas: se responde solo con los paquetes
+        return BuscadorPaquetesResponse.builder()
+                .paquetes(paqueteMapper.toBuscadorResponseListFromLectura(filtrados.toList()))
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PaqueteBuscadorResponse> buscar(Integer idDestino, LocalDate fechaInicio, LocalDate fechaFin) {
-        List<Paquete> paquetes = paqueteRepository.buscar(idDestino, fechaInicio, fechaFin);
-        return paqueteMapper.toBuscadorResponseList(paquetes);
+    public List<PaqueteBuscadorResponse> listarMasBaratos(int limite) {
+        int tamano = Math.max(1, Math.min(limite, AppConstants.MAX_PAGE_SIZE));
+        CatalogoSnapshot snapshot = catalogoSnapshotHolder.actual();
+        if (snapshot != null && indicePrecios.size() > 0) {
+            return snapshot.respuestas(indicePrecios.masBaratos(tamano));
+        }
+        return paqueteMapper.toBuscadorResponseListFromFilas(
+                paqueteRepository.findFilasMasBaratas(AppConstants.STATUS_ACTIVO, Limit.of(tamano)));
     }
 }
\ No newline at end of file
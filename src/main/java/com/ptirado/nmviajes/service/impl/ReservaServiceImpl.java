@@ -1,9 +1,16 @@
 package com.ptirado.nmviajes.service.impl;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,29 +19,43 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ptirado.nmviajes.concurrencia.ReintentarConflicto;
+import com.ptirado.nmviajes.constants.AppConstants;
 import com.ptirado.nmviajes.constants.MessageKeys;
 import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
 import com.ptirado.nmviajes.dto.api.request.ServicioAdicionalItemRequest;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
 import com.ptirado.nmviajes.dto.api.response.ReservaResponse;
 import com.ptirado.nmviajes.dto.form.ReservaForm;
+import com.ptirado.nmviajes.entity.InventarioMovimiento.Motivo;
 import com.ptirado.nmviajes.entity.Paquete;
 import com.ptirado.nmviajes.entity.Reserva;
 import com.ptirado.nmviajes.entity.Reserva.EstadoReserva;
 import com.ptirado.nmviajes.entity.ReservaItem;
 import com.ptirado.nmviajes.entity.ReservaItemServicio;
 import com.ptirado.nmviajes.entity.ReservaItemServicioId;
-import com.ptirado.nmviajes.entity.ServicioAdicional;
 import com.ptirado.nmviajes.entity.Usuario;
+import com.ptirado.nmviajes.exception.api.ApiException;
 import com.ptirado.nmviajes.exception.api.BadRequestException;
 import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.inventario.LibroInventario;
 import com.ptirado.nmviajes.mapper.ReservaMapper;
 import com.ptirado.nmviajes.repository.PaqueteRepository;
 import com.ptirado.nmviajes.repository.ReservaRepository;
-import com.ptirado.nmviajes.repository.ServicioAdicionalRepository;
 import com.ptirado.nmviajes.repository.UsuarioRepository;
+import com.ptirado.nmviajes.repository.projection.ReservaFila;
+import com.ptirado.nmviajes.service.CotizacionService;
+import com.ptirado.nmviajes.service.CotizacionService.Cotizacion;
+import com.ptirado.nmviajes.service.CotizacionService.Linea;
+import com.ptirado.nmviajes.service.InventarioService;
 import com.ptirado.nmviajes.service.ReservaService;
+import com.ptirado.nmviajes.util.CursorUtils;
+import com.ptirado.nmviajes.util.JsonStreamUtils;
 import com.ptirado.nmviajes.viewmodel.ReservaView;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -72,8 +93,12 @@ public class ReservaServiceImpl implements ReservaService {
     private final ReservaRepository reservaRepository;
     private final PaqueteRepository paqueteRepository;
     private final UsuarioRepository usuarioRepository;
-    private final ServicioAdicionalRepository servicioAdicionalRepository;
+    private final CotizacionService cotizacionService;
+    private final InventarioService inventarioService;
+    private final LibroInventario libroInventario;
     private final ReservaMapper reservaMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                         BUSQUEDA DE ENTIDADES                              ║
@@ -95,11 +120,6 @@ public class ReservaServiceImpl implements ReservaService {
                 .orElseThrow(() -> new NotFoundException(MessageKeys.USUARIO_NOT_FOUND, idUsuario));
     }
 
-    private ServicioAdicional getServicioOrThrow(Integer idServicio) {
-        return servicioAdicionalRepository.findById(idServicio)
-                .orElseThrow(() -> new NotFoundException(MessageKeys.SERVICIO_NOT_FOUND, idServicio));
-    }
-
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                         VALIDACIONES                                       ║
     // ║  Metodos de validacion de reglas de negocio                               ║
@@ -153,108 +173,74 @@ public class ReservaServiceImpl implements ReservaService {
     private Reserva crearReservaCompleta(Usuario usuario, Paquete paquete,
             LocalDate fechaViajeInicio, List<ServicioAdicionalItemRequest> serviciosAdicionales) {
 
-        // 1. Calcular el subtotal (paquete + servicios adicionales)
-        BigDecimal subtotalItem = calcularSubtotalItem(paquete, serviciosAdicionales);
+        // 1-4. Cotizar y construir la reserva con su item
+        Reserva reserva = construirReserva(usuario, paquete, fechaViajeInicio, serviciosAdicionales);
+
+        // 5. Descontar el cupo antes de insertar (UPDATE condicional; falla si otro pedido lo tomo)
+        inventarioService.descontar(paquete, 1);
+
+        // 6. Persistir la reserva
+        Reserva reservaGuardada = reservaRepository.save(reserva);
+        libroInventario.registrarReservas(List.of(reservaGuardada.getIdReserva()), Motivo.RESERVA);
+
+        log.info("Reserva creada exitosamente: id={}, usuario={}, paquete={}, total={}",
+                reservaGuardada.getIdReserva(), usuario.getIdUsuario(),
+                paquete.getIdPaquete(), reservaGuardada.getTotalPagar());
+
+        return reservaGuardada;
+    }
+
+    /**
+     * Construye una reserva pendiente con un item, sin descontar cupos ni persistirla.
+     */
+    private Reserva construirReserva(Usuario usuario, Paquete paquete,
+            LocalDate fechaViajeInicio, List<ServicioAdicionalItemRequest> serviciosAdicionales) {
+
+        // 1. Calcular el subtotal (paquete + servicios adicionales, resueltos en una consulta)
+        Cotizacion cotizacion = cotizacionService.cotizar(paquete, serviciosAdicionales);
 
         // 2. Construir la reserva
         Reserva reserva = new Reserva();
         reserva.setUsuario(usuario);
-        reserva.setTotalPagar(subtotalItem);
+        reserva.setTotalPagar(cotizacion.subtotal());
         reserva.setEstadoReserva(EstadoReserva.PENDIENTE);
 
         // 3. Construir el item de la reserva
-        ReservaItem reservaItem = construirReservaItem(reserva, paquete, fechaViajeInicio,
-                subtotalItem, serviciosAdicionales);
+        ReservaItem reservaItem = construirReservaItem(reserva, paquete, fechaViajeInicio, cotizacion);
 
         // 4. Asociar item a la reserva
         List<ReservaItem> items = new ArrayList<>();
         items.add(reservaItem);
         reserva.setItems(items);
 
-        // 5. Persistir la reserva
-        Reserva reservaGuardada = reservaRepository.save(reserva);
-
-        // 6. Actualizar stock del paquete
-        decrementarStock(paquete);
-
-        log.info("Reserva creada exitosamente: id={}, usuario={}, paquete={}, total={}",
-                reservaGuardada.getIdReserva(), usuario.getIdUsuario(),
-                paquete.getIdPaquete(), subtotalItem);
-
-        return reservaGuardada;
+        return reserva;
     }
 
     /**
      * Construye un item de reserva con sus servicios adicionales.
      */
     private ReservaItem construirReservaItem(Reserva reserva, Paquete paquete,
-            LocalDate fechaViajeInicio, BigDecimal subtotal,
-            List<ServicioAdicionalItemRequest> serviciosAdicionales) {
+            LocalDate fechaViajeInicio, Cotizacion cotizacion) {
 
         ReservaItem reservaItem = new ReservaItem();
         reservaItem.setReserva(reserva);
         reservaItem.setPaquete(paquete);
         reservaItem.setFechaViajeInicio(fechaViajeInicio);
-        reservaItem.setSubtotal(subtotal);
-
-        // Agregar servicios adicionales si existen
-        List<ReservaItemServicio> servicios = construirServiciosItem(reservaItem, serviciosAdicionales);
-        reservaItem.setServicios(servicios);
-
-        return reservaItem;
-    }
-
-    /**
-     * Construye la lista de servicios adicionales para un item de reserva.
-     */
-    private List<ReservaItemServicio> construirServiciosItem(ReservaItem reservaItem,
-            List<ServicioAdicionalItemRequest> serviciosRequest) {
-
-        List<ReservaItemServicio> servicios = new ArrayList<>();
-
-        if (serviciosRequest == null || serviciosRequest.isEmpty()) {
-            return servicios;
-        }
-
-        for (ServicioAdicionalItemRequest item : serviciosRequest) {
-            ServicioAdicional servicio = getServicioOrThrow(item.getIdServicio());
+        reservaItem.setSubtotal(cotizacion.subtotal());
 
+        // Agregar servicios adicionales si existen (ya resueltos en la cotizacion)
+        List<ReservaItemServicio> servicios = new ArrayList<>(cotizacion.lineas().size());
+        for (Linea linea : cotizacion.lineas()) {
             ReservaItemServicio itemServicio = new ReservaItemServicio();
-            itemServicio.setId(new ReservaItemServicioId(null, servicio.getIdServicio()));
+            itemServicio.setId(new ReservaItemServicioId(null, linea.servicio().getIdServicio()));
             itemServicio.setReservaItem(reservaItem);
-            itemServicio.setServicioAdicional(servicio);
-            itemServicio.setCantidad(item.getCantidad());
-
+            itemServicio.setServicioAdicional(linea.servicio());
+            itemServicio.setCantidad(linea.cantidad());
             servicios.add(itemServicio);
         }
+        reservaItem.setServicios(servicios);
 
-        return servicios;
-    }
-
-    /**
-     * Calcula el subtotal de un item (precio del paquete + servicios adicionales).
-     *
-     * @param paquete El paquete base
-     * @param serviciosRequest Los servicios adicionales seleccionados
-     * @return El subtotal calculado
-     */
-    private BigDecimal calcularSubtotalItem(Paquete paquete,
-            List<ServicioAdicionalItemRequest> serviciosRequest) {
-
-        BigDecimal total = paquete.getPrecio();
-
-        if (serviciosRequest == null || serviciosRequest.isEmpty()) {
-            return total;
-        }
-
-        for (ServicioAdicionalItemRequest item : serviciosRequest) {
-            ServicioAdicional servicio = getServicioOrThrow(item.getIdServicio());
-            BigDecimal costoServicio = servicio.getCosto()
-                    .multiply(BigDecimal.valueOf(item.getCantidad()));
-            total = total.add(costoServicio);
-        }
-
-        return total;
+        return reservaItem;
     }
 
     /**
@@ -285,16 +271,6 @@ public class ReservaServiceImpl implements ReservaService {
         return serviciosRequest;
     }
 
-    /**
-     * Decrementa el stock disponible de un paquete.
-     */
-    private void decrementarStock(Paquete paquete) {
-        paquete.setStockDisponible(paquete.getStockDisponible() - 1);
-        paqueteRepository.save(paquete);
-        log.debug("Stock decrementado para paquete {}: nuevo stock={}",
-                paquete.getIdPaquete(), paquete.getStockDisponible());
-    }
-
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                              API REST                                      ║
     // ║  Metodos expuestos para consumo via API REST (retornan Response/DTO)      ║
@@ -306,6 +282,17 @@ public class ReservaServiceImpl implements ReservaService {
         return reservaMapper.toResponseList(reservaRepository.findAll());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarParaApi(OutputStream salida) throws IOException {
+        // Una sola consulta con todas las relaciones; las filas llegan ordenadas por reserva
+        try (Stream<List<ReservaFila>> reservas = JsonStreamUtils.agruparConsecutivos(
+                reservaRepository.streamFilasExportacion(), ReservaFila::idReserva)) {
+            JsonStreamUtils.escribirArreglo(objectMapper, entityManager, salida, reservas,
+                    reservaMapper::toResponseFromFilas);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ReservaResponse obtenerParaApi(Integer id) {
@@ -313,6 +300,7 @@ public class ReservaServiceImpl implements ReservaService {
     }
 
     @Override
+    @ReintentarConflicto
     public ReservaResponse crearDesdeApi(ReservaRequest request) {
         log.info("Creando reserva desde API: usuario={}, paquete={}",
                 request.getIdUsuario(), request.getIdPaquete());
@@ -329,6 +317,70 @@ public class ReservaServiceImpl implements ReservaService {
         return reservaMapper.toResponseFromEntity(reserva);
     }
 
+    @Override
+    public List<ResultadoLote> crearLoteDesdeApi(List<ReservaRequest> requests) {
+        Map<Integer, Usuario> usuarios = usuarioRepository.findAllById(
+                        requests.stream().map(ReservaRequest::getIdUsuario).filter(Objects::nonNull).toList())
+                .stream().collect(Collectors.toMap(Usuario::getIdUsuario, Function.identity()));
+        Map<Integer, Paquete> paquetes = paqueteRepository.findAllById(
+                        requests.stream().map(ReservaRequest::getIdPaquete).filter(Objects::nonNull).toList())
+                .stream().collect(Collectors.toMap(Paquete::getIdPaquete, Function.identity()));
+
+        // Validar todo el lote antes de escribir: las posiciones validas se agrupan por paquete
+        ApiException[] rechazos = new ApiException[requests.size()];
+        Map<Integer, List<Integer>> posicionesPorPaquete = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ReservaRequest request = requests.get(i);
+            if (!usuarios.containsKey(request.getIdUsuario())) {
+                rechazos[i] = new NotFoundException(MessageKeys.USUARIO_NOT_FOUND, request.getIdUsuario());
+            } else if (!paquetes.containsKey(request.getIdPaquete())) {
+                rechazos[i] = new NotFoundException(MessageKeys.PAQUETE_NOT_FOUND, request.getIdPaquete());
+            } else {
+                posicionesPorPaquete.computeIfAbsent(request.getIdPaquete(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        // Un descuento por paquete; los cupos que haya van a las primeras solicitudes
+        Reserva[] creadas = new Reserva[requests.size()];
+        for (Map.Entry<Integer, List<Integer>> entrada : posicionesPorPaquete.entrySet()) {
+            Paquete paquete = paquetes.get(entrada.getKey());
+            List<Integer> posiciones = entrada.getValue();
+            int cupos = inventarioService.descontarHasta(paquete, posiciones.size());
+            for (int j = 0; j < posiciones.size(); j++) {
+                int i = posiciones.get(j);
+                if (j >= cupos) {
+                    rechazos[i] = new BadRequestException(MessageKeys.STOCK_INSUFICIENTE, paquete.getNombre());
+                    continue;
+                }
+                ReservaRequest request = requests.get(i);
+                creadas[i] = construirReserva(usuarios.get(request.getIdUsuario()), paquete,
+                        request.getFechaViajeInicio(), request.getServiciosAdicionales());
+            }
+        }
+
+        List<Reserva> guardadas = reservaRepository.saveAll(
+                Stream.of(creadas).filter(Objects::nonNull).toList());
+        libroInventario.registrarReservas(guardadas.stream().map(Reserva::getIdReserva).toList(), Motivo.RESERVA);
+        log.info("Lote de reservas creado: {} de {} solicitudes", guardadas.size(), requests.size());
+
+        List<ResultadoLote> resultados = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            resultados.add(creadas[i] != null
+                    ? new ResultadoLote(reservaMapper.toResponseFromEntity(creadas[i]), null)
+                    : new ResultadoLote(null, rechazos[i]));
+        }
+        return resultados;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void validarParaApi(ReservaRequest request) {
+        getUsuarioOrThrow(request.getIdUsuario());
+        Paquete paquete = getPaqueteOrThrow(request.getIdPaquete());
+        validarStockDisponible(paquete);
+        cotizacionService.cotizar(paquete, request.getServiciosAdicionales());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ReservaResponse> listarPorUsuarioParaApi(Integer idUsuario) {
@@ -337,6 +389,13 @@ public class ReservaServiceImpl implements ReservaService {
         return reservaMapper.toResponseList(reservas);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorResponse<ReservaResponse> listarParaApiPorCursor(Integer idUsuario, EstadoReserva estado,
+                                                                        String despues, String antes, int limite) {
+        return leerPagina(idUsuario, estado, despues, antes, limite, reservaMapper::toResponseFromEntity);
+    }
+
     // ╔═══════════════════════════════════════════════════════════════════════════╗
     // ║                              WEB MVC                                        ║
     // ║  Metodos para el controlador web (retornan ViewModels para Thymeleaf)     ║
@@ -361,6 +420,7 @@ public class ReservaServiceImpl implements ReservaService {
     }
 
     @Override
+    @ReintentarConflicto
     public void crearDesdeForm(ReservaForm form) {
         log.info("Creando reserva desde formulario web: usuario={}, paquete={}",
                 form.getIdUsuario(), form.getIdPaquete());
@@ -382,16 +442,45 @@ public class ReservaServiceImpl implements ReservaService {
     @Transactional(readOnly = true)
     public List<ReservaView> listarPorUsuarioParaWeb(Integer idUsuario) {
         getUsuarioOrThrow(idUsuario); // Valida que el usuario exista
-        List<Reserva> reservas = reservaRepository.findByUsuario_IdUsuario(idUsuario);
-        return reservaMapper.toViewList(reservas);
+        return reservaMapper.toViewListFromFilas(reservaRepository.findFilasVistaByUsuario(idUsuario));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<ReservaView> listarPorUsuarioParaWebPaginado(Integer idUsuario, Pageable pageable) {
+    public PaginaCursorResponse<ReservaView> listarPorUsuarioParaWebPorCursor(Integer idUsuario, String despues,
+                                                                              String antes, int limite) {
         getUsuarioOrThrow(idUsuario); // Valida que el usuario exista
-        return reservaRepository.findByUsuario_IdUsuario(idUsuario, pageable)
-                .map(reservaMapper::toViewModelFromEntity);
+
+        // IDs de la pagina y luego una sola consulta de proyeccion con items, paquetes y servicios
+        int tamano = Math.max(1, Math.min(limite, AppConstants.MAX_PAGE_SIZE));
+        boolean haciaAtras = antes != null && !antes.isBlank();
+        CursorUtils.ClaveFecha cursor = CursorUtils.decodificarFechaId(haciaAtras ? antes : despues);
+
+        List<Integer> ids = reservaRepository.findIdsPagina(idUsuario, null, cursor, haciaAtras, tamano + 1);
+        Map<Integer, List<ReservaFila>> porReserva = ids.isEmpty()
+                ? Map.of()
+                : reservaMapper.agruparPorReserva(reservaRepository.findFilasVistaByIdIn(ids));
+        List<List<ReservaFila>> grupos = ids.stream().map(porReserva::get).filter(Objects::nonNull).toList();
+
+        return PaginaCursorResponse.desde(grupos, tamano, haciaAtras, cursor != null,
+                g -> CursorUtils.codificar(g.get(0).fechaCreacion(), g.get(0).idReserva()),
+                reservaMapper::toViewFromFilas);
+    }
+
+    /**
+     * Lee una pagina por cursor: pide una fila extra para saber si hay mas paginas
+     * en el sentido del recorrido.
+     */
+    private <T> PaginaCursorResponse<T> leerPagina(Integer idUsuario, EstadoReserva estado, String despues,
+                                                   String antes, int limite, Function<Reserva, T> mapper) {
+        int tamano = Math.max(1, Math.min(limite, AppConstants.MAX_PAGE_SIZE));
+        boolean haciaAtras = antes != null && !antes.isBlank();
+        CursorUtils.ClaveFecha cursor = CursorUtils.decodificarFechaId(haciaAtras ? antes : despues);
+
+        List<Reserva> filas = reservaRepository.findPaginaWithUsuarioAndItems(
+                idUsuario, estado, cursor, haciaAtras, tamano + 1);
+        return PaginaCursorResponse.desde(filas, tamano, haciaAtras, cursor != null,
+                r -> CursorUtils.codificar(r.getFechaCreacion(), r.getIdReserva()), mapper);
     }
 
     // ╔═══════════════════════════════════════════════════════════════════════════╗
@@ -411,6 +500,7 @@ public class ReservaServiceImpl implements ReservaService {
      * @throws BadRequestException si la reserva ya esta pagada o cancelada
      */
     @Override
+    @ReintentarConflicto
     public ReservaResponse confirmarPago(Integer idReserva) {
         log.info("Confirmando pago de reserva: id={}", idReserva);
 
@@ -436,6 +526,7 @@ public class ReservaServiceImpl implements ReservaService {
      * @throws BadRequestException si la reserva ya esta pagada
      */
     @Override
+    @ReintentarConflicto
     public ReservaResponse cancelarReserva(Integer idReserva) {
         log.info("Cancelando reserva: id={}", idReserva);
 
@@ -451,4 +542,32 @@ public class ReservaServiceImpl implements ReservaService {
         log.info("Reserva cancelada exitosamente: id={}", idReserva);
         return reservaMapper.toResponseFromEntity(reservaActualizada);
     }
+
+    /**
+     * Cancela una reserva pendiente y devuelve un cupo por item.
+     *
+     * <p>Si la expiracion cancela la reserva entre la lectura y el commit, la
+     * version ya cambio: el reintento la ve cancelada y no devuelve nada.</p>
+     *
+     * @param idReserva ID de la reserva a cancelar
+     * @return La reserva actualizada
+     * @throws NotFoundException si la reserva no existe
+     * @throws BadRequestException si la reserva ya esta pagada o cancelada
+     */
+    @Override
+    @ReintentarConflicto
+    public ReservaResponse cancelarDevolviendoCupos(Integer idReserva) {
+        log.info("Cancelando reserva y devolviendo cupos: id={}", idReserva);
+
+        Reserva reserva = getReservaOrThrow(idReserva);
+        validarReservaModificable(reserva);
+
+        reserva.setEstadoReserva(EstadoReserva.CANCELADA);
+        reserva.getItems().forEach(item -> inventarioService.devolver(item.getPaquete(), 1));
+        libroInventario.registrarReservas(List.of(idReserva), Motivo.CANCELACION);
+        Reserva reservaActualizada = reservaRepository.save(reserva);
+
+        log.info("Reserva cancelada con {} cupos devueltos: id={}", reserva.getItems().size(), idReserva);
+        return reservaMapper.toResponseFromEntity(reservaActualizada);
+    }
 }
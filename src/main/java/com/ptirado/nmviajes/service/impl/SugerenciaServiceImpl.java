@@ -0,0 +1,36 @@
+package com.ptirado.nmviajes.service.impl;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.ptirado.nmviajes.catalogo.IndiceSugerencias;
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.dto.api.response.SugerenciaResponse;
+import com.ptirado.nmviajes.service.SugerenciaService;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class SugerenciaServiceImpl implements SugerenciaService {
+
+    private final IndiceSugerencias indiceSugerencias;
+
+    // ===========================================================
+    // API REST
+    // ===========================================================
+
+    @Override
+    public List<SugerenciaResponse> sugerirParaApi(String consulta, int limite) {
+        int max = Math.max(1, Math.min(limite, AppConstants.MAX_SUGERENCIAS));
+
+        return indiceSugerencias.sugerir(consulta, max).stream()
+                .map(s -> SugerenciaResponse.builder()
+                        .tipo(s.tipo().name())
+                        .id(s.id())
+                        .texto(s.texto())
+                        .build())
+                .toList();
+    }
+}
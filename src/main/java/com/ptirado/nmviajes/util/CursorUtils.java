@@ -0,0 +1,87 @@
+package com.ptirado.nmviajes.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+
+/**
+ * Codifica y decodifica los cursores de la paginacion por clave (keyset).
+ *
+ * <p>El cliente recibe el cursor como un texto opaco (Base64 URL-safe) y lo
+ * devuelve tal cual para pedir la pagina siguiente o anterior.</p>
+ */
+public final class CursorUtils {
+
+    private CursorUtils() {}
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Clave de ordenamiento de una reserva: fecha de creacion y ID como desempate.
+     */
+    public record ClaveFecha(LocalDateTime fecha, Integer id) {
+    }
+
+    // ==========================
+    // CODIFICACION
+    // ==========================
+
+    public static String codificar(Integer id) {
+        return aBase64(String.valueOf(id));
+    }
+
+    public static String codificar(LocalDateTime fecha, Integer id) {
+        return aBase64(fecha + SEPARADOR + id);
+    }
+
+    // ==========================
+    // DECODIFICACION
+    // ==========================
+
+    /**
+     * Decodifica un cursor generado con {@link #codificar(Integer)}.
+     *
+     * @return ID contenido en el cursor, o null si el cursor viene vacio
+     * @throws BadRequestException si el cursor no es valido
+     */
+    public static Integer decodificarId(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return Integer.valueOf(deBase64(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(MessageKeys.CURSOR_INVALIDO);
+        }
+    }
+
+    /**
+     * Decodifica un cursor generado con {@link #codificar(LocalDateTime, Integer)}.
+     *
+     * @return Clave contenida en el cursor, o null si el cursor viene vacio
+     * @throws BadRequestException si el cursor no es valido
+     */
+    public static ClaveFecha decodificarFechaId(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String texto = deBase64(cursor);
+            int pos = texto.indexOf(SEPARADOR);
+            if (pos < 0) throw new BadRequestException(MessageKeys.CURSOR_INVALIDO);
+            return new ClaveFecha(
+                    LocalDateTime.parse(texto.substring(0, pos)),
+                    Integer.valueOf(texto.substring(pos + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException(MessageKeys.CURSOR_INVALIDO);
+        }
+    }
+
+    private static String aBase64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String deBase64(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,177 @@
+package com.ptirado.nmviajes.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.ptirado.nmviajes.config.FormatConfig;
+
+/**
+ * Formateo de montos en soles y fechas para es-PE sin estado compartido mutable.
+ *
+ * <p>Reemplaza a {@link java.text.NumberFormat}, que no es thread-safe y se
+ * compartia como estatico entre hilos. Los montos se trabajan como centimos
+ * ({@code long}) y se escriben digito a digito en un arreglo local, por lo que
+ * no hay locks y la unica asignacion relevante es el String resultante.</p>
+ *
+ * <h3>Formatos:</h3>
+ * <ul>
+ *   <li><b>Monto:</b> 1,500.50 (separador de miles coma, dos decimales, redondeo HALF_EVEN)</li>
+ *   <li><b>Fecha:</b> dd/MM/yyyy</li>
+ *   <li><b>Fecha y hora:</b> dd/MM/yyyy HH:mm</li>
+ * </ul>
+ *
+ * <p>Las fechas formateadas se guardan en una cache pequena indexada por dia:
+ * los listados repiten pocas fechas distintas (salidas de paquetes, fechas de
+ * viaje), asi que la mayoria de llamadas no crean ningun objeto.</p>
+ */
+public final class FormatoUtils {
+
+    private FormatoUtils() {}
+
+    // Cache de mapeo directo: cada dia tiene una sola ranura posible (potencia de 2)
+    private static final int TAMANO_CACHE_FECHAS = 1024;
+    private static final FechaFormateada[] CACHE_FECHAS = new FechaFormateada[TAMANO_CACHE_FECHAS];
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern(FormatConfig.PATRON_FECHA);
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern(FormatConfig.PATRON_FECHA_HORA);
+
+    // Inmutable: se puede publicar en el arreglo sin sincronizacion (campos finales)
+    private record FechaFormateada(long epochDay, String texto) {
+    }
+
+    // ==========================
+    // MONTOS
+    // ==========================
+
+    /**
+     * Monto sin simbolo: 1500.5 → "1,500.50". Null se muestra como "0.00".
+     */
+    public static String monto(BigDecimal monto) {
+        return monto(aCentimos(monto));
+    }
+
+    /**
+     * Monto en centimos sin simbolo: 150050 → "1,500.50".
+     */
+    public static String monto(long centimos) {
+        char[] buffer = new char[32];
+        int inicio = escribirMonto(buffer, centimos);
+        return new String(buffer, inicio, buffer.length - inicio);
+    }
+
+    /**
+     * Monto con simbolo de moneda: 1500.5 → "S/ 1,500.50". Null se muestra como "S/ 0.00".
+     */
+    public static String soles(BigDecimal monto) {
+        return soles(aCentimos(monto));
+    }
+
+    /**
+     * Monto en centimos con simbolo de moneda: 150050 → "S/ 1,500.50".
+     */
+    public static String soles(long centimos) {
+        char[] buffer = new char[32];
+        int inicio = escribirMonto(buffer, centimos);
+        buffer[--inicio] = ' ';
+        buffer[--inicio] = '/';
+        buffer[--inicio] = 'S';
+        return new String(buffer, inicio, buffer.length - inicio);
+    }
+
+    /**
+     * Convierte un monto a centimos con el mismo redondeo que usaba NumberFormat (HALF_EVEN).
+     */
+    public static long aCentimos(BigDecimal monto) {
+        if (monto == null) return 0;
+        return monto.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    // Escribe el monto al final del buffer y retorna la posicion donde empieza
+    private static int escribirMonto(char[] buffer, long centimos) {
+        boolean negativo = centimos < 0;
+        // Long.MIN_VALUE no tiene positivo: se trabaja con el valor negado sin signo
+        long resto = negativo ? -centimos : centimos;
+        int pos = buffer.length;
+
+        buffer[--pos] = (char) ('0' + Long.remainderUnsigned(resto, 10));
+        resto = Long.divideUnsigned(resto, 10);
+        buffer[--pos] = (char) ('0' + Long.remainderUnsigned(resto, 10));
+        resto = Long.divideUnsigned(resto, 10);
+        buffer[--pos] = '.';
+
+        int digitos = 0;
+        do {
+            if (digitos > 0 && digitos % 3 == 0) buffer[--pos] = ',';
+            buffer[--pos] = (char) ('0' + Long.remainderUnsigned(resto, 10));
+            resto = Long.divideUnsigned(resto, 10);
+            digitos++;
+        } while (resto != 0);
+
+        if (negativo) buffer[--pos] = '-';
+        return pos;
+    }
+
+    // ==========================
+    // FECHAS
+    // ==========================
+
+    /**
+     * Fecha en formato dd/MM/yyyy. Null se muestra como cadena vacia.
+     */
+    public static String fecha(LocalDate fecha) {
+        if (fecha == null) return "";
+        if (!anioDeCuatroDigitos(fecha)) return fecha.format(FORMATO_FECHA);
+
+        long dia = fecha.toEpochDay();
+        int ranura = (int) (dia & (TAMANO_CACHE_FECHAS - 1));
+        FechaFormateada guardada = CACHE_FECHAS[ranura];
+        if (guardada != null && guardada.epochDay() == dia) {
+            return guardada.texto();
+        }
+
+        char[] buffer = new char[10];
+        escribirFecha(buffer, fecha);
+        String texto = new String(buffer);
+        CACHE_FECHAS[ranura] = new FechaFormateada(dia, texto);
+        return texto;
+    }
+
+    /**
+     * Fecha y hora en formato dd/MM/yyyy HH:mm. Null se muestra como "-".
+     */
+    public static String fechaHora(LocalDateTime fechaHora) {
+        if (fechaHora == null) return "-";
+        if (!anioDeCuatroDigitos(fechaHora.toLocalDate())) return fechaHora.format(FORMATO_FECHA_HORA);
+
+        char[] buffer = new char[16];
+        escribirFecha(buffer, fechaHora.toLocalDate());
+        buffer[10] = ' ';
+        escribirDosDigitos(buffer, 11, fechaHora.getHour());
+        buffer[13] = ':';
+        escribirDosDigitos(buffer, 14, fechaHora.getMinute());
+        return new String(buffer);
+    }
+
+    private static void escribirFecha(char[] buffer, LocalDate fecha) {
+        escribirDosDigitos(buffer, 0, fecha.getDayOfMonth());
+        buffer[2] = '/';
+        escribirDosDigitos(buffer, 3, fecha.getMonthValue());
+        buffer[5] = '/';
+        int anio = fecha.getYear();
+        escribirDosDigitos(buffer, 6, anio / 100);
+        escribirDosDigitos(buffer, 8, anio % 100);
+    }
+
+    // Fuera de 0..9999 se delega en DateTimeFormatter (no se da en la practica)
+    private static boolean anioDeCuatroDigitos(LocalDate fecha) {
+        return fecha.getYear() >= 0 && fecha.getYear() <= 9999;
+    }
+
+    private static void escribirDosDigitos(char[] buffer, int pos, int valor) {
+        buffer[pos] = (char) ('0' + valor / 10);
+        buffer[pos + 1] = (char) ('0' + valor % 10);
+    }
+}
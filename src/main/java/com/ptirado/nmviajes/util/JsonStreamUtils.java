@@ -0,0 +1,105 @@
+package com.ptirado.nmviajes.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Escribe listas grandes como un arreglo JSON a medida que se leen de la base de datos.
+ */
+public final class JsonStreamUtils {
+
+    private JsonStreamUtils() {}
+
+    // Cada cuantos elementos se vacia el contexto de persistencia y se envia el buffer
+    public static final int TAMANO_BLOQUE = 200;
+
+    /**
+     * Recorre el stream, convierte cada entidad y la escribe en la salida.
+     *
+     * <p>Cada {@link #TAMANO_BLOQUE} elementos limpia el contexto de persistencia
+     * para que las entidades ya escritas puedan ser recolectadas: la memoria
+     * usada no depende del tamano de la tabla.</p>
+     *
+     * <p>Debe llamarse dentro de una transaccion que mantenga abierto el stream.</p>
+     *
+     * @return Cantidad de elementos escritos
+     */
+    public static <E, T> long escribirArreglo(ObjectMapper objectMapper, EntityManager entityManager,
+                                              OutputStream salida, Stream<E> filas,
+                                              Function<E, T> convertir) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long total = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(salida)) {
+            // La salida pertenece al contenedor: el generador no debe cerrarla
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+
+            Iterator<E> it = filas.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(generator, convertir.apply(it.next()));
+
+                if (++total % TAMANO_BLOQUE == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+
+            generator.writeEndArray();
+        }
+        return total;
+    }
+
+    /**
+     * Agrupa elementos consecutivos con la misma clave, sin leer el stream por
+     * adelantado: solo retiene las filas del grupo en curso.
+     *
+     * <p>Pensado para proyecciones planas (una fila por reserva, item y servicio)
+     * ordenadas por la clave. Cerrar el stream retornado cierra el original.</p>
+     */
+    public static <E, K> Stream<List<E>> agruparConsecutivos(Stream<E> filas, Function<E, K> clave) {
+        Iterator<E> it = filas.iterator();
+
+        Iterator<List<E>> grupos = new Iterator<>() {
+            private E siguiente = it.hasNext() ? it.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return siguiente != null;
+            }
+
+            @Override
+            public List<E> next() {
+                if (siguiente == null) throw new NoSuchElementException();
+
+                K actual = clave.apply(siguiente);
+                List<E> grupo = new ArrayList<>();
+                do {
+                    grupo.add(siguiente);
+                    siguiente = it.hasNext() ? it.next() : null;
+                } while (siguiente != null && Objects.equals(actual, clave.apply(siguiente)));
+                return grupo;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(grupos, Spliterator.ORDERED), false)
+                .onClose(filas::close);
+    }
+}
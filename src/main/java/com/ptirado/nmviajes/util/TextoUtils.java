@@ -0,0 +1,47 @@
+package com.ptirado.nmviajes.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class TextoUtils {
+
+    private TextoUtils() {}
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    // Palabras vacias en español que no aportan a la busqueda
+    public static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "se", "su", "sus", "un", "una", "y");
+
+    // ==========================
+    // NORMALIZACION
+    // ==========================
+
+    /**
+     * Pasa a minusculas y elimina tildes y diéresis ("Cañón del Colca" → "canon del colca").
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) return "";
+        String sinMarcas = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinMarcas.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normaliza y separa el texto en palabras, descartando las palabras vacias.
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
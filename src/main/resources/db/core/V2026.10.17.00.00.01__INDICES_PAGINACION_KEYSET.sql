@@ -0,0 +1,22 @@
+-- =============================================
+-- MIGRACIÓN: Índices para paginación por cursor (keyset)
+-- Fecha: 2026-10-17
+-- Descripción: Las listas de reservas se recorren por (fecha_creacion, id_reserva).
+--              La fecha de creación pasa a ser obligatoria para que toda reserva
+--              tenga una clave de cursor válida.
+-- =============================================
+
+-- =============================================
+-- 1. RESERVA: fecha de creación obligatoria
+-- =============================================
+UPDATE reserva
+SET fecha_creacion = COALESCE(fecha_modificacion, CURRENT_TIMESTAMP)
+WHERE fecha_creacion IS NULL;
+
+ALTER TABLE reserva MODIFY fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- =============================================
+-- 2. ÍNDICES DE RECORRIDO
+-- =============================================
+CREATE INDEX idx_reserva_fecha_creacion ON reserva (fecha_creacion, id_reserva);
+CREATE INDEX idx_reserva_usuario_fecha_creacion ON reserva (id_usuario, fecha_creacion, id_reserva);
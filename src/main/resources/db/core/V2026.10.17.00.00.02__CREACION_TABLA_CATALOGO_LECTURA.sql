@@ -0,0 +1,64 @@
+-- =============================================
+-- MIGRACIÓN: Modelo de lectura del catálogo (CQRS)
+-- Fecha: 2026-10-17
+-- Descripción: Tabla desnormalizada con una fila por paquete, que incluye los
+--              datos del destino y los campos ya formateados para mostrar.
+--              La mantiene la aplicación (CatalogoLecturaProyector) dentro de la
+--              misma transacción que modifica paquetes, destinos o stock.
+--              Las páginas públicas de paquetes y el buscador leen solo esta tabla.
+-- =============================================
+
+-- =============================================
+-- 1. TABLA: CATALOGO_LECTURA
+-- =============================================
+CREATE TABLE catalogo_lectura (
+    id_paquete INT PRIMARY KEY,
+    nombre VARCHAR(150) NOT NULL,
+    descripcion TEXT,
+    precio DECIMAL(10, 2) NOT NULL,
+    precio_formateado VARCHAR(32) NOT NULL,
+    fecha_inicio DATE NOT NULL,
+    fecha_fin DATE NOT NULL,
+    fecha_inicio_formateada VARCHAR(10) NOT NULL,
+    fecha_fin_formateada VARCHAR(10) NOT NULL,
+    stock_disponible INT NOT NULL,
+    estado VARCHAR(3) NOT NULL,
+    disponible BOOLEAN NOT NULL,
+    id_destino INT NOT NULL,
+    nombre_destino VARCHAR(100) NOT NULL,
+    pais_destino VARCHAR(50) NOT NULL,
+    fecha_creacion TIMESTAMP NULL,
+    fecha_modificacion TIMESTAMP NULL,
+    fecha_proyeccion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- =============================================
+-- 2. ÍNDICES DE LECTURA
+-- =============================================
+-- Buscador: estado + fecha de inicio, con o sin destino
+CREATE INDEX idx_catalogo_lectura_estado_fecha ON catalogo_lectura (estado, fecha_inicio, id_paquete);
+CREATE INDEX idx_catalogo_lectura_destino_fecha ON catalogo_lectura (estado, id_destino, fecha_inicio);
+-- Rangos y orden por precio
+CREATE INDEX idx_catalogo_lectura_precio ON catalogo_lectura (estado, precio, id_paquete);
+-- Reproyección de los paquetes de un destino
+CREATE INDEX idx_catalogo_lectura_id_destino ON catalogo_lectura (id_destino);
+
+-- =============================================
+-- 3. CARGA INICIAL
+-- =============================================
+-- FORMAT usa la configuración regional en_US (1,500.50), igual que FormatoUtils.monto
+INSERT INTO catalogo_lectura (
+    id_paquete, nombre, descripcion, precio, precio_formateado,
+    fecha_inicio, fecha_fin, fecha_inicio_formateada, fecha_fin_formateada,
+    stock_disponible, estado, disponible,
+    id_destino, nombre_destino, pais_destino,
+    fecha_creacion, fecha_modificacion
+)
+SELECT p.id_paquete, p.nombre, p.descripcion, p.precio, FORMAT(p.precio, 2),
+       p.fecha_inicio, p.fecha_fin,
+       DATE_FORMAT(p.fecha_inicio, '%d/%m/%Y'), DATE_FORMAT(p.fecha_fin, '%d/%m/%Y'),
+       p.stock_disponible, p.estado, (p.estado = 'ACT' AND p.stock_disponible > 0),
+       d.id_destino, d.nombre, d.pais,
+       p.fecha_creacion, p.fecha_modificacion
+FROM paquete p
+JOIN destino d ON d.id_destino = p.id_destino;
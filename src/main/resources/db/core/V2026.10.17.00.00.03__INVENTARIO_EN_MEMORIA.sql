@@ -0,0 +1,28 @@
+-- =============================================
+-- MIGRACIÓN: Inventario en memoria para ventas relámpago
+-- Fecha: 2026-10-17
+-- Descripción: Un paquete marcado con inventario_en_memoria entrega cupos desde
+--              contadores en memoria. Cada cupo entregado queda registrado en
+--              inventario_pendiente, en la misma transacción que la reserva, hasta
+--              que el volcado periódico lo descuenta de paquete.stock_disponible.
+--              Stock real = stock_disponible - SUM(inventario_pendiente.cantidad).
+-- =============================================
+
+-- =============================================
+-- 1. PAQUETE: marca del modo en memoria
+-- =============================================
+ALTER TABLE paquete ADD COLUMN inventario_en_memoria BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- =============================================
+-- 2. INVENTARIO_PENDIENTE: descuentos aún no volcados
+-- =============================================
+CREATE TABLE inventario_pendiente (
+    id_inventario_pendiente BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id_paquete INT NOT NULL,
+    cantidad INT NOT NULL,
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (id_paquete) REFERENCES paquete(id_paquete)
+);
+
+CREATE INDEX idx_inventario_pendiente_paquete ON inventario_pendiente (id_paquete, id_inventario_pendiente);
@@ -0,0 +1,12 @@
+-- =============================================
+-- MIGRACIÓN: Bloqueo optimista en paquete, reserva y carrito
+-- Fecha: 2026-10-17
+-- Descripción: Hibernate incrementa la versión en cada UPDATE y lo condiciona a
+--              la versión leída. Si otra transacción escribió antes, el UPDATE no
+--              afecta filas y se lanza un conflicto en vez de pisar sus cambios.
+--              Los UPDATE directos de stock también incrementan la versión.
+-- =============================================
+
+ALTER TABLE paquete ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE reserva ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE carrito ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
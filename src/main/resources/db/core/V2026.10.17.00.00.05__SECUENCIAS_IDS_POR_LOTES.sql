@@ -0,0 +1,42 @@
+-- =============================================
+-- MIGRACIÓN: Tablas de secuencia para IDs asignados por bloques
+-- Fecha: 2026-10-17
+-- Descripción: Con AUTO_INCREMENT Hibernate necesita ejecutar cada INSERT por
+--              separado para conocer el ID generado, y no puede agruparlos en
+--              lotes JDBC. MySQL no tiene secuencias: Hibernate las emula con
+--              una tabla de una fila (next_val) y reserva bloques de 50 IDs por
+--              consulta (optimizador pooled).
+--
+--              El valor inicial es MAX(id) + 50: el primer bloque entregado
+--              empieza justo después del último ID existente.
+--              Las columnas conservan AUTO_INCREMENT para los INSERT manuales.
+-- =============================================
+
+-- =============================================
+-- 1. RESERVA
+-- =============================================
+CREATE TABLE reserva_seq (next_val BIGINT);
+INSERT INTO reserva_seq (next_val)
+SELECT COALESCE(MAX(id_reserva), 0) + 50 FROM reserva;
+
+CREATE TABLE reserva_item_seq (next_val BIGINT);
+INSERT INTO reserva_item_seq (next_val)
+SELECT COALESCE(MAX(id_item), 0) + 50 FROM reserva_item;
+
+-- =============================================
+-- 2. CARRITO
+-- =============================================
+CREATE TABLE carrito_seq (next_val BIGINT);
+INSERT INTO carrito_seq (next_val)
+SELECT COALESCE(MAX(id_carrito), 0) + 50 FROM carrito;
+
+CREATE TABLE carrito_item_seq (next_val BIGINT);
+INSERT INTO carrito_item_seq (next_val)
+SELECT COALESCE(MAX(id_item), 0) + 50 FROM carrito_item;
+
+-- =============================================
+-- 3. INVENTARIO EN MEMORIA
+-- =============================================
+CREATE TABLE inventario_pendiente_seq (next_val BIGINT);
+INSERT INTO inventario_pendiente_seq (next_val)
+SELECT COALESCE(MAX(id_inventario_pendiente), 0) + 50 FROM inventario_pendiente;
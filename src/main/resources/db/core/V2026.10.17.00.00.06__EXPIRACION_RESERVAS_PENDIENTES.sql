@@ -0,0 +1,13 @@
+-- =============================================
+-- MIGRACIÓN: Expiración de reservas pendientes
+-- Fecha: 2026-10-17
+-- Descripción: La tarea de expiración busca reservas PENDIENTE más antiguas
+--              que el TTL, en orden de ID y por lotes. El índice le permite
+--              leer solo las vencidas sin recorrer todas las pendientes.
+--              Empieza por estado_reserva, así que reemplaza al índice de
+--              solo estado: mantener los dos cuesta escrituras sin ganar nada.
+-- =============================================
+
+CREATE INDEX idx_reserva_estado_fecha_creacion ON reserva (estado_reserva, fecha_creacion, id_reserva);
+
+DROP INDEX idx_reserva_estado ON reserva;
@@ -0,0 +1,23 @@
+-- =============================================
+-- MIGRACIÓN: Respuestas de operaciones idempotentes
+-- Fecha: 2026-10-17
+-- Descripción: Guarda la respuesta de cada POST con cabecera Idempotency-Key
+--              (crear reserva, checkout del carrito) para devolverla si el
+--              cliente reintenta. Solo se usa con idempotencia.almacen=tabla;
+--              por defecto las claves se guardan en memoria.
+-- =============================================
+
+CREATE TABLE idempotencia_respuesta (
+    -- Operación, usuario y clave enviada por el cliente
+    clave VARCHAR(200) PRIMARY KEY,
+    -- SHA-256 del cuerpo de la solicitud original
+    huella VARCHAR(64) NOT NULL,
+    completada BOOLEAN NOT NULL DEFAULT FALSE,
+    codigo_http INT NULL,
+    cuerpo TEXT NULL,
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    fecha_expiracion TIMESTAMP NOT NULL
+);
+
+-- Purga periódica de claves vencidas
+CREATE INDEX idx_idempotencia_respuesta_expiracion ON idempotencia_respuesta (fecha_expiracion);
@@ -0,0 +1,63 @@
+-- =============================================
+-- MIGRACIÓN: Libro de movimientos de inventario con fotos periódicas
+-- Fecha: 2026-10-17
+-- Descripción: Cada cambio de stock (reserva, cancelación, expiración, ajuste
+--              del administrador) agrega una fila a inventario_movimiento, en
+--              la misma transacción que el cambio. Las filas nunca se modifican
+--              ni se borran.
+--
+--              La compactación periódica suma los movimientos de cada paquete
+--              en inventario_snapshot. Stock según el libro =
+--              snapshot.stock + SUM(movimientos con fecha >= snapshot.fecha_hasta).
+--
+--              Sin claves foráneas hacia paquete: el historial se conserva
+--              aunque el paquete se elimine, y registrar el alta de un paquete
+--              no impide eliminarlo después.
+-- =============================================
+
+-- =============================================
+-- 1. INVENTARIO_MOVIMIENTO: libro de solo inserción
+-- =============================================
+CREATE TABLE inventario_movimiento (
+    id_movimiento BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id_paquete INT NOT NULL,
+    -- Negativo: cupos que salen (reservas); positivo: cupos que vuelven o se agregan
+    cantidad INT NOT NULL,
+    -- RESERVA, CANCELACION, EXPIRACION o AJUSTE
+    motivo VARCHAR(20) NOT NULL,
+    id_reserva INT NULL,
+    -- Hora de la aplicación con microsegundos: la compactación corta por fecha
+    fecha_creacion DATETIME(6) NOT NULL
+);
+
+-- Stock de un paquete (movimientos posteriores a su snapshot) y compactación por fecha
+CREATE INDEX idx_inventario_movimiento_paquete_fecha ON inventario_movimiento (id_paquete, fecha_creacion);
+CREATE INDEX idx_inventario_movimiento_fecha ON inventario_movimiento (fecha_creacion);
+
+-- =============================================
+-- 2. INVENTARIO_SNAPSHOT: stock acumulado por paquete
+-- =============================================
+CREATE TABLE inventario_snapshot (
+    id_paquete INT PRIMARY KEY,
+    stock INT NOT NULL,
+    -- Incluye los movimientos con fecha anterior a este instante
+    fecha_hasta DATETIME(6) NOT NULL,
+    -- Movimientos sumados desde el inicio del libro
+    movimientos BIGINT NOT NULL DEFAULT 0,
+    fecha_actualizacion DATETIME(6) NOT NULL
+);
+
+-- =============================================
+-- 3. SNAPSHOT INICIAL
+-- =============================================
+-- Stock real al migrar: los cupos entregados en memoria aún sin volcar ya
+-- salieron. El libro empieza vacío, así que la foto cubre todo lo anterior.
+INSERT INTO inventario_snapshot (id_paquete, stock, fecha_hasta, movimientos, fecha_actualizacion)
+SELECT p.id_paquete,
+       p.stock_disponible - COALESCE(SUM(ip.cantidad), 0),
+       '1000-01-01 00:00:00',
+       0,
+       NOW(6)
+FROM paquete p
+LEFT JOIN inventario_pendiente ip ON ip.id_paquete = p.id_paquete
+GROUP BY p.id_paquete, p.stock_disponible;
@@ -0,0 +1,22 @@
+-- =============================================
+-- MIGRACIÓN: Reserva corta de las claves de idempotencia en curso
+-- Fecha: 2026-10-17
+-- Descripción: Una clave en curso vivía todo el TTL (24 h): si el nodo caía
+--              antes de completar o liberar, los reintentos con esa clave
+--              recibían 409 durante un día. Ahora una clave en curso solo se
+--              reserva hasta reservado_hasta (unos minutos) y otra solicitud
+--              puede tomarla después; fecha_expiracion se fija al completar.
+--              Cada fila tiene exactamente una de las dos fechas.
+-- =============================================
+
+ALTER TABLE idempotencia_respuesta
+    ADD COLUMN reservado_hasta TIMESTAMP NULL AFTER fecha_creacion,
+    MODIFY fecha_expiracion TIMESTAMP NULL;
+
+-- Las claves en curso al desplegar quedan libres: su solicitud ya no existe
+UPDATE idempotencia_respuesta
+SET reservado_hasta = CURRENT_TIMESTAMP, fecha_expiracion = NULL
+WHERE completada = FALSE;
+
+-- Toma y purga de reservas vencidas
+CREATE INDEX idx_idempotencia_respuesta_reservado ON idempotencia_respuesta (reservado_hasta);
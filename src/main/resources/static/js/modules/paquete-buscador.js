@@ -20,6 +20,9 @@
  *   #filtro-destino        - <select> con destinos disponibles
  *   #filtro-fecha-inicio   - <input> datepicker Flowbite (formato dd/mm/yyyy)
  *   #filtro-fecha-fin      - <input> datepicker Flowbite (formato dd/mm/yyyy)
+ *   #filtro-solapa         - <input type="checkbox"> modo de rango (opcional)
+ *   #filtro-orden          - <select> orden de resultados (opcional)
+ *   #facetas               - <div> donde se renderizan los conteos por faceta (opcional)
  *
  * BOTONES:
  *   #btn-buscar            - Boton para ejecutar la busqueda
@@ -43,17 +46,32 @@
  *     - idDestino: Integer
  *     - fechaInicio: String (yyyy-MM-dd)
  *     - fechaFin: String (yyyy-MM-dd)
+ *     - modo: DENTRO (por defecto, el viaje cabe en el rango)
+ *             SOLAPA (el viaje se cruza con el rango)
+ *     - rangoPrecio: HASTA_1000, DE_1000_A_2000, DE_2000_A_3000, DE_3000_A_5000, DESDE_5000
+ *     - mes: String (yyyy-MM, mes de inicio del viaje)
+ *     - precioMin, precioMax: Number (rango de precio, ambos incluidos)
+ *     - orden: FECHA (por defecto), PRECIO_ASC, PRECIO_DESC
+ *     - facetas: true para recibir tambien los conteos por faceta; sin el,
+ *                la respuesta es solo el arreglo de paquetes
  *
- *   Response: Array de PaqueteResponse
+ *   Response (con facetas=true):
  *     {
- *       idPaquete: number,
- *       nombre: string,
- *       descripcion: string,
- *       precio: string,           // Ya formateado desde el backend
- *       fechaInicio: string,      // Ya formateado: "15/01/2026"
- *       fechaFin: string,
- *       nombreDestino: string,
- *       stockDisponible: number
+ *       paquetes: [{
+ *         idPaquete: number,
+ *         nombre: string,
+ *         descripcion: string,
+ *         precio: string,         // Ya formateado desde el backend
+ *         fechaInicio: string,    // Ya formateado: "15/01/2026"
+ *         fechaFin: string,
+ *         nombreDestino: string,
+ *         stockDisponible: number
+ *       }],
+ *       facetas: {                // Ausente si el catalogo aun no se ha cargado
+ *         destinos: [{ valor, etiqueta, cantidad }],
+ *         precios:  [{ valor, etiqueta, cantidad }],
+ *         meses:    [{ valor, etiqueta, cantidad }]
+ *       }
  *     }
  *
  * ============================================================================
@@ -117,6 +135,15 @@ NMViajes.PaqueteBuscador = (function() {
      */
     let imgDefault = '/img/carrusel/hero_3.jpg';
 
+    /**
+     * Filtros elegidos desde las facetas que no tienen control propio en el formulario.
+     * El destino se guarda en #filtro-destino.
+     */
+    const filtrosFaceta = {
+        rangoPrecio: '',
+        mes: ''
+    };
+
     // ========================================================================
     // RENDERIZADO DE CARDS
     // ========================================================================
@@ -223,6 +250,102 @@ NMViajes.PaqueteBuscador = (function() {
         }
     }
 
+    // ========================================================================
+    // FACETAS
+    // ========================================================================
+
+    /**
+     * Crea el HTML de un grupo de facetas.
+     *
+     * @param {string} titulo - Titulo del grupo
+     * @param {string} tipo - destino | rangoPrecio | mes
+     * @param {Array} valores - [{ valor, etiqueta, cantidad }]
+     * @param {string} seleccionado - Valor actualmente filtrado
+     * @returns {string} HTML del grupo
+     */
+    function crearGrupoFacetas(titulo, tipo, valores, seleccionado) {
+        if (!valores || valores.length === 0) return '';
+
+        const chips = valores.map(f => {
+            const activo = String(f.valor) === String(seleccionado);
+            const clases = activo
+                ? 'bg-red-600 text-white border-red-600'
+                : 'bg-white text-gray-700 border-gray-300 hover:bg-gray-100';
+            return `
+                <button type="button"
+                        class="faceta text-xs font-medium px-3 py-1.5 rounded-full border ${clases}"
+                        data-tipo="${tipo}"
+                        data-valor="${Utils.escapeHtml(String(f.valor))}">
+                    ${Utils.escapeHtml(f.etiqueta || String(f.valor))}
+                    <span class="ms-1 opacity-75">(${f.cantidad})</span>
+                </button>
+            `;
+        }).join('');
+
+        return `
+            <div>
+                <p class="mb-2 text-sm font-medium text-gray-900">${titulo}</p>
+                <div class="flex flex-wrap gap-2">${chips}</div>
+            </div>
+        `;
+    }
+
+    /**
+     * Renderiza los conteos por faceta devueltos junto a los resultados.
+     * @param {Object} facetas - { destinos, precios, meses } o undefined
+     */
+    function renderizarFacetas(facetas) {
+        if (!DOM.facetas) return;
+
+        if (!facetas) {
+            DOM.facetas.classList.add('hidden');
+            DOM.facetas.innerHTML = '';
+            return;
+        }
+
+        DOM.facetas.innerHTML =
+            crearGrupoFacetas('Destino', 'destino', facetas.destinos, DOM.filtroDestino?.value) +
+            crearGrupoFacetas('Precio', 'rangoPrecio', facetas.precios, filtrosFaceta.rangoPrecio) +
+            crearGrupoFacetas('Mes de salida', 'mes', facetas.meses, filtrosFaceta.mes);
+        DOM.facetas.classList.remove('hidden');
+    }
+
+    /**
+     * Carga los conteos del catalogo completo para mostrarlos junto al
+     * renderizado inicial de Thymeleaf (sin tocar las cards).
+     * @returns {Promise<void>}
+     */
+    async function cargarFacetasIniciales() {
+        if (!DOM.facetas) return;
+        try {
+            const response = await fetch(`${CONFIG.API_URL}?facetas=true`);
+            if (!response.ok) return;
+            const { facetas } = await response.json();
+            renderizarFacetas(facetas);
+        } catch (error) {
+            console.error('Error al cargar facetas:', error);
+        }
+    }
+
+    /**
+     * Activa o desactiva el filtro de la faceta pulsada y vuelve a buscar.
+     * @param {Event} event - Click dentro de #facetas
+     */
+    function onClickFaceta(event) {
+        const chip = event.target.closest('.faceta');
+        if (!chip) return;
+
+        const { tipo, valor } = chip.dataset;
+        if (tipo === 'destino') {
+            if (DOM.filtroDestino) {
+                DOM.filtroDestino.value = DOM.filtroDestino.value === valor ? '' : valor;
+            }
+        } else {
+            filtrosFaceta[tipo] = filtrosFaceta[tipo] === valor ? '' : valor;
+        }
+        buscar();
+    }
+
     /**
      * Actualiza el badge que indica si hay filtros activos.
      */
@@ -231,7 +354,10 @@ NMViajes.PaqueteBuscador = (function() {
 
         const hayFiltros = DOM.filtroDestino?.value ||
                            DOM.filtroFechaInicio?.value ||
-                           DOM.filtroFechaFin?.value;
+                           DOM.filtroFechaFin?.value ||
+                           DOM.filtroSolapa?.checked ||
+                           filtrosFaceta.rangoPrecio ||
+                           filtrosFaceta.mes;
 
         DOM.badgeFiltros.classList.toggle('hidden', !hayFiltros);
     }
@@ -267,7 +393,7 @@ NMViajes.PaqueteBuscador = (function() {
      */
     async function buscar() {
         // 1. Construir query params
-        const params = new URLSearchParams();
+        const params = new URLSearchParams({ facetas: 'true' });
 
         if (DOM.filtroDestino?.value) {
             params.append('idDestino', DOM.filtroDestino.value);
@@ -283,6 +409,22 @@ NMViajes.PaqueteBuscador = (function() {
             params.append('fechaFin', fechaFin);
         }
 
+        if (DOM.filtroSolapa?.checked) {
+            params.append('modo', 'SOLAPA');
+        }
+
+        if (DOM.filtroOrden?.value && DOM.filtroOrden.value !== 'FECHA') {
+            params.append('orden', DOM.filtroOrden.value);
+        }
+
+        if (filtrosFaceta.rangoPrecio) {
+            params.append('rangoPrecio', filtrosFaceta.rangoPrecio);
+        }
+
+        if (filtrosFaceta.mes) {
+            params.append('mes', filtrosFaceta.mes);
+        }
+
         // 2. Mostrar loading y actualizar badge
         mostrarLoading(true);
         actualizarBadgeFiltros();
@@ -297,7 +439,7 @@ NMViajes.PaqueteBuscador = (function() {
                 throw new Error('Error al buscar paquetes');
             }
 
-            const paquetes = await response.json();
+            const { paquetes, facetas } = await response.json();
 
             // 4. Asegurar tiempo minimo de loading para mejor UX
             const elapsed = Date.now() - startTime;
@@ -307,6 +449,7 @@ NMViajes.PaqueteBuscador = (function() {
 
             // 5. Renderizar resultados
             renderizarPaquetes(paquetes);
+            renderizarFacetas(facetas);
 
             if (paquetes.length > 0) {
                 Toast.success(`Se encontraron ${paquetes.length} paquete${paquetes.length !== 1 ? 's' : ''}`);
@@ -331,6 +474,10 @@ NMViajes.PaqueteBuscador = (function() {
         if (DOM.filtroDestino) DOM.filtroDestino.value = '';
         if (DOM.filtroFechaInicio) DOM.filtroFechaInicio.value = '';
         if (DOM.filtroFechaFin) DOM.filtroFechaFin.value = '';
+        if (DOM.filtroSolapa) DOM.filtroSolapa.checked = false;
+        if (DOM.filtroOrden) DOM.filtroOrden.value = 'FECHA';
+        filtrosFaceta.rangoPrecio = '';
+        filtrosFaceta.mes = '';
 
         actualizarBadgeFiltros();
         buscar();
@@ -359,6 +506,9 @@ NMViajes.PaqueteBuscador = (function() {
             filtroDestino: document.getElementById('filtro-destino'),
             filtroFechaInicio: document.getElementById('filtro-fecha-inicio'),
             filtroFechaFin: document.getElementById('filtro-fecha-fin'),
+            filtroSolapa: document.getElementById('filtro-solapa'),
+            filtroOrden: document.getElementById('filtro-orden'),
+            facetas: document.getElementById('facetas'),
 
             // Botones
             btnBuscar: document.getElementById('btn-buscar'),
@@ -377,6 +527,8 @@ NMViajes.PaqueteBuscador = (function() {
         DOM.btnBuscar?.addEventListener('click', buscar);
         DOM.btnLimpiar?.addEventListener('click', limpiarFiltros);
         DOM.btnLimpiarFiltros?.addEventListener('click', limpiarFiltros);
+        DOM.facetas?.addEventListener('click', onClickFaceta);
+        DOM.filtroOrden?.addEventListener('change', buscar);
 
         // Contar resultados iniciales (los que vienen del servidor con Thymeleaf)
         if (DOM.gridPaquetes && DOM.contadorResultados) {
@@ -386,6 +538,9 @@ NMViajes.PaqueteBuscador = (function() {
             }
         }
 
+        // Conteos por faceta del catalogo completo
+        cargarFacetasIniciales();
+
         // Inicializar tooltips de Flowbite si existe
         if (typeof window.initFlowbite === 'function') {
             window.initFlowbite();
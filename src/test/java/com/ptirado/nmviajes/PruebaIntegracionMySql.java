@@ -0,0 +1,57 @@
+package com.ptirado.nmviajes;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Base de las pruebas que necesitan MySQL real: Flyway aplica todas las
+ * migraciones sobre un contenedor compartido por todas las clases de prueba
+ * (y por tanto por el mismo contexto de Spring).
+ *
+ * <p>Sin Docker disponible las pruebas se omiten en lugar de fallar.</p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PruebaIntegracionMySql {
+
+    // Mismos parametros de conexion que produccion (application.properties)
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.36")
+            .withUrlParam("serverTimezone", "UTC")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    static {
+        MYSQL.start();
+    }
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Reinicia los contadores de Hibernate (requiere hibernate.generate_statistics).
+     */
+    protected void iniciarConteo() {
+        estadisticas().clear();
+    }
+
+    /**
+     * Sentencias JDBC preparadas desde el ultimo {@link #iniciarConteo()}. Un
+     * lote de INSERT cuenta como una sola sentencia.
+     */
+    protected long sentencias() {
+        return estadisticas().getPrepareStatementCount();
+    }
+
+    protected Statistics estadisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
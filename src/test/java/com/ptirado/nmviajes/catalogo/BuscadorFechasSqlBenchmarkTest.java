@@ -0,0 +1,149 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot.PaqueteCatalogo;
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+
+/**
+ * Compara el rango de fechas del buscador resuelto con {@link IndiceIntervalos}
+ * (foto en memoria) contra las consultas SQL que usa antes de cargar la foto
+ * ({@code PaqueteRepository.buscar} y {@code buscarSolapados}) con 100 000
+ * paquetes. Verifica que ambos caminos devuelven los mismos paquetes y registra
+ * el tiempo promedio por consulta de cada uno.
+ */
+@Tag("benchmark")
+class BuscadorFechasSqlBenchmarkTest extends PruebaIntegracionMySql {
+
+    private static final Logger log = LoggerFactory.getLogger(BuscadorFechasSqlBenchmarkTest.class);
+
+    private static final int PAQUETES = 100_000;
+    private static final int CALENTAMIENTO = 20;
+    private static final int CONSULTAS = 200;
+    private static final LocalDate PRIMER_INICIO = LocalDate.of(2030, 1, 1);
+    private static final int DIAS_CATALOGO = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaqueteRepository paqueteRepository;
+
+    // El pool no usa auto-commit: cada escritura JDBC va en una transaccion
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Integer idDestino;
+
+    @BeforeEach
+    void sembrar() {
+        transactionTemplate.executeWithoutResult(tx -> insertarPaquetes());
+    }
+
+    private void insertarPaquetes() {
+        jdbcTemplate.update("INSERT INTO destino (nombre, pais, estado) VALUES ('Benchmark fechas', 'PE', 'ACT')");
+        idDestino = jdbcTemplate.queryForObject(
+                "SELECT id_destino FROM destino WHERE nombre = 'Benchmark fechas'", Integer.class);
+
+        Random random = new Random(42);
+        List<Object[]> filas = new ArrayList<>(PAQUETES);
+        for (int i = 0; i < PAQUETES; i++) {
+            LocalDate inicio = PRIMER_INICIO.plusDays(random.nextInt(DIAS_CATALOGO));
+            LocalDate fin = inicio.plusDays(1 + random.nextInt(20));
+            filas.add(new Object[] { "Paquete " + i, BigDecimal.valueOf(500 + random.nextInt(5_000)),
+                    Date.valueOf(inicio), Date.valueOf(fin), idDestino });
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO paquete (nombre, precio, fecha_inicio, fecha_fin, stock_disponible, id_destino, estado)
+                VALUES (?, ?, ?, ?, 10, ?, 'ACT')
+                """, filas);
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM paquete WHERE id_destino = ?", idDestino);
+            jdbcTemplate.update("DELETE FROM destino WHERE id_destino = ?", idDestino);
+        });
+    }
+
+    @Test
+    void indiceYSql_devuelvenLosMismosPaquetes() {
+        CatalogoSnapshot snapshot = transactionTemplate.execute(tx -> cargarFoto());
+        assertThat(snapshot.size()).isGreaterThanOrEqualTo(PAQUETES);
+
+        for (ModoRangoFechas modo : ModoRangoFechas.values()) {
+            Random random = new Random(7);
+            long nanosIndice = 0;
+            long nanosSql = 0;
+            long resultados = 0;
+
+            for (int q = 0; q < CALENTAMIENTO + CONSULTAS; q++) {
+                LocalDate desde = PRIMER_INICIO.plusDays(random.nextInt(DIAS_CATALOGO));
+                LocalDate hasta = desde.plusDays(random.nextInt(15));
+                FiltroBuscador filtro = new FiltroBuscador(null, desde, hasta, modo, null, null, null, null, null);
+
+                long t0 = System.nanoTime();
+                int[] porIndice = snapshot.buscar(filtro, null).getPaquetes().stream()
+                        .mapToInt(PaqueteBuscadorResponse::getIdPaquete)
+                        .toArray();
+                long t1 = System.nanoTime();
+                List<Paquete> porSql = modo == ModoRangoFechas.SOLAPA
+                        ? paqueteRepository.buscarSolapados(null, desde, hasta, AppConstants.STATUS_ACTIVO)
+                        : paqueteRepository.buscar(null, desde, hasta, AppConstants.STATUS_ACTIVO);
+                long t2 = System.nanoTime();
+
+                int[] idsSql = porSql.stream().mapToInt(Paquete::getIdPaquete).sorted().toArray();
+                Arrays.sort(porIndice);
+                assertThat(porIndice).as("%s [%s, %s]", modo, desde, hasta).isEqualTo(idsSql);
+
+                if (q >= CALENTAMIENTO) {
+                    nanosIndice += t1 - t0;
+                    nanosSql += t2 - t1;
+                    resultados += idsSql.length;
+                }
+            }
+
+            log.info("{} con {} paquetes: indice {} us/consulta, SQL {} us/consulta, {} resultados en promedio",
+                    modo, snapshot.size(), nanosIndice / 1_000 / CONSULTAS, nanosSql / 1_000 / CONSULTAS,
+                    resultados / CONSULTAS);
+        }
+    }
+
+    // Foto con todos los paquetes activos, ordenados por inicio como la arma CatalogoSnapshotHolder
+    private CatalogoSnapshot cargarFoto() {
+        List<PaqueteCatalogo> paquetes = jdbcTemplate.query("""
+                SELECT id_paquete, id_destino, precio, fecha_inicio, fecha_fin FROM paquete
+                WHERE estado = 'ACT' ORDER BY fecha_inicio, id_paquete
+                """, (rs, i) -> new PaqueteCatalogo(
+                        rs.getInt("id_paquete"),
+                        rs.getInt("id_destino"),
+                        rs.getBigDecimal("precio"),
+                        rs.getDate("fecha_inicio").toLocalDate(),
+                        rs.getDate("fecha_fin").toLocalDate(),
+                        PaqueteBuscadorResponse.builder().idPaquete(rs.getInt("id_paquete")).build()));
+        return new CatalogoSnapshot(paquetes);
+    }
+}
@@ -0,0 +1,160 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptirado.nmviajes.catalogo.CacheRespuestasCatalogo.RespuestaSerializada;
+import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+
+class CacheRespuestasCatalogoTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CacheRespuestasCatalogo cache = new CacheRespuestasCatalogo(objectMapper, new CoalescedorLecturas());
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @Test
+    void obtener_mismosBytesQueJackson() throws Exception {
+        List<PaqueteBuscadorResponse> grande = paquetes(40);
+        List<PaqueteBuscadorResponse> pequena = paquetes(1);
+
+        RespuestaSerializada conGzip = cache.obtener("grande", contando(grande));
+        RespuestaSerializada sinGzip = cache.obtener("pequena", contando(pequena));
+
+        assertThat(conGzip.json()).isEqualTo(objectMapper.writeValueAsBytes(grande));
+        assertThat(conGzip.gzip()).isNotNull();
+        assertThat(descomprimir(conGzip.gzip())).isEqualTo(conGzip.json());
+        // Por debajo del umbral no se comprime
+        assertThat(sinGzip.json()).isEqualTo(objectMapper.writeValueAsBytes(pequena));
+        assertThat(sinGzip.gzip()).isNull();
+    }
+
+    @Test
+    void obtener_segundaVez_devuelveLosBytesGuardadosSinCargar() {
+        RespuestaSerializada primera = cache.obtener("paquetes", contando(paquetes(3)));
+        RespuestaSerializada segunda = cache.obtener("paquetes", contando(paquetes(5)));
+
+        assertThat(segunda).isSameAs(primera);
+        assertThat(cargas).hasValue(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void responder_gzipSoloSiElClienteLoAcepta() throws Exception {
+        List<PaqueteBuscadorResponse> valor = paquetes(40);
+        byte[] json = objectMapper.writeValueAsBytes(valor);
+
+        ResponseEntity<byte[]> comprimida = cache.responder("paquetes", "gzip, deflate, br", contando(valor));
+        ResponseEntity<byte[]> plana = cache.responder("paquetes", null, contando(valor));
+
+        assertThat(comprimida.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(descomprimir(comprimida.getBody())).isEqualTo(json);
+        assertThat(plana.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plana.getBody()).isEqualTo(json);
+        for (ResponseEntity<byte[]> respuesta : List.of(comprimida, plana)) {
+            assertThat(respuesta.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+            assertThat(respuesta.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        }
+        assertThat(cargas).hasValue(1);
+    }
+
+    @Test
+    void onCatalogoCambiado_paqueteODestino_vaciaLaCache() {
+        cache.obtener("paquetes", contando(paquetes(1)));
+        cache.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(1));
+        assertThat(cache.size()).isZero();
+
+        cache.obtener("paquetes", contando(paquetes(1)));
+        cache.onCatalogoCambiado(CatalogoCambiadoEvent.destino(1));
+        assertThat(cache.size()).isZero();
+
+        cache.obtener("paquetes", contando(paquetes(1)));
+        assertThat(cargas).hasValue(3);
+    }
+
+    @Test
+    void onCatalogoCambiado_servicio_conservaLaCache() {
+        cache.obtener("paquetes", contando(paquetes(1)));
+
+        cache.onCatalogoCambiado(CatalogoCambiadoEvent.servicio(1));
+        cache.obtener("paquetes", contando(paquetes(1)));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cargas).hasValue(1);
+    }
+
+    @Test
+    void onStockCambiado_vaciaLaCache() {
+        cache.obtener("paquetes", contando(paquetes(1)));
+
+        cache.onStockCambiado(new StockCambiadoEvent(List.of(1)));
+        cache.obtener("paquetes", contando(paquetes(1)));
+
+        assertThat(cargas).hasValue(2);
+    }
+
+    @Test
+    void obtener_invalidadaMientrasCargaba_respondePeroNoGuarda() {
+        List<PaqueteBuscadorResponse> anterior = paquetes(2);
+        List<PaqueteBuscadorResponse> actual = paquetes(3);
+
+        // El cambio llega despues de leer el catalogo y antes de guardar los bytes
+        RespuestaSerializada calculada = cache.obtener("paquetes", () -> {
+            cargas.incrementAndGet();
+            cache.onStockCambiado(new StockCambiadoEvent(List.of(1)));
+            return anterior;
+        });
+        RespuestaSerializada siguiente = cache.obtener("paquetes", contando(actual));
+
+        assertThat(calculada.json()).isEqualTo(json(anterior));
+        assertThat(siguiente.json()).isEqualTo(json(actual));
+        assertThat(cargas).hasValue(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private Supplier<Object> contando(Object valor) {
+        return () -> {
+            cargas.incrementAndGet();
+            return valor;
+        };
+    }
+
+    private byte[] json(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] descomprimir(byte[] gzip) throws IOException {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    private static List<PaqueteBuscadorResponse> paquetes(int cantidad) {
+        return IntStream.rangeClosed(1, cantidad)
+                .mapToObj(id -> PaqueteBuscadorResponse.builder()
+                        .idPaquete(id)
+                        .nombre("Paquete " + id)
+                        .precio("S/ 1,500.00")
+                        .fechaInicio("01/01/2030")
+                        .stockDisponible(10)
+                        .nombreDestino("Cusco")
+                        .build())
+                .toList();
+    }
+}
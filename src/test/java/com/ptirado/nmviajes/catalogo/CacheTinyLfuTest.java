@@ -0,0 +1,88 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CacheTinyLfuTest {
+
+    private static final int CAPACIDAD = 1_000;
+    private static final int UNIVERSO = 100_000;
+    private static final int SOLICITUDES = 1_000_000;
+
+    @Test
+    void zipf_aciertaMasQueLru_sinExcederCapacidad() {
+        double[] acumulada = zipfAcumulada(UNIVERSO, 0.9);
+        CacheTinyLfu<Integer, Integer> cache = new CacheTinyLfu<>(CAPACIDAD, Duration.ofMinutes(10));
+        Map<Integer, Integer> lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> mayor) {
+                return size() > CAPACIDAD;
+            }
+        };
+
+        Random random = new Random(1);
+        long aciertosLru = 0;
+        for (int i = 0; i < SOLICITUDES; i++) {
+            int clave = siguienteClave(acumulada, random);
+            if (cache.obtener(clave) == null) cache.guardar(clave, clave);
+            if (lru.get(clave) != null) {
+                aciertosLru++;
+            } else {
+                lru.put(clave, clave);
+            }
+            assertThat(cache.size()).isLessThanOrEqualTo(CAPACIDAD);
+        }
+
+        double tasaLru = aciertosLru * 100.0 / SOLICITUDES;
+        // Medido con esta semilla: ~45% frente a ~34% de LRU
+        assertThat(cache.estadisticas().tasaAciertos()).isGreaterThan(tasaLru + 5);
+    }
+
+    @Test
+    void obtener_entradaVencida_noSeRetorna() throws InterruptedException {
+        CacheTinyLfu<Integer, Integer> cache = new CacheTinyLfu<>(10, Duration.ofMillis(5));
+        cache.guardar(1, 1);
+        assertThat(cache.obtener(1)).isEqualTo(1);
+
+        Thread.sleep(20);
+
+        assertThat(cache.obtener(1)).isNull();
+        assertThat(cache.estadisticas().expiradas()).isEqualTo(1);
+    }
+
+    @Test
+    void limpiar_vaciaTodosLosSegmentos() {
+        CacheTinyLfu<Integer, Integer> cache = new CacheTinyLfu<>(100, Duration.ofMinutes(1));
+        for (int i = 0; i < 200; i++) {
+            cache.guardar(i % 50, i);
+            cache.obtener(i % 50);
+        }
+
+        cache.limpiar();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.obtener(0)).isNull();
+    }
+
+    private static double[] zipfAcumulada(int universo, double exponente) {
+        double[] acumulada = new double[universo];
+        double suma = 0;
+        for (int i = 0; i < universo; i++) {
+            suma += 1.0 / Math.pow(i + 1, exponente);
+            acumulada[i] = suma;
+        }
+        return acumulada;
+    }
+
+    private static int siguienteClave(double[] acumulada, Random random) {
+        int posicion = Arrays.binarySearch(acumulada, random.nextDouble() * acumulada[acumulada.length - 1]);
+        return posicion >= 0 ? posicion : -posicion - 1;
+    }
+}
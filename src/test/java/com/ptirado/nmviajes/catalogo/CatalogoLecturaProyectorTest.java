@@ -0,0 +1,87 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+
+/**
+ * Sentencias que la proyeccion de {@code catalogo_lectura} agrega a la
+ * transaccion del escritor, que es lo que cuesta proyectar antes del commit.
+ */
+class CatalogoLecturaProyectorTest extends PruebaIntegracionMySql {
+
+    @Autowired
+    private CatalogoLecturaProyector proyector;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void onStockCambiado_unaSentenciaParaTodosLosPaquetes() {
+        List<Integer> ids = jdbcTemplate.queryForList(
+                "SELECT id_paquete FROM paquete ORDER BY id_paquete LIMIT 3", Integer.class);
+
+        iniciarConteo();
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("UPDATE paquete SET stock_disponible = stock_disponible - 1 WHERE id_paquete IN (?, ?, ?)",
+                    ids.get(0), ids.get(1), ids.get(2));
+            proyector.onStockCambiado(new StockCambiadoEvent(ids));
+        });
+        long sentencias = sentencias();
+
+        try {
+            assertThat(sentencias).isEqualTo(1);
+            assertThat(desincronizados()).isZero();
+        } finally {
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.update("UPDATE paquete SET stock_disponible = stock_disponible + 1 WHERE id_paquete IN (?, ?, ?)",
+                        ids.get(0), ids.get(1), ids.get(2));
+                proyector.onStockCambiado(new StockCambiadoEvent(ids));
+            });
+        }
+    }
+
+    @Test
+    void onCatalogoCambiado_paquete_tresSentencias() {
+        Integer id = jdbcTemplate.queryForObject("SELECT MIN(id_paquete) FROM paquete", Integer.class);
+        BigDecimal precio = jdbcTemplate.queryForObject(
+                "SELECT precio FROM paquete WHERE id_paquete = ?", BigDecimal.class, id);
+
+        iniciarConteo();
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("UPDATE paquete SET precio = precio + 1 WHERE id_paquete = ?", id);
+            proyector.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(id));
+        });
+        long sentencias = sentencias();
+
+        try {
+            // Paquete con destino, fila actual y UPDATE al confirmar
+            assertThat(sentencias).isEqualTo(3);
+            assertThat(jdbcTemplate.queryForObject("SELECT precio FROM catalogo_lectura WHERE id_paquete = ?",
+                    BigDecimal.class, id)).isEqualByComparingTo(precio.add(BigDecimal.ONE));
+        } finally {
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.update("UPDATE paquete SET precio = ? WHERE id_paquete = ?", precio, id);
+                proyector.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(id));
+            });
+        }
+    }
+
+    private int desincronizados() {
+        return jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM catalogo_lectura c JOIN paquete p ON p.id_paquete = c.id_paquete
+                WHERE c.stock_disponible <> p.stock_disponible
+                """, Integer.class);
+    }
+}
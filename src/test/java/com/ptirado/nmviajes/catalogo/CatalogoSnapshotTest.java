@@ -0,0 +1,245 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot.PaqueteCatalogo;
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.dto.api.response.BuscadorPaquetesResponse;
+import com.ptirado.nmviajes.dto.api.response.FacetaResponse;
+import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+import com.ptirado.nmviajes.entity.CatalogoLectura;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.mapper.PaqueteMapper;
+import com.ptirado.nmviajes.repository.CatalogoLecturaRepository;
+
+class CatalogoSnapshotTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2030, 1, 1);
+    private static final LocalDate MARZO = LocalDate.of(2030, 3, 1);
+
+    // Catalogo armado a mano, en el orden de la consulta (fecha de inicio, ID): mismo inicio
+    // en 2 y 3, un viaje de un dia, uno que cruza de mes y precios en los limites de los tramos
+    private static final List<PaqueteCatalogo> CATALOGO = List.of(
+            paquete(1, 1, "800.00", 0, 4),
+            paquete(2, 2, "1500.00", 2, 9),
+            paquete(3, 1, "2500.00", 2, 3),
+            paquete(4, 3, "999.99", 9, 19),
+            paquete(5, 2, "1000.00", 14, 14),
+            paquete(6, 1, "4200.00", 27, 33),
+            paquete(7, 3, "5000.00", 31, 40),
+            paquete(8, 2, "3000.00", 35, 36),
+            paquete(9, 1, "1999.99", 50, 62),
+            paquete(10, 2, "6100.00", 61, 70));
+
+    @Test
+    void conRespuestas_reemplazaSoloLosPaquetesIndicados() {
+        CatalogoSnapshot anterior = new CatalogoSnapshot(paquetes(20));
+
+        CatalogoSnapshot nueva = anterior.conRespuestas(Map.of(
+                5, respuesta(5, 0),
+                12, respuesta(12, 3),
+                999, respuesta(999, 1)));
+
+        assertThat(nueva.size()).isEqualTo(20);
+        assertThat(nueva.obtener(5).respuesta().getStockDisponible()).isZero();
+        assertThat(nueva.obtener(12).respuesta().getStockDisponible()).isEqualTo(3);
+        assertThat(nueva.obtener(999)).isNull();
+        assertThat(nueva.obtener(6)).isSameAs(anterior.obtener(6));
+        // La foto anterior no cambia
+        assertThat(anterior.obtener(5).respuesta().getStockDisponible()).isEqualTo(10);
+    }
+
+    @Test
+    void conRespuestas_mismosResultadosYFacetasConLaNuevaRespuesta() {
+        CatalogoSnapshot anterior = new CatalogoSnapshot(paquetes(20));
+        FiltroBuscador filtro = new FiltroBuscador(
+                null, INICIO.plusDays(3), INICIO.plusDays(12), ModoRangoFechas.SOLAPA, null, null, null, null, null);
+
+        BuscadorPaquetesResponse antes = anterior.buscar(filtro, null);
+        BuscadorPaquetesResponse despues = anterior.conRespuestas(Map.of(8, respuesta(8, 0))).buscar(filtro, null);
+
+        assertThat(despues.getPaquetes()).extracting(PaqueteBuscadorResponse::getIdPaquete)
+                .containsExactlyElementsOf(antes.getPaquetes().stream().map(PaqueteBuscadorResponse::getIdPaquete).toList());
+        assertThat(despues.getPaquetes()).filteredOn(p -> p.getIdPaquete() == 8)
+                .singleElement().extracting(PaqueteBuscadorResponse::getStockDisponible).isEqualTo(0);
+        assertThat(despues.getFacetas()).isEqualTo(antes.getFacetas());
+    }
+
+    @Test
+    void buscar_mismosResultadosQueLaConsultaSql() {
+        CatalogoSnapshot snapshot = new CatalogoSnapshot(CATALOGO);
+        IndicePrecios indicePrecios = indicePrecios(CATALOGO);
+        List<LocalDate[]> rangos = List.of(
+                new LocalDate[] { null, null },
+                new LocalDate[] { MARZO.plusDays(2), MARZO.plusDays(14) },
+                new LocalDate[] { MARZO.plusDays(4), null },
+                new LocalDate[] { null, MARZO.plusDays(35) },
+                new LocalDate[] { MARZO.plusDays(14), MARZO.plusDays(14) },
+                new LocalDate[] { MARZO.plusDays(33), MARZO.plusDays(31) });
+        List<BigDecimal[]> precios = List.of(
+                new BigDecimal[] { null, null },
+                new BigDecimal[] { new BigDecimal("1000"), new BigDecimal("3000") });
+        List<YearMonth> meses = Arrays.asList(null, YearMonth.of(2030, 3), YearMonth.of(2030, 4));
+        List<Integer> destinos = Arrays.asList(null, 1, 2, 3, 99);
+        List<RangoPrecio> rangosPrecio = new ArrayList<>(Arrays.asList(RangoPrecio.values()));
+        rangosPrecio.add(null);
+
+        int combinaciones = 0;
+        for (Integer destino : destinos)
+            for (LocalDate[] rango : rangos)
+                for (ModoRangoFechas modo : ModoRangoFechas.values())
+                    for (RangoPrecio rangoPrecio : rangosPrecio)
+                        for (YearMonth mes : meses)
+                            for (BigDecimal[] precio : precios)
+                                for (OrdenBuscador orden : OrdenBuscador.values()) {
+                                    FiltroBuscador filtro = new FiltroBuscador(destino, rango[0], rango[1], modo,
+                                            rangoPrecio, mes, precio[0], precio[1], orden);
+                                    int[] idsPorPrecio = filtro.usaPrecio()
+                                            ? indicePrecios.idsEnRango(filtro.precioMin(), filtro.precioMax())
+                                            : null;
+
+                                    BuscadorPaquetesResponse respuesta = snapshot.buscar(filtro, idsPorPrecio);
+
+                                    assertThat(respuesta.getPaquetes()).as("%s", filtro)
+                                            .extracting(PaqueteBuscadorResponse::getIdPaquete)
+                                            .containsExactlyElementsOf(comoSql(filtro));
+                                    combinaciones++;
+                                }
+        assertThat(combinaciones).isEqualTo(5 * 6 * 2 * 6 * 3 * 2 * 3);
+    }
+
+    @Test
+    void buscar_cadaFacetaCuentaConLosDemasFiltros() {
+        CatalogoSnapshot snapshot = new CatalogoSnapshot(CATALOGO);
+        FiltroBuscador filtro = new FiltroBuscador(2, MARZO, MARZO.plusDays(40), ModoRangoFechas.SOLAPA,
+                RangoPrecio.DE_1000_A_2000, YearMonth.of(2030, 3), null, null, null);
+
+        BuscadorPaquetesResponse respuesta = snapshot.buscar(filtro, null);
+
+        assertThat(respuesta.getPaquetes()).extracting(PaqueteBuscadorResponse::getIdPaquete).containsExactly(2, 5);
+        // Destinos sin el filtro de destino: 2 y 5 del destino 2, 4 no (999.99 queda en el tramo anterior)
+        assertThat(cantidades(respuesta.getFacetas().getDestinos())).isEqualTo(Map.of("2", 2));
+        // Tramos sin el filtro de precio: 5 (1000) cuenta en su tramo, no en "menos de 1000"
+        assertThat(cantidades(respuesta.getFacetas().getPrecios()))
+                .isEqualTo(Map.of(RangoPrecio.DE_1000_A_2000.name(), 2));
+        // Meses sin el filtro de mes: 8 empieza en abril pero cuesta 3000
+        assertThat(cantidades(respuesta.getFacetas().getMeses())).isEqualTo(Map.of("2030-03", 2));
+    }
+
+    @Test
+    void onStockCambiado_soloReleeYReemplazaLosPaquetesDelEvento() {
+        List<Collection<?>> lecturas = new ArrayList<>();
+        CatalogoLecturaRepository repositorio = (CatalogoLecturaRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { CatalogoLecturaRepository.class },
+                (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("findAllById")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    Collection<?> ids = (Collection<?>) args[0];
+                    lecturas.add(ids);
+                    return ids.stream().map(id -> lectura((Integer) id, 0)).toList();
+                });
+        CatalogoSnapshotHolder holder = new CatalogoSnapshotHolder(repositorio, new PaqueteMapper());
+        CatalogoSnapshot anterior = new CatalogoSnapshot(CATALOGO);
+        ReflectionTestUtils.setField(holder, "snapshot", anterior);
+
+        holder.onStockCambiado(new StockCambiadoEvent(List.of(3, 8)));
+
+        CatalogoSnapshot actual = holder.actual();
+        assertThat(lecturas).containsExactly(List.of(3, 8));
+        assertThat(actual.obtener(3).respuesta().getStockDisponible()).isZero();
+        assertThat(actual.obtener(8).respuesta().getStockDisponible()).isZero();
+        for (int id : new int[] { 1, 2, 4, 5, 6, 7, 9, 10 }) {
+            assertThat(actual.obtener(id)).isSameAs(anterior.obtener(id));
+        }
+        // Mismos filtros que antes: la busqueda por fecha no cambia
+        FiltroBuscador filtro = new FiltroBuscador(null, MARZO, MARZO.plusDays(40), null, null, null, null, null, null);
+        assertThat(actual.buscar(filtro, null).getPaquetes()).extracting(PaqueteBuscadorResponse::getIdPaquete)
+                .containsExactlyElementsOf(comoSql(filtro));
+    }
+
+    // Misma semantica que CatalogoLecturaRepository.buscar / buscarSolapados (ORDER BY fecha_inicio, id_paquete)
+    // mas los filtros de precio y mes y el orden por precio de PaqueteServiceImpl.buscar sin foto
+    private static List<Integer> comoSql(FiltroBuscador filtro) {
+        Stream<PaqueteCatalogo> filas = CATALOGO.stream()
+                .filter(p -> filtro.idDestino() == null || p.idDestino().equals(filtro.idDestino()))
+                .filter(p -> filtro.modo() == ModoRangoFechas.SOLAPA
+                        ? (filtro.fechaFin() == null || !p.fechaInicio().isAfter(filtro.fechaFin()))
+                                && (filtro.fechaInicio() == null || !p.fechaFin().isBefore(filtro.fechaInicio()))
+                        : (filtro.fechaInicio() == null || !p.fechaInicio().isBefore(filtro.fechaInicio()))
+                                && (filtro.fechaFin() == null || !p.fechaFin().isAfter(filtro.fechaFin())))
+                .sorted(Comparator.comparing(PaqueteCatalogo::fechaInicio).thenComparing(PaqueteCatalogo::idPaquete))
+                .filter(p -> filtro.admitePrecioYMes(p.precio(), p.fechaInicio()));
+        if (filtro.orden().porPrecio()) {
+            Comparator<PaqueteCatalogo> porPrecio = Comparator.comparing(PaqueteCatalogo::precio);
+            filas = filas.sorted(filtro.orden() == OrdenBuscador.PRECIO_DESC ? porPrecio.reversed() : porPrecio);
+        }
+        return filas.map(PaqueteCatalogo::idPaquete).toList();
+    }
+
+    private static IndicePrecios indicePrecios(List<PaqueteCatalogo> catalogo) {
+        IndicePrecios indice = new IndicePrecios(null);
+        for (PaqueteCatalogo p : catalogo) {
+            Paquete paquete = new Paquete();
+            paquete.setIdPaquete(p.idPaquete());
+            paquete.setPrecio(p.precio());
+            paquete.setEstado(AppConstants.STATUS_ACTIVO);
+            indice.actualizar(paquete);
+        }
+        return indice;
+    }
+
+    private static Map<String, Integer> cantidades(List<FacetaResponse> facetas) {
+        return facetas.stream()
+                .filter(f -> f.getCantidad() > 0)
+                .collect(Collectors.toMap(FacetaResponse::getValor, FacetaResponse::getCantidad));
+    }
+
+    private static PaqueteCatalogo paquete(int id, int idDestino, String precio, int inicio, int fin) {
+        return new PaqueteCatalogo(id, idDestino, new BigDecimal(precio),
+                MARZO.plusDays(inicio), MARZO.plusDays(fin), respuesta(id, 10));
+    }
+
+    private static CatalogoLectura lectura(int idPaquete, int stock) {
+        CatalogoLectura lectura = new CatalogoLectura();
+        lectura.setIdPaquete(idPaquete);
+        lectura.setStockDisponible(stock);
+        lectura.setNombreDestino("Destino");
+        return lectura;
+    }
+
+    // Un paquete por dia, en dos destinos, ordenados por inicio
+    private static List<PaqueteCatalogo> paquetes(int cantidad) {
+        List<PaqueteCatalogo> paquetes = new ArrayList<>(cantidad);
+        for (int id = 1; id <= cantidad; id++) {
+            LocalDate inicio = INICIO.plusDays(id);
+            paquetes.add(new PaqueteCatalogo(id, id % 2 + 1, BigDecimal.valueOf(100L * id),
+                    inicio, inicio.plusDays(2), respuesta(id, 10)));
+        }
+        return paquetes;
+    }
+
+    private static PaqueteBuscadorResponse respuesta(int idPaquete, int stock) {
+        return PaqueteBuscadorResponse.builder()
+                .idPaquete(idPaquete)
+                .nombreDestino("Destino")
+                .stockDisponible(stock)
+                .build();
+    }
+}
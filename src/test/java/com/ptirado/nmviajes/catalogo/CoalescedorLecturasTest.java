@@ -0,0 +1,116 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CoalescedorLecturasTest {
+
+    private final CoalescedorLecturas coalescedor = new CoalescedorLecturas();
+    private final ExecutorService hilos = Executors.newFixedThreadPool(256);
+
+    @AfterEach
+    void cerrar() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void ejecutar_lecturasSimultaneas_unaSolaEjecucion() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<Integer> primera = hilos.submit(() -> coalescedor.ejecutar("paquete:1", () -> {
+            ejecuciones.incrementAndGet();
+            esperar(liberar);
+            return 42;
+        }));
+        esperarEnCurso(1);
+
+        List<Future<Integer>> resto = new ArrayList<>();
+        for (int i = 0; i < 199; i++) {
+            resto.add(hilos.submit(() -> coalescedor.ejecutar("paquete:1", () -> {
+                ejecuciones.incrementAndGet();
+                return -1;
+            })));
+        }
+        esperarAgrupadas(199);
+        liberar.countDown();
+
+        assertThat(primera.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        for (Future<Integer> lectura : resto) {
+            assertThat(lectura.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(coalescedor.estadisticas().enCurso()).isZero();
+    }
+
+    @Test
+    void ejecutar_cargadorFalla_todosRecibenLaExcepcion() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        IllegalStateException error = new IllegalStateException("sin paquete");
+
+        Future<Object> primera = hilos.submit(() -> coalescedor.ejecutar("paquete:2", () -> {
+            esperar(liberar);
+            throw error;
+        }));
+        esperarEnCurso(1);
+
+        List<Future<Object>> resto = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            resto.add(hilos.submit(() -> coalescedor.ejecutar("paquete:2", () -> "no deberia ejecutarse")));
+        }
+        esperarAgrupadas(50);
+        liberar.countDown();
+
+        assertThatThrownBy(() -> primera.get(5, TimeUnit.SECONDS)).hasCause(error);
+        for (Future<Object> lectura : resto) {
+            assertThatThrownBy(() -> lectura.get(5, TimeUnit.SECONDS)).hasCause(error);
+        }
+    }
+
+    @Test
+    void ejecutar_despuesDeUnCambio_noSeUneALaEjecucionAnterior() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<String> anterior = hilos.submit(() -> coalescedor.ejecutar("paquete:3", () -> {
+            esperar(liberar);
+            return "antes del cambio";
+        }));
+        esperarEnCurso(1);
+
+        coalescedor.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(3));
+        String posterior = coalescedor.ejecutar("paquete:3", () -> "despues del cambio");
+        liberar.countDown();
+
+        assertThat(posterior).isEqualTo("despues del cambio");
+        assertThat(anterior.get(5, TimeUnit.SECONDS)).isEqualTo("antes del cambio");
+        assertThat(coalescedor.estadisticas().agrupadas()).isZero();
+    }
+
+    private void esperarEnCurso(int cantidad) throws InterruptedException {
+        while (coalescedor.estadisticas().enCurso() < cantidad) Thread.sleep(1);
+    }
+
+    private void esperarAgrupadas(long cantidad) throws InterruptedException {
+        while (coalescedor.estadisticas().agrupadas() < cantidad) Thread.sleep(1);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
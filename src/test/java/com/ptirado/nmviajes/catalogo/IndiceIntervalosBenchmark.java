@@ -0,0 +1,91 @@
+package com.ptirado.nmviajes.catalogo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rango de fechas con {@link IndiceIntervalos} frente a recorrer todos los
+ * intervalos; ambos devuelven las posiciones encontradas. Las consultas cubren
+ * una semana de un catalogo de 1000 dias.
+ *
+ * <pre>mvn test-compile exec:exec -Pbenchmark -Djmh.incluir=IndiceIntervalos</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndiceIntervalosBenchmark {
+
+    @Param({ "10000", "200000" })
+    int intervalos;
+
+    private int[] inicios;
+    private int[] fines;
+    private IndiceIntervalos indice;
+    private final Random random = new Random(3);
+
+    @Setup
+    public void preparar() {
+        int[][] generados = IndiceIntervalosTest.generar(new Random(1), intervalos);
+        inicios = Arrays.stream(generados).mapToInt(i -> i[0]).toArray();
+        fines = Arrays.stream(generados).mapToInt(i -> i[1]).toArray();
+        indice = new IndiceIntervalos(inicios, fines);
+    }
+
+    @Benchmark
+    public int[] contenidosIndice() {
+        int desde = 20_000 + random.nextInt(1_000);
+        return indice.contenidos(desde, desde + 7);
+    }
+
+    @Benchmark
+    public int[] contenidosRecorrido() {
+        int desde = 20_000 + random.nextInt(1_000);
+        int hasta = desde + 7;
+        int[] posiciones = new int[16];
+        int total = 0;
+        for (int i = 0; i < inicios.length; i++) {
+            if (inicios[i] >= desde && fines[i] <= hasta) {
+                if (total == posiciones.length) posiciones = Arrays.copyOf(posiciones, total * 2);
+                posiciones[total++] = i;
+            }
+        }
+        return Arrays.copyOf(posiciones, total);
+    }
+
+    @Benchmark
+    public int[] solapadosIndice() {
+        int desde = 20_000 + random.nextInt(1_000);
+        return indice.solapados(desde, desde + 7);
+    }
+
+    @Benchmark
+    public int[] solapadosRecorrido() {
+        int desde = 20_000 + random.nextInt(1_000);
+        int hasta = desde + 7;
+        int[] posiciones = new int[16];
+        int total = 0;
+        for (int i = 0; i < inicios.length; i++) {
+            if (inicios[i] <= hasta && fines[i] >= desde) {
+                if (total == posiciones.length) posiciones = Arrays.copyOf(posiciones, total * 2);
+                posiciones[total++] = i;
+            }
+        }
+        return Arrays.copyOf(posiciones, total);
+    }
+}
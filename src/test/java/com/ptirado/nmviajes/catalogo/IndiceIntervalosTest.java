@@ -0,0 +1,57 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class IndiceIntervalosTest {
+
+    private static final int INTERVALOS = 20_000;
+
+    @Test
+    void consultas_coincidenConRecorridoCompleto() {
+        Random random = new Random(1);
+        int[][] intervalos = generar(random, INTERVALOS);
+        int[] inicios = Arrays.stream(intervalos).mapToInt(i -> i[0]).toArray();
+        int[] fines = Arrays.stream(intervalos).mapToInt(i -> i[1]).toArray();
+        IndiceIntervalos indice = new IndiceIntervalos(inicios, fines);
+
+        for (int q = 0; q < 300; q++) {
+            int desde = q % 7 == 0 ? Integer.MIN_VALUE : 20_000 + random.nextInt(1_000);
+            int hasta = q % 11 == 0 ? Integer.MAX_VALUE : 20_000 + random.nextInt(1_000) + random.nextInt(30);
+
+            int[] contenidos = IntStream.range(0, INTERVALOS)
+                    .filter(i -> inicios[i] >= desde && fines[i] <= hasta)
+                    .toArray();
+            int[] solapados = IntStream.range(0, INTERVALOS)
+                    .filter(i -> inicios[i] <= hasta && fines[i] >= desde)
+                    .toArray();
+
+            assertThat(indice.contenidos(desde, hasta)).as("contenidos [%d, %d]", desde, hasta).isEqualTo(contenidos);
+            assertThat(indice.solapados(desde, hasta)).as("solapados [%d, %d]", desde, hasta).isEqualTo(solapados);
+        }
+    }
+
+    @Test
+    void indiceVacio_noDevuelveNada() {
+        IndiceIntervalos indice = new IndiceIntervalos(new int[0], new int[0]);
+
+        assertThat(indice.contenidos(Integer.MIN_VALUE, Integer.MAX_VALUE)).isEmpty();
+        assertThat(indice.solapados(Integer.MIN_VALUE, Integer.MAX_VALUE)).isEmpty();
+    }
+
+    // Intervalos ordenados por inicio, como los entrega CatalogoSnapshot
+    static int[][] generar(Random random, int cantidad) {
+        int[][] intervalos = new int[cantidad][];
+        for (int i = 0; i < cantidad; i++) {
+            int inicio = 20_000 + random.nextInt(1_000);
+            intervalos[i] = new int[] { inicio, inicio + 1 + random.nextInt(20) };
+        }
+        Arrays.sort(intervalos, (a, b) -> Integer.compare(a[0], b[0]));
+        return intervalos;
+    }
+}
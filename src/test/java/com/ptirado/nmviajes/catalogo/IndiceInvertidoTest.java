@@ -0,0 +1,69 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.ptirado.nmviajes.util.TextoUtils;
+
+class IndiceInvertidoTest {
+
+    @Test
+    void buscar_fragmentoDelMedio_coincideComoLike() {
+        IndiceInvertido indice = new IndiceInvertido();
+        agregar(indice, 1, "Aventura en Machu Picchu");
+        agregar(indice, 2, "Playas de Mancora");
+
+        assertThat(ids(indice, "picchu")).containsExactly(1);
+        assertThat(ids(indice, "icch")).containsExactly(1);
+        assertThat(ids(indice, "ncora")).containsExactly(2);
+    }
+
+    @Test
+    void buscar_exactaAntesQuePrefijoYSubcadena() {
+        IndiceInvertido indice = new IndiceInvertido();
+        agregar(indice, 1, "Colima");
+        agregar(indice, 2, "Limeno");
+        agregar(indice, 3, "Lima");
+
+        assertThat(ids(indice, "lima")).containsExactly(3, 1);
+        assertThat(ids(indice, "lim")).containsExactly(2, 3, 1);
+    }
+
+    @Test
+    void buscar_tokenCorto_noDescartaTerminos() {
+        IndiceInvertido indice = new IndiceInvertido();
+        // Mas terminos con el mismo prefijo que el antiguo limite de expansion (64)
+        for (int i = 0; i < 200; i++) {
+            agregar(indice, i, "paquete ca" + (char) ('a' + i / 26) + (char) ('a' + i % 26));
+        }
+
+        assertThat(ids(indice, "ca")).hasSize(200);
+    }
+
+    @Test
+    void buscar_todosLosTokens_intersecta() {
+        IndiceInvertido indice = new IndiceInvertido();
+        agregar(indice, 1, "Cusco y Valle Sagrado");
+        agregar(indice, 2, "Cusco clasico");
+
+        assertThat(ids(indice, "cusco valle")).containsExactly(1);
+        assertThat(ids(indice, "cusco lima")).isEmpty();
+    }
+
+    private static void agregar(IndiceInvertido indice, int id, String texto) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        TextoUtils.tokenizar(texto).forEach(t -> frecuencias.merge(t, 1, Integer::sum));
+        indice.agregar(id, frecuencias);
+    }
+
+    private static List<Integer> ids(IndiceInvertido indice, String consulta) {
+        return indice.buscar(TextoUtils.tokenizar(consulta)).stream()
+                .map(IndiceInvertido.Resultado::id)
+                .toList();
+    }
+}
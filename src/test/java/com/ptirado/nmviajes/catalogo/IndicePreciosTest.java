@@ -0,0 +1,88 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.ptirado.nmviajes.constants.AppConstants;
+import com.ptirado.nmviajes.entity.Paquete;
+
+class IndicePreciosTest {
+
+    private static final int IDS = 500;
+    private static final int OPERACIONES = 20_000;
+
+    @Test
+    void actualizacionesIncrementales_coincidenConRecorrerTodos() {
+        // Las altas, cambios y bajas no consultan el repositorio
+        IndicePrecios indice = new IndicePrecios(null);
+        Map<Integer, BigDecimal> referencia = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int paso = 0; paso < OPERACIONES; paso++) {
+            int id = 1 + random.nextInt(IDS);
+            if (random.nextInt(4) == 0) {
+                indice.eliminar(id);
+                referencia.remove(id);
+            } else {
+                // Pocos precios distintos para forzar empates resueltos por ID
+                BigDecimal precio = BigDecimal.valueOf(random.nextInt(200) * 25L, 1);
+                boolean activo = random.nextInt(10) > 0;
+                indice.actualizar(paquete(id, precio, activo));
+                if (activo) {
+                    referencia.put(id, precio);
+                } else {
+                    referencia.remove(id);
+                }
+            }
+
+            if (paso % 200 == 0) {
+                BigDecimal minimo = BigDecimal.valueOf(random.nextInt(5_000), 1);
+                BigDecimal maximo = minimo.add(BigDecimal.valueOf(random.nextInt(2_000), 1));
+                assertThat(indice.idsEnRango(minimo, maximo)).isEqualTo(enRango(referencia, minimo, maximo));
+                assertThat(indice.idsEnRango(null, maximo)).isEqualTo(enRango(referencia, null, maximo));
+                assertThat(indice.idsEnRango(minimo, null)).isEqualTo(enRango(referencia, minimo, null));
+                int[] todos = enRango(referencia, null, null);
+                assertThat(indice.masBaratos(10)).isEqualTo(Arrays.copyOf(todos, Math.min(10, todos.length)));
+            }
+        }
+        assertThat(indice.size()).isEqualTo(referencia.size());
+    }
+
+    @Test
+    void idsEnRango_limitesIncluidos() {
+        IndicePrecios indice = new IndicePrecios(null);
+        indice.actualizar(paquete(1, new BigDecimal("1000.00"), true));
+        indice.actualizar(paquete(2, new BigDecimal("999.99"), true));
+        indice.actualizar(paquete(3, new BigDecimal("2000"), true));
+
+        assertThat(indice.idsEnRango(new BigDecimal("1000"), new BigDecimal("2000.00"))).containsExactly(1, 3);
+        assertThat(indice.idsEnRango(new BigDecimal("1000.01"), new BigDecimal("1999.99"))).isEmpty();
+        assertThat(indice.masBaratos(2)).containsExactly(2, 1);
+    }
+
+    private static int[] enRango(Map<Integer, BigDecimal> referencia, BigDecimal minimo, BigDecimal maximo) {
+        return referencia.entrySet().stream()
+                .filter(e -> minimo == null || e.getValue().compareTo(minimo) >= 0)
+                .filter(e -> maximo == null || e.getValue().compareTo(maximo) <= 0)
+                .sorted(Map.Entry.<Integer, BigDecimal>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+
+    private static Paquete paquete(int id, BigDecimal precio, boolean activo) {
+        Paquete paquete = new Paquete();
+        paquete.setIdPaquete(id);
+        paquete.setPrecio(precio);
+        paquete.setEstado(activo ? AppConstants.STATUS_ACTIVO : AppConstants.STATUS_INACTIVO);
+        return paquete;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ptirado.nmviajes.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TriePrefijosTest {
+
+    private static final String[] PREFIJOS = { "", "a", "ab", "abc", "ca", "b" };
+
+    @Test
+    void mejores_coincideConRecorrerTodasLasClaves() {
+        TriePrefijos<String> trie = new TriePrefijos<>();
+        Map<String, Map<String, Long>> referencia = new HashMap<>();
+        Random random = new Random(1);
+
+        // Alfabeto de tres letras: muchas claves comparten tramos y obligan a partir nodos
+        String[] claves = new String[2_000];
+        for (int i = 0; i < claves.length; i++) {
+            StringBuilder clave = new StringBuilder();
+            int largo = 1 + random.nextInt(6);
+            for (int j = 0; j < largo; j++) clave.append((char) ('a' + random.nextInt(3)));
+            claves[i] = clave.toString();
+        }
+
+        for (int paso = 0; paso < 20_000; paso++) {
+            String clave = claves[random.nextInt(claves.length)];
+            String valor = "v" + random.nextInt(50);
+            if (random.nextInt(3) == 0) {
+                trie.eliminar(clave, valor);
+                Map<String, Long> valores = referencia.get(clave);
+                if (valores != null) {
+                    valores.remove(valor);
+                    if (valores.isEmpty()) referencia.remove(clave);
+                }
+            } else {
+                long peso = random.nextInt(1_000);
+                trie.agregar(clave, valor, peso);
+                referencia.computeIfAbsent(clave, c -> new HashMap<>()).put(valor, peso);
+            }
+
+            if (paso % 100 == 0) {
+                for (String prefijo : PREFIJOS) {
+                    assertThat(pesos(trie.mejores(prefijo, 5), referencia, prefijo))
+                            .as("prefijo '%s' en el paso %d", prefijo, paso)
+                            .isEqualTo(mejoresPesos(referencia, prefijo, 5));
+                }
+            }
+        }
+        assertThat(trie.totalClaves()).isEqualTo(referencia.size());
+    }
+
+    @Test
+    void mejores_valorBajoVariasClaves_apareceUnaVez() {
+        TriePrefijos<String> trie = new TriePrefijos<>();
+        trie.agregar("machu picchu", "Machu Picchu", 10);
+        trie.agregar("picchu", "Machu Picchu", 10);
+        trie.agregar("mancora", "Mancora", 5);
+
+        assertThat(trie.mejores("ma", 5)).containsExactly("Machu Picchu", "Mancora");
+        assertThat(trie.mejores("pi", 5)).containsExactly("Machu Picchu");
+        assertThat(trie.mejores("x", 5)).isEmpty();
+    }
+
+    // Peso maximo de cada valor devuelto entre las claves con el prefijo
+    private static List<Long> pesos(List<String> valores, Map<String, Map<String, Long>> referencia, String prefijo) {
+        Map<String, Long> maximos = maximosPorValor(referencia, prefijo);
+        List<Long> pesos = new ArrayList<>();
+        for (String valor : valores) pesos.add(maximos.get(valor));
+        return pesos;
+    }
+
+    private static List<Long> mejoresPesos(Map<String, Map<String, Long>> referencia, String prefijo, int limite) {
+        return maximosPorValor(referencia, prefijo).values().stream()
+                .sorted(Comparator.reverseOrder())
+                .limit(limite)
+                .toList();
+    }
+
+    private static Map<String, Long> maximosPorValor(Map<String, Map<String, Long>> referencia, String prefijo) {
+        Map<String, Long> maximos = new HashMap<>();
+        referencia.forEach((clave, valores) -> {
+            if (clave.startsWith(prefijo)) valores.forEach((valor, peso) -> maximos.merge(valor, peso, Math::max));
+        });
+        return maximos;
+    }
+}
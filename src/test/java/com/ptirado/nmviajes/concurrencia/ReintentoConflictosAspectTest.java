@@ -0,0 +1,90 @@
+package com.ptirado.nmviajes.concurrencia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReintentoConflictosAspectTest {
+
+    private final ReintentoConflictosAspect aspecto = new ReintentoConflictosAspect();
+    private Servicio servicio;
+
+    @BeforeEach
+    void crearProxy() {
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(new Servicio());
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAspect(aspecto);
+        servicio = fabrica.getProxy();
+    }
+
+    @Test
+    void reintentar_conflictosDentroDelLimite_seRecupera() {
+        for (int conflictos = 0; conflictos < 3; conflictos++) {
+            servicio.reiniciar(conflictos);
+
+            assertThat(servicio.operar()).isEqualTo("ok");
+            assertThat(servicio.llamadas()).isEqualTo(conflictos + 1);
+        }
+
+        assertThat(aspecto.totales()).isEqualTo(new EstadisticasReintentos("total", 3, 2, 0));
+    }
+
+    @Test
+    void reintentar_conflictosSobreElLimite_relanzaTrasTresIntentos() {
+        for (int conflictos : new int[] { 3, 5 }) {
+            servicio.reiniciar(conflictos);
+
+            assertThatThrownBy(servicio::operar).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+            assertThat(servicio.llamadas()).isEqualTo(3);
+        }
+
+        assertThat(aspecto.estadisticas()).containsExactly(
+                new EstadisticasReintentos("Servicio.operar", 4, 0, 2));
+    }
+
+    @Test
+    void reintentar_dentroDeUnaTransaccion_noReintenta() {
+        servicio.reiniciar(1);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(servicio::operar).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(servicio.llamadas()).isEqualTo(1);
+        assertThat(aspecto.estadisticas()).isEmpty();
+    }
+
+    // Falla con conflicto las primeras llamadas
+    static class Servicio {
+
+        private final AtomicInteger llamadas = new AtomicInteger();
+        private int conflictos;
+
+        public void reiniciar(int conflictos) {
+            this.conflictos = conflictos;
+            llamadas.set(0);
+        }
+
+        public int llamadas() {
+            return llamadas.get();
+        }
+
+        @ReintentarConflicto
+        public String operar() {
+            if (llamadas.incrementAndGet() <= conflictos) {
+                throw new ObjectOptimisticLockingFailureException("Reserva", 1);
+            }
+            return "ok";
+        }
+    }
+}
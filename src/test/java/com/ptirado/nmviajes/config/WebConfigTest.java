@@ -0,0 +1,73 @@
+package com.ptirado.nmviajes.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import com.ptirado.nmviajes.catalogo.EtagCatalogoInterceptor;
+
+/**
+ * El ETag del catalogo solo se aplica a las lecturas publicas del catalogo.
+ */
+class WebConfigTest {
+
+    private final EtagCatalogoInterceptor interceptor = new EtagCatalogoInterceptor(null);
+    private final MappedInterceptor mapeado = registrar();
+
+    @Test
+    void rutas_lecturasDelCatalogo_llevanEtag() {
+        assertThat(aplica("/api/v1/paquetes")).isTrue();
+        assertThat(aplica("/api/v1/paquetes/pagina")).isTrue();
+        assertThat(aplica("/api/v1/paquetes/12")).isTrue();
+        assertThat(aplica("/api/v1/paquetes/destino/3")).isTrue();
+        assertThat(aplica("/api/v1/destinos/3")).isTrue();
+        assertThat(aplica("/api/v1/servicios/activos")).isTrue();
+        assertThat(aplica("/api/v1/busqueda")).isTrue();
+        assertThat(aplica("/api/v1/sugerencias")).isTrue();
+    }
+
+    @Test
+    void rutas_streamsYDemasApis_noLlevanEtag() {
+        assertThat(aplica("/api/v1/paquetes/stream")).isFalse();
+        assertThat(aplica("/api/v1/destinos/stream")).isFalse();
+        assertThat(aplica("/api/v1/reservas")).isFalse();
+        assertThat(aplica("/api/v1/carrito/items")).isFalse();
+        assertThat(aplica("/api/v1/admin/paquetes/3/stock")).isFalse();
+    }
+
+    @Test
+    void preHandle_escritura_pasaSinCabeceras() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("PUT", "/api/v1/paquetes/12"), response, null))
+                .isTrue();
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isNull();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    private boolean aplica(String ruta) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ruta);
+        ServletRequestPathUtils.parseAndCache(request);
+        return mapeado.matches(request);
+    }
+
+    private MappedInterceptor registrar() {
+        Registro registro = new Registro();
+        new WebConfig(interceptor).addInterceptors(registro);
+        return (MappedInterceptor) registro.interceptores();
+    }
+
+    // Expone el unico interceptor registrado, ya con sus rutas
+    private static class Registro extends InterceptorRegistry {
+
+        Object interceptores() {
+            return getInterceptors().get(0);
+        }
+    }
+}
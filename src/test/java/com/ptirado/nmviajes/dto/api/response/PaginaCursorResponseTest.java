@@ -0,0 +1,134 @@
+package com.ptirado.nmviajes.dto.api.response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.ptirado.nmviajes.util.CursorUtils;
+import com.ptirado.nmviajes.util.CursorUtils.ClaveFecha;
+
+/**
+ * Recorrido por cursor sobre una lista en memoria que filtra y ordena como
+ * ReservaRepository.findIdsPaginaSiguiente / findIdsPaginaAnterior.
+ */
+class PaginaCursorResponseTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 17, 9, 0);
+    private static final int LIMITE = 2;
+
+    // Varias reservas con la misma fecha de creacion: solo el ID las desempata
+    private final List<Fila> reservas = List.of(
+            new Fila(1, T0), new Fila(2, T0.plusMinutes(5)), new Fila(3, T0.plusMinutes(5)),
+            new Fila(4, T0.plusMinutes(5)), new Fila(5, T0.plusMinutes(5)), new Fila(6, T0.plusMinutes(9)),
+            new Fila(7, T0));
+
+    // fechaCreacion DESC, idReserva DESC
+    private static final Comparator<Fila> RECIENTES = Comparator.comparing(Fila::fecha)
+            .thenComparing(Fila::id).reversed();
+
+    @Test
+    void desde_primeraPagina_sinCursorAnterior() {
+        PaginaCursorResponse<Integer> pagina = pagina(null, null);
+
+        assertThat(pagina.getItems()).containsExactly(6, 5);
+        assertThat(pagina.getCursorAnterior()).isNull();
+        assertThat(pagina.getCursorSiguiente()).isEqualTo(CursorUtils.codificar(T0.plusMinutes(5), 5));
+        assertThat(pagina.getLimite()).isEqualTo(LIMITE);
+    }
+
+    @Test
+    void desde_haciaAdelante_recorreTodoSinRepetirNiSaltarEmpates() {
+        List<List<Integer>> paginas = recorrerHaciaAdelante();
+
+        assertThat(paginas).containsExactly(List.of(6, 5), List.of(4, 3), List.of(2, 7), List.of(1));
+    }
+
+    @Test
+    void desde_ultimaPagina_sinCursorSiguiente() {
+        PaginaCursorResponse<Integer> penultima = pagina(CursorUtils.codificar(T0.plusMinutes(5), 3), null);
+        PaginaCursorResponse<Integer> ultima = pagina(penultima.getCursorSiguiente(), null);
+
+        assertThat(penultima.getItems()).containsExactly(2, 7);
+        assertThat(ultima.getItems()).containsExactly(1);
+        assertThat(ultima.getCursorSiguiente()).isNull();
+        assertThat(ultima.getCursorAnterior()).isEqualTo(CursorUtils.codificar(T0, 1));
+    }
+
+    @Test
+    void desde_paginaExacta_laFilaExtraDecideSiHayMas() {
+        // Cuatro filas desde el cursor: dos paginas llenas y la segunda ya no tiene siguiente
+        PaginaCursorResponse<Integer> pagina = pagina(CursorUtils.codificar(T0.plusMinutes(5), 3), null);
+        PaginaCursorResponse<Integer> ultima = pagina(CursorUtils.codificar(T0.plusMinutes(5), 4), null);
+
+        assertThat(pagina.getCursorSiguiente()).isNotNull();
+        assertThat(ultima.getItems()).containsExactly(3, 2);
+        assertThat(ultima.getCursorSiguiente()).isNotNull();
+        assertThat(pagina(ultima.getCursorSiguiente(), null).getItems()).containsExactly(7, 1);
+        assertThat(pagina(ultima.getCursorSiguiente(), null).getCursorSiguiente()).isNull();
+    }
+
+    @Test
+    void desde_haciaAtras_invierteLasFilasYVuelveALaPrimera() {
+        List<List<Integer>> adelante = recorrerHaciaAdelante();
+
+        // Desde la ultima pagina, con los cursores anteriores
+        List<List<Integer>> atras = new ArrayList<>();
+        PaginaCursorResponse<Integer> pagina = pagina(null, CursorUtils.codificar(T0, 1));
+        atras.add(pagina.getItems());
+        while (pagina.getCursorAnterior() != null) {
+            pagina = pagina(null, pagina.getCursorAnterior());
+            atras.add(pagina.getItems());
+        }
+        Collections.reverse(atras);
+
+        // Misma particion salvo la ultima pagina, que aqui es el propio cursor de partida
+        assertThat(atras).containsExactlyElementsOf(adelante.subList(0, adelante.size() - 1));
+        // La pagina anterior siempre tiene siguiente: se llego a ella desde una posterior
+        assertThat(pagina.getCursorSiguiente()).isEqualTo(CursorUtils.codificar(T0.plusMinutes(5), 5));
+        assertThat(pagina.getCursorAnterior()).isNull();
+    }
+
+    private List<List<Integer>> recorrerHaciaAdelante() {
+        List<List<Integer>> paginas = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCursorResponse<Integer> pagina = pagina(cursor, null);
+            paginas.add(pagina.getItems());
+            cursor = pagina.getCursorSiguiente();
+        } while (cursor != null);
+        return paginas;
+    }
+
+    // Mismo flujo que ReservaServiceImpl.leerPagina
+    private PaginaCursorResponse<Integer> pagina(String despues, String antes) {
+        boolean haciaAtras = antes != null;
+        ClaveFecha cursor = CursorUtils.decodificarFechaId(haciaAtras ? antes : despues);
+        return PaginaCursorResponse.desde(consultar(cursor, haciaAtras, LIMITE + 1), LIMITE, haciaAtras,
+                cursor != null, f -> CursorUtils.codificar(f.fecha(), f.id()), Fila::id);
+    }
+
+    private List<Fila> consultar(ClaveFecha cursor, boolean haciaAtras, int filas) {
+        Predicate<Fila> despuesDelCursor = cursor == null
+                ? f -> true
+                : haciaAtras
+                        ? f -> f.fecha().isAfter(cursor.fecha())
+                                || (f.fecha().equals(cursor.fecha()) && f.id() > cursor.id())
+                        : f -> f.fecha().isBefore(cursor.fecha())
+                                || (f.fecha().equals(cursor.fecha()) && f.id() < cursor.id());
+        return reservas.stream()
+                .filter(despuesDelCursor)
+                .sorted(haciaAtras && cursor != null ? RECIENTES.reversed() : RECIENTES)
+                .limit(filas)
+                .toList();
+    }
+
+    private record Fila(int id, LocalDateTime fecha) {
+    }
+}
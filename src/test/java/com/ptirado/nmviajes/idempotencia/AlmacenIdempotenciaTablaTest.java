@@ -0,0 +1,169 @@
+package com.ptirado.nmviajes.idempotencia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.entity.IdempotenciaRespuesta;
+import com.ptirado.nmviajes.repository.IdempotenciaRespuestaRepository;
+
+/**
+ * Almacen en la tabla {@code idempotencia_respuesta}. El bean solo existe con
+ * {@code idempotencia.almacen=tabla}, asi que se construye aqui y cada llamada
+ * corre en su propia transaccion, como con su {@code REQUIRES_NEW}.
+ */
+class AlmacenIdempotenciaTablaTest extends PruebaIntegracionMySql {
+
+    private static final String PREFIJO = "prueba-tabla:";
+
+    @Autowired
+    private IdempotenciaRespuestaRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private AlmacenIdempotenciaTabla almacen;
+
+    @BeforeEach
+    void crear() {
+        almacen = new AlmacenIdempotenciaTabla(repository);
+        limpiar();
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx ->
+                jdbcTemplate.update("DELETE FROM idempotencia_respuesta WHERE clave LIKE ?", PREFIJO + "%"));
+    }
+
+    @Test
+    void reservar_claveEnCurso_devuelveElRegistroVigente() {
+        String clave = PREFIJO + "en-curso";
+
+        assertThat(enTransaccion(() -> almacen.reservar(clave, "h1", manana()))).isNull();
+        RegistroIdempotencia vigente = enTransaccion(() -> almacen.reservar(clave, "h1", manana()));
+
+        assertThat(vigente).isNotNull();
+        assertThat(vigente.huella()).isEqualTo("h1");
+        assertThat(vigente.completada()).isFalse();
+    }
+
+    @Test
+    void reservar_claveCompletada_devuelveLaRespuestaGuardada() {
+        String clave = PREFIJO + "completada";
+        enTransaccion(() -> almacen.reservar(clave, "h1", manana()));
+        enTransaccion(() -> {
+            almacen.completar(clave, 201, "{\"idReserva\":7}", manana());
+            return null;
+        });
+
+        RegistroIdempotencia vigente = enTransaccion(() -> almacen.reservar(clave, "h2", manana()));
+
+        assertThat(vigente.completada()).isTrue();
+        assertThat(vigente.huella()).isEqualTo("h1");
+        assertThat(vigente.codigoHttp()).isEqualTo(201);
+        assertThat(vigente.cuerpo()).isEqualTo("{\"idReserva\":7}");
+    }
+
+    @Test
+    void liberar_soloQuitaLasClavesEnCurso() {
+        String enCurso = PREFIJO + "liberar-en-curso";
+        String completada = PREFIJO + "liberar-completada";
+        enTransaccion(() -> almacen.reservar(enCurso, "h1", manana()));
+        enTransaccion(() -> almacen.reservar(completada, "h1", manana()));
+        enTransaccion(() -> {
+            almacen.completar(completada, 200, null, manana());
+            almacen.liberar(enCurso);
+            almacen.liberar(completada);
+            return null;
+        });
+
+        assertThat(repository.existsById(enCurso)).isFalse();
+        assertThat(repository.existsById(completada)).isTrue();
+        // La clave liberada se puede reservar de nuevo
+        assertThat(enTransaccion(() -> almacen.reservar(enCurso, "h1", manana()))).isNull();
+    }
+
+    @Test
+    void completar_guardaElTtlYQuitaLaReserva() {
+        String clave = PREFIJO + "ttl";
+        LocalDateTime expira = manana().withNano(0);
+        enTransaccion(() -> almacen.reservar(clave, "h1", enDosMinutos()));
+        enTransaccion(() -> {
+            almacen.completar(clave, 201, "{}", expira);
+            return null;
+        });
+
+        IdempotenciaRespuesta fila = repository.findById(clave).orElseThrow();
+        assertThat(fila.getReservadoHasta()).isNull();
+        assertThat(fila.getFechaExpiracion()).isEqualTo(expira);
+        assertThat(enTransaccion(() -> almacen.reservar(clave, "h1", enDosMinutos())).expira()).isEqualTo(expira);
+    }
+
+    @Test
+    void reservar_enCursoConReservaVencida_laToma() {
+        String clave = PREFIJO + "abandonada";
+        // La solicitud original no completo ni libero (el nodo cayo)
+        enTransaccion(() -> almacen.reservar(clave, "h1", LocalDateTime.now().minusSeconds(1)));
+
+        assertThat(enTransaccion(() -> almacen.reservar(clave, "h2", enDosMinutos()))).isNull();
+
+        RegistroIdempotencia vigente = enTransaccion(() -> almacen.reservar(clave, "h3", enDosMinutos()));
+        assertThat(vigente.huella()).isEqualTo("h2");
+        assertThat(vigente.completada()).isFalse();
+    }
+
+    @Test
+    void reservar_claveVencida_laReemplaza() {
+        String clave = PREFIJO + "vencida";
+        enTransaccion(() -> almacen.reservar(clave, "h1", enDosMinutos()));
+        enTransaccion(() -> {
+            almacen.completar(clave, 201, "{}", LocalDateTime.now().minusMinutes(1));
+            return null;
+        });
+
+        assertThat(enTransaccion(() -> almacen.reservar(clave, "h2", manana()))).isNull();
+
+        RegistroIdempotencia vigente = enTransaccion(() -> almacen.reservar(clave, "h2", manana()));
+        assertThat(vigente.huella()).isEqualTo("h2");
+        assertThat(vigente.completada()).isFalse();
+        assertThat(vigente.cuerpo()).isNull();
+    }
+
+    @Test
+    void purgarVencidas_eliminaSoloLasVencidas() {
+        String vencida = PREFIJO + "purga-vencida";
+        String vigente = PREFIJO + "purga-vigente";
+        enTransaccion(() -> almacen.reservar(vencida, "h1", LocalDateTime.now().minusMinutes(1)));
+        enTransaccion(() -> almacen.reservar(vigente, "h1", manana()));
+
+        assertThat(enTransaccion(() -> almacen.purgarVencidas(LocalDateTime.now()))).isGreaterThanOrEqualTo(1);
+
+        assertThat(repository.existsById(vencida)).isFalse();
+        assertThat(repository.existsById(vigente)).isTrue();
+    }
+
+    private <T> T enTransaccion(Supplier<T> operacion) {
+        return transactionTemplate.execute(tx -> operacion.get());
+    }
+
+    private static LocalDateTime manana() {
+        return LocalDateTime.now().plusDays(1);
+    }
+
+    private static LocalDateTime enDosMinutos() {
+        return LocalDateTime.now().plusMinutes(2);
+    }
+}
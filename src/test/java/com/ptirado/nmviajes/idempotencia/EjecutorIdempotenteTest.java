@@ -0,0 +1,196 @@
+package com.ptirado.nmviajes.idempotencia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+import com.ptirado.nmviajes.exception.api.ConflictException;
+
+class EjecutorIdempotenteTest {
+
+    private static final Map<String, Integer> SOLICITUD = Map.of("idPaquete", 7);
+
+    private final AlmacenIdempotenciaMemoria almacen = new AlmacenIdempotenciaMemoria();
+    private final EjecutorIdempotente ejecutor = new EjecutorIdempotente(almacen, new ObjectMapper());
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+    private final ExecutorService hilos = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(ejecutor, "ttlMinutos", 1440L);
+        ReflectionTestUtils.setField(ejecutor, "reservaSegundos", 120L);
+    }
+
+    @AfterEach
+    void cerrar() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void ejecutar_mismaClaveYCuerpo_ejecutaUnaVezYRepiteLaRespuesta() {
+        ResponseEntity<Map> primera = reservar("k1", 5, SOLICITUD);
+        ResponseEntity<Map> segunda = reservar("k1", 5, SOLICITUD);
+        ResponseEntity<Map> tercera = reservar("k1", 5, SOLICITUD);
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(primera.getHeaders().containsKey(EjecutorIdempotente.CABECERA_REPETIDA)).isFalse();
+        for (ResponseEntity<Map> repetida : new ResponseEntity[] { segunda, tercera }) {
+            assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(repetida.getBody()).isEqualTo(Map.of("idReserva", 1));
+            assertThat(repetida.getHeaders().getFirst(EjecutorIdempotente.CABECERA_REPETIDA)).isEqualTo("true");
+        }
+    }
+
+    @Test
+    void ejecutar_mismaClaveOtroCuerpo_rechaza() {
+        reservar("k1", 5, SOLICITUD);
+
+        assertThatThrownBy(() -> reservar("k1", 5, Map.of("idPaquete", 8)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage(MessageKeys.IDEMPOTENCIA_CLAVE_REUTILIZADA);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    void ejecutar_mismaClaveOtroUsuarioUOperacion_ejecutaDeNuevo() {
+        reservar("k1", 5, SOLICITUD);
+        reservar("k1", 6, SOLICITUD);
+        ejecutor.ejecutar("k1", "checkout", 5, SOLICITUD, Void.class, this::contar);
+
+        assertThat(ejecuciones).hasValue(3);
+    }
+
+    @Test
+    void ejecutar_sinClave_ejecutaSiempre() {
+        reservar(null, 5, SOLICITUD);
+        reservar(" ", 5, SOLICITUD);
+
+        assertThat(ejecuciones).hasValue(2);
+    }
+
+    @Test
+    void ejecutar_operacionFalla_liberaLaClave() {
+        assertThatThrownBy(() -> ejecutor.ejecutar("k2", "checkout", 5, null, Void.class, () -> {
+            throw new IllegalStateException("sin stock");
+        })).isInstanceOf(IllegalStateException.class);
+
+        ResponseEntity<Void> reintento = ejecutor.ejecutar("k2", "checkout", 5, null, Void.class, this::contar);
+        ResponseEntity<Void> repetida = ejecutor.ejecutar("k2", "checkout", 5, null, Void.class, this::contar);
+
+        assertThat(reintento.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(repetida.getHeaders().getFirst(EjecutorIdempotente.CABECERA_REPETIDA)).isEqualTo("true");
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    void ejecutar_claveEnCurso_respondeConflicto() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+        Future<ResponseEntity<Void>> primera = hilos.submit(() -> ejecutor.ejecutar("k3", "checkout", 5, null,
+                Void.class, () -> {
+                    dentro.countDown();
+                    esperar(salir);
+                    return contar();
+                }));
+        assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> ejecutor.ejecutar("k3", "checkout", 5, null, Void.class, this::contar))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage(MessageKeys.IDEMPOTENCIA_EN_CURSO);
+
+        salir.countDown();
+        assertThat(primera.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    void ejecutar_claveEnCursoConReservaVencida_otraSolicitudLaToma() throws Exception {
+        // Reserva ya vencida al tomarla: como una solicitud cuyo nodo cayo sin completar ni liberar
+        ReflectionTestUtils.setField(ejecutor, "reservaSegundos", 0L);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+        hilos.submit(() -> ejecutor.ejecutar("k4", "checkout", 5, null, Void.class, () -> {
+            dentro.countDown();
+            esperar(salir);
+            throw new IllegalStateException("nodo caido");
+        }));
+        assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            ReflectionTestUtils.setField(ejecutor, "reservaSegundos", 120L);
+            ResponseEntity<Void> reintento = ejecutor.ejecutar("k4", "checkout", 5, null, Void.class, this::contar);
+            ResponseEntity<Void> repetida = ejecutor.ejecutar("k4", "checkout", 5, null, Void.class, this::contar);
+
+            assertThat(reintento.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(repetida.getHeaders().getFirst(EjecutorIdempotente.CABECERA_REPETIDA)).isEqualTo("true");
+            assertThat(ejecuciones).hasValue(1);
+        } finally {
+            salir.countDown();
+        }
+    }
+
+    @Test
+    void ejecutar_completada_guardaLaRespuestaPorTodoElTtl() {
+        reservar("k5", 5, SOLICITUD);
+
+        // La reserva en curso duraba dos minutos; la respuesta dura el TTL
+        assertThat(almacen.purgarVencidas(LocalDateTime.now().plusMinutes(10))).isZero();
+        reservar("k5", 5, SOLICITUD);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    void ejecutar_claveDemasiadoLarga_rechaza() {
+        assertThatThrownBy(() -> reservar("x".repeat(101), 5, SOLICITUD))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage(MessageKeys.IDEMPOTENCIA_CLAVE_INVALIDA);
+    }
+
+    @Test
+    void purgar_eliminaLasVencidasYLaClaveSePuedeReusar() {
+        reservar("k1", 5, SOLICITUD);
+
+        assertThat(almacen.purgarVencidas(LocalDateTime.now())).isZero();
+        assertThat(almacen.purgarVencidas(LocalDateTime.now().plusDays(2))).isEqualTo(1);
+
+        reservar("k1", 5, SOLICITUD);
+        assertThat(ejecuciones).hasValue(2);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private ResponseEntity<Map> reservar(String clave, Integer idUsuario, Object solicitud) {
+        return ejecutor.ejecutar(clave, "reserva", idUsuario, solicitud, Map.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(Map.of("idReserva", ejecuciones.incrementAndGet())));
+    }
+
+    private <T> ResponseEntity<T> contar() {
+        ejecuciones.incrementAndGet();
+        return ResponseEntity.ok().build();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
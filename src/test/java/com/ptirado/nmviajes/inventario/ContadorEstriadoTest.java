@@ -0,0 +1,95 @@
+package com.ptirado.nmviajes.inventario;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.ptirado.nmviajes.inventario.ContadorEstriado.Resultado;
+
+class ContadorEstriadoTest {
+
+    private static final int STOCK = 200_000;
+    private static final int HILOS = 32;
+    private static final int FRANJAS = 8;
+
+    private final ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+
+    @AfterEach
+    void cerrar() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void tomar_hilosSimultaneos_entregaExactamenteElStock() throws Exception {
+        for (int ronda = 0; ronda < 5; ronda++) {
+            ContadorEstriado contador = new ContadorEstriado(STOCK, FRANJAS);
+            LongAdder entregados = new LongAdder();
+
+            List<Future<?>> tareas = new ArrayList<>(HILOS);
+            for (int h = 0; h < HILOS; h++) {
+                // Mezcla de pedidos de 1 y 3 cupos; la mitad de los de 3 devuelve uno de
+                // cada pedido (siempre se avanza: devolver todo podria repetirse sin fin)
+                int cantidad = h % 4 == 0 ? 3 : 1;
+                boolean devuelve = h % 8 == 0;
+                tareas.add(hilos.submit(() -> {
+                    int agotados = 0;
+                    while (agotados < 50) {
+                        if (contador.tomar(cantidad) != Resultado.TOMADO) {
+                            agotados++;
+                            continue;
+                        }
+                        entregados.add(cantidad);
+                        contador.terminarVuelo();
+                        if (devuelve) {
+                            contador.devolver(1);
+                            entregados.add(-1);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(1, TimeUnit.MINUTES);
+            }
+
+            assertThat(contador.disponible()).isGreaterThanOrEqualTo(0);
+            assertThat(entregados.sum() + contador.disponible()).isEqualTo(STOCK);
+            // Solo pueden sobrar cupos que no alcanzan para un pedido de 3
+            assertThat(contador.disponible()).isLessThan(3);
+        }
+    }
+
+    @Test
+    void tomar_saldoRepartidoEntreFranjas_juntaLosCupos() {
+        ContadorEstriado contador = new ContadorEstriado(10, FRANJAS);
+
+        assertThat(contador.franjas()).isEqualTo(FRANJAS);
+        assertThat(contador.tomar(11)).isEqualTo(Resultado.AGOTADO);
+        assertThat(contador.disponible()).isEqualTo(10);
+        assertThat(contador.tomar(10)).isEqualTo(Resultado.TOMADO);
+        assertThat(contador.disponible()).isZero();
+        assertThat(contador.tomar(1)).isEqualTo(Resultado.AGOTADO);
+    }
+
+    @Test
+    void cerrar_esperaLosVuelosYNoEntregaMas() throws Exception {
+        ContadorEstriado contador = new ContadorEstriado(10, FRANJAS);
+        assertThat(contador.tomar(2)).isEqualTo(Resultado.TOMADO);
+
+        contador.cerrar();
+
+        assertThat(contador.tomar(1)).isEqualTo(Resultado.CERRADO);
+        assertThat(contador.esperarVuelos(20)).isFalse();
+        contador.terminarVuelo();
+        assertThat(contador.esperarVuelos(20)).isTrue();
+        assertThat(contador.disponible()).isEqualTo(8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ptirado.nmviajes.inventario;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshot;
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshotHolder;
+import com.ptirado.nmviajes.catalogo.StockCambiadoEvent;
+import com.ptirado.nmviajes.entity.InventarioPendiente;
+import com.ptirado.nmviajes.repository.CatalogoLecturaRepository;
+import com.ptirado.nmviajes.repository.InventarioPendienteRepository;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+
+/**
+ * El volcado periodico de {@code inventario_pendiente} solo cambia stock: la
+ * foto del catalogo actualiza esos paquetes y no se reconstruye completa.
+ */
+class InventarioEnMemoriaTest {
+
+    private final List<InventarioPendiente> pendientes = new ArrayList<>();
+    private final Map<Integer, Integer> volcados = new TreeMap<>();
+    private final List<Object> eventos = new ArrayList<>();
+    private final AtomicInteger recargas = new AtomicInteger();
+
+    private final CatalogoSnapshotHolder foto = new CatalogoSnapshotHolder(catalogoLectura(), null) {
+        @Override
+        public synchronized void recargar() {
+            recargas.incrementAndGet();
+        }
+    };
+
+    // Entrega cada evento al oyente de la foto que le corresponde, como tras el commit
+    private final ApplicationEventPublisher publicador = evento -> {
+        eventos.add(evento);
+        if (evento instanceof CatalogoCambiadoEvent cambio) foto.onCatalogoCambiado(cambio);
+        if (evento instanceof StockCambiadoEvent stock) foto.onStockCambiado(stock);
+    };
+
+    private final InventarioEnMemoria inventario = new InventarioEnMemoria(
+            paqueteRepository(), pendienteRepository(), publicador, new TransactionTemplate(new Transacciones()));
+
+    @Test
+    void volcar_pendientes_soloActualizaElStockSinRecargarLaFoto() {
+        ReflectionTestUtils.setField(foto, "snapshot", new CatalogoSnapshot(List.of()));
+        pendientes.add(new InventarioPendiente(7, 1));
+        pendientes.add(new InventarioPendiente(3, 2));
+        pendientes.add(new InventarioPendiente(7, 4));
+
+        inventario.volcar();
+
+        assertThat(volcados).containsExactly(Map.entry(3, 2), Map.entry(7, 5));
+        assertThat(pendientes).isEmpty();
+        assertThat(eventos).containsExactly(new StockCambiadoEvent(List.of(3)), new StockCambiadoEvent(List.of(7)));
+        assertThat(recargas).hasValue(0);
+    }
+
+    @Test
+    void volcar_sinPendientes_noPublicaEventos() {
+        inventario.volcar();
+
+        assertThat(volcados).isEmpty();
+        assertThat(eventos).isEmpty();
+        assertThat(recargas).hasValue(0);
+    }
+
+    private PaqueteRepository paqueteRepository() {
+        return (PaqueteRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PaqueteRepository.class }, (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("volcarStock")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    volcados.merge((Integer) args[0], (Integer) args[1], Integer::sum);
+                    return 1;
+                });
+    }
+
+    private InventarioPendienteRepository pendienteRepository() {
+        return (InventarioPendienteRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { InventarioPendienteRepository.class }, (proxy, metodo, args) ->
+                        switch (metodo.getName()) {
+                            case "findAllByOrderByIdInventarioPendienteAsc" -> List.copyOf(pendientes);
+                            case "deleteAllInBatch" -> {
+                                pendientes.removeAll((List<?>) args[0]);
+                                yield null;
+                            }
+                            default -> throw new UnsupportedOperationException(metodo.getName());
+                        });
+    }
+
+    private static CatalogoLecturaRepository catalogoLectura() {
+        return (CatalogoLecturaRepository) Proxy.newProxyInstance(InventarioEnMemoriaTest.class.getClassLoader(),
+                new Class<?>[] { CatalogoLecturaRepository.class }, (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("findAllById")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    return List.of();
+                });
+    }
+
+    // Sin base de datos: solo delimita la transaccion del volcado
+    private static class Transacciones extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaccion, TransactionDefinition definicion) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus estado) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus estado) {
+        }
+    }
+}
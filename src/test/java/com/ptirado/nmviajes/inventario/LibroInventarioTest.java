@@ -0,0 +1,185 @@
+package com.ptirado.nmviajes.inventario;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.repository.InventarioMovimientoRepository;
+
+/**
+ * Horizonte de la compactacion con un libro en memoria: los movimientos solo
+ * se ven al confirmar su transaccion, con la fecha en que se insertaron. Si la
+ * compactacion cortara en "ahora", un movimiento insertado antes del corte y
+ * confirmado despues quedaria fuera del snapshot para siempre.
+ */
+class LibroInventarioTest {
+
+    private record Fila(int cantidad, LocalDateTime fecha) {
+    }
+
+    // Movimientos confirmados y los de la transaccion de cada hilo
+    private final List<Fila> confirmadas = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<Fila>> enTransaccion = ThreadLocal.withInitial(ArrayList::new);
+    private volatile LocalDateTime ultimaRegistrada;
+
+    // Snapshot del unico paquete
+    private long snapshot;
+    private LocalDateTime hasta = LocalDateTime.MIN;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new Transacciones());
+    private final LibroInventario libro = new LibroInventario(repositorio(), null, transactionTemplate);
+
+    @Test
+    void compactar_escrituraEnCurso_noPasaDeSuInicio() throws Exception {
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            hilo.submit(() -> transactionTemplate.executeWithoutResult(estado -> {
+                libro.registrarAjuste(1, 0, 5);
+                registrado.countDown();
+                esperar(confirmar);
+            }));
+            assertThat(registrado.await(5, TimeUnit.SECONDS)).isTrue();
+            LocalDateTime fechaMovimiento = ultimaRegistrada;
+
+            libro.compactar();
+            assertThat(libro.estadisticas().escriturasEnCurso()).isEqualTo(1);
+            assertThat(libro.estadisticas().ultimoHorizonte()).isBeforeOrEqualTo(fechaMovimiento);
+
+            confirmar.countDown();
+            hilo.shutdown();
+            assertThat(hilo.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            libro.compactar();
+
+            assertThat(snapshot).isEqualTo(5);
+            assertThat(libro.estadisticas().escriturasEnCurso()).isZero();
+            assertThat(libro.estadisticas().ultimoHorizonte()).isAfter(fechaMovimiento);
+        } finally {
+            confirmar.countDown();
+            hilo.shutdownNow();
+        }
+    }
+
+    @Test
+    void compactar_concurrenteConEscrituras_noPierdeMovimientos() throws Exception {
+        AtomicBoolean activo = new AtomicBoolean(true);
+        Thread compactador = new Thread(() -> {
+            while (activo.get()) libro.compactar();
+        });
+        compactador.start();
+
+        AtomicLong confirmados = new AtomicLong();
+        ExecutorService hilos = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 4_000; i++) {
+            hilos.submit(() -> {
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                boolean revertir = azar.nextInt(10) == 0;
+                try {
+                    transactionTemplate.executeWithoutResult(estado -> {
+                        libro.registrarAjuste(1, 0, 1);
+                        // Algunas transacciones siguen abiertas un rato despues de insertar
+                        if (azar.nextInt(4) == 0) LockSupport.parkNanos(azar.nextInt(200_000));
+                        if (revertir) throw new IllegalStateException("revertir");
+                    });
+                    confirmados.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    // Revertida: su movimiento no debe sumar
+                }
+            });
+        }
+        hilos.shutdown();
+        assertThat(hilos.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        activo.set(false);
+        compactador.join();
+
+        // La ultima fecha registrada puede coincidir con "ahora" al microsegundo
+        Thread.sleep(2);
+        libro.compactar();
+
+        assertThat(confirmados.get()).isPositive();
+        assertThat(snapshot).isEqualTo(confirmados.get());
+        assertThat(libro.estadisticas().escriturasEnCurso()).isZero();
+    }
+
+    private InventarioMovimientoRepository repositorio() {
+        return (InventarioMovimientoRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { InventarioMovimientoRepository.class }, (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "registrar" -> {
+                            ultimaRegistrada = (LocalDateTime) args[3];
+                            enTransaccion.get().add(new Fila((int) args[1], ultimaRegistrada));
+                            return 1;
+                        }
+                        case "compactar" -> {
+                            return compactar((LocalDateTime) args[0]);
+                        }
+                        default -> throw new UnsupportedOperationException(metodo.getName());
+                    }
+                });
+    }
+
+    // Misma regla que el INSERT ... SELECT: suma [hasta, horizonte) y mueve el corte
+    private synchronized int compactar(LocalDateTime horizonte) {
+        int sumadas = 0;
+        for (Fila fila : confirmadas) {
+            if (!fila.fecha().isBefore(hasta) && fila.fecha().isBefore(horizonte)) {
+                snapshot += fila.cantidad();
+                sumadas++;
+            }
+        }
+        if (horizonte.isAfter(hasta)) hasta = horizonte;
+        return sumadas;
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Las filas de una transaccion se ven recien al confirmar
+    private class Transacciones extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaccion, TransactionDefinition definicion) {
+            enTransaccion.get().clear();
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus estado) {
+            confirmadas.addAll(enTransaccion.get());
+            enTransaccion.get().clear();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus estado) {
+            enTransaccion.get().clear();
+        }
+    }
+}
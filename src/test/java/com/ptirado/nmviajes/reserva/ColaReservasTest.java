@@ -0,0 +1,186 @@
+package com.ptirado.nmviajes.reserva;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
+import com.ptirado.nmviajes.dto.api.response.ReservaResponse;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.reserva.ColaReservas.EstadoTicket;
+import com.ptirado.nmviajes.service.ReservaService;
+import com.ptirado.nmviajes.service.ReservaService.ResultadoLote;
+import com.ptirado.nmviajes.util.MessageUtils;
+
+/**
+ * Cola de reservas asincronas con un servicio de reservas falso: el paquete
+ * {@link #SIN_STOCK} no tiene cupos y {@link #FALLA} hace fallar el lote completo.
+ */
+class ColaReservasTest {
+
+    private static final int SIN_STOCK = 13;
+    private static final int FALLA = 99;
+    private static final int PROPIETARIO = 1;
+
+    private final AtomicInteger lotes = new AtomicInteger();
+    private final AtomicInteger solas = new AtomicInteger();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final CountDownLatch liberarPrimerLote = new CountDownLatch(1);
+
+    private ColaReservas cola;
+
+    @AfterEach
+    void detener() {
+        liberarPrimerLote.countDown();
+        cola.detener();
+    }
+
+    @Test
+    void lote_reservaSinStock_noRevierteALasDemas() throws Exception {
+        cola = iniciar();
+        // El primer lote retiene al trabajador mientras se encolan las demas, que salen juntas
+        List<String> tickets = encolar(1, 1, SIN_STOCK, 1, SIN_STOCK, 1);
+        liberarPrimerLote.countDown();
+        esperarResueltas(tickets.size());
+
+        assertThat(estados(tickets)).containsExactly(EstadoTicket.CONFIRMADA, EstadoTicket.CONFIRMADA,
+                EstadoTicket.RECHAZADA, EstadoTicket.CONFIRMADA, EstadoTicket.RECHAZADA, EstadoTicket.CONFIRMADA);
+        assertThat(cola.consultar(tickets.get(2), PROPIETARIO, false).getMensaje())
+                .isEqualTo(MessageKeys.STOCK_INSUFICIENTE);
+        assertThat(cola.estadisticas().lotesDivididos()).isZero();
+        assertThat(cola.estadisticas().loteMayor()).isEqualTo(5);
+        assertThat(lotes).hasValue(2);
+        assertThat(solas).hasValue(0);
+    }
+
+    @Test
+    void lote_falloInesperado_seConfirmaReservaPorReserva() throws Exception {
+        cola = iniciar();
+        List<String> tickets = encolar(1, 1, FALLA, 1);
+        liberarPrimerLote.countDown();
+        esperarResueltas(tickets.size());
+
+        assertThat(estados(tickets)).containsExactly(EstadoTicket.CONFIRMADA, EstadoTicket.CONFIRMADA,
+                EstadoTicket.RECHAZADA, EstadoTicket.CONFIRMADA);
+        assertThat(cola.consultar(tickets.get(2), PROPIETARIO, false).getMensaje())
+                .isEqualTo(MessageKeys.RESERVA_ERROR_INESPERADO);
+        assertThat(cola.estadisticas().lotesDivididos()).isEqualTo(1);
+        assertThat(solas).hasValue(3);
+    }
+
+    @Test
+    void consultar_ticketDeOtroUsuario_noExisteSalvoParaAdmin() throws Exception {
+        cola = iniciar();
+        String ticket = encolar(1).get(0);
+        liberarPrimerLote.countDown();
+        esperarResueltas(1);
+
+        assertThatThrownBy(() -> cola.consultar(ticket, PROPIETARIO + 1, false))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> cola.consultar(ticket, null, false))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(cola.consultar(ticket, PROPIETARIO + 1, true).getEstado())
+                .isEqualTo(EstadoTicket.CONFIRMADA.name());
+    }
+
+    private ColaReservas iniciar() {
+        StaticMessageSource mensajes = new StaticMessageSource();
+        mensajes.setUseCodeAsDefaultMessage(true);
+        ColaReservas nueva = new ColaReservas(reservaService(), new MessageUtils(mensajes));
+        ReflectionTestUtils.setField(nueva, "habilitada", true);
+        ReflectionTestUtils.setField(nueva, "capacidad", 100);
+        ReflectionTestUtils.setField(nueva, "numeroTrabajadores", 1);
+        ReflectionTestUtils.setField(nueva, "loteMaximo", 50);
+        ReflectionTestUtils.setField(nueva, "ttlTicketMinutos", 60L);
+        nueva.iniciar();
+        return nueva;
+    }
+
+    private ReservaService reservaService() {
+        Function<ReservaRequest, ReservaResponse> crear = request -> {
+            if (request.getIdPaquete() == FALLA) throw new IllegalStateException("conexion perdida");
+            if (request.getIdPaquete() == SIN_STOCK) {
+                throw new BadRequestException(MessageKeys.STOCK_INSUFICIENTE, SIN_STOCK);
+            }
+            return ReservaResponse.builder().idReserva(ids.incrementAndGet()).build();
+        };
+        return (ReservaService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ReservaService.class }, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "validarParaApi" -> null;
+                    case "crearDesdeApi" -> {
+                        solas.incrementAndGet();
+                        yield crear.apply((ReservaRequest) args[0]);
+                    }
+                    case "crearLoteDesdeApi" -> crearLote(crear, castLista(args[0]));
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    private List<ResultadoLote> crearLote(Function<ReservaRequest, ReservaResponse> crear,
+                                          List<ReservaRequest> requests) throws InterruptedException {
+        if (lotes.getAndIncrement() == 0) {
+            liberarPrimerLote.await(5, TimeUnit.SECONDS);
+        }
+        List<ResultadoLote> resultados = new ArrayList<>();
+        for (ReservaRequest request : requests) {
+            if (request.getIdPaquete() == FALLA) throw new IllegalStateException("conexion perdida");
+            try {
+                resultados.add(new ResultadoLote(crear.apply(request), null));
+            } catch (BadRequestException e) {
+                resultados.add(new ResultadoLote(null, e));
+            }
+        }
+        return resultados;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ReservaRequest> castLista(Object lista) {
+        return (List<ReservaRequest>) lista;
+    }
+
+    private List<String> encolar(int... idsPaquete) throws InterruptedException {
+        List<String> tickets = new ArrayList<>();
+        for (int idPaquete : idsPaquete) {
+            ReservaRequest request = new ReservaRequest();
+            request.setIdUsuario(PROPIETARIO);
+            request.setIdPaquete(idPaquete);
+            tickets.add(cola.encolar(request, PROPIETARIO).getTicket());
+            if (tickets.size() == 1) {
+                // Que el trabajador tome la primera sola antes de encolar las demas
+                long limite = System.currentTimeMillis() + 5_000;
+                while (lotes.get() == 0 && System.currentTimeMillis() < limite) Thread.sleep(5);
+            }
+        }
+        return tickets;
+    }
+
+    private void esperarResueltas(int cantidad) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < limite) {
+            ColaReservas.Estadisticas estadisticas = cola.estadisticas();
+            if (estadisticas.confirmadas() + estadisticas.rechazadas() >= cantidad) return;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Reservas sin resolver: " + cola.estadisticas());
+    }
+
+    private List<EstadoTicket> estados(List<String> tickets) {
+        return tickets.stream()
+                .map(t -> EstadoTicket.valueOf(cola.consultar(t, PROPIETARIO, false).getEstado()))
+                .toList();
+    }
+}
@@ -0,0 +1,120 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.ptirado.nmviajes.catalogo.CatalogoSnapshotHolder;
+import com.ptirado.nmviajes.catalogo.IndiceBusquedaCatalogo;
+import com.ptirado.nmviajes.dto.api.response.BusquedaResponse;
+import com.ptirado.nmviajes.dto.api.response.PaqueteBuscadorResponse;
+import com.ptirado.nmviajes.entity.Destino;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.mapper.PaqueteMapper;
+import com.ptirado.nmviajes.repository.DestinoRepository;
+import com.ptirado.nmviajes.repository.PaqueteRepository;
+import com.ptirado.nmviajes.service.impl.BusquedaServiceImpl;
+
+/**
+ * Busqueda de texto antes de que se cargue la foto del catalogo: el indice ya
+ * responde y los datos de los paquetes se leen de la base de datos.
+ */
+class BusquedaServiceTest {
+
+    private final Destino cusco = destino(1, "Cusco");
+    private final List<Paquete> paquetes = List.of(
+            paquete(1, "Cusco clasico", "ACT"),
+            paquete(2, "Cusco y Machu Picchu", "ACT"),
+            paquete(3, "Cusco retirado", "INA"),
+            paquete(4, "Playas de Mancora", "ACT"));
+    private final AtomicInteger consultasPorIds = new AtomicInteger();
+
+    private final PaqueteRepository paqueteRepository = paqueteRepository();
+    private final IndiceBusquedaCatalogo indice = new IndiceBusquedaCatalogo(paqueteRepository, destinoRepository(), null);
+    // Nunca recibe ApplicationReadyEvent: actual() sigue en null
+    private final CatalogoSnapshotHolder sinFoto = new CatalogoSnapshotHolder(null, null);
+    private final BusquedaService busquedaService =
+            new BusquedaServiceImpl(indice, sinFoto, paqueteRepository, new PaqueteMapper());
+
+    @Test
+    void buscarParaApi_sinFoto_cargaLosPaquetesDelIndiceEnUnaConsulta() {
+        indice.reconstruir();
+
+        BusquedaResponse respuesta = busquedaService.buscarParaApi("cusco", 10);
+
+        // En el orden de relevancia del indice; el inactivo no aparece
+        List<Integer> relevancia = indice.buscarPaquetes("cusco", "ACT", 10).resultados();
+        assertThat(relevancia).containsExactlyInAnyOrder(1, 2);
+        assertThat(respuesta.getPaquetes()).extracting(PaqueteBuscadorResponse::getIdPaquete)
+                .containsExactlyElementsOf(relevancia);
+        assertThat(respuesta.getPaquetes()).extracting(PaqueteBuscadorResponse::getNombreDestino)
+                .containsOnly("Cusco");
+        assertThat(respuesta.getTotalPaquetes()).isEqualTo(2);
+        assertThat(consultasPorIds).hasValue(1);
+    }
+
+    @Test
+    void buscarParaApi_sinFotoNiCoincidencias_noConsultaLaBaseDeDatos() {
+        indice.reconstruir();
+
+        BusquedaResponse respuesta = busquedaService.buscarParaApi("arequipa", 10);
+
+        assertThat(respuesta.getPaquetes()).isEmpty();
+        assertThat(respuesta.getTotalPaquetes()).isZero();
+        assertThat(consultasPorIds).hasValue(0);
+    }
+
+    private PaqueteRepository paqueteRepository() {
+        return (PaqueteRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PaqueteRepository.class }, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "findAllWithDestino" -> paquetes;
+                    case "findByIdInWithDestino" -> {
+                        consultasPorIds.incrementAndGet();
+                        List<?> ids = (List<?>) args[0];
+                        // El IN no conserva el orden de los IDs: aqui salen al reves
+                        yield paquetes.stream()
+                                .filter(p -> ids.contains(p.getIdPaquete()))
+                                .sorted(Comparator.comparing((Paquete p) -> ids.indexOf(p.getIdPaquete())).reversed())
+                                .toList();
+                    }
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    private static DestinoRepository destinoRepository() {
+        return (DestinoRepository) Proxy.newProxyInstance(BusquedaServiceTest.class.getClassLoader(),
+                new Class<?>[] { DestinoRepository.class }, (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("findAll")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    return List.of();
+                });
+    }
+
+    private Paquete paquete(int id, String nombre, String estado) {
+        Paquete paquete = new Paquete();
+        paquete.setIdPaquete(id);
+        paquete.setNombre(nombre);
+        paquete.setEstado(estado);
+        paquete.setPrecio(new BigDecimal("1500.00"));
+        paquete.setFechaInicio(LocalDate.of(2026, 11, 1));
+        paquete.setFechaFin(LocalDate.of(2026, 11, 5));
+        paquete.setStockDisponible(10);
+        paquete.setDestino(id == 4 ? destino(2, "Piura") : cusco);
+        return paquete;
+    }
+
+    private static Destino destino(int id, String nombre) {
+        Destino destino = new Destino();
+        destino.setIdDestino(id);
+        destino.setNombre(nombre);
+        return destino;
+    }
+}
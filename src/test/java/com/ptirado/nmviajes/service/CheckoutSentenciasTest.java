@@ -0,0 +1,118 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CatalogoLecturaProyector;
+import com.ptirado.nmviajes.dto.api.request.CarritoItemRequest;
+import com.ptirado.nmviajes.dto.api.request.ServicioAdicionalItemRequest;
+
+/**
+ * El checkout del carrito ejecuta la misma cantidad de sentencias con un item
+ * que con diez, incluidos los oyentes del cambio de stock (modelo de lectura,
+ * foto del catalogo e indices) que corren en el mismo hilo.
+ */
+class CheckoutSentenciasTest extends PruebaIntegracionMySql {
+
+    private static final int PAQUETES = 10;
+    private static final int STOCK_INICIAL = 5;
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CatalogoLecturaProyector proyector;
+
+    private SemillaReservas semilla;
+    private Integer idUsuario;
+    private final List<Integer> idsPaquete = new ArrayList<>();
+    private List<Integer> idsServicio;
+
+    @BeforeEach
+    void sembrar() {
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            idUsuario = semilla.crearUsuario("checkout.prueba@example.com");
+            idsServicio = jdbcTemplate.queryForList(
+                    "SELECT id_servicio FROM servicio_adicional WHERE estado = 'ACT' ORDER BY id_servicio LIMIT 2",
+                    Integer.class);
+            Integer idDestino = jdbcTemplate.queryForObject("SELECT MIN(id_destino) FROM destino", Integer.class);
+            for (int i = 0; i < PAQUETES; i++) {
+                jdbcTemplate.update("""
+                        INSERT INTO paquete (nombre, precio, fecha_inicio, fecha_fin, stock_disponible, id_destino, estado)
+                        VALUES (?, 1000, ?, ?, ?, ?, 'ACT')
+                        """, "Checkout " + i, LocalDate.now().plusDays(30), LocalDate.now().plusDays(35),
+                        STOCK_INICIAL, idDestino);
+                Integer idPaquete = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+                proyector.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(idPaquete));
+                idsPaquete.add(idPaquete);
+            }
+        });
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM carrito WHERE id_usuario = ?", idUsuario);
+            semilla.eliminarUsuario(idUsuario);
+            for (Integer idPaquete : idsPaquete) {
+                jdbcTemplate.update("DELETE FROM inventario_movimiento WHERE id_paquete = ?", idPaquete);
+                jdbcTemplate.update("DELETE FROM inventario_snapshot WHERE id_paquete = ?", idPaquete);
+                jdbcTemplate.update("DELETE FROM catalogo_lectura WHERE id_paquete = ?", idPaquete);
+                jdbcTemplate.update("DELETE FROM paquete WHERE id_paquete = ?", idPaquete);
+            }
+        });
+    }
+
+    @Test
+    void procesarCompra_sentenciasNoDependenDeLosItems() {
+        long conUnItem = comprar(1);
+        long conDiezItems = comprar(PAQUETES);
+
+        assertThat(conDiezItems).isEqualTo(conUnItem);
+        assertThat(stock(idsPaquete.get(0))).isEqualTo(STOCK_INICIAL - 2);
+        assertThat(stock(idsPaquete.get(PAQUETES - 1))).isEqualTo(STOCK_INICIAL - 1);
+        assertThat(carritoService.contarItemsParaApi(idUsuario)).isZero();
+    }
+
+    // Llena el carrito con un item por paquete (dos servicios cada uno) y cuenta las sentencias del checkout
+    private long comprar(int items) {
+        List<ServicioAdicionalItemRequest> servicios = idsServicio.stream()
+                .map(id -> ServicioAdicionalItemRequest.builder().idServicio(id).cantidad(1).build())
+                .toList();
+        for (int i = 0; i < items; i++) {
+            carritoService.agregarItemParaApi(idUsuario, CarritoItemRequest.builder()
+                    .idPaquete(idsPaquete.get(i))
+                    .fechaViajeInicio(LocalDate.now().plusDays(30))
+                    .serviciosAdicionales(servicios)
+                    .build());
+        }
+
+        iniciarConteo();
+        carritoService.procesarCompraParaApi(idUsuario);
+        return sentencias();
+    }
+
+    private int stock(Integer idPaquete) {
+        return jdbcTemplate.queryForObject(
+                "SELECT stock_disponible FROM paquete WHERE id_paquete = ?", Integer.class, idPaquete);
+    }
+}
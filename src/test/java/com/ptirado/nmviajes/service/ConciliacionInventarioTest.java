@@ -0,0 +1,107 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CatalogoLecturaProyector;
+import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
+import com.ptirado.nmviajes.inventario.LibroInventario;
+import com.ptirado.nmviajes.repository.InventarioMovimientoRepository;
+
+/**
+ * La conciliacion no marca los paquetes cuyo stock cambio por el libro
+ * (alta, reserva) y si los que cambiaron por fuera de el.
+ */
+class ConciliacionInventarioTest extends PruebaIntegracionMySql {
+
+    private static final int STOCK_INICIAL = 5;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private LibroInventario libroInventario;
+
+    @Autowired
+    private InventarioMovimientoRepository movimientoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CatalogoLecturaProyector proyector;
+
+    private SemillaReservas semilla;
+    private Integer idUsuario;
+    private Integer idPaquete;
+
+    @BeforeEach
+    void sembrar() {
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            idUsuario = semilla.crearUsuario("conciliacion.prueba@example.com");
+            Integer idDestino = jdbcTemplate.queryForObject("SELECT MIN(id_destino) FROM destino", Integer.class);
+            jdbcTemplate.update("""
+                    INSERT INTO paquete (nombre, precio, fecha_inicio, fecha_fin, stock_disponible, id_destino, estado)
+                    VALUES ('Conciliacion', 1000, ?, ?, ?, ?, 'ACT')
+                    """, LocalDate.now().plusDays(30), LocalDate.now().plusDays(35), STOCK_INICIAL, idDestino);
+            idPaquete = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+            // Como el alta desde el administrador
+            libroInventario.registrarAjuste(idPaquete, null, STOCK_INICIAL);
+            proyector.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(idPaquete));
+        });
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            semilla.eliminarUsuario(idUsuario);
+            jdbcTemplate.update("DELETE FROM inventario_movimiento WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM inventario_snapshot WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM catalogo_lectura WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM paquete WHERE id_paquete = ?", idPaquete);
+        });
+    }
+
+    @Test
+    void conciliar_stockCambiadoFueraDelLibro_loMarca() {
+        ReservaRequest request = new ReservaRequest();
+        request.setIdUsuario(idUsuario);
+        request.setIdPaquete(idPaquete);
+        request.setFechaViajeInicio(LocalDate.now().plusDays(30));
+        reservaService.crearDesdeApi(request);
+        libroInventario.compactar();
+
+        assertThat(descuadre()).isNull();
+
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.update(
+                "UPDATE paquete SET stock_disponible = stock_disponible - 1 WHERE id_paquete = ?", idPaquete));
+
+        assertThat(descuadre()).containsExactly(STOCK_INICIAL - 2, STOCK_INICIAL - 1);
+        assertThat(libroInventario.conciliar()).isPositive();
+        assertThat(libroInventario.estadisticas().descuadres()).isPositive();
+    }
+
+    // [stock real, stock segun el libro] del paquete de la prueba, o null si coinciden
+    private List<Integer> descuadre() {
+        return transactionTemplate.execute(tx -> movimientoRepository.buscarDescuadres().stream()
+                .filter(fila -> ((Number) fila[0]).intValue() == idPaquete)
+                .map(fila -> List.of(((Number) fila[1]).intValue(), ((Number) fila[2]).intValue()))
+                .findFirst()
+                .orElse(null));
+    }
+}
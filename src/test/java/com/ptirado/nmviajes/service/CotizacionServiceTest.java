@@ -0,0 +1,120 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.dto.api.request.ServicioAdicionalItemRequest;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.entity.ServicioAdicional;
+import com.ptirado.nmviajes.exception.api.NotFoundException;
+import com.ptirado.nmviajes.repository.ServicioAdicionalRepository;
+import com.ptirado.nmviajes.service.CotizacionService.Cotizacion;
+import com.ptirado.nmviajes.service.CotizacionService.Linea;
+import com.ptirado.nmviajes.service.impl.CotizacionServiceImpl;
+
+/**
+ * Cotizacion de un paquete con servicios adicionales: los servicios se
+ * resuelven con una sola consulta sin importar cuantos se pidan.
+ */
+class CotizacionServiceTest {
+
+    private final Map<Integer, ServicioAdicional> servicios = Map.of(
+            1, servicio(1, "Seguro", "50.00"),
+            2, servicio(2, "Traslado", "30.00"),
+            3, servicio(3, "Guia", "80.00"));
+    private final List<List<Integer>> consultas = new ArrayList<>();
+
+    private final CotizacionService cotizacionService = new CotizacionServiceImpl(servicioRepository());
+    private final Paquete paquete = paquete("1000.00");
+
+    @Test
+    void cotizar_repetidos_sumaCantidadesYConservaElOrdenPedido() {
+        Cotizacion cotizacion = cotizacionService.cotizar(paquete, List.of(
+                item(3, 1), item(1, 2), item(3, 2), item(2, 1), item(1, 1)));
+
+        assertThat(cotizacion.lineas()).extracting(l -> l.servicio().getIdServicio(), Linea::cantidad)
+                .containsExactly(tuple(3, 3), tuple(1, 3), tuple(2, 1));
+        // 1000 + 3 * 80 + 3 * 50 + 30
+        assertThat(cotizacion.subtotal()).isEqualByComparingTo("1420.00");
+        assertThat(consultas).containsExactly(List.of(3, 1, 2));
+    }
+
+    @Test
+    void cotizar_entradasSinServicioOCantidadValida_seIgnoran() {
+        Cotizacion cotizacion = cotizacionService.cotizar(paquete, Arrays.asList(
+                item(null, 2), item(1, null), item(2, 0), item(3, -1), item(2, 1)));
+
+        assertThat(cotizacion.lineas()).extracting(l -> l.servicio().getIdServicio()).containsExactly(2);
+        assertThat(cotizacion.subtotal()).isEqualByComparingTo("1030.00");
+        assertThat(consultas).containsExactly(List.of(2));
+    }
+
+    @Test
+    void cotizar_sinServicios_noConsulta() {
+        assertThat(cotizacionService.cotizar(paquete, null).subtotal()).isEqualByComparingTo("1000.00");
+        assertThat(cotizacionService.cotizar(paquete, List.of()).lineas()).isEmpty();
+        assertThat(cotizacionService.cotizar(paquete, List.of(item(1, 0))).lineas()).isEmpty();
+
+        assertThat(consultas).isEmpty();
+    }
+
+    @Test
+    void cotizar_servicioInexistente_notFoundConElPrimeroQueFalta() {
+        assertThatThrownBy(() -> cotizacionService.cotizar(paquete, List.of(item(1, 1), item(9, 1), item(8, 1))))
+                .isInstanceOfSatisfying(NotFoundException.class, e -> {
+                    assertThat(e.getMessageKey()).isEqualTo(MessageKeys.SERVICIO_NOT_FOUND);
+                    assertThat(e.getArgs()).containsExactly(9);
+                });
+        assertThat(consultas).containsExactly(List.of(1, 9, 8));
+    }
+
+    private ServicioAdicionalRepository servicioRepository() {
+        return (ServicioAdicionalRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ServicioAdicionalRepository.class }, (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("findAllById")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    List<Integer> ids = new ArrayList<>();
+                    ((Iterable<?>) args[0]).forEach(id -> ids.add((Integer) id));
+                    consultas.add(ids);
+                    // El IN no conserva el orden pedido: aqui salen ordenados por ID descendente
+                    return ids.stream()
+                            .filter(servicios::containsKey)
+                            .sorted(Comparator.reverseOrder())
+                            .map(servicios::get)
+                            .toList();
+                });
+    }
+
+    private static ServicioAdicionalItemRequest item(Integer idServicio, Integer cantidad) {
+        return new ServicioAdicionalItemRequest(idServicio, cantidad);
+    }
+
+    private static ServicioAdicional servicio(int id, String nombre, String costo) {
+        ServicioAdicional servicio = new ServicioAdicional();
+        servicio.setIdServicio(id);
+        servicio.setNombre(nombre);
+        servicio.setCosto(new BigDecimal(costo));
+        servicio.setEstado("ACT");
+        return servicio;
+    }
+
+    private static Paquete paquete(String precio) {
+        Paquete paquete = new Paquete();
+        paquete.setIdPaquete(1);
+        paquete.setPrecio(new BigDecimal(precio));
+        return paquete;
+    }
+}
@@ -0,0 +1,215 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CatalogoLecturaProyector;
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.controller.api.AdminApiController;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+import com.ptirado.nmviajes.inventario.ExpiracionReservas;
+import com.ptirado.nmviajes.inventario.ExpiracionReservas.Expiracion;
+
+/**
+ * Expiracion de reservas pendientes por lotes. Las reservas de la prueba se
+ * crean con veinte anos de antiguedad y el TTL se sube a diez, asi la tarea
+ * solo toca estas y no las de las migraciones.
+ */
+class ExpiracionReservasTest extends PruebaIntegracionMySql {
+
+    private static final int STOCK_INICIAL = 10;
+    private static final long TTL_DIEZ_ANOS = 10L * 365 * 24 * 60;
+
+    @Autowired
+    private ExpiracionReservas expiracionReservas;
+
+    @Autowired
+    private AdminApiController adminApiController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CatalogoLecturaProyector proyector;
+
+    private SemillaReservas semilla;
+    private Integer idUsuario;
+    private Integer idPaquete;
+    private Object ttlOriginal;
+    private Object loteOriginal;
+
+    // Por antiguedad: la primera es la mas vieja y la que se bloquea
+    private Integer bloqueada;
+    private Integer dosItems;
+    private Integer unItem;
+
+    @BeforeEach
+    void sembrar() {
+        ttlOriginal = ReflectionTestUtils.getField(expiracionReservas, "ttlMinutos");
+        loteOriginal = ReflectionTestUtils.getField(expiracionReservas, "lote");
+        ReflectionTestUtils.setField(expiracionReservas, "ttlMinutos", TTL_DIEZ_ANOS);
+        ReflectionTestUtils.setField(expiracionReservas, "lote", 2);
+
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            idUsuario = semilla.crearUsuario("expiracion.prueba@example.com");
+            Integer idDestino = jdbcTemplate.queryForObject("SELECT MIN(id_destino) FROM destino", Integer.class);
+            jdbcTemplate.update("""
+                    INSERT INTO paquete (nombre, precio, fecha_inicio, fecha_fin, stock_disponible, id_destino, estado)
+                    VALUES ('Expiracion', 1000, ?, ?, ?, ?, 'ACT')
+                    """, LocalDate.now().plusDays(30), LocalDate.now().plusDays(35), STOCK_INICIAL, idDestino);
+            idPaquete = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+            proyector.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(idPaquete));
+
+            bloqueada = crearReservaVieja(2, 1);
+            dosItems = crearReservaVieja(1, 2);
+            unItem = crearReservaVieja(0, 1);
+        });
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+    }
+
+    @AfterEach
+    void limpiar() {
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(expiracionReservas, "ttlMinutos", ttlOriginal);
+        ReflectionTestUtils.setField(expiracionReservas, "lote", loteOriginal);
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM inventario_movimiento WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM inventario_snapshot WHERE id_paquete = ?", idPaquete);
+            semilla.eliminarUsuario(idUsuario);
+            jdbcTemplate.update("DELETE FROM catalogo_lectura WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM paquete WHERE id_paquete = ?", idPaquete);
+        });
+    }
+
+    @Test
+    void expirar_saltaLasBloqueadasYDevuelveElStockUnaSolaVez() throws Exception {
+        CountDownLatch tomada = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            // Otra transaccion (un pago en curso) tiene la fila de la reserva mas vieja
+            Future<?> pago = hilo.submit(() -> transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.queryForObject(
+                        "SELECT id_reserva FROM reserva WHERE id_reserva = ? FOR UPDATE", Integer.class, bloqueada);
+                tomada.countDown();
+                esperar(soltar);
+            }));
+            assertThat(tomada.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Un lote completo con las otras dos y uno vacio: la bloqueada se salta sin esperarla
+            assertThat(expiracionReservas.expirar()).isEqualTo(new Expiracion(2, 3));
+            assertThat(estado(bloqueada)).isEqualTo("PENDIENTE");
+            assertThat(estado(dosItems)).isEqualTo("CANCELADA");
+            assertThat(estado(unItem)).isEqualTo("CANCELADA");
+            assertThat(stock()).isEqualTo(STOCK_INICIAL + 3);
+
+            soltar.countDown();
+            pago.get(5, TimeUnit.SECONDS);
+        } finally {
+            soltar.countDown();
+            hilo.shutdownNow();
+        }
+
+        assertThat(expiracionReservas.expirar()).isEqualTo(new Expiracion(1, 1));
+        assertThat(estado(bloqueada)).isEqualTo("CANCELADA");
+        assertThat(stock()).isEqualTo(STOCK_INICIAL + 4);
+        assertThat(movimientos("EXPIRACION")).isEqualTo(4);
+    }
+
+    @Test
+    void cambiarEstadoReserva_yaExpirada_noDevuelveCuposNiLaPaga() {
+        assertThat(expiracionReservas.expirar()).isEqualTo(new Expiracion(3, 4));
+
+        assertThatThrownBy(() -> adminApiController.cambiarEstadoReserva(dosItems, Map.of("estado", "CANCELADA")))
+                .isInstanceOfSatisfying(BadRequestException.class,
+                        e -> assertThat(e.getMessageKey()).isEqualTo(MessageKeys.RESERVA_CANCELADA));
+        assertThatThrownBy(() -> adminApiController.cambiarEstadoReserva(unItem, Map.of("estado", "PAGADA")))
+                .isInstanceOfSatisfying(BadRequestException.class,
+                        e -> assertThat(e.getMessageKey()).isEqualTo(MessageKeys.RESERVA_CANCELADA));
+
+        assertThat(estado(unItem)).isEqualTo("CANCELADA");
+        assertThat(stock()).isEqualTo(STOCK_INICIAL + 4);
+        assertThat(movimientos("CANCELACION")).isZero();
+    }
+
+    @Test
+    void cambiarEstadoReserva_pendiente_laExpiracionYaNoDevuelveSusCupos() {
+        adminApiController.cambiarEstadoReserva(dosItems, Map.of("estado", "CANCELADA"));
+        assertThat(stock()).isEqualTo(STOCK_INICIAL + 2);
+
+        assertThat(expiracionReservas.expirar()).isEqualTo(new Expiracion(2, 2));
+        assertThatThrownBy(() -> adminApiController.cambiarEstadoReserva(dosItems, Map.of("estado", "CANCELADA")))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(stock()).isEqualTo(STOCK_INICIAL + 4);
+        assertThat(movimientos("CANCELACION")).isEqualTo(2);
+        assertThat(movimientos("EXPIRACION")).isEqualTo(2);
+    }
+
+    private Integer crearReservaVieja(int diasExtra, int items) {
+        jdbcTemplate.update("""
+                INSERT INTO reserva (id_usuario, total_pagar, estado_reserva, estado, fecha_creacion)
+                VALUES (?, 100, 'PENDIENTE', 'ACT', NOW() - INTERVAL 20 YEAR - INTERVAL ? DAY)
+                """, idUsuario, diasExtra);
+        Integer idReserva = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+        for (int i = 0; i < items; i++) {
+            jdbcTemplate.update("""
+                    INSERT INTO reserva_item (id_reserva, id_paquete, fecha_viaje_inicio, subtotal)
+                    VALUES (?, ?, CURDATE(), 50)
+                    """, idReserva, idPaquete);
+        }
+        return idReserva;
+    }
+
+    private String estado(Integer idReserva) {
+        return jdbcTemplate.queryForObject(
+                "SELECT estado_reserva FROM reserva WHERE id_reserva = ?", String.class, idReserva);
+    }
+
+    private int stock() {
+        return jdbcTemplate.queryForObject(
+                "SELECT stock_disponible FROM paquete WHERE id_paquete = ?", Integer.class, idPaquete);
+    }
+
+    private int movimientos(String motivo) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(cantidad), 0) FROM inventario_movimiento
+                WHERE id_paquete = ? AND motivo = ?
+                """, Integer.class, idPaquete, motivo);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.entity.Paquete;
+import com.ptirado.nmviajes.entity.Reserva;
+import com.ptirado.nmviajes.entity.ReservaItem;
+import com.ptirado.nmviajes.entity.ReservaItemServicio;
+import com.ptirado.nmviajes.entity.ReservaItemServicioId;
+import com.ptirado.nmviajes.entity.ServicioAdicional;
+import com.ptirado.nmviajes.entity.Usuario;
+import com.ptirado.nmviajes.repository.ReservaRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Viajes al servidor para insertar una reserva de N items con M servicios cada
+ * uno. Con IDs por bloques (tablas {@code <tabla>_seq}), lotes JDBC y
+ * {@code rewriteBatchedStatements} salen tres INSERT multi-fila, uno por tabla;
+ * con IDs asignados en cada INSERT (IDENTITY) o sin lotes, uno por fila.
+ *
+ * <p>Cuenta los INSERT que recibe MySQL ({@code Com_insert} de la sesion) en la
+ * conexion de la propia transaccion, que despues se revierte.</p>
+ */
+class InsercionPorLotesTest extends PruebaIntegracionMySql {
+
+    private static final int ITEMS = 10;
+    private static final int SERVICIOS = 3;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private SemillaReservas semilla;
+    private Integer idUsuario;
+
+    @BeforeEach
+    void sembrar() {
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> idUsuario = semilla.crearUsuario("lotes.prueba@example.com"));
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> semilla.eliminarUsuario(idUsuario));
+    }
+
+    @Test
+    void guardar_conLotes_unInsertPorTabla() {
+        long siguienteAntes = siguienteIdItem();
+
+        assertThat(insertsAlGuardar(null)).isEqualTo(3);
+        // Los 10 IDs de items cuestan a lo sumo dos accesos a reserva_item_seq (bloques de 50)
+        assertThat(siguienteIdItem() - siguienteAntes).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void guardar_sinLotes_unInsertPorFila() {
+        // Mismos viajes que con IDENTITY: 1 + N + N * M
+        assertThat(insertsAlGuardar(1)).isEqualTo(1 + ITEMS + ITEMS * SERVICIOS);
+    }
+
+    private long insertsAlGuardar(Integer tamanoLote) {
+        return transactionTemplate.execute(tx -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanoLote);
+            Reserva reserva = construirReserva();
+
+            long antes = comInsert();
+            reservaRepository.save(reserva);
+            entityManager.flush();
+            long inserts = comInsert() - antes;
+
+            tx.setRollbackOnly();
+            return inserts;
+        });
+    }
+
+    private Reserva construirReserva() {
+        Integer idPaquete = jdbcTemplate.queryForObject("SELECT MIN(id_paquete) FROM paquete", Integer.class);
+        List<Integer> servicios = jdbcTemplate.queryForList(
+                "SELECT id_servicio FROM servicio_adicional ORDER BY id_servicio LIMIT " + SERVICIOS, Integer.class);
+
+        Reserva reserva = new Reserva();
+        reserva.setUsuario(entityManager.getReference(Usuario.class, idUsuario));
+        reserva.setTotalPagar(BigDecimal.valueOf(100L * ITEMS));
+
+        List<ReservaItem> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            ReservaItem item = new ReservaItem();
+            item.setReserva(reserva);
+            item.setPaquete(entityManager.getReference(Paquete.class, idPaquete));
+            item.setFechaViajeInicio(LocalDate.now().plusDays(30));
+            item.setSubtotal(BigDecimal.valueOf(100));
+
+            List<ReservaItemServicio> lineas = new ArrayList<>(SERVICIOS);
+            for (Integer idServicio : servicios) {
+                ReservaItemServicio linea = new ReservaItemServicio();
+                linea.setId(new ReservaItemServicioId(null, idServicio));
+                linea.setReservaItem(item);
+                linea.setServicioAdicional(entityManager.getReference(ServicioAdicional.class, idServicio));
+                linea.setCantidad(1);
+                lineas.add(linea);
+            }
+            item.setServicios(lineas);
+            items.add(item);
+        }
+        reserva.setItems(items);
+        return reserva;
+    }
+
+    // Dentro de la transaccion JdbcTemplate usa la misma conexion que Hibernate
+    private long comInsert() {
+        return jdbcTemplate.queryForObject("SHOW SESSION STATUS LIKE 'Com_insert'",
+                (rs, i) -> rs.getLong("Value"));
+    }
+
+    private long siguienteIdItem() {
+        return transactionTemplate.execute(tx ->
+                jdbcTemplate.queryForObject("SELECT next_val FROM reserva_item_seq", Long.class));
+    }
+}
@@ -0,0 +1,109 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
+import com.ptirado.nmviajes.dto.api.response.PaqueteResponse;
+import com.ptirado.nmviajes.viewmodel.ReservaView;
+
+/**
+ * Los listados leidos con proyecciones (PaqueteFila, ReservaFila) ejecutan
+ * una cantidad fija de sentencias, sin cargas perezosas por item, paquete,
+ * destino o servicio.
+ */
+class ListadosProyeccionTest extends PruebaIntegracionMySql {
+
+    private static final int RESERVAS = 30;
+
+    @Autowired
+    private PaqueteService paqueteService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private SemillaReservas semilla;
+    private Integer conUnaReserva;
+    private Integer conVarias;
+
+    @BeforeEach
+    void sembrar() {
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            conUnaReserva = semilla.crearUsuario("listado.una@example.com");
+            semilla.crearReservas(conUnaReserva, 1);
+            conVarias = semilla.crearUsuario("listado.varias@example.com");
+            semilla.crearReservas(conVarias, RESERVAS);
+        });
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            semilla.eliminarUsuario(conUnaReserva);
+            semilla.eliminarUsuario(conVarias);
+        });
+    }
+
+    @Test
+    void listarActivos_unaSentencia() {
+        iniciarConteo();
+        List<PaqueteResponse> activos = paqueteService.listarActivos();
+
+        assertThat(activos).isNotEmpty().allSatisfy(p -> assertThat(p.getNombreDestino()).isNotNull());
+        assertThat(sentencias()).isEqualTo(1);
+    }
+
+    @Test
+    void listarPorUsuarioParaWeb_mismasSentenciasConUnaOVariasReservas() {
+        iniciarConteo();
+        List<ReservaView> una = reservaService.listarPorUsuarioParaWeb(conUnaReserva);
+        long sentenciasUna = sentencias();
+
+        iniciarConteo();
+        List<ReservaView> varias = reservaService.listarPorUsuarioParaWeb(conVarias);
+        long sentenciasVarias = sentencias();
+
+        assertThat(una).hasSize(1);
+        assertThat(varias).hasSize(RESERVAS)
+                .allSatisfy(r -> assertThat(r.getItems().get(0).getServiciosAdicionales()).hasSize(2));
+        // Usuario + proyeccion
+        assertThat(sentenciasUna).isEqualTo(2);
+        assertThat(sentenciasVarias).isEqualTo(sentenciasUna);
+    }
+
+    @Test
+    void listarPorUsuarioParaWebPorCursor_mismasSentenciasConUnaOVariasReservas() {
+        iniciarConteo();
+        PaginaCursorResponse<ReservaView> una = reservaService.listarPorUsuarioParaWebPorCursor(conUnaReserva,
+                null, null, 20);
+        long sentenciasUna = sentencias();
+
+        iniciarConteo();
+        PaginaCursorResponse<ReservaView> varias = reservaService.listarPorUsuarioParaWebPorCursor(conVarias,
+                null, null, 20);
+        long sentenciasVarias = sentencias();
+
+        assertThat(una.getItems()).hasSize(1);
+        assertThat(varias.getItems()).hasSize(20)
+                .allSatisfy(r -> assertThat(r.getItems()).hasSize(2));
+        // Usuario + IDs de la pagina + proyeccion
+        assertThat(sentenciasUna).isEqualTo(3);
+        assertThat(sentenciasVarias).isEqualTo(sentenciasUna);
+    }
+}
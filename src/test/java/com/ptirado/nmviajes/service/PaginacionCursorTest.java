@@ -0,0 +1,108 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.dto.api.response.PaginaCursorResponse;
+import com.ptirado.nmviajes.dto.api.response.ReservaResponse;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+
+/**
+ * Paginacion por cursor de reservas contra la base de datos: las reservas
+ * creadas en el mismo instante se ordenan por ID y ninguna se repite ni se
+ * pierde entre paginas.
+ */
+class PaginacionCursorTest extends PruebaIntegracionMySql {
+
+    private static final int RESERVAS = 7;
+    private static final int LIMITE = 3;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private SemillaReservas semilla;
+    private Integer idUsuario;
+    private List<Integer> idsRecientesPrimero;
+
+    @BeforeEach
+    void sembrar() {
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            idUsuario = semilla.crearUsuario("cursor.empates@example.com");
+            semilla.crearReservas(idUsuario, RESERVAS);
+            // Todas en el mismo instante salvo una, mas reciente
+            jdbcTemplate.update("UPDATE reserva SET fecha_creacion = '2030-01-01 10:00:00' WHERE id_usuario = ?",
+                    idUsuario);
+            jdbcTemplate.update("""
+                    UPDATE reserva SET fecha_creacion = '2030-01-01 11:00:00'
+                    WHERE id_usuario = ? ORDER BY id_reserva LIMIT 1
+                    """, idUsuario);
+        });
+        List<Integer> ids = jdbcTemplate.queryForList(
+                "SELECT id_reserva FROM reserva WHERE id_usuario = ? ORDER BY id_reserva", Integer.class, idUsuario);
+        idsRecientesPrimero = new ArrayList<>(ids.subList(1, ids.size()));
+        idsRecientesPrimero.sort(Comparator.reverseOrder());
+        idsRecientesPrimero.add(0, ids.get(0));
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> semilla.eliminarUsuario(idUsuario));
+    }
+
+    @Test
+    void listarParaApiPorCursor_empatesPorFecha_recorreTodasUnaVezEnAmbosSentidos() {
+        List<PaginaCursorResponse<ReservaResponse>> adelante = new ArrayList<>();
+        PaginaCursorResponse<ReservaResponse> pagina = listar(null, null);
+        adelante.add(pagina);
+        while (pagina.getCursorSiguiente() != null) {
+            pagina = listar(pagina.getCursorSiguiente(), null);
+            adelante.add(pagina);
+        }
+
+        assertThat(adelante).hasSize(3);
+        assertThat(adelante.get(0).getCursorAnterior()).isNull();
+        assertThat(adelante.stream().flatMap(p -> ids(p).stream()).toList())
+                .containsExactlyElementsOf(idsRecientesPrimero);
+
+        // Desde la ultima pagina hacia atras se obtienen las mismas paginas
+        pagina = adelante.get(2);
+        for (int i = 1; i >= 0; i--) {
+            pagina = listar(null, pagina.getCursorAnterior());
+            assertThat(ids(pagina)).containsExactlyElementsOf(ids(adelante.get(i)));
+        }
+        assertThat(pagina.getCursorAnterior()).isNull();
+    }
+
+    @Test
+    void listarParaApiPorCursor_cursorAlterado_badRequest() {
+        assertThatThrownBy(() -> listar("no-es-un-cursor", null)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> listar(null, "%%%")).isInstanceOf(BadRequestException.class);
+    }
+
+    private PaginaCursorResponse<ReservaResponse> listar(String despues, String antes) {
+        return reservaService.listarParaApiPorCursor(idUsuario, null, despues, antes, LIMITE);
+    }
+
+    private static List<Integer> ids(PaginaCursorResponse<ReservaResponse> pagina) {
+        return pagina.getItems().stream().map(ReservaResponse::getIdReserva).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CatalogoLecturaProyector;
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+
+/**
+ * Muchas reservas simultaneas del mismo paquete contra MySQL real: el UPDATE
+ * condicional de stock confirma exactamente tantas reservas como cupos habia y
+ * el stock nunca baja de cero.
+ */
+class ReservaConcurrenciaTest extends PruebaIntegracionMySql {
+
+    private static final int STOCK_INICIAL = 25;
+    private static final int INTENTOS = 400;
+    // Mas hilos que conexiones del pool (20): el generador de IDs pide una conexion
+    // aparte y no debe quedar esperando detras de transacciones que esperan el stock
+    private static final int HILOS = 32;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CatalogoLecturaProyector proyector;
+
+    private SemillaReservas semilla;
+    private Integer idUsuario;
+    private Integer idPaquete;
+
+    @BeforeEach
+    void sembrar() {
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            idUsuario = semilla.crearUsuario("concurrencia.prueba@example.com");
+            Integer idDestino = jdbcTemplate.queryForObject("SELECT MIN(id_destino) FROM destino", Integer.class);
+            jdbcTemplate.update("""
+                    INSERT INTO paquete (nombre, precio, fecha_inicio, fecha_fin, stock_disponible, id_destino, estado)
+                    VALUES ('Venta flash concurrencia', 1000, ?, ?, ?, ?, 'ACT')
+                    """, LocalDate.now().plusDays(30), LocalDate.now().plusDays(35), STOCK_INICIAL, idDestino);
+            idPaquete = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+            // Como al crearlo desde la administracion: la fila proyectada existe antes de reservar
+            proyector.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(idPaquete));
+        });
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            semilla.eliminarUsuario(idUsuario);
+            jdbcTemplate.update("DELETE FROM inventario_movimiento WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM inventario_snapshot WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM catalogo_lectura WHERE id_paquete = ?", idPaquete);
+            jdbcTemplate.update("DELETE FROM paquete WHERE id_paquete = ?", idPaquete);
+        });
+    }
+
+    @Test
+    void crearDesdeApi_reservasSimultaneas_noVendeMasQueElStock() throws Exception {
+        AtomicInteger confirmadas = new AtomicInteger();
+        AtomicInteger sinStock = new AtomicInteger();
+        AtomicInteger stockMinimo = new AtomicInteger(STOCK_INICIAL);
+        AtomicBoolean enCurso = new AtomicBoolean(true);
+
+        ReservaRequest request = ReservaRequest.builder()
+                .idUsuario(idUsuario)
+                .idPaquete(idPaquete)
+                .fechaViajeInicio(LocalDate.now().plusDays(30))
+                .build();
+
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS + 1);
+        try {
+            // Muestrea el stock confirmado mientras llegan las reservas
+            Future<?> muestreo = hilos.submit(() -> {
+                while (enCurso.get()) {
+                    stockMinimo.accumulateAndGet(stockActual(), Math::min);
+                }
+            });
+
+            List<Callable<Void>> reservas = new ArrayList<>(INTENTOS);
+            for (int i = 0; i < INTENTOS; i++) {
+                reservas.add(() -> {
+                    try {
+                        reservaService.crearDesdeApi(request);
+                        confirmadas.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        assertThat(e.getMessage()).isEqualTo(MessageKeys.STOCK_INSUFICIENTE);
+                        sinStock.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> reserva : hilos.invokeAll(reservas, 2, TimeUnit.MINUTES)) {
+                reserva.get();
+            }
+            enCurso.set(false);
+            muestreo.get();
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        Integer reservasGuardadas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reserva_item WHERE id_paquete = ?", Integer.class, idPaquete);
+
+        assertThat(confirmadas).hasValue(STOCK_INICIAL);
+        assertThat(sinStock).hasValue(INTENTOS - STOCK_INICIAL);
+        assertThat(reservasGuardadas).isEqualTo(STOCK_INICIAL);
+        assertThat(stockActual()).isZero();
+        assertThat(stockMinimo.get()).isGreaterThanOrEqualTo(0);
+    }
+
+    private int stockActual() {
+        return jdbcTemplate.queryForObject(
+                "SELECT stock_disponible FROM paquete WHERE id_paquete = ?", Integer.class, idPaquete);
+    }
+}
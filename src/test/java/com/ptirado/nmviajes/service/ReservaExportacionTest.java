@@ -0,0 +1,82 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.dto.api.response.ReservaResponse;
+import com.ptirado.nmviajes.util.JsonStreamUtils;
+
+/**
+ * La exportacion de reservas lee todas las relaciones en una sola consulta en
+ * streaming: la cantidad de sentencias no depende de cuantas reservas, items o
+ * servicios haya.
+ */
+class ReservaExportacionTest extends PruebaIntegracionMySql {
+
+    // Mas de un bloque de JsonStreamUtils, para cruzar al menos una limpieza del contexto
+    private static final int RESERVAS = JsonStreamUtils.TAMANO_BLOQUE + 50;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Integer idUsuario;
+
+    @BeforeEach
+    void sembrar() {
+        SemillaReservas semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            idUsuario = semilla.crearUsuario("export.prueba@example.com");
+            semilla.crearReservas(idUsuario, RESERVAS);
+        });
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> new SemillaReservas(jdbcTemplate).eliminarUsuario(idUsuario));
+    }
+
+    @Test
+    void exportarParaApi_unaSolaConsulta() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        iniciarConteo();
+        reservaService.exportarParaApi(salida);
+        long sentencias = sentencias();
+
+        List<ReservaResponse> exportadas = new ArrayList<>(objectMapper.readValue(
+                salida.toByteArray(), new TypeReference<List<ReservaResponse>>() {}));
+        exportadas.removeIf(r -> !idUsuario.equals(r.getIdUsuario()));
+
+        assertThat(sentencias).isEqualTo(1);
+        assertThat(exportadas).hasSize(RESERVAS);
+        assertThat(exportadas).allSatisfy(reserva -> {
+            assertThat(reserva.getNombreUsuario()).isEqualTo("Semilla Prueba");
+            assertThat(reserva.getItems()).hasSize(2);
+            assertThat(reserva.getItems().get(0).getServiciosAdicionales()).hasSize(2);
+            assertThat(reserva.getItems().get(0).getNombreDestino()).isNotNull();
+            assertThat(reserva.getItems().get(1).getServiciosAdicionales()).isEmpty();
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.ptirado.nmviajes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ptirado.nmviajes.PruebaIntegracionMySql;
+import com.ptirado.nmviajes.catalogo.CatalogoCambiadoEvent;
+import com.ptirado.nmviajes.catalogo.CatalogoLecturaProyector;
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.dto.api.request.ReservaRequest;
+import com.ptirado.nmviajes.exception.api.ApiException;
+import com.ptirado.nmviajes.service.ReservaService.ResultadoLote;
+
+/**
+ * Un lote de reservas asincronas se confirma en una transaccion aunque
+ * algunas solicitudes no tengan cupo: esas se rechazan y las demas se crean.
+ */
+class ReservaLoteTest extends PruebaIntegracionMySql {
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CatalogoLecturaProyector proyector;
+
+    private SemillaReservas semilla;
+    private Integer idUsuario;
+    private Integer escaso;
+    private Integer amplio;
+
+    @BeforeEach
+    void sembrar() {
+        semilla = new SemillaReservas(jdbcTemplate);
+        transactionTemplate.executeWithoutResult(tx -> {
+            idUsuario = semilla.crearUsuario("lote.prueba@example.com");
+            escaso = crearPaquete("Lote escaso", 3);
+            amplio = crearPaquete("Lote amplio", 10);
+        });
+    }
+
+    @AfterEach
+    void limpiar() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            semilla.eliminarUsuario(idUsuario);
+            for (Integer idPaquete : List.of(escaso, amplio)) {
+                jdbcTemplate.update("DELETE FROM inventario_movimiento WHERE id_paquete = ?", idPaquete);
+                jdbcTemplate.update("DELETE FROM inventario_snapshot WHERE id_paquete = ?", idPaquete);
+                jdbcTemplate.update("DELETE FROM catalogo_lectura WHERE id_paquete = ?", idPaquete);
+                jdbcTemplate.update("DELETE FROM paquete WHERE id_paquete = ?", idPaquete);
+            }
+        });
+    }
+
+    @Test
+    void crearLote_sinCupoParaTodas_rechazaSoloLasQueNoAlcanzan() {
+        List<ReservaRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(solicitud(idUsuario, escaso));
+        }
+        requests.add(1, solicitud(idUsuario, amplio));
+        requests.add(solicitud(idUsuario, -1));
+        requests.add(solicitud(-1, amplio));
+
+        List<ResultadoLote> resultados = reservaService.crearLoteDesdeApi(requests);
+
+        // escaso, amplio, escaso, escaso, escaso (sin cupo), escaso (sin cupo), sin paquete, sin usuario
+        assertThat(resultados).extracting(r -> r.reserva() != null)
+                .containsExactly(true, true, true, true, false, false, false, false);
+        assertThat(resultados.subList(4, 8)).extracting(ResultadoLote::rechazo).extracting(ApiException::getMessageKey)
+                .containsExactly(MessageKeys.STOCK_INSUFICIENTE, MessageKeys.STOCK_INSUFICIENTE,
+                        MessageKeys.PAQUETE_NOT_FOUND, MessageKeys.USUARIO_NOT_FOUND);
+        assertThat(resultados.get(1).reserva().getIdReserva()).isNotNull();
+
+        assertThat(stock(escaso)).isZero();
+        assertThat(stock(amplio)).isEqualTo(9);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reserva WHERE id_usuario = ?", Integer.class, idUsuario)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(cantidad), 0) FROM inventario_movimiento WHERE id_paquete = ?",
+                Integer.class, escaso)).isEqualTo(-3);
+    }
+
+    private Integer crearPaquete(String nombre, int stock) {
+        Integer idDestino = jdbcTemplate.queryForObject("SELECT MIN(id_destino) FROM destino", Integer.class);
+        jdbcTemplate.update("""
+                INSERT INTO paquete (nombre, precio, fecha_inicio, fecha_fin, stock_disponible, id_destino, estado)
+                VALUES (?, 1000, ?, ?, ?, ?, 'ACT')
+                """, nombre, LocalDate.now().plusDays(30), LocalDate.now().plusDays(35), stock, idDestino);
+        Integer idPaquete = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+        proyector.onCatalogoCambiado(CatalogoCambiadoEvent.paquete(idPaquete));
+        return idPaquete;
+    }
+
+    private static ReservaRequest solicitud(Integer idUsuario, Integer idPaquete) {
+        ReservaRequest request = new ReservaRequest();
+        request.setIdUsuario(idUsuario);
+        request.setIdPaquete(idPaquete);
+        request.setFechaViajeInicio(LocalDate.now().plusDays(30));
+        return request;
+    }
+
+    private int stock(Integer idPaquete) {
+        return jdbcTemplate.queryForObject(
+                "SELECT stock_disponible FROM paquete WHERE id_paquete = ?", Integer.class, idPaquete);
+    }
+}
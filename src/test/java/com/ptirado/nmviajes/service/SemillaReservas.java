@@ -0,0 +1,59 @@
+package com.ptirado.nmviajes.service;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserta por JDBC un usuario con reservas de dos items (el primero con dos
+ * servicios adicionales) sobre los paquetes y servicios de las migraciones.
+ * Debe llamarse dentro de una transaccion: el pool no usa auto-commit.
+ */
+class SemillaReservas {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SemillaReservas(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    Integer crearUsuario(String email) {
+        jdbcTemplate.update("""
+                INSERT INTO usuario (nombre, apellido, email, password, estado, fecha_creacion)
+                VALUES ('Semilla', 'Prueba', ?, 'x', 'ACT', NOW())
+                """, email);
+        return jdbcTemplate.queryForObject("SELECT id_usuario FROM usuario WHERE email = ?", Integer.class, email);
+    }
+
+    void crearReservas(Integer idUsuario, int cantidad) {
+        Integer idPaquete = jdbcTemplate.queryForObject("SELECT MIN(id_paquete) FROM paquete", Integer.class);
+        List<Integer> servicios = jdbcTemplate.queryForList(
+                "SELECT id_servicio FROM servicio_adicional ORDER BY id_servicio LIMIT 2", Integer.class);
+
+        for (int i = 0; i < cantidad; i++) {
+            jdbcTemplate.update("""
+                    INSERT INTO reserva (id_usuario, total_pagar, estado_reserva, estado, fecha_creacion)
+                    VALUES (?, 100, 'PENDIENTE', 'ACT', NOW())
+                    """, idUsuario);
+            Integer idReserva = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+
+            for (int item = 0; item < 2; item++) {
+                jdbcTemplate.update("""
+                        INSERT INTO reserva_item (id_reserva, id_paquete, fecha_viaje_inicio, subtotal)
+                        VALUES (?, ?, CURDATE(), 50)
+                        """, idReserva, idPaquete);
+            }
+            Integer primerItem = jdbcTemplate.queryForObject(
+                    "SELECT MIN(id_item) FROM reserva_item WHERE id_reserva = ?", Integer.class, idReserva);
+            for (Integer idServicio : servicios) {
+                jdbcTemplate.update("INSERT INTO reserva_item_servicio (id_item, id_servicio, cantidad) VALUES (?, ?, 2)",
+                        primerItem, idServicio);
+            }
+        }
+    }
+
+    void eliminarUsuario(Integer idUsuario) {
+        jdbcTemplate.update("DELETE FROM reserva WHERE id_usuario = ?", idUsuario);
+        jdbcTemplate.update("DELETE FROM usuario WHERE id_usuario = ?", idUsuario);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ptirado.nmviajes.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.ptirado.nmviajes.constants.MessageKeys;
+import com.ptirado.nmviajes.exception.api.BadRequestException;
+import com.ptirado.nmviajes.util.CursorUtils.ClaveFecha;
+
+class CursorUtilsTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2026, 10, 17, 9, 30, 15, 123_000_000);
+
+    @Test
+    void codificar_idaYVuelta() {
+        assertThat(CursorUtils.decodificarId(CursorUtils.codificar(42))).isEqualTo(42);
+        assertThat(CursorUtils.decodificarId(CursorUtils.codificar(Integer.MAX_VALUE))).isEqualTo(Integer.MAX_VALUE);
+        assertThat(CursorUtils.decodificarFechaId(CursorUtils.codificar(FECHA, 7)))
+                .isEqualTo(new ClaveFecha(FECHA, 7));
+        // Segundos en cero: LocalDateTime.toString los omite
+        LocalDateTime enPunto = LocalDateTime.of(2026, 1, 1, 10, 0);
+        assertThat(CursorUtils.decodificarFechaId(CursorUtils.codificar(enPunto, 1)))
+                .isEqualTo(new ClaveFecha(enPunto, 1));
+    }
+
+    @Test
+    void codificar_textoOpacoParaUrl() {
+        assertThat(CursorUtils.codificar(FECHA, 7)).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void decodificar_vacio_esPrimeraPagina() {
+        assertThat(CursorUtils.decodificarId(null)).isNull();
+        assertThat(CursorUtils.decodificarId(" ")).isNull();
+        assertThat(CursorUtils.decodificarFechaId(null)).isNull();
+        assertThat(CursorUtils.decodificarFechaId("")).isNull();
+    }
+
+    @Test
+    void decodificarId_cursorAlterado_badRequest() {
+        for (String cursor : new String[] {
+                "%%%", "a", base64("hola"), base64("99999999999"), base64("-"),
+                CursorUtils.codificar(FECHA, 7) }) {
+            assertCursorInvalido(() -> CursorUtils.decodificarId(cursor), cursor);
+        }
+    }
+
+    @Test
+    void decodificarFechaId_cursorAlterado_badRequest() {
+        for (String cursor : new String[] {
+                "%%%", "a", base64("hola"), CursorUtils.codificar(7),
+                base64("2026-13-45T00:00|7"), base64("2026-10-17T09:30|"), base64("2026-10-17T09:30|x"),
+                base64("|7"), CursorUtils.codificar(FECHA, 7) + "!" }) {
+            assertCursorInvalido(() -> CursorUtils.decodificarFechaId(cursor), cursor);
+        }
+    }
+
+    private static void assertCursorInvalido(Runnable decodificar, String cursor) {
+        assertThatThrownBy(decodificar::run).as(cursor)
+                .isInstanceOfSatisfying(BadRequestException.class, e -> {
+                    assertThat(e.getMessageKey()).isEqualTo(MessageKeys.CURSOR_INVALIDO);
+                    assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+                });
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ptirado.nmviajes.util;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ptirado.nmviajes.config.FormatConfig;
+
+/**
+ * {@link FormatoUtils} frente a NumberFormat y DateTimeFormatter, el camino
+ * anterior de los mappers. Cada hilo usa su propio NumberFormat: la medicion
+ * no incluye el costo de sincronizarlo.
+ *
+ * <pre>mvn test-compile exec:exec -Pbenchmark -Djmh.incluir=FormatoUtils</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatoUtilsBenchmark {
+
+    private final NumberFormat numberFormat = FormatoUtilsTest.numberFormatAnterior();
+    private final DateTimeFormatter formatoFecha = DateTimeFormatter.ofPattern(FormatConfig.PATRON_FECHA);
+
+    private BigDecimal[] precios;
+    private LocalDate[] fechas;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        List<BigDecimal> listaPrecios = FormatoUtilsTest.precios(new Random(7));
+        List<LocalDate> listaFechas = FormatoUtilsTest.fechas(new Random(7));
+        precios = listaPrecios.toArray(BigDecimal[]::new);
+        fechas = listaFechas.toArray(LocalDate[]::new);
+    }
+
+    // Tamano potencia de 2: el indice se recorta con una mascara
+    private int posicion() {
+        return siguiente++ & (precios.length - 1);
+    }
+
+    @Benchmark
+    public String montoNumberFormat() {
+        return numberFormat.format(precios[posicion()]);
+    }
+
+    @Benchmark
+    public String montoFormatoUtils() {
+        return FormatoUtils.monto(precios[posicion()]);
+    }
+
+    @Benchmark
+    public String fechaDateTimeFormatter() {
+        return fechas[posicion()].format(formatoFecha);
+    }
+
+    @Benchmark
+    public String fechaFormatoUtils() {
+        return FormatoUtils.fecha(fechas[posicion()]);
+    }
+}
@@ -0,0 +1,98 @@
+package com.ptirado.nmviajes.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.ptirado.nmviajes.config.FormatConfig;
+
+class FormatoUtilsTest {
+
+    private static final int MUESTRAS = 4_096;
+
+    @Test
+    void monto_igualQueNumberFormat() {
+        NumberFormat numberFormat = numberFormatAnterior();
+        for (BigDecimal precio : precios(new Random(7))) {
+            assertThat(FormatoUtils.monto(precio)).as("%s", precio).isEqualTo(numberFormat.format(precio));
+        }
+        // Empates de redondeo: HALF_EVEN, como DecimalFormat
+        assertThat(FormatoUtils.monto(new BigDecimal("0.125"))).isEqualTo(numberFormat.format(new BigDecimal("0.125")));
+        assertThat(FormatoUtils.monto(new BigDecimal("0.135"))).isEqualTo(numberFormat.format(new BigDecimal("0.135")));
+        assertThat(FormatoUtils.monto(new BigDecimal("-1500.5"))).isEqualTo(numberFormat.format(new BigDecimal("-1500.5")));
+    }
+
+    @Test
+    void fecha_igualQueDateTimeFormatter() {
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern(FormatConfig.PATRON_FECHA);
+        for (LocalDate fecha : fechas(new Random(7))) {
+            // Dos veces: la segunda sale de la cache
+            assertThat(FormatoUtils.fecha(fecha)).isEqualTo(fecha.format(formato));
+            assertThat(FormatoUtils.fecha(fecha)).isEqualTo(fecha.format(formato));
+        }
+        assertThat(FormatoUtils.fechaHora(LocalDateTime.of(2026, 3, 4, 7, 5))).isEqualTo("04/03/2026 07:05");
+    }
+
+    @Test
+    void monto_variosHilos_sinMezclarResultados() throws Exception {
+        List<BigDecimal> precios = precios(new Random(11));
+        NumberFormat numberFormat = numberFormatAnterior();
+        List<String> esperados = precios.stream().map(numberFormat::format).toList();
+
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            for (int h = 0; h < 8; h++) {
+                resultados.add(hilos.submit(() -> {
+                    for (int vuelta = 0; vuelta < 50; vuelta++) {
+                        for (int i = 0; i < precios.size(); i++) {
+                            if (!FormatoUtils.monto(precios.get(i)).equals(esperados.get(i))) return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> resultado : resultados) {
+                assertThat(resultado.get()).isTrue();
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    // Formateador que compartian los mappers antes de FormatoUtils
+    static NumberFormat numberFormatAnterior() {
+        NumberFormat numberFormat = NumberFormat.getNumberInstance(FormatConfig.LOCALE_PE);
+        numberFormat.setMinimumFractionDigits(2);
+        numberFormat.setMaximumFractionDigits(2);
+        return numberFormat;
+    }
+
+    static List<BigDecimal> precios(Random random) {
+        List<BigDecimal> precios = new ArrayList<>(MUESTRAS);
+        for (int i = 0; i < MUESTRAS; i++) {
+            precios.add(BigDecimal.valueOf(random.nextInt(200_000_000), random.nextInt(4)));
+        }
+        return precios;
+    }
+
+    static List<LocalDate> fechas(Random random) {
+        List<LocalDate> fechas = new ArrayList<>(MUESTRAS);
+        for (int i = 0; i < MUESTRAS; i++) {
+            fechas.add(LocalDate.of(2026, 1, 1).plusDays(random.nextInt(400)));
+        }
+        return fechas;
+    }
+}